@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.example;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapPerspectiveType;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.util.PrimitiveArrayPointer;
+
+
+/**
+ * <p>
+ * Records the calibration of the left camera of the first connected device, together with
+ * the results of <code>LeapRectilinearToPixel()</code> and
+ * <code>LeapPixelToRectilinear()</code> for a grid of points.
+ * </p>
+ * <p>
+ * The recording is used by <code>CameraProjectionTest</code> to compare
+ * {@link komposten.leapjna.leapc.devices.CameraProjection CameraProjection} with the
+ * native functions. Run it with a device connected and the tracking service running:
+ * </p>
+ * <pre>
+ * java -Djna.library.path=&lt;LeapC directory&gt; komposten.leapjna.example.ProjectionRecorder [file]
+ * </pre>
+ * <p>
+ * The file defaults to
+ * <code>src/test/resources/komposten/leapjna/leapc/devices/native-projection.csv</code>.
+ * </p>
+ */
+class ProjectionRecorder
+{
+	private static final String DEFAULT_FILE = "src/test/resources/komposten/leapjna/leapc/"
+			+ "devices/native-projection.csv";
+	private static final int CAMERA = eLeapPerspectiveType.Stereo_left.value;
+	private static final long DEVICE_TIMEOUT_MILLIS = 5000;
+
+
+	public static void main(String[] args) throws IOException
+	{
+		Path file = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+
+		LEAP_CONNECTION connection = new LEAP_CONNECTION();
+		LeapC.INSTANCE.LeapCreateConnection(null, connection);
+		eLeapRS result = LeapC.INSTANCE.LeapOpenConnection(connection.handle);
+		if (result != eLeapRS.Success)
+		{
+			System.err.println("Could not open a connection: " + result);
+			return;
+		}
+
+		try
+		{
+			if (!awaitDevice(connection))
+			{
+				System.err.println("No device was connected within "
+						+ DEVICE_TIMEOUT_MILLIS + " ms.");
+				return;
+			}
+
+			if (file.getParent() != null)
+				Files.createDirectories(file.getParent());
+			try (PrintWriter writer = new PrintWriter(
+					Files.newBufferedWriter(file, StandardCharsets.UTF_8)))
+			{
+				record(connection, writer);
+			}
+			System.out.println("Recorded the projection to " + file.toAbsolutePath());
+		}
+		finally
+		{
+			LeapC.INSTANCE.LeapCloseConnection(connection.handle);
+			LeapC.INSTANCE.LeapDestroyConnection(connection.handle);
+		}
+	}
+
+
+	private static boolean awaitDevice(LEAP_CONNECTION connection)
+	{
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		long deadline = System.currentTimeMillis() + DEVICE_TIMEOUT_MILLIS;
+
+		while (System.currentTimeMillis() < deadline)
+		{
+			eLeapRS result = LeapC.INSTANCE.LeapPollConnection(connection.handle, 100, message);
+			if (result == eLeapRS.Success && message.getType() == eLeapEventType.Device)
+				return true;
+		}
+
+		return false;
+	}
+
+
+	private static void record(LEAP_CONNECTION connection, PrintWriter writer)
+	{
+		float[] cameraMatrix = read(9, dest -> LeapC.INSTANCE
+				.LeapCameraMatrix(connection.handle, CAMERA, dest));
+		float[] distortionCoeffs = read(8, dest -> LeapC.INSTANCE
+				.LeapDistortionCoeffs(connection.handle, CAMERA, dest));
+
+		writer.println("# Recorded by " + ProjectionRecorder.class.getName());
+		writer.println("camera_matrix," + join(cameraMatrix));
+		writer.println("distortion_coeffs," + join(distortionCoeffs));
+
+		// Rays across the field of view, plus a few with a z other than 1.
+		for (float y = -1; y <= 1; y += 0.25f)
+		{
+			for (float x = -1; x <= 1; x += 0.25f)
+				recordRectilinearToPixel(connection, writer, x, y, 1);
+		}
+		recordRectilinearToPixel(connection, writer, 0.2f, -0.3f, 2);
+		recordRectilinearToPixel(connection, writer, -0.4f, 0.1f, 0.5f);
+		recordRectilinearToPixel(connection, writer, 0.2f, -0.3f, 0);
+
+		// Pixels across the image, assuming the principal point is near its centre.
+		float width = 2 * cameraMatrix[2];
+		float height = 2 * cameraMatrix[5];
+		for (float y = 0; y <= height; y += height / 8)
+		{
+			for (float x = 0; x <= width; x += width / 8)
+				recordPixelToRectilinear(connection, writer, x, y);
+		}
+	}
+
+
+	private static float[] read(int length, Consumer<PrimitiveArrayPointer> call)
+	{
+		PrimitiveArrayPointer buffer = PrimitiveArrayPointer.floats(length);
+		call.accept(buffer);
+		float[] values = new float[length];
+		buffer.read(0, values, 0, length);
+		return values;
+	}
+
+
+	private static void recordRectilinearToPixel(LEAP_CONNECTION connection,
+			PrintWriter writer, float x, float y, float z)
+	{
+		LEAP_VECTOR.ByValue ray = new LEAP_VECTOR.ByValue(x, y, z);
+		LEAP_VECTOR pixel = LeapC.INSTANCE.LeapRectilinearToPixel(connection.handle, CAMERA,
+				ray);
+		writer.println("rectilinear_to_pixel," + join(x, y, z, pixel.x, pixel.y));
+	}
+
+
+	private static void recordPixelToRectilinear(LEAP_CONNECTION connection,
+			PrintWriter writer, float x, float y)
+	{
+		LEAP_VECTOR.ByValue pixel = new LEAP_VECTOR.ByValue(x, y, 0);
+		LEAP_VECTOR ray = LeapC.INSTANCE.LeapPixelToRectilinear(connection.handle, CAMERA,
+				pixel);
+		writer.println("pixel_to_rectilinear," + join(x, y, ray.x, ray.y, ray.z));
+	}
+
+
+	private static String join(float... values)
+	{
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < values.length; i++)
+		{
+			if (i > 0)
+				builder.append(',');
+			builder.append(values[i]);
+		}
+		return builder.toString();
+	}
+}
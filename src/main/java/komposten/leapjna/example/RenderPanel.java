@@ -24,19 +24,18 @@ import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 
 import komposten.leapjna.example.VisualiserBackend.State;
-import komposten.leapjna.leapc.data.LEAP_DIGIT;
-import komposten.leapjna.leapc.data.LEAP_HAND;
 import komposten.leapjna.leapc.data.LEAP_IMAGE;
-import komposten.leapjna.leapc.data.LEAP_VECTOR;
 import komposten.leapjna.leapc.enums.eLeapImageFormat;
 import komposten.leapjna.leapc.events.LEAP_IMAGE_EVENT;
-import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.views.FrameSnapshot;
+import komposten.leapjna.leapc.views.HandFrameBuffer;
+import komposten.leapjna.leapc.views.HandView;
 
 
 class RenderPanel extends JPanel
 {
 	private State state = State.INITIAL;
-	private transient LEAP_TRACKING_EVENT data;
+	private transient volatile FrameSnapshot data;
 	private transient BufferedImage textureLeft;
 	private transient BufferedImage textureRight;
 
@@ -66,7 +65,7 @@ class RenderPanel extends JPanel
 	}
 
 
-	public void setFrameData(LEAP_TRACKING_EVENT data)
+	public void setFrameData(FrameSnapshot data)
 	{
 		this.data = data;
 
@@ -105,8 +104,6 @@ class RenderPanel extends JPanel
 		boolean newTexture = (texture == null || texture.getWidth() != width
 				|| texture.getHeight() != height);
 
-		byte[] imageData = image.getData();
-
 		if (image.properties.getFormat() == eLeapImageFormat.IR)
 		{
 			if (newTexture)
@@ -116,7 +113,12 @@ class RenderPanel extends JPanel
 
 			byte[] textureData = ((DataBufferByte) texture.getRaster().getDataBuffer())
 					.getData();
-			System.arraycopy(imageData, 0, textureData, 0, imageData.length);
+			if (image.getDataSize() > textureData.length)
+			{
+				throw new IllegalStateException("The image data (" + image.getDataSize()
+						+ " bytes) does not fit in the texture (" + textureData.length + " bytes)");
+			}
+			image.copyInto(textureData);
 		}
 
 		return texture;
@@ -165,15 +167,17 @@ class RenderPanel extends JPanel
 			g2d.setColor(Color.BLACK);
 			g2d.drawString(String.format("Drawing FPS: %d", framerate), 10, 15);
 
-			if (data != null)
+			// Read the field once, in case the next frame arrives while painting.
+			FrameSnapshot frame = data;
+			if (frame != null)
 			{
-				for (int i = 0; i < data.getHands().length; i++)
+				for (int i = 0; i < frame.getHandCount(); i++)
 				{
-					drawHand(data.getHands()[i], g2d, offsetX, offsetY);
+					drawHand(frame, i, g2d, offsetX, offsetY);
 				}
 
 				g2d.setColor(Color.BLACK);
-				drawTrackingInfo(g2d);
+				drawTrackingInfo(frame, g2d);
 			}
 		}
 	}
@@ -214,72 +218,69 @@ class RenderPanel extends JPanel
 	}
 
 
-	private void drawHand(LEAP_HAND hand, Graphics2D g2d, int offsetX, int offsetY)
+	private void drawHand(FrameSnapshot frame, int hand, Graphics2D g2d, int offsetX, int offsetY)
 	{
 		g2d.setColor(Color.RED);
-		drawPosition(hand.palm.position, 1, g2d, offsetX, offsetY);
+		drawPosition(frame.getPalmX(hand), frame.getPalmY(hand), frame.getPalmZ(hand), 1, g2d,
+				offsetX, offsetY);
 
 		g2d.setColor(Color.BLUE);
-		drawFinger(hand.digits.thumb, g2d, offsetX, offsetY);
-		drawFinger(hand.digits.index, g2d, offsetX, offsetY);
-		drawFinger(hand.digits.middle, g2d, offsetX, offsetY);
-		drawFinger(hand.digits.ring, g2d, offsetX, offsetY);
-		drawFinger(hand.digits.pinky, g2d, offsetX, offsetY);
+		for (int digit = 0; digit < HandView.DIGIT_COUNT; digit++)
+		{
+			drawFinger(frame, hand, digit, g2d, offsetX, offsetY);
+		}
 	}
 
 
-	private void drawFinger(LEAP_DIGIT finger, Graphics2D g2d, int offsetX, int offsetY)
+	private void drawFinger(FrameSnapshot frame, int hand, int digit, Graphics2D g2d,
+			int offsetX, int offsetY)
 	{
 		g2d.setStroke(new BasicStroke(4, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-		g2d.drawLine((int) finger.metacarpal.prev_joint.x + offsetX,
-				(int) -finger.metacarpal.prev_joint.y + offsetY,
-				(int) finger.metacarpal.next_joint.x + offsetX,
-				(int) -finger.metacarpal.next_joint.y + offsetY);
-		g2d.drawLine((int) finger.proximal.prev_joint.x + offsetX,
-				(int) -finger.proximal.prev_joint.y + offsetY,
-				(int) finger.proximal.next_joint.x + offsetX,
-				(int) -finger.proximal.next_joint.y + offsetY);
-		g2d.drawLine((int) finger.intermediate.prev_joint.x + offsetX,
-				(int) -finger.intermediate.prev_joint.y + offsetY,
-				(int) finger.intermediate.next_joint.x + offsetX,
-				(int) -finger.intermediate.next_joint.y + offsetY);
-		g2d.drawLine((int) finger.distal.prev_joint.x + offsetX,
-				(int) -finger.distal.prev_joint.y + offsetY,
-				(int) finger.distal.next_joint.x + offsetX,
-				(int) -finger.distal.next_joint.y + offsetY);
-		drawPosition(finger.distal.next_joint, 0.5f, g2d, offsetX, offsetY);
+		for (int bone = 0; bone < HandFrameBuffer.JOINTS_PER_DIGIT - 1; bone++)
+		{
+			int prev = HandFrameBuffer.digitJoint(digit, bone);
+			int next = HandFrameBuffer.digitJoint(digit, bone + 1);
+			g2d.drawLine((int) frame.getJointX(hand, prev) + offsetX,
+					(int) -frame.getJointY(hand, prev) + offsetY,
+					(int) frame.getJointX(hand, next) + offsetX,
+					(int) -frame.getJointY(hand, next) + offsetY);
+		}
+
+		int tip = HandFrameBuffer.digitJoint(digit, HandFrameBuffer.JOINTS_PER_DIGIT - 1);
+		drawPosition(frame.getJointX(hand, tip), frame.getJointY(hand, tip),
+				frame.getJointZ(hand, tip), 0.5f, g2d, offsetX, offsetY);
 	}
 
 
-	private void drawPosition(LEAP_VECTOR position, float scale, Graphics2D g2d,
+	private void drawPosition(float x, float y, float z, float scale, Graphics2D g2d,
 			int offsetX, int offsetY)
 	{
-		int size = (int) ((position.z + 200) / 400 * 20 * scale + 5);
-		g2d.fillRect((int) (position.x + offsetX - size / 2f),
-				(int) (-position.y + offsetY - size / 2d), size, size);
+		int size = (int) ((z + 200) / 400 * 20 * scale + 5);
+		g2d.fillRect((int) (x + offsetX - size / 2f), (int) (-y + offsetY - size / 2d), size,
+				size);
 	}
 
 
-	private void drawTrackingInfo(Graphics2D g2d)
+	private void drawTrackingInfo(FrameSnapshot frame, Graphics2D g2d)
 	{
-		g2d.drawString(String.format("Tracking FPS: %.02f", data.framerate), 10, 30);
+		g2d.drawString(String.format("Tracking FPS: %.02f", frame.getFramerate()), 10, 30);
 
 		float y = 60;
-		for (int i = 0; i < data.nHands; i++)
+		int middleTip = HandFrameBuffer.digitJoint(2, HandFrameBuffer.JOINTS_PER_DIGIT - 1);
+		for (int i = 0; i < frame.getHandCount(); i++)
 		{
-			LEAP_HAND hand = data.getHands()[i];
 			if(i==0){
-				writer.printf("%f %f %f\n", hand.digits.middle.boneArray()[3].next_joint.x, hand.digits.middle.boneArray()[3].next_joint.y, hand.digits.middle.boneArray()[3].next_joint.z);
-				float[] sample = {hand.digits.middle.boneArray()[3].next_joint.x, hand.digits.middle.boneArray()[3].next_joint.y, hand.digits.middle.boneArray()[3].next_joint.z};
+				writer.printf("%f %f %f\n", frame.getJointX(i, middleTip), frame.getJointY(i, middleTip), frame.getJointZ(i, middleTip));
+				float[] sample = {frame.getJointX(i, middleTip), frame.getJointY(i, middleTip), frame.getJointZ(i, middleTip)};
 				outlet.push_sample(sample);
 			}
 			System.out.println(info.channel_count());
-			float roll = hand.palm.orientation.getRoll();
-			float pitch = hand.palm.orientation.getPitch();
-			float yaw = hand.palm.orientation.getYaw();
+			float roll = frame.getPalmRoll(i);
+			float pitch = frame.getPalmPitch(i);
+			float yaw = frame.getPalmYaw(i);
 			float lineHeight = 20;
 
-			g2d.drawString(String.format("Hand %d: %s", i, hand.getType()), 10, y);
+			g2d.drawString(String.format("Hand %d: %s", i, frame.getHandType(i)), 10, y);
 			y += lineHeight;
 			g2d.drawString(String.format("Roll (z): %.02f", Math.toDegrees(roll)), 10, y);
 			y += lineHeight;
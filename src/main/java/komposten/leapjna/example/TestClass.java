@@ -2,21 +2,28 @@ package komposten.leapjna.example;
 
 import komposten.leapjna.leapc.LeapC;
 import komposten.leapjna.leapc.data.*;
+import komposten.leapjna.leapc.devices.Device;
+import komposten.leapjna.leapc.devices.DeviceRegistry;
 import komposten.leapjna.leapc.enums.eLeapEventType;
 import komposten.leapjna.leapc.enums.eLeapPolicyFlag;
 import komposten.leapjna.leapc.enums.eLeapRS;
 import komposten.leapjna.leapc.events.*;
+import komposten.leapjna.leapc.loop.LeapEventBus;
+import komposten.leapjna.leapc.loop.WaitStrategy;
 
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 public class TestClass {
+    private static final long TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(30);
     private static final LSL.StreamOutlet outletPaume;
     private static final LSL.StreamOutlet outletPoignet;
     private static final LSL.StreamOutlet outletMajeurDistal;
     private static final LSL.StreamOutlet outletMajeurIntermediate;
+    private static final DeviceRegistry deviceRegistry = new DeviceRegistry();
 
     static {
         try {
@@ -52,14 +59,37 @@ public class TestClass {
 
     }
 
+    private static LeapEventBus createEventBus(LEAP_CONNECTION leapConnection) {
+        // Image events are not subscribed to, so they are never decoded.
+        LeapEventBus eventBus = new LeapEventBus();
+        eventBus.onConnection(TestClass::handleConnectionEvent);
+        eventBus.onConnectionLost(event -> handleConnectionLostEvent());
+        eventBus.onDevice(TestClass::handleDeviceEvent);
+        eventBus.onDeviceStatusChange(TestClass::handleDeviceStatusChangeEvent);
+        eventBus.onDeviceLost(TestClass::handleDeviceLostEvent);
+        eventBus.onDeviceFailure(TestClass::handleDeviceFailureEvent);
+        eventBus.onPolicy(event -> handlePolicyEvent(event, leapConnection));
+        eventBus.onConfigChange(TestClass::handleConfigChangeEvent);
+        eventBus.on(eLeapEventType.ConfigResponse, TestClass::handleConfigResponseEvent);
+        eventBus.onLog(TestClass::handleLogEvent);
+        eventBus.onTracking(TestClass::handleFrame);
+        return eventBus;
+    }
+
     public static void doPollLoop(LEAP_CONNECTION leapConnection) {
         boolean firstIteration = true;
-
-        eLeapRS previousResult = null;
+        LeapEventBus eventBus = createEventBus(leapConnection);
+        // Set -Dleapjna.waitStrategy (e.g. to spin-park) to trade CPU time for lower latency.
+        WaitStrategy waitStrategy = WaitStrategy.fromProperty(WaitStrategy.blocking(30));
+
+        int idleCount = 0;
+        long lastMessageTime = System.nanoTime();
+        boolean timeoutReported = false;
+        LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+        message.setReuseEvents(true);
         while (true) {
-            LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
-            eLeapRS result = LeapC.INSTANCE.LeapPollConnection(leapConnection.handle, 30,
-                    message);
+            eLeapRS result = LeapC.INSTANCE.LeapPollConnection(leapConnection.handle,
+                    waitStrategy.getTimeout(), message);
 
             if (firstIteration) {
                 // Enable the images and pause policies
@@ -70,24 +100,22 @@ public class TestClass {
             }
 
             if (result == eLeapRS.Timeout) {
-                if (previousResult != eLeapRS.Timeout) {
+                idleCount = waitStrategy.idle(idleCount);
+                // Spinning strategies time out between every frame, so only report long gaps.
+                if (!timeoutReported && System.nanoTime() - lastMessageTime >= TIMEOUT_NANOS) {
+                    timeoutReported = true;
                     System.out.println("Timeout");
                 }
-            } else if (result != eLeapRS.Success) {
-                System.out.println(message.getType());
-            }
-
-            boolean handled = handleInformationalEvents(message, leapConnection);
-
-            if (!handled) {
-                if (message.getType() == eLeapEventType.Tracking) {
-                    handleFrame(message.getTrackingEvent());
-                } else if (message.getType() == eLeapEventType.Image) {
-                    handleImage(message.getImageEvent());
+            } else {
+                idleCount = 0;
+                lastMessageTime = System.nanoTime();
+                timeoutReported = false;
+                if (result != eLeapRS.Success) {
+                    System.out.println(message.getType());
                 }
             }
 
-            previousResult = result;
+            eventBus.dispatch(message);
 
             if (Thread.interrupted()) {
                 break;
@@ -96,52 +124,6 @@ public class TestClass {
 
     }
 
-    private static boolean handleInformationalEvents(LEAP_CONNECTION_MESSAGE message,
-                                                     LEAP_CONNECTION leapConnection) {
-        boolean handled = true;
-
-        switch (message.getType()) {
-            case Connection:
-                handleConnectionEvent(message.getConnectionEvent());
-                break;
-            case ConnectionLost:
-                handleConnectionLostEvent();
-                break;
-            case Device:
-                handleDeviceEvent(message.getDeviceEvent());
-                break;
-            case DeviceStatusChange:
-                handleDeviceStatusChangeEvent(message.getDeviceStatusChangeEvent());
-                break;
-            case DeviceLost:
-                handleDeviceLostEvent(message.getDeviceLostEvent());
-                break;
-            case DeviceFailure:
-                handleDeviceFailureEvent(message.getDeviceFailureEvent());
-                break;
-            case Policy:
-                handlePolicyEvent(message.getPolicyEvent(), leapConnection);
-                break;
-            case ConfigChange:
-                handleConfigChangeEvent(message.getConfigChangeEvent());
-                break;
-            case ConfigResponse:
-                handleConfigResponseEvent(message);
-                break;
-            case LogEvent:
-                handleLogEvent(message.getLogEvent());
-                break;
-            case LogEvents:
-                handleLogEvents(message.getLogEvents());
-                break;
-            default:
-                handled = false;
-                break;
-        }
-
-        return handled;
-    }
-
     private static void handleConnectionEvent(LEAP_CONNECTION_EVENT event) {
         System.out.printf("Connection flags: %s%n", event.getFlags());
     }
@@ -153,53 +135,35 @@ public class TestClass {
 
 
     private static void handleDeviceEvent(LEAP_DEVICE_EVENT event) {
-        eLeapRS result;
-
         // Print device info.
         System.out.println("Device detected");
         System.out.printf("  Id: %d%n", event.device.id);
 
-        // Open the device to retrieve information about it.
-        LEAP_DEVICE phDevice = new LEAP_DEVICE();
-        result = LeapC.INSTANCE.LeapOpenDevice(event.device, phDevice);
+        // Open the device and read its information once; the registry keeps both.
+        eLeapRS result = deviceRegistry.add(event.device);
 
         if (result == eLeapRS.Success) {
-            // Read the length of the device's serial string
-            LEAP_DEVICE_INFO info = new LEAP_DEVICE_INFO();
-            result = LeapC.INSTANCE.LeapGetDeviceInfo(phDevice.handle, info);
-
-            if (result == eLeapRS.InsufficientBuffer || result == eLeapRS.Success) {
-                // Allocate space for the serial and read device info
-                info.allocateSerialBuffer(info.serial_length);
-                result = LeapC.INSTANCE.LeapGetDeviceInfo(phDevice.handle, info);
-
-                if (result == eLeapRS.Success) {
-                    System.out.printf("  Status: %s%n", Arrays.toString(info.getStatus()));
-                    System.out.printf("  Baseline: %d \u00b5m%n", info.baseline);
-                    System.out.printf("  FoV: %.02f\u00b0 x %.02f\u00b0 (HxV)%n",
-                            Math.toDegrees(info.h_fov), Math.toDegrees(info.v_fov));
-                    System.out.printf("  Range: %d \u00b5m%n", info.range);
-                    System.out.printf("  Serial: %s%n", info.serial);
-                    System.out.printf("  Product ID: %s (%d)%n",
-                            LeapC.INSTANCE.LeapDevicePIDToString(info.pid), info.pid);
-                    System.out.printf("  Capabilities: %s%n",
-                            Arrays.toString(info.getCapabilities()));
-
-                    LeapC.INSTANCE.LeapCloseDevice(phDevice.handle);
-                } else {
-                    System.out.printf("Failed to read device info: %s%n", result);
-                }
-            } else {
-                System.out.printf("Failed to read device info to get serial length: %s%n", result);
-            }
+            Device device = deviceRegistry.get(event.device.id);
+            System.out.printf("  Status: %s%n", Arrays.toString(device.getStatus()));
+            System.out.printf("  Baseline: %d \u00b5m%n", device.getBaseline());
+            System.out.printf("  FoV: %.02f\u00b0 x %.02f\u00b0 (HxV)%n",
+                    Math.toDegrees(device.getHorizontalFov()),
+                    Math.toDegrees(device.getVerticalFov()));
+            System.out.printf("  Range: %d \u00b5m%n", device.getRange());
+            System.out.printf("  Serial: %s%n", device.getSerial());
+            System.out.printf("  Product ID: %s (%d)%n",
+                    LeapC.INSTANCE.LeapDevicePIDToString(device.getPidValue()), device.getPidValue());
+            System.out.printf("  Capabilities: %s%n",
+                    Arrays.toString(device.getCapabilities()));
         } else {
-            System.out.printf("Failed to open device: %s%n", result);
+            System.out.printf("Failed to open device or read its info: %s%n", result);
         }
 
     }
 
 
     private static void handleDeviceStatusChangeEvent(LEAP_DEVICE_STATUS_CHANGE_EVENT event) {
+        deviceRegistry.updateStatus(event.device.id, event.status);
         System.out.printf("Device status changed: %d | From %s to %s%n",
                 event.device.id, Arrays.toString(event.getLastStatus()),
                 Arrays.toString(event.getStatus()));
@@ -220,13 +184,6 @@ public class TestClass {
     }
 
 
-    private static void handleLogEvents(LEAP_LOG_EVENTS events) {
-        for (LEAP_LOG_EVENT logEvent : events.getEvents()) {
-            handleLogEvent(logEvent);
-        }
-    }
-
-
     private static void handleDeviceFailureEvent(LEAP_DEVICE_FAILURE_EVENT event) {
         System.out.printf("Device failure: %s%n",
                 Arrays.toString(event.getStatus()));
@@ -234,6 +191,7 @@ public class TestClass {
 
 
     private static void handleDeviceLostEvent(LEAP_DEVICE_EVENT event) {
+        deviceRegistry.remove(event.device.id);
         System.out.printf("Device was lost:%n");
         System.out.printf("  Id: %d%n", event.device.id);
         System.out.printf("  Status: %b%n",
@@ -271,9 +229,4 @@ public class TestClass {
             outletMajeurIntermediate.push_sample(sampleIntermediate);
         }
     }
-
-
-    private static void handleImage(LEAP_IMAGE_EVENT imageEvent) {
-
-    }
 }
@@ -10,6 +10,7 @@
 package komposten.leapjna.example;
 
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import com.sun.jna.ptr.LongByReference;
 
@@ -17,12 +18,13 @@ import komposten.leapjna.example.VisualiserListener.LogType;
 import komposten.leapjna.leapc.LeapC;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
-import komposten.leapjna.leapc.data.LEAP_DEVICE;
-import komposten.leapjna.leapc.data.LEAP_DEVICE_INFO;
 import komposten.leapjna.leapc.data.LEAP_RECORDING;
 import komposten.leapjna.leapc.data.LEAP_RECORDING_PARAMETERS;
 import komposten.leapjna.leapc.data.LEAP_RECORDING_STATUS;
+import komposten.leapjna.leapc.devices.Device;
+import komposten.leapjna.leapc.devices.DeviceRegistry;
 import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
 import komposten.leapjna.leapc.enums.eLeapPolicyFlag;
 import komposten.leapjna.leapc.enums.eLeapRS;
 import komposten.leapjna.leapc.enums.eLeapRecordingFlags;
@@ -33,10 +35,12 @@ import komposten.leapjna.leapc.events.LEAP_DEVICE_EVENT;
 import komposten.leapjna.leapc.events.LEAP_DEVICE_FAILURE_EVENT;
 import komposten.leapjna.leapc.events.LEAP_DEVICE_STATUS_CHANGE_EVENT;
 import komposten.leapjna.leapc.events.LEAP_IMAGE_EVENT;
-import komposten.leapjna.leapc.events.LEAP_LOG_EVENT;
-import komposten.leapjna.leapc.events.LEAP_LOG_EVENTS;
 import komposten.leapjna.leapc.events.LEAP_POLICY_EVENT;
 import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.logging.LogDrainer;
+import komposten.leapjna.leapc.logging.LogRingBuffer;
+import komposten.leapjna.leapc.loop.LeapEventBus;
+import komposten.leapjna.leapc.loop.WaitStrategy;
 
 
 class VisualiserBackend
@@ -49,14 +53,36 @@ class VisualiserBackend
 
 	private static final int FRAME_RATE = 60;
 	private static final float FRAME_TIME = 1000f / FRAME_RATE;
+	/** How long the poll loop can go without messages before a timeout is reported. */
+	private static final long TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(30);
 
 	private VisualiserListener listener;
 
 	private LEAP_CONNECTION leapConnection;
 	private LEAP_RECORDING recording;
+	/**
+	 * Guards {@link #recording}, since LeapC recordings must not be accessed by the poll
+	 * thread and the UI thread at the same time.
+	 */
+	private final Object recordingLock = new Object();
 
 	LongByReference imagesRequestId = new LongByReference();
 
+	/** Formats log events on a background thread, so that log bursts don't stall polling. */
+	private final LogDrainer logDrainer = new LogDrainer(new LogRingBuffer(256, 512),
+			this::handleLogEntry);
+	/** Only decodes the event types that are subscribed to in subscribeEvents(). */
+	private final LeapEventBus eventBus = new LeapEventBus();
+	/**
+	 * How the poll loop waits for messages. Blocking by default; set the
+	 * <code>leapjna.waitStrategy</code> system property to e.g. <code>spin-park</code> to
+	 * trade CPU time for lower latency.
+	 */
+	private final WaitStrategy waitStrategy = WaitStrategy
+			.fromProperty(WaitStrategy.blocking(30));
+	/** Keeps the devices open and their information cached between device events. */
+	private final DeviceRegistry deviceRegistry = new DeviceRegistry();
+
 	private long lastHandledFrame;
 	private long lastHandledImage;
 
@@ -67,6 +93,26 @@ class VisualiserBackend
 	VisualiserBackend(VisualiserListener listener)
 	{
 		this.listener = listener;
+		subscribeEvents();
+	}
+
+
+	private void subscribeEvents()
+	{
+		eventBus.onConnection(this::handleConnectionEvent);
+		eventBus.onConnectionLost(event -> handleConnectionLostEvent());
+		eventBus.onDevice(this::handleDeviceEvent);
+		eventBus.onDeviceStatusChange(this::handleDeviceStatusChangeEvent);
+		eventBus.onDeviceLost(this::handleDeviceLostEvent);
+		eventBus.onDeviceFailure(this::handleDeviceFailureEvent);
+		eventBus.onPolicy(event -> handlePolicyEvent(event, leapConnection));
+		eventBus.onConfigChange(this::handleConfigChangeEvent);
+		eventBus.on(eLeapEventType.ConfigResponse, this::handleConfigResponseEvent);
+		// The drainer checks the severities before decoding, so pass it the raw messages.
+		eventBus.on(eLeapEventType.LogEvent, logDrainer::offer);
+		eventBus.on(eLeapEventType.LogEvents, logDrainer::offer);
+		eventBus.onTracking(this::handleFrame);
+		eventBus.onImage(this::handleImage);
 	}
 
 
@@ -112,12 +158,16 @@ class VisualiserBackend
 	{
 		boolean firstIteration = true;
 
-		eLeapRS previousResult = null;
+		int idleCount = 0;
+		long lastMessageTime = System.nanoTime();
+		boolean timeoutReported = false;
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		message.setReuseEvents(true);
+		logDrainer.start();
 		while (true)
 		{
-			LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
-			eLeapRS result = LeapC.INSTANCE.LeapPollConnection(leapConnection.handle, 30,
-					message);
+			eLeapRS result = LeapC.INSTANCE.LeapPollConnection(leapConnection.handle,
+					waitStrategy.getTimeout(), message);
 
 			if (firstIteration)
 			{
@@ -130,35 +180,33 @@ class VisualiserBackend
 			
 			if (result == eLeapRS.Timeout)
 			{
-				if (previousResult != eLeapRS.Timeout)
+				idleCount = waitStrategy.idle(idleCount);
+
+				// Spinning strategies time out between every frame, so only report long gaps.
+				if (!timeoutReported && System.nanoTime() - lastMessageTime >= TIMEOUT_NANOS)
 				{
+					timeoutReported = true;
 					listener.onLogMessage(LogType.ERROR,
 							"Timed out while polling for events! The tracking service might be paused.");
 					listener.onLogMessage(LogType.SEPARATOR, "");
 				}
 			}
-			else if (result != eLeapRS.Success)
+			else
 			{
-				listener.onLogMessage(LogType.ERROR,
-						"Polling failed with result %s for event type %s", result, message.getType());
-				listener.onLogMessage(LogType.SEPARATOR, "");
-			}
-
-			boolean handled = handleInformationalEvents(message, leapConnection);
+				idleCount = 0;
+				lastMessageTime = System.nanoTime();
+				timeoutReported = false;
 
-			if (!handled)
-			{
-				if (message.getType() == eLeapEventType.Tracking)
-				{
-					handleFrame(message.getTrackingEvent());
-				}
-				else if (message.getType() == eLeapEventType.Image)
+				if (result != eLeapRS.Success)
 				{
-					handleImage(message.getImageEvent());
+					listener.onLogMessage(LogType.ERROR,
+							"Polling failed with result %s for event type %s", result,
+							message.getType());
+					listener.onLogMessage(LogType.SEPARATOR, "");
 				}
 			}
-			
-			previousResult = result;
+
+			eventBus.dispatch(message);
 
 			if (Thread.interrupted())
 			{
@@ -166,6 +214,8 @@ class VisualiserBackend
 			}
 		}
 
+		logDrainer.close();
+		deviceRegistry.close();
 		listener.onLogMessage(LogType.NORMAL, "Closing connection!");
 		listener.onLogMessage(LogType.SEPARATOR, "");
 
@@ -176,55 +226,6 @@ class VisualiserBackend
 	}
 
 
-	private boolean handleInformationalEvents(LEAP_CONNECTION_MESSAGE message,
-			LEAP_CONNECTION leapConnection)
-	{
-		boolean handled = true;
-
-		switch (message.getType())
-		{
-			case Connection :
-				handleConnectionEvent(message.getConnectionEvent());
-				break;
-			case ConnectionLost :
-				handleConnectionLostEvent();
-				break;
-			case Device :
-				handleDeviceEvent(message.getDeviceEvent());
-				break;
-			case DeviceStatusChange :
-				handleDeviceStatusChangeEvent(message.getDeviceStatusChangeEvent());
-				break;
-			case DeviceLost :
-				handleDeviceLostEvent(message.getDeviceLostEvent());
-				break;
-			case DeviceFailure :
-				handleDeviceFailureEvent(message.getDeviceFailureEvent());
-				break;
-			case Policy :
-				handlePolicyEvent(message.getPolicyEvent(), leapConnection);
-				break;
-			case ConfigChange :
-				handleConfigChangeEvent(message.getConfigChangeEvent());
-				break;
-			case ConfigResponse :
-				handleConfigResponseEvent(message);
-				break;
-			case LogEvent :
-				handleLogEvent(message.getLogEvent());
-				break;
-			case LogEvents :
-				handleLogEvents(message.getLogEvents());
-				break;
-			default :
-				handled = false;
-				break;
-		}
-
-		return handled;
-	}
-
-
 	private void handleConnectionEvent(LEAP_CONNECTION_EVENT event)
 	{
 		listener.onLogMessage(LogType.NORMAL, "Connection flags: %s", event.getFlags());
@@ -241,59 +242,34 @@ class VisualiserBackend
 
 	private void handleDeviceEvent(LEAP_DEVICE_EVENT event)
 	{
-		eLeapRS result;
-
 		// Print device info.
 		listener.onLogMessage(LogType.HEADER, "Device detected");
 		listener.onLogMessage(LogType.NORMAL, "  Id: %d", event.device.id);
 
-		// Open the device to retrieve information about it.
-		LEAP_DEVICE phDevice = new LEAP_DEVICE();
-		result = LeapC.INSTANCE.LeapOpenDevice(event.device, phDevice);
+		// Open the device and read its information once; the registry keeps both.
+		eLeapRS result = deviceRegistry.add(event.device);
 
 		if (result == eLeapRS.Success)
 		{
-			// Read the length of the device's serial string
-			LEAP_DEVICE_INFO info = new LEAP_DEVICE_INFO();
-			result = LeapC.INSTANCE.LeapGetDeviceInfo(phDevice.handle, info);
-
-			if (result == eLeapRS.InsufficientBuffer || result == eLeapRS.Success)
-			{
-				// Allocate space for the serial and read device info
-				info.allocateSerialBuffer(info.serial_length);
-				result = LeapC.INSTANCE.LeapGetDeviceInfo(phDevice.handle, info);
-
-				if (result == eLeapRS.Success)
-				{
-					listener.onLogMessage(LogType.NORMAL, "  Status: %s",
-							Arrays.toString(info.getStatus()));
-					listener.onLogMessage(LogType.NORMAL, "  Baseline: %d \u00b5m", info.baseline);
-					listener.onLogMessage(LogType.NORMAL, "  FoV: %.02f\u00b0 x %.02f\u00b0 (HxV)",
-							Math.toDegrees(info.h_fov), Math.toDegrees(info.v_fov));
-					listener.onLogMessage(LogType.NORMAL, "  Range: %d \u00b5m", info.range);
-					listener.onLogMessage(LogType.NORMAL, "  Serial: %s", info.serial);
-					listener.onLogMessage(LogType.NORMAL, "  Product ID: %s (%d)",
-							LeapC.INSTANCE.LeapDevicePIDToString(info.pid), info.pid);
-					listener.onLogMessage(LogType.NORMAL, "  Capabilities: %s",
-							Arrays.toString(info.getCapabilities()));
-
-					// Close the device since we no longer need it.
-					LeapC.INSTANCE.LeapCloseDevice(phDevice.handle);
-				}
-				else
-				{
-					listener.onLogMessage(LogType.ERROR, "Failed to read device info: %s", result);
-				}
-			}
-			else
-			{
-				listener.onLogMessage(LogType.ERROR,
-						"Failed to read device info to get serial length: %s", result);
-			}
+			Device device = deviceRegistry.get(event.device.id);
+			listener.onLogMessage(LogType.NORMAL, "  Status: %s",
+					Arrays.toString(device.getStatus()));
+			listener.onLogMessage(LogType.NORMAL, "  Baseline: %d \u00b5m", device.getBaseline());
+			listener.onLogMessage(LogType.NORMAL, "  FoV: %.02f\u00b0 x %.02f\u00b0 (HxV)",
+					Math.toDegrees(device.getHorizontalFov()),
+					Math.toDegrees(device.getVerticalFov()));
+			listener.onLogMessage(LogType.NORMAL, "  Range: %d \u00b5m", device.getRange());
+			listener.onLogMessage(LogType.NORMAL, "  Serial: %s", device.getSerial());
+			listener.onLogMessage(LogType.NORMAL, "  Product ID: %s (%d)",
+					LeapC.INSTANCE.LeapDevicePIDToString(device.getPidValue()),
+					device.getPidValue());
+			listener.onLogMessage(LogType.NORMAL, "  Capabilities: %s",
+					Arrays.toString(device.getCapabilities()));
 		}
 		else
 		{
-			listener.onLogMessage(LogType.ERROR, "Failed to open device: %s", result);
+			listener.onLogMessage(LogType.ERROR, "Failed to open device or read its info: %s",
+					result);
 		}
 
 		listener.onLogMessage(LogType.SEPARATOR, "");
@@ -302,6 +278,7 @@ class VisualiserBackend
 
 	private void handleDeviceStatusChangeEvent(LEAP_DEVICE_STATUS_CHANGE_EVENT event)
 	{
+		deviceRegistry.updateStatus(event.device.id, event.status);
 		listener.onLogMessage(LogType.NORMAL, "Device status changed: %d | From %s to %s",
 				event.device.id, Arrays.toString(event.getLastStatus()),
 				Arrays.toString(event.getStatus()));
@@ -327,23 +304,13 @@ class VisualiserBackend
 	}
 
 
-	private void handleLogEvent(LEAP_LOG_EVENT event)
+	private void handleLogEntry(eLeapLogSeverity severity, long timestamp, String message)
 	{
-		listener.onLogMessage(LogType.NORMAL, "[LOG] %s: %s", event.getSeverity(),
-				event.message);
+		listener.onLogMessage(LogType.NORMAL, "[LOG] %s: %s", severity, message);
 		listener.onLogMessage(LogType.SEPARATOR, "");
 	}
 
 
-	private void handleLogEvents(LEAP_LOG_EVENTS events)
-	{
-		for (LEAP_LOG_EVENT logEvent : events.getEvents())
-		{
-			handleLogEvent(logEvent);
-		}
-	}
-
-
 	private void handleDeviceFailureEvent(LEAP_DEVICE_FAILURE_EVENT event)
 	{
 		listener.onLogMessage(LogType.ERROR, "Device failure: %s",
@@ -354,6 +321,7 @@ class VisualiserBackend
 
 	private void handleDeviceLostEvent(LEAP_DEVICE_EVENT event)
 	{
+		deviceRegistry.remove(event.device.id);
 		listener.onLogMessage(LogType.NORMAL, "Device was lost:");
 		listener.onLogMessage(LogType.NORMAL, "  Id: %d", event.device.id);
 		listener.onLogMessage(LogType.NORMAL, "  Status: %d",
@@ -384,9 +352,12 @@ class VisualiserBackend
 	{
 		if (System.currentTimeMillis() - lastHandledFrame > FRAME_TIME)
 		{
-			if (recording != null)
+			synchronized (recordingLock)
 			{
-				LeapC.INSTANCE.LeapRecordingWrite(recording.handle, trackingEvent, null);
+				if (recording != null)
+				{
+					LeapC.INSTANCE.LeapRecordingWrite(recording.handle, trackingEvent, null);
+				}
 			}
 
 			listener.onFrame(trackingEvent);
@@ -427,6 +398,17 @@ class VisualiserBackend
 
 
 	public void requestRecording()
+	{
+		synchronized (recordingLock)
+		{
+			toggleRecording();
+		}
+
+		listener.onLogMessage(LogType.SEPARATOR, "");
+	}
+
+
+	private void toggleRecording()
 	{
 		if (recording == null)
 		{
@@ -461,12 +443,21 @@ class VisualiserBackend
 				recording = null;
 			}
 		}
+	}
+
+
+	public void requestRecordingStatus()
+	{
+		synchronized (recordingLock)
+		{
+			logRecordingStatus();
+		}
 
 		listener.onLogMessage(LogType.SEPARATOR, "");
 	}
 
 
-	public void requestRecordingStatus()
+	private void logRecordingStatus()
 	{
 		if (recording != null)
 		{
@@ -488,7 +479,5 @@ class VisualiserBackend
 		{
 			listener.onLogMessage(LogType.NORMAL, "Status of current recording: Not recording");
 		}
-
-		listener.onLogMessage(LogType.SEPARATOR, "");
 	}
 }
@@ -24,6 +24,7 @@ import javax.swing.WindowConstants;
 import komposten.leapjna.example.VisualiserBackend.State;
 import komposten.leapjna.leapc.events.LEAP_IMAGE_EVENT;
 import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.views.FrameSnapshot;
 
 
 class VisualiserExample
@@ -209,7 +210,7 @@ class VisualiserExample
 		@Override
 		public void onFrame(LEAP_TRACKING_EVENT frameEvent)
 		{
-			renderPanel.setFrameData(frameEvent);
+			renderPanel.setFrameData(FrameSnapshot.of(frameEvent));
 		}
 
 
@@ -10,7 +10,6 @@
 package komposten.leapjna.leapc;
 
 import com.sun.jna.Library;
-import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.IntByReference;
 import com.sun.jna.ptr.LongByReference;
@@ -62,12 +61,61 @@ import komposten.leapjna.util.Configurations;
  * that is linked to the native API using JNA. After that all API methods can be
  * called on that instance in a similar way to how the C API is used.
  * </p>
+ * <h2>Concurrency</h2>
+ * <p>
+ * {@link #INSTANCE} is not synchronised; LeapC is itself thread-safe, so calls on
+ * different connections, devices and clock rebasers can run in parallel, and functions
+ * like {@link #LeapGetNow()} or {@link #LeapInterpolateFrame(Pointer, long, LEAP_TRACKING_EVENT, long)
+ * LeapInterpolateFrame()} can be called while another thread is blocked in
+ * {@link #LeapPollConnection(Pointer, int, LEAP_CONNECTION_MESSAGE) LeapPollConnection()}.
+ * The following restrictions apply per handle:
+ * </p>
+ * <ul>
+ * <li>A connection must only be polled by one thread at a time. Concurrent polls on the
+ * same connection return {@link eLeapRS#ConcurrentPoll}. Use one polling thread per
+ * connection.</li>
+ * <li>Pointers in a polled {@link LEAP_CONNECTION_MESSAGE} are only valid until the next
+ * poll on the same connection. Copy the data before handing it over to other threads.</li>
+ * <li>{@link #LeapCloseConnection(Pointer) LeapCloseConnection()} and
+ * {@link #LeapDestroyConnection(Pointer) LeapDestroyConnection()} must not be called while
+ * other calls on the same connection are in progress.</li>
+ * <li>{@link #LeapCloseDevice(Pointer) LeapCloseDevice()} must not be called while other
+ * calls on the same device are in progress.</li>
+ * <li>{@link #LeapDestroyClockRebaser(Pointer) LeapDestroyClockRebaser()} must not be
+ * called while other calls on the same rebaser are in progress.</li>
+ * <li>A recording must only be accessed by one thread at a time; guard all
+ * <code>LeapRecording*()</code> calls on the same recording with a lock.</li>
+ * </ul>
+ * <p>
+ * Use {@link #SYNCHRONIZED_INSTANCE} if you would rather serialise all calls on a single
+ * global lock (the behaviour of <code>INSTANCE</code> prior to LeapJna 1.2.1).
+ * </p>
  */
 @SuppressWarnings("deprecation")
 public interface LeapC extends Library
 {
-	final LeapC INSTANCE = (LeapC) Native.synchronizedLibrary(Native
-			.load(LeapCConfig.getDllName(), LeapC.class, LeapCConfig.getLibraryOptions()));
+	/**
+	 * <p>
+	 * An unsynchronised instance of the LeapC API. See the class documentation for which
+	 * calls may run concurrently.
+	 * </p>
+	 * <p>
+	 * By default this instance is backed by JNA. Set the system property
+	 * <code>leapjna.backend=foreign</code> before LeapC is first used to back the hot-path
+	 * functions (polling, {@link #LeapGetNow()}, frame sizes and interpolation) with
+	 * <code>java.lang.foreign</code> downcalls instead. The foreign backend requires Java
+	 * 22 or later; on older JVMs the JNA backend is used regardless. See
+	 * {@link LeapCForeign} for more details.
+	 * </p>
+	 */
+	final LeapC INSTANCE = LeapCConfig.loadLibrary();
+
+	/**
+	 * A view of {@link #INSTANCE} where all calls are serialised on one global lock.
+	 * 
+	 * @since LeapJna 1.2.1
+	 */
+	final LeapC SYNCHRONIZED_INSTANCE = LeapCConfig.synchronizedLibrary(INSTANCE);
 
 
 	/**
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+/**
+ * <p>
+ * A service provider that supplies the implementation of {@link LeapC} used for
+ * {@link LeapC#INSTANCE}.
+ * </p>
+ * <p>
+ * LeapJna has three backends:
+ * </p>
+ * <ul>
+ * <li><code>jna</code> (default): calls the native LeapC library through JNA.</li>
+ * <li><code>foreign</code>: calls the hot-path functions through
+ * <code>java.lang.foreign</code>; see {@link LeapCForeign}.</li>
+ * <li><code>simulated</code>: a pure-Java implementation that synthesises events without
+ * a device or native library; see
+ * {@link komposten.leapjna.leapc.simulated.SimulatedLeapC SimulatedLeapC}.</li>
+ * </ul>
+ * <p>
+ * The backend is selected by name using the system property <code>leapjna.backend</code>,
+ * which must be set before <code>LeapC</code> is first used. Additional backends can be
+ * registered using {@link java.util.ServiceLoader}, by listing the implementing class in
+ * <code>META-INF/services/komposten.leapjna.leapc.LeapCBackend</code>. If the selected
+ * backend does not exist or is not {@link #isAvailable() available}, the JNA backend is
+ * used.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public interface LeapCBackend
+{
+	/**
+	 * @return The name used to select this backend with the <code>leapjna.backend</code>
+	 *         system property. Names are matched case-insensitively.
+	 */
+	String getName();
+
+
+	/**
+	 * @return <code>true</code> if this backend can be used in the running JVM.
+	 */
+	default boolean isAvailable()
+	{
+		return true;
+	}
+
+
+	/**
+	 * @return <code>true</code> if this backend calls the native LeapC library, so that
+	 *         {@link LeapCDirect} can be used alongside it. <code>false</code> by default.
+	 */
+	default boolean usesNativeLibrary()
+	{
+		return false;
+	}
+
+
+	/**
+	 * Creates the <code>LeapC</code> implementation. Called at most once per backend, when
+	 * {@link LeapC#INSTANCE} is initialised.
+	 *
+	 * @return A <code>LeapC</code> implementation.
+	 */
+	LeapC load();
+}
@@ -1,19 +1,87 @@
 package komposten.leapjna.leapc;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.ServiceLoader;
 
 import com.sun.jna.Library;
+import com.sun.jna.Native;
 
 import komposten.leapjna.leapc.util.LeapTypeMapper;
 
 
 class LeapCConfig
 {
+	static final String BACKEND_PROPERTY = "leapjna.backend";
+
+	/** Calls LeapC through JNA's interface mapping. */
+	static final LeapCBackend JNA_BACKEND = new LeapCBackend()
+	{
+		@Override
+		public String getName()
+		{
+			return "jna";
+		}
+
+
+		@Override
+		public boolean usesNativeLibrary()
+		{
+			return true;
+		}
+
+
+		@Override
+		public LeapC load()
+		{
+			return Native.load(getDllName(), LeapC.class, getLibraryOptions());
+		}
+	};
+
+	/**
+	 * Calls the hot-path functions through <code>java.lang.foreign</code> downcalls. Only
+	 * available on Java 22 and later.
+	 */
+	static final LeapCBackend FOREIGN_BACKEND = new LeapCBackend()
+	{
+		@Override
+		public String getName()
+		{
+			return "foreign";
+		}
+
+
+		@Override
+		public boolean usesNativeLibrary()
+		{
+			return true;
+		}
+
+
+		@Override
+		public boolean isAvailable()
+		{
+			return LeapCForeign.isSupported();
+		}
+
+
+		@Override
+		public LeapC load()
+		{
+			LeapC jna = JNA_BACKEND.load();
+			return (LeapCForeign.isSupported() ? LeapCForeign.create(jna) : jna);
+		}
+	};
+
 	private static final String DLL_NAME = "LeapC";
 	private static final String MOCK_DLL_NAME = "MockLeapC";
 
 	private static boolean useMockDll;
+	private static LeapCBackend backend;
 
 	static void useMockDll(boolean useMockDll)
 	{
@@ -21,6 +89,51 @@ class LeapCConfig
 	}
 
 
+	/**
+	 * Overrides the backend selected by the <code>leapjna.backend</code> property. Must be
+	 * called before {@link LeapC#INSTANCE} is initialised.
+	 */
+	static void useBackend(LeapCBackend backend)
+	{
+		LeapCConfig.backend = backend;
+	}
+
+
+	static LeapCBackend getBackend()
+	{
+		if (backend == null)
+			backend = findBackend(System.getProperty(BACKEND_PROPERTY));
+		return backend;
+	}
+
+
+	/**
+	 * Finds an available backend by name among the built-in backends and those registered
+	 * through {@link ServiceLoader}. Falls back to the JNA backend if no available backend
+	 * matches.
+	 */
+	static LeapCBackend findBackend(String name)
+	{
+		if (name == null || name.isBlank())
+			return JNA_BACKEND;
+
+		name = name.trim();
+		List<LeapCBackend> candidates = new ArrayList<>();
+		candidates.add(JNA_BACKEND);
+		candidates.add(FOREIGN_BACKEND);
+		ServiceLoader.load(LeapCBackend.class, LeapCConfig.class.getClassLoader())
+				.forEach(candidates::add);
+
+		for (LeapCBackend candidate : candidates)
+		{
+			if (candidate.getName().equalsIgnoreCase(name) && candidate.isAvailable())
+				return candidate;
+		}
+
+		return JNA_BACKEND;
+	}
+
+
 	static String getDllName()
 	{
 		return useMockDll ? MOCK_DLL_NAME : DLL_NAME;
@@ -36,6 +149,44 @@ class LeapCConfig
 	}
 
 
+	/**
+	 * Loads the LeapC library using the currently selected {@link LeapCBackend}.
+	 */
+	static LeapC loadLibrary()
+	{
+		return getBackend().load();
+	}
+
+
+	/**
+	 * Returns a view of <code>library</code> where all calls are serialised on one lock.
+	 * JNA libraries are wrapped using {@link Native#synchronizedLibrary(Library)}, other
+	 * implementations are wrapped in a proxy that synchronises on the library itself.
+	 */
+	static LeapC synchronizedLibrary(LeapC library)
+	{
+		if (Proxy.isProxyClass(library.getClass())
+				&& Proxy.getInvocationHandler(library) instanceof Library.Handler)
+			return (LeapC) Native.synchronizedLibrary(library);
+
+		return (LeapC) Proxy.newProxyInstance(LeapC.class.getClassLoader(),
+				new Class<?>[] { LeapC.class }, (proxy, method, args) ->
+				{
+					synchronized (library)
+					{
+						try
+						{
+							return method.invoke(library, args);
+						}
+						catch (InvocationTargetException e)
+						{
+							throw e.getCause();
+						}
+					}
+				});
+	}
+
+
 	private LeapCConfig()
 	{}
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE;
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * <p>
+ * A direct-mapped companion to {@link LeapC} for the functions that are typically called
+ * on every frame.
+ * </p>
+ * <p>
+ * The functions in this class are bound using {@link Native#register(Class, String)}
+ * rather than through {@link LeapC#INSTANCE}'s interface proxy. This means that calls do
+ * not go through reflection, argument boxing or {@link LeapC}'s type mapper, which makes
+ * them considerably cheaper to call at tracking rate.
+ * </p>
+ * <p>
+ * To keep the calls direct, all functions only take primitives and {@link Pointer}s, and
+ * result codes are returned as raw <code>int</code>s. Use
+ * {@link Enums#parse(int, Enums.IntEnum) Enums.parse(result, eLeapRS.Unknown)} to convert
+ * them to {@link eLeapRS} constants when needed. Structures are not read or written
+ * automatically, so call {@link com.sun.jna.Structure#write() write()} before and
+ * {@link com.sun.jna.Structure#read() read()} after a call as needed.
+ * </p>
+ * <p>
+ * <code>LeapCDirect</code> binds to the same native library as {@link LeapC#INSTANCE}, so
+ * the two can be used interchangeably on the same connection and device handles. This
+ * requires a backend that uses the native library, such as the default
+ * <code>jna</code> backend. With any other backend (e.g. <code>simulated</code>),
+ * {@link #isSupported()} returns <code>false</code> and the functions throw an
+ * {@link IllegalStateException} instead of binding to a library the backend does not
+ * use.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class LeapCDirect
+{
+	/**
+	 * @return <code>true</code> if the selected {@link LeapCBackend} calls the native
+	 *         LeapC library (see {@link LeapCBackend#usesNativeLibrary()}), so that the
+	 *         functions in this class can be used alongside {@link LeapC#INSTANCE}.
+	 */
+	public static boolean isSupported()
+	{
+		return LeapCConfig.getBackend().usesNativeLibrary();
+	}
+
+
+	/**
+	 * <p>
+	 * Polls the connection for a new event. The direct-mapped equivalent of
+	 * {@link LeapC#LeapPollConnection(Pointer, int, LEAP_CONNECTION_MESSAGE)}.
+	 * </p>
+	 * <p>
+	 * Call {@link LEAP_CONNECTION_MESSAGE#read()} on the message afterwards to load the
+	 * polled message into its Java fields.
+	 * </p>
+	 *
+	 * @param hConnection The connection handle. Use {@link LEAP_CONNECTION#handle} to
+	 *          obtain the handle from the connection object.
+	 * @param timeout The maximum amount of time to wait, in milliseconds.
+	 * @param message A pointer to the memory of a {@link LEAP_CONNECTION_MESSAGE}. Use
+	 *          {@link LEAP_CONNECTION_MESSAGE#getPointer()} to obtain it.
+	 * @return The operation result code, a value from the {@link eLeapRS} enumeration.
+	 */
+	public static int LeapPollConnection(Pointer hConnection, int timeout, Pointer message)
+	{
+		checkSupported();
+		return Natives.LeapPollConnection(hConnection, timeout, message);
+	}
+
+
+	/**
+	 * Samples the universal clock used by the system to timestamp image and tracking
+	 * frames. The direct-mapped equivalent of {@link LeapC#LeapGetNow()}.
+	 *
+	 * @return microseconds since an unspecified epoch
+	 */
+	public static long LeapGetNow()
+	{
+		checkSupported();
+		return Natives.LeapGetNow();
+	}
+
+
+	/**
+	 * Retrieves the number of bytes required to allocate an interpolated frame at the
+	 * specified time. The direct-mapped equivalent of
+	 * {@link LeapC#LeapGetFrameSize(Pointer, long, com.sun.jna.ptr.LongByReference)}.
+	 *
+	 * @param hConnection The connection handle. Use {@link LEAP_CONNECTION#handle} to
+	 *          obtain the handle from the connection object.
+	 * @param timestamp The timestamp of the frame whose size is to be queried.
+	 * @param pncbEvent A pointer to 8 bytes of memory that receive the number of bytes
+	 *          required to store the specified frame.
+	 * @return The operation result code, a value from the {@link eLeapRS} enumeration.
+	 */
+	public static int LeapGetFrameSize(Pointer hConnection, long timestamp,
+			Pointer pncbEvent)
+	{
+		checkSupported();
+		return Natives.LeapGetFrameSize(hConnection, timestamp, pncbEvent);
+	}
+
+
+	/**
+	 * Retrieves the number of bytes required to allocate an interpolated frame at the
+	 * specified time for a particular device. The direct-mapped equivalent of
+	 * {@link LeapC#LeapGetFrameSizeEx(Pointer, Pointer, long, com.sun.jna.ptr.LongByReference)}.
+	 *
+	 * @param hConnection The connection handle. Use {@link LEAP_CONNECTION#handle} to
+	 *          obtain the handle from the connection object.
+	 * @param hDevice The device handle. Use {@link LEAP_DEVICE#handle} to obtain the
+	 *          handle from the device object.
+	 * @param timestamp The timestamp of the frame whose size is to be queried.
+	 * @param pncbEvent A pointer to 8 bytes of memory that receive the number of bytes
+	 *          required to store the specified frame.
+	 * @return The operation result code, a value from the {@link eLeapRS} enumeration.
+	 */
+	public static int LeapGetFrameSizeEx(Pointer hConnection, Pointer hDevice,
+			long timestamp, Pointer pncbEvent)
+	{
+		checkSupported();
+		return Natives.LeapGetFrameSizeEx(hConnection, hDevice, timestamp, pncbEvent);
+	}
+
+
+	/**
+	 * <p>
+	 * Constructs a frame at the specified timestamp by interpolating between measured
+	 * frames. The direct-mapped equivalent of
+	 * {@link LeapC#LeapInterpolateFrame(Pointer, long, LEAP_TRACKING_EVENT, long)}.
+	 * </p>
+	 * <p>
+	 * Call {@link LEAP_TRACKING_EVENT#read()} on the event afterwards to load the frame
+	 * into its Java fields.
+	 * </p>
+	 *
+	 * @param hConnection The connection handle. Use {@link LEAP_CONNECTION#handle} to
+	 *          obtain the handle from the connection object.
+	 * @param timestamp The timestamp at which to interpolate the frame data.
+	 * @param pEvent A pointer to a memory block of at least <code>ncbEvent</code> bytes.
+	 *          Use {@link LEAP_TRACKING_EVENT#getPointer()} to obtain it from a
+	 *          {@link LEAP_TRACKING_EVENT#LEAP_TRACKING_EVENT(int) pre-allocated} event.
+	 * @param ncbEvent The size of the <code>pEvent</code> memory block in bytes.
+	 * @return The operation result code, a value from the {@link eLeapRS} enumeration.
+	 */
+	public static int LeapInterpolateFrame(Pointer hConnection, long timestamp,
+			Pointer pEvent, long ncbEvent)
+	{
+		checkSupported();
+		return Natives.LeapInterpolateFrame(hConnection, timestamp, pEvent, ncbEvent);
+	}
+
+
+	/**
+	 * <p>
+	 * Constructs a frame at the specified timestamp for a particular device by
+	 * interpolating between measured frames. The direct-mapped equivalent of
+	 * {@link LeapC#LeapInterpolateFrameEx(Pointer, Pointer, long, LEAP_TRACKING_EVENT, long)}.
+	 * </p>
+	 * <p>
+	 * Call {@link LEAP_TRACKING_EVENT#read()} on the event afterwards to load the frame
+	 * into its Java fields.
+	 * </p>
+	 *
+	 * @param hConnection The connection handle. Use {@link LEAP_CONNECTION#handle} to
+	 *          obtain the handle from the connection object.
+	 * @param hDevice The device handle. Use {@link LEAP_DEVICE#handle} to obtain the
+	 *          handle from the device object.
+	 * @param timestamp The timestamp at which to interpolate the frame data.
+	 * @param pEvent A pointer to a memory block of at least <code>ncbEvent</code> bytes.
+	 *          Use {@link LEAP_TRACKING_EVENT#getPointer()} to obtain it from a
+	 *          {@link LEAP_TRACKING_EVENT#LEAP_TRACKING_EVENT(int) pre-allocated} event.
+	 * @param ncbEvent The size of the <code>pEvent</code> memory block in bytes.
+	 * @return The operation result code, a value from the {@link eLeapRS} enumeration.
+	 */
+	public static int LeapInterpolateFrameEx(Pointer hConnection, Pointer hDevice,
+			long timestamp, Pointer pEvent, long ncbEvent)
+	{
+		checkSupported();
+		return Natives.LeapInterpolateFrameEx(hConnection, hDevice, timestamp, pEvent,
+				ncbEvent);
+	}
+
+
+	/**
+	 * @throws IllegalStateException If the selected backend does not use the native
+	 *           library.
+	 */
+	private static void checkSupported()
+	{
+		LeapCBackend backend = LeapCConfig.getBackend();
+		if (!backend.usesNativeLibrary())
+			throw new IllegalStateException("LeapCDirect requires a backend that uses the "
+					+ "native LeapC library, but the " + backend.getName()
+					+ " backend is selected");
+	}
+
+
+	/**
+	 * Holds the direct-mapped functions, so that they are only bound when one of them is
+	 * first called. The public functions check that the backend uses the native library
+	 * before they touch this class.
+	 */
+	private static final class Natives
+	{
+		static
+		{
+			Native.register(Natives.class, LeapCConfig.getDllName());
+		}
+
+
+		static native int LeapPollConnection(Pointer hConnection, int timeout,
+				Pointer message);
+
+
+		static native long LeapGetNow();
+
+
+		static native int LeapGetFrameSize(Pointer hConnection, long timestamp,
+				Pointer pncbEvent);
+
+
+		static native int LeapGetFrameSizeEx(Pointer hConnection, Pointer hDevice,
+				long timestamp, Pointer pncbEvent);
+
+
+		static native int LeapInterpolateFrame(Pointer hConnection, long timestamp,
+				Pointer pEvent, long ncbEvent);
+
+
+		static native int LeapInterpolateFrameEx(Pointer hConnection, Pointer hDevice,
+				long timestamp, Pointer pEvent, long ncbEvent);
+	}
+
+
+	private LeapCDirect()
+	{}
+}
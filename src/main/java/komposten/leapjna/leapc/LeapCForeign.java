@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * <p>
+ * Entry point for the <code>java.lang.foreign</code> (FFM) backend of LeapJna.
+ * </p>
+ * <p>
+ * LeapJna is a multi-release jar. On Java 22 and later this class is replaced by a
+ * version that calls LeapC through <code>java.lang.foreign.Linker</code> downcalls and
+ * reads structs through <code>MemoryLayout</code>s instead of JNA's
+ * {@link com.sun.jna.Structure} reflection. This is the fallback version for older JVMs:
+ * {@link #isSupported()} returns <code>false</code> and all decoding is done by JNA.
+ * </p>
+ * <p>
+ * Set the system property <code>leapjna.backend=foreign</code> to back
+ * {@link LeapC#INSTANCE} by the foreign backend when it is supported.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class LeapCForeign
+{
+	/**
+	 * @return <code>true</code> if the running JVM supports the foreign backend (Java 22 or
+	 *         later).
+	 */
+	public static boolean isSupported()
+	{
+		return false;
+	}
+
+
+	/**
+	 * Creates a foreign-backed implementation of {@link LeapC}. Functions not implemented
+	 * by the foreign backend are delegated to <code>fallback</code>. This fallback version
+	 * returns <code>fallback</code> itself, since {@link #isSupported()} is
+	 * <code>false</code>.
+	 */
+	static LeapC create(LeapC fallback)
+	{
+		return fallback;
+	}
+
+
+	/**
+	 * <p>
+	 * Reads a tracking event from native memory.
+	 * </p>
+	 * <p>
+	 * On Java 22 and later the event is decoded using memory layouts into
+	 * <code>reuse</code> (and its existing hands, if the hand count is unchanged), so that
+	 * polling at tracking rate does not allocate new structures. This fallback version
+	 * decodes the event using JNA and ignores <code>reuse</code>.
+	 * </p>
+	 *
+	 * @param pEvent A pointer to a <code>LEAP_TRACKING_EVENT</code>, e.g.
+	 *          {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#pEvent}.
+	 * @param reuse An event to decode into, or <code>null</code> to create a new one.
+	 * @return The decoded event.
+	 */
+	public static LEAP_TRACKING_EVENT readTrackingEvent(Pointer pEvent,
+			LEAP_TRACKING_EVENT reuse)
+	{
+		return new LEAP_TRACKING_EVENT(pEvent);
+	}
+
+
+	private LeapCForeign()
+	{}
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.codec;
+
+import komposten.leapjna.leapc.data.LEAP_HAND;
+
+
+/**
+ * <p>
+ * Selects which parts of a {@link LEAP_HAND} are read from native memory. Parts that are
+ * not selected are skipped entirely and keep whatever values they had before the read.
+ * </p>
+ * <p>
+ * The scalar fields of the hand (<code>id</code>, <code>type</code>,
+ * <code>confidence</code>, etc.) are always read. Everything else has to be selected:
+ * </p>
+ * <ul>
+ * <li>palm fields using {@link #withPalm(PalmField...)},</li>
+ * <li>bones using {@link #withBones(Digit, Bone...)} or {@link #withDigits(Digit...)},
+ * together with the bone fields to read from them using
+ * {@link #withBoneFields(BoneField...)},</li>
+ * <li>arm fields using {@link #withArm(BoneField...)}.</li>
+ * </ul>
+ * <p>
+ * The <code>finger_id</code> and <code>is_extended</code> fields of a digit are read if
+ * any of its bones are selected.
+ * </p>
+ * <p>
+ * Specs are immutable; each <code>with***()</code> method returns a new spec. For
+ * example, the following spec reads the palm position, the wrist position and the joints
+ * of the middle finger's two outermost bones:
+ * </p>
+ *
+ * <pre>
+ * HandDecodeSpec spec = HandDecodeSpec.handOnly()
+ * 		.withPalm(PalmField.POSITION)
+ * 		.withArm(BoneField.NEXT_JOINT)
+ * 		.withBones(Digit.MIDDLE, Bone.INTERMEDIATE, Bone.DISTAL)
+ * 		.withBoneFields(BoneField.PREV_JOINT, BoneField.NEXT_JOINT);
+ * </pre>
+ *
+ * @see komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT#setHandDecodeSpec(HandDecodeSpec)
+ * @since LeapJna 1.2.1
+ */
+public final class HandDecodeSpec
+{
+	/** The digits of a hand, in the order they are stored in <code>LEAP_HAND</code>. */
+	public enum Digit
+	{
+		THUMB, INDEX, MIDDLE, RING, PINKY
+	}
+
+	/** The bones of a digit, in the order they are stored in <code>LEAP_DIGIT</code>. */
+	public enum Bone
+	{
+		METACARPAL, PROXIMAL, INTERMEDIATE, DISTAL
+	}
+
+	/** The fields of <code>LEAP_PALM</code>. */
+	public enum PalmField
+	{
+		POSITION, STABILIZED_POSITION, VELOCITY, NORMAL, WIDTH, DIRECTION, ORIENTATION
+	}
+
+	/** The fields of <code>LEAP_BONE</code>. */
+	public enum BoneField
+	{
+		PREV_JOINT, NEXT_JOINT, WIDTH, ROTATION
+	}
+
+	private static final int ALL_PALM_FIELDS = (1 << PalmField.values().length) - 1;
+	private static final int ALL_BONE_FIELDS = (1 << BoneField.values().length) - 1;
+	private static final int BONES_PER_DIGIT = Bone.values().length;
+	private static final int ALL_BONES = (1 << (Digit.values().length * BONES_PER_DIGIT)) - 1;
+
+	private static final HandDecodeSpec ALL = new HandDecodeSpec(ALL_PALM_FIELDS, ALL_BONES,
+			ALL_BONE_FIELDS, ALL_BONE_FIELDS);
+	private static final HandDecodeSpec HAND_ONLY = new HandDecodeSpec(0, 0, 0, 0);
+
+	/** Bit <code>n</code> is set if <code>PalmField.values()[n]</code> is selected. */
+	final int palmFields;
+	/** Bit <code>digit * 4 + bone</code> is set if the bone is selected. */
+	final int bones;
+	/** The fields read from the selected bones. */
+	final int boneFields;
+	/** The fields read from the arm. */
+	final int armFields;
+
+
+	private HandDecodeSpec(int palmFields, int bones, int boneFields, int armFields)
+	{
+		this.palmFields = palmFields;
+		this.bones = bones;
+		this.boneFields = boneFields;
+		this.armFields = armFields;
+	}
+
+
+	/**
+	 * @return A spec that reads the whole hand.
+	 */
+	public static HandDecodeSpec all()
+	{
+		return ALL;
+	}
+
+
+	/**
+	 * @return A spec that only reads the scalar fields of the hand.
+	 */
+	public static HandDecodeSpec handOnly()
+	{
+		return HAND_ONLY;
+	}
+
+
+	/**
+	 * @return A copy of this spec that also reads the specified palm fields.
+	 */
+	public HandDecodeSpec withPalm(PalmField... fields)
+	{
+		return new HandDecodeSpec(palmFields | mask(fields), bones, boneFields, armFields);
+	}
+
+
+	/**
+	 * @return A copy of this spec that also reads the specified bones of
+	 *         <code>digit</code>.
+	 */
+	public HandDecodeSpec withBones(Digit digit, Bone... bones)
+	{
+		int mask = mask(bones) << (digit.ordinal() * BONES_PER_DIGIT);
+		return new HandDecodeSpec(palmFields, this.bones | mask, boneFields, armFields);
+	}
+
+
+	/**
+	 * @return A copy of this spec that also reads all bones of the specified digits.
+	 */
+	public HandDecodeSpec withDigits(Digit... digits)
+	{
+		HandDecodeSpec spec = this;
+		for (Digit digit : digits)
+			spec = spec.withBones(digit, Bone.values());
+		return spec;
+	}
+
+
+	/**
+	 * @return A copy of this spec that also reads the specified fields from the selected
+	 *         bones.
+	 */
+	public HandDecodeSpec withBoneFields(BoneField... fields)
+	{
+		return new HandDecodeSpec(palmFields, bones, boneFields | mask(fields), armFields);
+	}
+
+
+	/**
+	 * @return A copy of this spec that also reads the specified arm fields.
+	 *         <code>NEXT_JOINT</code> is the wrist and <code>PREV_JOINT</code> the elbow.
+	 */
+	public HandDecodeSpec withArm(BoneField... fields)
+	{
+		return new HandDecodeSpec(palmFields, bones, boneFields, armFields | mask(fields));
+	}
+
+
+	/**
+	 * @return <code>true</code> if this spec reads the whole hand.
+	 */
+	public boolean isAll()
+	{
+		return palmFields == ALL_PALM_FIELDS && bones == ALL_BONES
+				&& boneFields == ALL_BONE_FIELDS && armFields == ALL_BONE_FIELDS;
+	}
+
+
+	public boolean hasPalmField(PalmField field)
+	{
+		return (palmFields & (1 << field.ordinal())) != 0;
+	}
+
+
+	public boolean hasBone(Digit digit, Bone bone)
+	{
+		return (bones & (1 << (digit.ordinal() * BONES_PER_DIGIT + bone.ordinal()))) != 0;
+	}
+
+
+	public boolean hasBoneField(BoneField field)
+	{
+		return (boneFields & (1 << field.ordinal())) != 0;
+	}
+
+
+	public boolean hasArmField(BoneField field)
+	{
+		return (armFields & (1 << field.ordinal())) != 0;
+	}
+
+
+	private static int mask(Enum<?>[] values)
+	{
+		int mask = 0;
+		for (Enum<?> value : values)
+			mask |= 1 << value.ordinal();
+		return mask;
+	}
+
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+			return true;
+		if (!(obj instanceof HandDecodeSpec))
+			return false;
+
+		HandDecodeSpec other = (HandDecodeSpec) obj;
+		return palmFields == other.palmFields && bones == other.bones
+				&& boneFields == other.boneFields && armFields == other.armFields;
+	}
+
+
+	@Override
+	public int hashCode()
+	{
+		return ((palmFields * 31 + bones) * 31 + boneFields) * 31 + armFields;
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.codec;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.codec.HandDecodeSpec.BoneField;
+import komposten.leapjna.leapc.codec.HandDecodeSpec.PalmField;
+import komposten.leapjna.leapc.data.LEAP_BONE;
+import komposten.leapjna.leapc.data.LEAP_DIGIT;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.data.LEAP_PALM;
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+
+
+/**
+ * Reads the parts of a {@link LEAP_HAND} selected by a {@link HandDecodeSpec}, using the
+ * offsets of the generated codecs.
+ */
+final class HandDecoder
+{
+	private static final int PALM_POSITION = bit(PalmField.POSITION);
+	private static final int PALM_STABILIZED_POSITION = bit(PalmField.STABILIZED_POSITION);
+	private static final int PALM_VELOCITY = bit(PalmField.VELOCITY);
+	private static final int PALM_NORMAL = bit(PalmField.NORMAL);
+	private static final int PALM_WIDTH = bit(PalmField.WIDTH);
+	private static final int PALM_DIRECTION = bit(PalmField.DIRECTION);
+	private static final int PALM_ORIENTATION = bit(PalmField.ORIENTATION);
+
+	private static final int BONE_PREV_JOINT = bit(BoneField.PREV_JOINT);
+	private static final int BONE_NEXT_JOINT = bit(BoneField.NEXT_JOINT);
+	private static final int BONE_WIDTH = bit(BoneField.WIDTH);
+	private static final int BONE_ROTATION = bit(BoneField.ROTATION);
+
+	private static final int BONES_PER_DIGIT = HandDecodeSpec.Bone.values().length;
+	private static final int DIGIT_MASK = (1 << BONES_PER_DIGIT) - 1;
+
+
+	private HandDecoder()
+	{}
+
+
+	static void decode(Pointer pointer, long offset, LEAP_HAND target, HandDecodeSpec spec)
+	{
+		target.id = pointer.getInt(offset + LEAP_HAND_Codec.OFFSET_ID);
+		target.flags = pointer.getInt(offset + LEAP_HAND_Codec.OFFSET_FLAGS);
+		target.type = pointer.getInt(offset + LEAP_HAND_Codec.OFFSET_TYPE);
+		target.confidence = pointer.getFloat(offset + LEAP_HAND_Codec.OFFSET_CONFIDENCE);
+		target.visible_time = pointer.getLong(offset + LEAP_HAND_Codec.OFFSET_VISIBLE_TIME);
+		target.pinch_distance = pointer.getFloat(offset + LEAP_HAND_Codec.OFFSET_PINCH_DISTANCE);
+		target.grab_angle = pointer.getFloat(offset + LEAP_HAND_Codec.OFFSET_GRAB_ANGLE);
+		target.pinch_strength = pointer.getFloat(offset + LEAP_HAND_Codec.OFFSET_PINCH_STRENGTH);
+		target.grab_strength = pointer.getFloat(offset + LEAP_HAND_Codec.OFFSET_GRAB_STRENGTH);
+
+		if (spec.palmFields != 0)
+			decodePalm(pointer, offset + LEAP_HAND_Codec.OFFSET_PALM, target.palm, spec.palmFields);
+
+		if (spec.bones != 0)
+		{
+			long digitsOffset = offset + LEAP_HAND_Codec.OFFSET_DIGITS;
+			StructCodec.attach(target.digits, pointer, digitsOffset);
+
+			LEAP_HAND.DigitStruct digits = target.digits;
+			decodeDigit(pointer, digitsOffset + LEAP_HAND_DigitStruct_Codec.OFFSET_THUMB,
+					digits.thumb, spec.bones, spec.boneFields);
+			decodeDigit(pointer, digitsOffset + LEAP_HAND_DigitStruct_Codec.OFFSET_INDEX,
+					digits.index, spec.bones >>> BONES_PER_DIGIT, spec.boneFields);
+			decodeDigit(pointer, digitsOffset + LEAP_HAND_DigitStruct_Codec.OFFSET_MIDDLE,
+					digits.middle, spec.bones >>> (2 * BONES_PER_DIGIT), spec.boneFields);
+			decodeDigit(pointer, digitsOffset + LEAP_HAND_DigitStruct_Codec.OFFSET_RING,
+					digits.ring, spec.bones >>> (3 * BONES_PER_DIGIT), spec.boneFields);
+			decodeDigit(pointer, digitsOffset + LEAP_HAND_DigitStruct_Codec.OFFSET_PINKY,
+					digits.pinky, spec.bones >>> (4 * BONES_PER_DIGIT), spec.boneFields);
+		}
+
+		if (spec.armFields != 0)
+			decodeBone(pointer, offset + LEAP_HAND_Codec.OFFSET_ARM, target.arm, spec.armFields);
+	}
+
+
+	private static void decodePalm(Pointer pointer, long offset, LEAP_PALM palm, int fields)
+	{
+		StructCodec.attach(palm, pointer, offset);
+
+		if ((fields & PALM_POSITION) != 0)
+			decodeVector(pointer, offset + LEAP_PALM_Codec.OFFSET_POSITION, palm.position);
+		if ((fields & PALM_STABILIZED_POSITION) != 0)
+			decodeVector(pointer, offset + LEAP_PALM_Codec.OFFSET_STABILIZED_POSITION,
+					palm.stabilized_position);
+		if ((fields & PALM_VELOCITY) != 0)
+			decodeVector(pointer, offset + LEAP_PALM_Codec.OFFSET_VELOCITY, palm.velocity);
+		if ((fields & PALM_NORMAL) != 0)
+			decodeVector(pointer, offset + LEAP_PALM_Codec.OFFSET_NORMAL, palm.normal);
+		if ((fields & PALM_WIDTH) != 0)
+			palm.width = pointer.getFloat(offset + LEAP_PALM_Codec.OFFSET_WIDTH);
+		if ((fields & PALM_DIRECTION) != 0)
+			decodeVector(pointer, offset + LEAP_PALM_Codec.OFFSET_DIRECTION, palm.direction);
+		if ((fields & PALM_ORIENTATION) != 0)
+		{
+			long orientationOffset = offset + LEAP_PALM_Codec.OFFSET_ORIENTATION;
+			StructCodec.attach(palm.orientation, pointer, orientationOffset);
+			LEAP_QUATERNION_Codec.decode(pointer, orientationOffset, palm.orientation);
+		}
+	}
+
+
+	/**
+	 * @param bones The bones to read, with the metacarpal in the lowest bit.
+	 */
+	private static void decodeDigit(Pointer pointer, long offset, LEAP_DIGIT digit, int bones,
+			int fields)
+	{
+		bones &= DIGIT_MASK;
+		if (bones == 0)
+			return;
+
+		StructCodec.attach(digit, pointer, offset);
+		digit.finger_id = pointer.getInt(offset + LEAP_DIGIT_Codec.OFFSET_FINGER_ID);
+		digit.is_extended = pointer.getInt(offset + LEAP_DIGIT_Codec.OFFSET_IS_EXTENDED);
+
+		if (fields == 0)
+			return;
+
+		if ((bones & 1) != 0)
+			decodeBone(pointer, offset + LEAP_DIGIT_Codec.OFFSET_METACARPAL, digit.metacarpal,
+					fields);
+		if ((bones & 2) != 0)
+			decodeBone(pointer, offset + LEAP_DIGIT_Codec.OFFSET_PROXIMAL, digit.proximal, fields);
+		if ((bones & 4) != 0)
+			decodeBone(pointer, offset + LEAP_DIGIT_Codec.OFFSET_INTERMEDIATE, digit.intermediate,
+					fields);
+		if ((bones & 8) != 0)
+			decodeBone(pointer, offset + LEAP_DIGIT_Codec.OFFSET_DISTAL, digit.distal, fields);
+	}
+
+
+	private static void decodeBone(Pointer pointer, long offset, LEAP_BONE bone, int fields)
+	{
+		StructCodec.attach(bone, pointer, offset);
+
+		if ((fields & BONE_PREV_JOINT) != 0)
+			decodeVector(pointer, offset + LEAP_BONE_Codec.OFFSET_PREV_JOINT, bone.prev_joint);
+		if ((fields & BONE_NEXT_JOINT) != 0)
+			decodeVector(pointer, offset + LEAP_BONE_Codec.OFFSET_NEXT_JOINT, bone.next_joint);
+		if ((fields & BONE_WIDTH) != 0)
+			bone.width = pointer.getFloat(offset + LEAP_BONE_Codec.OFFSET_WIDTH);
+		if ((fields & BONE_ROTATION) != 0)
+		{
+			long rotationOffset = offset + LEAP_BONE_Codec.OFFSET_ROTATION;
+			StructCodec.attach(bone.rotation, pointer, rotationOffset);
+			LEAP_QUATERNION_Codec.decode(pointer, rotationOffset, bone.rotation);
+		}
+	}
+
+
+	private static void decodeVector(Pointer pointer, long offset, LEAP_VECTOR vector)
+	{
+		StructCodec.attach(vector, pointer, offset);
+		LEAP_VECTOR_Codec.decode(pointer, offset, vector);
+	}
+
+
+	private static int bit(Enum<?> value)
+	{
+		return 1 << value.ordinal();
+	}
+}
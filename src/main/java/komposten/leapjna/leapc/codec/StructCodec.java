@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.codec;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import komposten.leapjna.leapc.util.ReusableStructure;
+import komposten.leapjna.leapc.util.Structures;
+
+
+/**
+ * <p>
+ * Reads and writes the fields of a {@link Structure} at fixed offsets, without the
+ * reflection used by {@link Structure#read()} and {@link Structure#write()}.
+ * </p>
+ * <p>
+ * Codecs are generated at compile time for the structures in
+ * {@link komposten.leapjna.leapc.data} and {@link komposten.leapjna.leapc.events} and
+ * assume a packed layout (i.e. {@link Structure#ALIGN_NONE}). Use {@link StructCodecs}
+ * to obtain them; it checks that the layout matches before a codec is used.
+ * </p>
+ * <p>
+ * Nested structures are read into the existing instances, which JNA creates when the
+ * outer structure is allocated. Like JNA, the codecs point the nested instances to the
+ * memory of the outer structure before reading or writing them.
+ * </p>
+ *
+ * @param <T> The structure type.
+ * @since LeapJna 1.2.1
+ */
+public abstract class StructCodec<T extends Structure>
+{
+	private final Class<T> type;
+	private final int size;
+	private final boolean writable;
+
+
+	protected StructCodec(Class<T> type, int size, boolean writable)
+	{
+		this.type = type;
+		this.size = size;
+		this.writable = writable;
+	}
+
+
+	/**
+	 * @return The structure type this codec reads and writes.
+	 */
+	public Class<T> getType()
+	{
+		return type;
+	}
+
+
+	/**
+	 * @return The size of the structure in bytes.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * @return <code>true</code> if {@link #write(Structure, Pointer, long)} is supported.
+	 *         Codecs for structures with <code>String</code> fields can only read.
+	 */
+	public boolean isWritable()
+	{
+		return writable;
+	}
+
+
+	/**
+	 * Reads the structure at <code>pointer + offset</code> into the fields of
+	 * <code>target</code>.
+	 */
+	public abstract void read(Pointer pointer, long offset, T target);
+
+
+	/**
+	 * Writes the fields of <code>source</code> to <code>pointer + offset</code>.
+	 *
+	 * @throws UnsupportedOperationException If the codec is not {@link #isWritable()
+	 *           writable}.
+	 */
+	public void write(T source, Pointer pointer, long offset)
+	{
+		throw new UnsupportedOperationException(type.getName() + " cannot be written by a codec");
+	}
+
+
+	/**
+	 * Reads a pointer field. Like JNA, the current value is kept if it points to the same
+	 * address, so that a {@link com.sun.jna.Memory Memory} assigned to the field is not
+	 * replaced (and possibly freed). This also means that no new <code>Pointer</code> is
+	 * allocated if the address has not changed.
+	 */
+	protected static Pointer readPointer(Pointer pointer, long offset, Pointer current)
+	{
+		long address = (Native.POINTER_SIZE == 8 ? pointer.getLong(offset)
+				: pointer.getInt(offset) & 0xFFFFFFFFL);
+		if (address == 0)
+			return null;
+		if (current != null && Pointer.nativeValue(current) == address)
+			return current;
+		return new Pointer(address);
+	}
+
+
+	/**
+	 * Points <code>nested</code> to <code>pointer + offset</code>, unless it already uses
+	 * that memory.
+	 */
+	protected static void attach(ReusableStructure nested, Pointer pointer, long offset)
+	{
+		Structures.useMemory(nested, pointer, offset);
+	}
+
+
+	protected static String readString(Pointer pointer, long offset)
+	{
+		Pointer value = pointer.getPointer(offset);
+		return (value != null ? value.getString(0) : null);
+	}
+}
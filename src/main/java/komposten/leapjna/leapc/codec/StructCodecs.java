@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.codec;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+import com.sun.jna.Structure.FieldOrder;
+
+import komposten.leapjna.leapc.data.LEAP_HAND;
+
+
+/**
+ * <p>
+ * Looks up the generated {@link StructCodec}s and uses them in place of JNA's
+ * reflection-based {@link Structure#read()} and {@link Structure#write()}.
+ * </p>
+ * <p>
+ * The codecs are used by default. Set the <code>leapjna.codecs</code> system property
+ * to <code>reflection</code> to decode all structures through JNA instead, or call
+ * {@link #setEnabled(boolean)} at runtime.
+ * </p>
+ * <p>
+ * A codec is only used if its size matches the size JNA computed for the structure
+ * instance. Structures created with a different alignment than the packed layout the
+ * codecs assume, as well as structures without a codec, are decoded by JNA.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class StructCodecs
+{
+	/** The system property used to select how structures are decoded. */
+	public static final String PROPERTY = "leapjna.codecs";
+	/** Decode structures using the generated codecs (the default). */
+	public static final String GENERATED = "generated";
+	/** Decode structures using JNA's reflection. */
+	public static final String REFLECTION = "reflection";
+
+	private static final ClassValue<StructCodec<?>> CODECS = new ClassValue<StructCodec<?>>()
+	{
+		@Override
+		protected StructCodec<?> computeValue(Class<?> type)
+		{
+			return loadCodec(type);
+		}
+	};
+
+	private static volatile boolean enabled = !REFLECTION
+			.equalsIgnoreCase(System.getProperty(PROPERTY, GENERATED).trim());
+
+
+	private StructCodecs()
+	{}
+
+
+	/**
+	 * @return <code>true</code> if the generated codecs are used.
+	 */
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+
+
+	/**
+	 * Selects whether the generated codecs are used. Overrides the
+	 * <code>leapjna.codecs</code> property.
+	 */
+	public static void setEnabled(boolean enabled)
+	{
+		StructCodecs.enabled = enabled;
+	}
+
+
+	/**
+	 * Returns the generated codec for <code>type</code>. Subclasses without their own
+	 * field order (like <code>ByValue</code> classes) share the codec of their superclass.
+	 *
+	 * @return The codec, or <code>null</code> if <code>type</code> has no codec. Does not
+	 *         depend on whether the codecs are {@link #isEnabled() enabled}.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends Structure> StructCodec<? super T> get(Class<T> type)
+	{
+		return (StructCodec<? super T>) CODECS.get(type);
+	}
+
+
+	/**
+	 * Reads <code>structure</code> from its native memory using its codec.
+	 *
+	 * @return <code>true</code> if the structure was read, <code>false</code> if the
+	 *         codecs are disabled or no matching codec exists. In the latter case the
+	 *         caller should fall back to {@link Structure#read()}.
+	 */
+	public static <T extends Structure> boolean read(T structure)
+	{
+		StructCodec<? super T> codec = getUsableCodec(structure);
+		if (codec == null)
+			return false;
+
+		codec.read(structure.getPointer(), 0, structure);
+		return true;
+	}
+
+
+	/**
+	 * Reads the parts of <code>hand</code> selected by <code>spec</code> from its native
+	 * memory. Unselected fields keep their current values.
+	 *
+	 * @return <code>true</code> if the hand was read, <code>false</code> if the codecs are
+	 *         disabled or the hand's layout does not match the codec. In the latter case
+	 *         the caller should fall back to {@link Structure#read()}.
+	 * @see HandDecodeSpec
+	 */
+	public static boolean read(LEAP_HAND hand, HandDecodeSpec spec)
+	{
+		if (getUsableCodec(hand) == null)
+			return false;
+
+		HandDecoder.decode(hand.getPointer(), 0, hand, spec);
+		return true;
+	}
+
+
+	/**
+	 * Writes <code>structure</code> to its native memory using its codec.
+	 *
+	 * @return <code>true</code> if the structure was written, <code>false</code> if the
+	 *         codecs are disabled or no matching, writable codec exists. In the latter case
+	 *         the caller should fall back to {@link Structure#write()}.
+	 */
+	public static <T extends Structure> boolean write(T structure)
+	{
+		StructCodec<? super T> codec = getUsableCodec(structure);
+		if (codec == null || !codec.isWritable())
+			return false;
+
+		codec.write(structure, structure.getPointer(), 0);
+		return true;
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Structure> StructCodec<? super T> getUsableCodec(T structure)
+	{
+		if (!enabled)
+			return null;
+
+		StructCodec<? super T> codec = get((Class<T>) structure.getClass());
+		if (codec == null)
+			return null;
+
+		// JNA uses a placeholder with a null address while calculating sizes.
+		Pointer pointer = structure.getPointer();
+		if (pointer == null || Pointer.nativeValue(pointer) == 0)
+			return null;
+
+		return (codec.size() == structure.size() ? codec : null);
+	}
+
+
+	private static StructCodec<?> loadCodec(Class<?> type)
+	{
+		Class<?> structType = type;
+		while (structType != null && !structType.isAnnotationPresent(FieldOrder.class))
+			structType = structType.getSuperclass();
+
+		if (structType == null)
+			return null;
+		if (structType != type)
+			return CODECS.get(structType);
+
+		String packageName = StructCodecs.class.getPackageName();
+		String typeName = structType.getName();
+		typeName = typeName.substring(typeName.lastIndexOf('.') + 1).replace('$', '_');
+
+		try
+		{
+			Class<?> codecClass = Class.forName(packageName + "." + typeName + "_Codec", true,
+					StructCodecs.class.getClassLoader());
+			StructCodec<?> codec = (StructCodec<?>) codecClass.getDeclaredConstructor()
+					.newInstance();
+			return (codec.getType() == structType ? codec : null);
+		}
+		catch (ClassNotFoundException e)
+		{
+			return null;
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalStateException("Could not create the codec for " + type.getName(), e);
+		}
+	}
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+
+/**
+ * Provides codecs that read and write the structures in
+ * {@link komposten.leapjna.leapc.data} and {@link komposten.leapjna.leapc.events} at
+ * fixed offsets. The codecs themselves are generated at compile time from the
+ * structures' field orders.
+ */
+package komposten.leapjna.leapc.codec;
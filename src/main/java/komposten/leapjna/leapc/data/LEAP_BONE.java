@@ -9,9 +9,11 @@
  */
 package komposten.leapjna.leapc.data;
 
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.ReusableStructure;
+
 
 /**
  * <p>
@@ -28,7 +30,7 @@ import com.sun.jna.Structure.FieldOrder;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "prev_joint", "next_joint", "width", "rotation" })
-public class LEAP_BONE extends Structure
+public class LEAP_BONE extends ReusableStructure
 {
 	/** The base of the bone, closer to the heart. I.e. the bone's origin. */
 	public LEAP_VECTOR prev_joint;
@@ -55,4 +57,20 @@ public class LEAP_BONE extends Structure
 	{
 		super(ALIGN_NONE);
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ package komposten.leapjna.leapc.data;
 import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.eLeapConnectionConfig;
 
 /**
@@ -36,4 +37,12 @@ public class LEAP_CONNECTION_CONFIG extends Structure
 
 	/** For internal use. */
 	public String server_namespace;
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
 }
\ No newline at end of file
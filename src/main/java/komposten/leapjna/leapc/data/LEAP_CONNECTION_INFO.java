@@ -13,6 +13,7 @@ import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapConnectionStatus;
 
@@ -57,6 +58,22 @@ public class LEAP_CONNECTION_INFO extends Structure
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The connection status as an {@link eLeapConnectionStatus} instead of a <code>long</code>.
 	 */
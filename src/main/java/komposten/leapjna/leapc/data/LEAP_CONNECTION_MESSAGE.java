@@ -15,6 +15,8 @@ import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.HandDecodeSpec;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapEventType;
 import komposten.leapjna.leapc.events.LEAP_CONFIG_CHANGE_EVENT;
@@ -36,10 +38,21 @@ import komposten.leapjna.leapc.events.LEAP_POINT_MAPPING_CHANGE_EVENT;
 import komposten.leapjna.leapc.events.LEAP_POLICY_EVENT;
 import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
 import komposten.leapjna.leapc.events.LEAP_TRACKING_MODE_EVENT;
+import komposten.leapjna.leapc.util.ReusableStructure;
+import komposten.leapjna.leapc.util.Structures;
 
 
 /**
+ * <p>
  * Defines a basic message from the LeapC message queue.
+ * </p>
+ * <p>
+ * By default, each <code>get***Event()</code> call after a poll creates a new event
+ * object. Call {@link #setReuseEvents(boolean) setReuseEvents(true)} to instead keep one
+ * event object per event type and re-point it to the new event data on each poll. The
+ * message itself can also be re-used for every poll, which together makes polling for
+ * tracking events allocation-free once all objects have been created.
+ * </p>
  * 
  * @see <a href=
  *      "https://docs.ultraleap.com/tracking-api/group/group___structs.html#_CPPv423LEAP_CONNECTION_MESSAGE">LeapC
@@ -81,7 +94,15 @@ public class LEAP_CONNECTION_MESSAGE extends Structure
 	 */
 	public int device_id;
 
+	private static final int EVENT_TYPE_COUNT = eLeapEventType.values().length;
+
 	private LEAP_EVENT event;
+	private LEAP_EVENT[] reusableEvents;
+	private HandDecodeSpec handDecodeSpec;
+	private Function<Pointer, LEAP_TRACKING_EVENT> trackingEventFactory =
+			LEAP_TRACKING_EVENT::new;
+	private boolean lazyImageEvents;
+	private Function<Pointer, LEAP_IMAGE_EVENT> imageEventFactory = LEAP_IMAGE_EVENT::new;
 
 	public LEAP_CONNECTION_MESSAGE()
 	{
@@ -99,7 +120,141 @@ public class LEAP_CONNECTION_MESSAGE extends Structure
 	@Override
 	public void read()
 	{
-		super.read();
+		if (!StructCodecs.read(this))
+			super.read();
+		event = null;
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
+	/**
+	 * <p>
+	 * Selects whether the event objects returned by the <code>get***Event()</code> methods
+	 * are re-used across polls.
+	 * </p>
+	 * <p>
+	 * When enabled, each event type has a single event object which is moved to the event
+	 * data of the current message instead of being re-created. The returned events (and
+	 * the hands of tracking events) are therefore only valid until the message is read
+	 * again, which is also how long LeapC keeps the event data valid.
+	 * </p>
+	 * 
+	 * @param reuseEvents <code>true</code> to re-use event objects.
+	 * @since LeapJna 1.2.1
+	 */
+	public void setReuseEvents(boolean reuseEvents)
+	{
+		reusableEvents = (reuseEvents ? new LEAP_EVENT[EVENT_TYPE_COUNT] : null);
+		event = null;
+	}
+
+
+	/**
+	 * @return <code>true</code> if event objects are re-used across polls.
+	 * @see #setReuseEvents(boolean)
+	 * @since LeapJna 1.2.1
+	 */
+	public boolean isReusingEvents()
+	{
+		return reusableEvents != null;
+	}
+
+
+	/**
+	 * Selects which parts of the hands are read by the tracking events returned from
+	 * {@link #getTrackingEvent()}.
+	 * 
+	 * @param spec The parts to read, or <code>null</code> to read the whole hands (the
+	 *          default).
+	 * @see LEAP_TRACKING_EVENT#setHandDecodeSpec(HandDecodeSpec)
+	 * @since LeapJna 1.2.1
+	 */
+	public void setHandDecodeSpec(HandDecodeSpec spec)
+	{
+		handDecodeSpec = spec;
+		trackingEventFactory = (spec != null ? pointer -> new LEAP_TRACKING_EVENT(pointer, spec)
+				: LEAP_TRACKING_EVENT::new);
+
+		if (reusableEvents != null)
+		{
+			LEAP_EVENT reusable = reusableEvents[eLeapEventType.Tracking.ordinal()];
+			if (reusable != null)
+				((LEAP_TRACKING_EVENT) reusable).setHandDecodeSpec(spec);
+		}
+	}
+
+
+	/**
+	 * @return The parts of the hands that are read by tracking events, or
+	 *         <code>null</code> if the whole hands are read.
+	 * @since LeapJna 1.2.1
+	 */
+	public HandDecodeSpec getHandDecodeSpec()
+	{
+		return handDecodeSpec;
+	}
+
+
+	/**
+	 * Selects whether the image events returned from {@link #getImageEvent()} only read the
+	 * parts that are requested through their accessor methods.
+	 * 
+	 * @param lazy <code>true</code> to create lazy image events.
+	 * @see LEAP_IMAGE_EVENT#LEAP_IMAGE_EVENT(Pointer, boolean)
+	 * @since LeapJna 1.2.1
+	 */
+	public void setLazyImageEvents(boolean lazy)
+	{
+		lazyImageEvents = lazy;
+		imageEventFactory = (lazy ? pointer -> new LEAP_IMAGE_EVENT(pointer, true)
+				: LEAP_IMAGE_EVENT::new);
+
+		if (reusableEvents != null)
+			reusableEvents[eLeapEventType.Image.ordinal()] = null;
+		if (event instanceof LEAP_IMAGE_EVENT)
+			event = null;
+	}
+
+
+	/**
+	 * @return <code>true</code> if image events only read the parts that are requested.
+	 * @see #setLazyImageEvents(boolean)
+	 * @since LeapJna 1.2.1
+	 */
+	public boolean isLazyImageEvents()
+	{
+		return lazyImageEvents;
+	}
+
+
+	/**
+	 * <p>
+	 * Sets the fields of this message and discards any cached event object.
+	 * </p>
+	 * <p>
+	 * This is intended for decoders that populate the message without going through
+	 * {@link #read()}. The native memory of the message is not updated.
+	 * </p>
+	 * 
+	 * @param size The size of the message struct.
+	 * @param type The event type.
+	 * @param pEvent A pointer to the event data.
+	 * @param device_id The ID of the device that sent the message.
+	 * @since LeapJna 1.2.1
+	 */
+	public void set(int size, int type, Pointer pEvent, int device_id)
+	{
+		this.size = size;
+		this.type = type;
+		this.pEvent = pEvent;
+		this.device_id = device_id;
 		event = null;
 	}
 
@@ -206,7 +361,7 @@ public class LEAP_CONNECTION_MESSAGE extends Structure
 	public LEAP_TRACKING_EVENT getTrackingEvent()
 	{
 		checkType(eLeapEventType.Tracking);
-		return getOrCreateEvent(LEAP_TRACKING_EVENT::new);
+		return getOrCreateEvent(trackingEventFactory);
 	}
 	
 	
@@ -346,7 +501,7 @@ public class LEAP_CONNECTION_MESSAGE extends Structure
 	public LEAP_IMAGE_EVENT getImageEvent()
 	{
 		checkType(eLeapEventType.Image);
-		return getOrCreateEvent(LEAP_IMAGE_EVENT::new);
+		return getOrCreateEvent(imageEventFactory);
 	}
 
 
@@ -364,8 +519,35 @@ public class LEAP_CONNECTION_MESSAGE extends Structure
 	private <T extends LEAP_EVENT> T getOrCreateEvent(Function<Pointer, T> createFunction)
 	{
 		if (event == null)
-			event = createFunction.apply(pEvent);
+		{
+			if (reusableEvents != null && pEvent != null)
+				event = reuseEvent(createFunction);
+			else
+				event = createFunction.apply(pEvent);
+		}
 
 		return (T) event;
 	}
+
+
+	private LEAP_EVENT reuseEvent(Function<Pointer, ? extends LEAP_EVENT> createFunction)
+	{
+		int index = getType().ordinal();
+		LEAP_EVENT reusable = reusableEvents[index];
+
+		if (reusable != null)
+		{
+			Structures.useMemory((ReusableStructure) reusable, pEvent, 0);
+			((Structure) reusable).read();
+		}
+		else
+		{
+			reusable = createFunction.apply(pEvent);
+			if (reusable instanceof LEAP_TRACKING_EVENT)
+				((LEAP_TRACKING_EVENT) reusable).setReuseHands(true);
+			reusableEvents[index] = reusable;
+		}
+
+		return reusable;
+	}
 }
\ No newline at end of file
@@ -10,9 +10,11 @@
 package komposten.leapjna.leapc.data;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.ReusableStructure;
+
 
 /**
  * <p>
@@ -29,10 +31,26 @@ import com.sun.jna.Structure.FieldOrder;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "handle" })
-public class LEAP_DEVICE extends Structure
+public class LEAP_DEVICE extends ReusableStructure
 {
 	/**
 	 * A handle to a Leap device object.
 	 */
 	public Pointer handle;
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
@@ -14,6 +14,7 @@ import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapDeviceCaps;
 import komposten.leapjna.leapc.enums.eLeapDevicePID;
@@ -101,6 +102,14 @@ public class LEAP_DEVICE_INFO extends Structure
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
 	/**
 	 * Allocates space for the serial number string.
 	 * 
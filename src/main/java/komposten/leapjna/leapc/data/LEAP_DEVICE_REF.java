@@ -15,7 +15,9 @@ import com.sun.jna.Structure.FieldOrder;
 import com.sun.jna.ptr.IntByReference;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.util.ArrayPointer;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -37,7 +39,7 @@ import komposten.leapjna.leapc.util.ArrayPointer;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "handle", "id" })
-public class LEAP_DEVICE_REF extends Structure implements Structure.ByValue
+public class LEAP_DEVICE_REF extends ReusableStructure implements Structure.ByValue
 {
 	/** A device handle. */
 	public Pointer handle;
@@ -55,4 +57,20 @@ public class LEAP_DEVICE_REF extends Structure implements Structure.ByValue
 		super(pointer, ALIGN_NONE);
 		read();
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
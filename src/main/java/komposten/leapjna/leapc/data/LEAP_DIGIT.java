@@ -9,9 +9,11 @@
  */
 package komposten.leapjna.leapc.data;
 
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.ReusableStructure;
+
 
 /**
  * <p>
@@ -29,7 +31,7 @@ import com.sun.jna.Structure.FieldOrder;
  */
 @FieldOrder({ "finger_id", "metacarpal", "proximal", "intermediate", "distal",
 		"is_extended" })
-public class LEAP_DIGIT extends Structure
+public class LEAP_DIGIT extends ReusableStructure
 {
 	/** The Leap identifier of this finger. */
 	public int finger_id;
@@ -65,6 +67,23 @@ public class LEAP_DIGIT extends Structure
 		super(ALIGN_NONE);
 	}
 
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	
 	/**
 	 * Bundles the bones in an array to facilitate iteration over them.
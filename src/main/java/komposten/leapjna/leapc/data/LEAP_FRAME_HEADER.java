@@ -10,10 +10,11 @@
 package komposten.leapjna.leapc.data;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -28,7 +29,7 @@ import komposten.leapjna.leapc.LeapC;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "reserved", "frame_id", "timestamp" })
-public class LEAP_FRAME_HEADER extends Structure
+public class LEAP_FRAME_HEADER extends ReusableStructure
 {
 	/** Reserved, set to zero. */
 	public Pointer reserved;
@@ -54,4 +55,20 @@ public class LEAP_FRAME_HEADER extends Structure
 	 * {@link LeapC#LeapGetNow()}.
 	 */
 	public long timestamp;
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
\ No newline at end of file
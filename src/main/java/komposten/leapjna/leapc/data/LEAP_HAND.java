@@ -13,8 +13,11 @@ import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.HandDecodeSpec;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapHandType;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -30,13 +33,13 @@ import komposten.leapjna.leapc.enums.eLeapHandType;
  */
 @FieldOrder({ "id", "flags", "type", "confidence", "visible_time", "pinch_distance",
 		"grab_angle", "pinch_strength", "grab_strength", "palm", "digits", "arm" })
-public class LEAP_HAND extends Structure
+public class LEAP_HAND extends ReusableStructure
 {
 	/**
 	 * A struct to store the digits of a hand.
 	 */
 	@FieldOrder({ "thumb", "index", "middle", "ring", "pinky" })
-	public static class DigitStruct extends Structure
+	public static class DigitStruct extends ReusableStructure
 	{
 		public LEAP_DIGIT thumb;
 		public LEAP_DIGIT index;
@@ -49,6 +52,22 @@ public class LEAP_HAND extends Structure
 			super(ALIGN_NONE);
 		}
 
+
+		@Override
+		public void read()
+		{
+			if (!StructCodecs.read(this))
+				super.read();
+		}
+
+
+		@Override
+		public void write()
+		{
+			if (!StructCodecs.write(this))
+				super.write();
+		}
+
 		/**
 		 * Bundles the digits in an array to facilitate iteration over them.
 		 * 
@@ -152,6 +171,51 @@ public class LEAP_HAND extends Structure
 	}
 
 
+	/**
+	 * Creates a hand backed by the memory at <code>pointer</code> and reads the parts
+	 * selected by <code>spec</code>.
+	 *
+	 * @see #read(HandDecodeSpec)
+	 * @since LeapJna 1.2.1
+	 */
+	public LEAP_HAND(Pointer pointer, HandDecodeSpec spec)
+	{
+		super(pointer, ALIGN_NONE);
+		read(spec);
+	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
+	/**
+	 * Reads the parts of this hand selected by <code>spec</code>. Fields that are not
+	 * selected keep their current values. If <code>spec</code> is <code>null</code> or
+	 * the codecs cannot be used, the whole hand is read.
+	 *
+	 * @see StructCodecs#read(LEAP_HAND, HandDecodeSpec)
+	 * @since LeapJna 1.2.1
+	 */
+	public void read(HandDecodeSpec spec)
+	{
+		if (spec == null || spec.isAll() || !StructCodecs.read(this, spec))
+			read();
+	}
+
+
 	/**
 	 * @return The hand type as an {@link eLeapHandType} instead of a <code>byte</code>.
 	 */
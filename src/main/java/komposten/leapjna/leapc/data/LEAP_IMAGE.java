@@ -9,10 +9,15 @@
  */
 package komposten.leapjna.leapc.data;
 
+import java.nio.ByteBuffer;
+
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.DistortionMatrixCache;
+import komposten.leapjna.leapc.util.ReusableStructure;
+
 
 /**
  * <p>
@@ -25,7 +30,7 @@ import com.sun.jna.Structure.FieldOrder;
  * @since Ultraleap Orion SDK 4.0.0
  */
 @FieldOrder({ "properties", "matrix_version", "distortion_matrix", "data", "offset" })
-public class LEAP_IMAGE extends Structure
+public class LEAP_IMAGE extends ReusableStructure
 {
 	/** The properties of the received image. */
 	public LEAP_IMAGE_PROPERTIES properties;
@@ -66,8 +71,12 @@ public class LEAP_IMAGE extends Structure
 	public int offset;
 
 	private byte[] imageData;
+	/** A read-only view of the image data, re-used while the data address is unchanged. */
+	private ByteBuffer dataBuffer;
+	private long dataBufferAddress;
 
 	private LEAP_DISTORTION_MATRIX matrixData;
+	private long matrixVersion;
 
 	public LEAP_IMAGE()
 	{
@@ -75,6 +84,103 @@ public class LEAP_IMAGE extends Structure
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+
+		// The structure may be re-used for a new image (e.g. by a re-used LEAP_IMAGE_EVENT).
+		imageData = null;
+		if (matrixData != null && (!matrixData.getPointer().equals(distortion_matrix)
+				|| matrixVersion != matrix_version))
+		{
+			matrixData = null;
+		}
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
+	/**
+	 * @return The size of the image data in bytes: <code>width * height * bpp</code>.
+	 * @since LeapJna 1.2.1
+	 */
+	public int getDataSize()
+	{
+		return properties.width * properties.height * properties.bpp;
+	}
+
+
+	/**
+	 * <p>
+	 * Returns a read-only view of the image data, directly over the native memory at
+	 * <code>data + offset</code>. Nothing is copied.
+	 * </p>
+	 * <p>
+	 * The view is only valid until LeapC re-uses the image buffer, i.e. until the next
+	 * poll. The same buffer object is returned (with its position and limit reset) for as
+	 * long as the image data stays at the same address, so repeated calls do not allocate.
+	 * </p>
+	 * 
+	 * @return The image data, or <code>null</code> if {@link #data} is <code>null</code>.
+	 * @since LeapJna 1.2.1
+	 */
+	public ByteBuffer getDataBuffer()
+	{
+		if (data == null)
+		{
+			return null;
+		}
+
+		int size = getDataSize();
+		long address = Pointer.nativeValue(data) + offset;
+		if (dataBuffer == null || dataBufferAddress != address || dataBuffer.capacity() != size)
+		{
+			dataBuffer = data.getByteBuffer(offset, size).asReadOnlyBuffer();
+			dataBufferAddress = address;
+		}
+
+		return dataBuffer.clear();
+	}
+
+
+	/**
+	 * <p>
+	 * Copies the image data from native memory into <code>dest</code>, without caching it
+	 * in this structure.
+	 * </p>
+	 * 
+	 * @param dest The array to copy the data to, if it is large enough; otherwise a new
+	 *          array is allocated. May be <code>null</code>.
+	 * @return The array containing the image data in its first {@link #getDataSize()}
+	 *         bytes, or <code>null</code> if {@link #data} is <code>null</code>.
+	 * @since LeapJna 1.2.1
+	 */
+	public byte[] copyInto(byte[] dest)
+	{
+		if (data == null)
+		{
+			return null;
+		}
+
+		int size = getDataSize();
+		if (dest == null || dest.length < size)
+		{
+			dest = new byte[size];
+		}
+
+		data.read(offset, dest, 0, size);
+		return dest;
+	}
+
+
 	/**
 	 * <p>
 	 * The image data is not loaded from native memory until this method is called. This
@@ -85,6 +191,10 @@ public class LEAP_IMAGE extends Structure
 	 * After {@link #getData()} has been called once, successive calls will return
 	 * a cached array rather than load the data from native memory every time.
 	 * </p>
+	 * <p>
+	 * Use {@link #getDataBuffer()} or {@link #copyInto(byte[])} instead to access the data
+	 * without allocating a new array for every image.
+	 * </p>
 	 * 
 	 * @return The image data as a byte array.
 	 */
@@ -92,8 +202,7 @@ public class LEAP_IMAGE extends Structure
 	{
 		if (imageData == null)
 		{
-			imageData = data.getByteArray(offset,
-					properties.width * properties.height * properties.bpp);
+			imageData = data.getByteArray(offset, getDataSize());
 		}
 		return imageData;
 	}
@@ -106,7 +215,8 @@ public class LEAP_IMAGE extends Structure
 	 * </p>
 	 * <p>
 	 * <b>NOTE</b>: For performance reasons it is best to only use this method if
-	 * {@link #matrix_version} has changed since you last read a distortion matrix!
+	 * {@link #matrix_version} has changed since you last read a distortion matrix! A
+	 * {@link DistortionMatrixCache} can be used to keep track of this across images.
 	 * </p>
 	 * 
 	 * @return A {@link LEAP_DISTORTION_MATRIX} containing the matrix.
@@ -116,6 +226,7 @@ public class LEAP_IMAGE extends Structure
 		if (matrixData == null)
 		{
 			matrixData = new LEAP_DISTORTION_MATRIX(distortion_matrix);
+			matrixVersion = matrix_version;
 		}
 
 		return matrixData;
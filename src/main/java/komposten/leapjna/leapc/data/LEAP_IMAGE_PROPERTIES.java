@@ -9,12 +9,13 @@
  */
 package komposten.leapjna.leapc.data;
 
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapImageFormat;
 import komposten.leapjna.leapc.enums.eLeapImageType;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -28,7 +29,7 @@ import komposten.leapjna.leapc.enums.eLeapImageType;
  */
 @FieldOrder({ "type", "format", "bpp", "width", "height", "x_scale", "y_scale",
 		"x_offset", "y_offset" })
-public class LEAP_IMAGE_PROPERTIES extends Structure
+public class LEAP_IMAGE_PROPERTIES extends ReusableStructure
 {
 	/**
 	 * The type of this image. Use {@link #getType()} to get the type as an
@@ -70,6 +71,22 @@ public class LEAP_IMAGE_PROPERTIES extends Structure
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The type as an {@link eLeapImageType} instead of an <code>int</code>.
 	 */
@@ -9,9 +9,11 @@
  */
 package komposten.leapjna.leapc.data;
 
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.ReusableStructure;
+
 
 /**
  * <p>
@@ -29,7 +31,7 @@ import com.sun.jna.Structure.FieldOrder;
  */
 @FieldOrder({ "position", "stabilized_position", "velocity", "normal", "width",
 		"direction", "orientation" })
-public class LEAP_PALM extends Structure
+public class LEAP_PALM extends ReusableStructure
 {
 	/** The centre position of the palm in millimetres from the Ultraleap Tracking camera device origin. */
 	public LEAP_VECTOR position;
@@ -78,4 +80,20 @@ public class LEAP_PALM extends Structure
 	{
 		super(ALIGN_NONE);
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
\ No newline at end of file
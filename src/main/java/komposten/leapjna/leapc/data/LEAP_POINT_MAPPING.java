@@ -14,6 +14,7 @@ import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 
 
 /**
@@ -87,7 +88,8 @@ public class LEAP_POINT_MAPPING extends Structure
 	@Override
 	public void read()
 	{
-		super.read();
+		if (!StructCodecs.read(this))
+			super.read();
 
 		points = new LEAP_VECTOR[nPoints];
 		ids = new int[nPoints];
@@ -104,4 +106,12 @@ public class LEAP_POINT_MAPPING extends Structure
 			idOffset += 4;
 		}
 	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
@@ -9,9 +9,11 @@
  */
 package komposten.leapjna.leapc.data;
 
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.ReusableStructure;
+
 
 /**
  * <p>
@@ -25,7 +27,7 @@ import com.sun.jna.Structure.FieldOrder;
  * @since Ultraleap Orion SDK 3.1.2
  */
 @FieldOrder({ "w", "x", "y", "z" })
-public class LEAP_QUATERNION extends Structure
+public class LEAP_QUATERNION extends ReusableStructure
 {
 	/** The scalar position of the quaternion. */
 	public float w;
@@ -43,6 +45,23 @@ public class LEAP_QUATERNION extends Structure
 	{
 		super(ALIGN_NONE);
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
 	
 
 	/**
@@ -61,10 +80,7 @@ public class LEAP_QUATERNION extends Structure
 	 */
 	public float getRoll()
 	{
-		double nominator = 2 * (w * x + y * z);
-		double denominator = 1 - 2 * (x * x + y * y);
-		
-		return (float) Math.atan2(nominator, denominator);
+		return roll(w, x, y, z);
 	}
 
 
@@ -75,15 +91,7 @@ public class LEAP_QUATERNION extends Structure
 	 */
 	public float getYaw()
 	{
-		float sinp = 2 * (w * y - z * x);
-		float yaw;
-		
-		if (Math.abs(sinp) >= 1)
-			yaw = (float) (sinp > 0 ? Math.PI / 2 : -Math.PI / 2);
-		else
-			yaw = (float) Math.asin(sinp);
-		
-		return yaw;
+		return yaw(w, x, y, z);
 	}
 
 
@@ -94,10 +102,7 @@ public class LEAP_QUATERNION extends Structure
 	 */
 	public float getPitch()
 	{
-		double nominator = -2 * (w * z + x * y);
-		double denominator = 1 - 2 * (y * y + z * z);
-
-		return (float) Math.atan2(nominator, denominator);
+		return pitch(w, x, y, z);
 	}
 
 
@@ -109,4 +114,60 @@ public class LEAP_QUATERNION extends Structure
 	{
 		return new float[] { getRoll(), getYaw(), getPitch() };
 	}
-}
\ No newline at end of file
+
+
+	/**
+	 * Calculates the roll, or rotation around the z-axis, described by the quaternion
+	 * <code>(w, x, y, z)</code>.
+	 * 
+	 * @return The roll in radians.
+	 * @see #getRoll()
+	 * @since LeapJna 1.2.1
+	 */
+	public static float roll(float w, float x, float y, float z)
+	{
+		double nominator = 2 * (w * x + y * z);
+		double denominator = 1 - 2 * (x * x + y * y);
+
+		return (float) Math.atan2(nominator, denominator);
+	}
+
+
+	/**
+	 * Calculates the yaw, or rotation around the y-axis, described by the quaternion
+	 * <code>(w, x, y, z)</code>.
+	 * 
+	 * @return The yaw in radians.
+	 * @see #getYaw()
+	 * @since LeapJna 1.2.1
+	 */
+	public static float yaw(float w, float x, float y, float z)
+	{
+		float sinp = 2 * (w * y - z * x);
+		float yaw;
+
+		if (Math.abs(sinp) >= 1)
+			yaw = (float) (sinp > 0 ? Math.PI / 2 : -Math.PI / 2);
+		else
+			yaw = (float) Math.asin(sinp);
+
+		return yaw;
+	}
+
+
+	/**
+	 * Calculates the pitch, or rotation around the x-axis, described by the quaternion
+	 * <code>(w, x, y, z)</code>.
+	 * 
+	 * @return The pitch in radians.
+	 * @see #getPitch()
+	 * @since LeapJna 1.2.1
+	 */
+	public static float pitch(float w, float x, float y, float z)
+	{
+		double nominator = -2 * (w * z + x * y);
+		double denominator = 1 - 2 * (y * y + z * z);
+
+		return (float) Math.atan2(nominator, denominator);
+	}
+}
@@ -13,6 +13,8 @@ import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+
 
 /**
  * <p>
@@ -35,4 +37,20 @@ public class LEAP_RECORDING extends Structure
 	 * A handle to the Leap recording object.
 	 */
 	public Pointer handle;
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
@@ -12,6 +12,7 @@ package komposten.leapjna.leapc.data;
 import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
 import komposten.leapjna.leapc.enums.eLeapRecordingFlags;
@@ -53,6 +54,22 @@ public class LEAP_RECORDING_PARAMETERS extends Structure implements Structure.By
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The mode flags as an {@link eLeapDeviceStatus} array instead of an
 	 *         <code>int</code>.
@@ -14,6 +14,7 @@ import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
 import komposten.leapjna.leapc.enums.eLeapRecordingFlags;
@@ -48,6 +49,23 @@ public class LEAP_RECORDING_STATUS extends Structure
 	 */
 	public int mode;
 
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The mode flags as an {@link eLeapDeviceStatus} array instead of an
 	 *         <code>int</code>.
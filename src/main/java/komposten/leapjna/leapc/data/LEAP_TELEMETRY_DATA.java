@@ -12,6 +12,8 @@ package komposten.leapjna.leapc.data;
 import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+
 
 /**
  * Holds telemetry configuration information.
@@ -36,4 +38,12 @@ public class LEAP_TELEMETRY_DATA extends Structure
 	{
 		super(ALIGN_NONE);
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
 }
@@ -13,6 +13,9 @@ import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.ReusableStructure;
+
 
 /**
  * <p>
@@ -26,7 +29,7 @@ import com.sun.jna.Structure.FieldOrder;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "x", "y", "z" })
-public class LEAP_VECTOR extends Structure
+public class LEAP_VECTOR extends ReusableStructure
 {
 	public float x;
 	public float y;
@@ -59,6 +62,22 @@ public class LEAP_VECTOR extends Structure
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The vector's values as an array in the order: x, y, z.
 	 */
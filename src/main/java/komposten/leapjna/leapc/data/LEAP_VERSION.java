@@ -10,10 +10,11 @@
 package komposten.leapjna.leapc.data;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.events.LEAP_EVENT;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -35,7 +36,7 @@ import komposten.leapjna.leapc.events.LEAP_EVENT;
  * @since Ultraleap Gemini SDK 5.2.0
  */
 @FieldOrder({ "major", "minor", "patch" })
-public class LEAP_VERSION extends Structure implements LEAP_EVENT
+public class LEAP_VERSION extends ReusableStructure implements LEAP_EVENT
 {
 	/**
 	 * The major version.
@@ -61,4 +62,20 @@ public class LEAP_VERSION extends Structure implements LEAP_EVENT
 		super(pointer, ALIGN_NONE);
 		read();
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.devices;
+
+import java.util.Arrays;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapPerspectiveType;
+import komposten.leapjna.leapc.util.PrimitiveArrayPointer;
+
+
+/**
+ * <p>
+ * A thread-safe cache of the {@link CameraCalibration}s of each device and camera.
+ * </p>
+ * <p>
+ * The calibration of a camera is fetched from LeapC the first time it is requested, and
+ * is then returned without any native calls until it is {@link #invalidate(int)
+ * invalidated}. Pass polled messages to {@link #handle(LEAP_CONNECTION_MESSAGE)} to
+ * invalidate the calibrations of a device when its status changes or it is lost.
+ * </p>
+ * <p>
+ * Like {@link DeviceRegistry}, the calibrations are stored in a copy-on-write array, so
+ * {@link #get(Device, eLeapPerspectiveType)} is lock-free and does not allocate once the
+ * calibration has been fetched.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class CalibrationCache
+{
+	private static final CameraCalibration[] NO_CALIBRATIONS = new CameraCalibration[0];
+
+	private final LeapC leapC;
+	private final Pointer hConnection;
+	private final Object lock = new Object();
+	private volatile CameraCalibration[] calibrations = NO_CALIBRATIONS;
+
+
+	/**
+	 * Creates a cache that uses {@link LeapC#INSTANCE}.
+	 *
+	 * @param hConnection The connection handle the devices belong to.
+	 */
+	public CalibrationCache(Pointer hConnection)
+	{
+		this(LeapC.INSTANCE, hConnection);
+	}
+
+
+	/**
+	 * @param leapC The LeapC instance to fetch calibrations with.
+	 * @param hConnection The connection handle the devices belong to.
+	 */
+	public CalibrationCache(LeapC leapC, Pointer hConnection)
+	{
+		this.leapC = leapC;
+		this.hConnection = hConnection;
+	}
+
+
+	/**
+	 * Invalidates the calibrations of the device in a
+	 * {@link komposten.leapjna.leapc.enums.eLeapEventType#DeviceStatusChange} or
+	 * {@link komposten.leapjna.leapc.enums.eLeapEventType#DeviceLost} message. Other
+	 * messages are ignored.
+	 *
+	 * @return <code>true</code> if the message was one of the types listed above.
+	 */
+	public boolean handle(LEAP_CONNECTION_MESSAGE message)
+	{
+		switch (message.getType())
+		{
+			case DeviceStatusChange :
+				invalidate(message.getDeviceStatusChangeEvent().device.id);
+				return true;
+			case DeviceLost :
+				invalidate(message.getDeviceLostEvent().device.id);
+				return true;
+			default :
+				return false;
+		}
+	}
+
+
+	/**
+	 * Returns the calibration of one of a device's cameras, fetching it from LeapC if it is
+	 * not cached.
+	 *
+	 * @param device An open device, e.g. from a {@link DeviceRegistry}.
+	 * @param camera The camera.
+	 * @return The calibration.
+	 */
+	public CameraCalibration get(Device device, eLeapPerspectiveType camera)
+	{
+		CameraCalibration calibration = getCached(device.getId(), camera);
+		if (calibration != null)
+			return calibration;
+
+		synchronized (lock)
+		{
+			calibration = getCached(device.getId(), camera);
+			if (calibration == null)
+			{
+				calibration = fetch(device, camera);
+				CameraCalibration[] current = calibrations;
+				CameraCalibration[] updated = Arrays.copyOf(current, current.length + 1);
+				updated[current.length] = calibration;
+				calibrations = updated;
+			}
+
+			return calibration;
+		}
+	}
+
+
+	/**
+	 * @return The cached calibration, or <code>null</code> if it has not been fetched.
+	 */
+	public CameraCalibration getCached(int deviceId, eLeapPerspectiveType camera)
+	{
+		// There are rarely more than a couple of devices, so a linear search is fastest.
+		for (CameraCalibration calibration : calibrations)
+		{
+			if (calibration.getDeviceId() == deviceId && calibration.getCamera() == camera)
+				return calibration;
+		}
+
+		return null;
+	}
+
+
+	/**
+	 * Removes the calibrations of a device, so that they are fetched again the next time
+	 * they are requested.
+	 */
+	public void invalidate(int deviceId)
+	{
+		synchronized (lock)
+		{
+			CameraCalibration[] current = calibrations;
+			CameraCalibration[] updated = new CameraCalibration[current.length];
+			int count = 0;
+			for (CameraCalibration calibration : current)
+			{
+				if (calibration.getDeviceId() != deviceId)
+					updated[count++] = calibration;
+			}
+
+			if (count < current.length)
+				calibrations = Arrays.copyOf(updated, count);
+		}
+	}
+
+
+	/**
+	 * Removes all calibrations.
+	 */
+	public void clear()
+	{
+		synchronized (lock)
+		{
+			calibrations = NO_CALIBRATIONS;
+		}
+	}
+
+
+	private CameraCalibration fetch(Device device, eLeapPerspectiveType camera)
+	{
+		Pointer hDevice = device.getHandle();
+		PrimitiveArrayPointer buffer = PrimitiveArrayPointer.floats(16);
+
+		leapC.LeapCameraMatrixEx(hConnection, hDevice, camera.value, buffer);
+		float[] cameraMatrix = read(buffer, CameraCalibration.CAMERA_MATRIX_LENGTH);
+		leapC.LeapExtrinsicCameraMatrixEx(hConnection, hDevice, camera.value, buffer);
+		float[] extrinsicMatrix = read(buffer, CameraCalibration.EXTRINSIC_MATRIX_LENGTH);
+		leapC.LeapDistortionCoeffsEx(hConnection, hDevice, camera.value, buffer);
+		float[] distortionCoeffs = read(buffer, CameraCalibration.DISTORTION_COEFFS_LENGTH);
+		leapC.LeapScaleOffsetMatrixEx(hConnection, hDevice, camera.value, buffer);
+		float[] scaleOffsetMatrix = read(buffer, CameraCalibration.SCALE_OFFSET_MATRIX_LENGTH);
+
+		return new CameraCalibration(device.getId(), camera, cameraMatrix, extrinsicMatrix,
+				distortionCoeffs, scaleOffsetMatrix);
+	}
+
+
+	private static float[] read(PrimitiveArrayPointer buffer, int length)
+	{
+		float[] values = new float[length];
+		buffer.read(0, values, 0, length);
+		buffer.clear();
+		return values;
+	}
+}
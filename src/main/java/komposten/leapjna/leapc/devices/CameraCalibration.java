@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.devices;
+
+import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.enums.eLeapPerspectiveType;
+
+
+/**
+ * <p>
+ * An immutable copy of the calibration of one camera of a device, as returned by
+ * {@link LeapC#LeapCameraMatrixEx(com.sun.jna.Pointer, com.sun.jna.Pointer, int, komposten.leapjna.leapc.util.PrimitiveArrayPointer)
+ * LeapCameraMatrixEx()},
+ * {@link LeapC#LeapExtrinsicCameraMatrixEx(com.sun.jna.Pointer, com.sun.jna.Pointer, int, komposten.leapjna.leapc.util.PrimitiveArrayPointer)
+ * LeapExtrinsicCameraMatrixEx()},
+ * {@link LeapC#LeapDistortionCoeffsEx(com.sun.jna.Pointer, com.sun.jna.Pointer, int, komposten.leapjna.leapc.util.PrimitiveArrayPointer)
+ * LeapDistortionCoeffsEx()} and
+ * {@link LeapC#LeapScaleOffsetMatrixEx(com.sun.jna.Pointer, com.sun.jna.Pointer, int, komposten.leapjna.leapc.util.PrimitiveArrayPointer)
+ * LeapScaleOffsetMatrixEx()}.
+ * </p>
+ * <p>
+ * The values can be read element by element, or copied into caller-owned arrays, without
+ * any native calls. {@link #getProjection()} uses them to project points between pixel
+ * and rectilinear coordinates in Java.
+ * </p>
+ *
+ * @see CalibrationCache
+ * @since LeapJna 1.2.1
+ */
+public final class CameraCalibration
+{
+	/** The number of elements in the camera matrix (3x3, row major). */
+	public static final int CAMERA_MATRIX_LENGTH = 9;
+	/** The number of elements in the extrinsic matrix (4x4, column major). */
+	public static final int EXTRINSIC_MATRIX_LENGTH = 16;
+	/** The number of distortion coefficients: [k1, k2, p1, p2, k3, k4, k5, k6]. */
+	public static final int DISTORTION_COEFFS_LENGTH = 8;
+	/** The number of elements in the scale-offset matrix (4x4, column major). */
+	public static final int SCALE_OFFSET_MATRIX_LENGTH = 16;
+
+	private final int deviceId;
+	private final eLeapPerspectiveType camera;
+	final float[] cameraMatrix;
+	final float[] extrinsicMatrix;
+	final float[] distortionCoeffs;
+	final float[] scaleOffsetMatrix;
+	private final CameraProjection projection;
+
+
+	/**
+	 * The arrays are not copied; the caller must not modify them afterwards.
+	 */
+	CameraCalibration(int deviceId, eLeapPerspectiveType camera, float[] cameraMatrix,
+			float[] extrinsicMatrix, float[] distortionCoeffs, float[] scaleOffsetMatrix)
+	{
+		this.deviceId = deviceId;
+		this.camera = camera;
+		this.cameraMatrix = cameraMatrix;
+		this.extrinsicMatrix = extrinsicMatrix;
+		this.distortionCoeffs = distortionCoeffs;
+		this.scaleOffsetMatrix = scaleOffsetMatrix;
+		this.projection = new CameraProjection(this);
+	}
+
+
+	/**
+	 * @return The ID of the device.
+	 */
+	public int getDeviceId()
+	{
+		return deviceId;
+	}
+
+
+	/**
+	 * @return The camera.
+	 */
+	public eLeapPerspectiveType getCamera()
+	{
+		return camera;
+	}
+
+
+	/**
+	 * @return A projection between pixel and rectilinear coordinates that uses this
+	 *         calibration.
+	 */
+	public CameraProjection getProjection()
+	{
+		return projection;
+	}
+
+
+	/**
+	 * @param index The index in the OpenCV-compatible 3x3 camera matrix, in row major order.
+	 * @return The element at <code>index</code>.
+	 */
+	public float getCameraMatrix(int index)
+	{
+		return cameraMatrix[index];
+	}
+
+
+	/**
+	 * @return The focal length along the x axis, in pixels.
+	 */
+	public float getFocalLengthX()
+	{
+		return cameraMatrix[0];
+	}
+
+
+	/**
+	 * @return The focal length along the y axis, in pixels.
+	 */
+	public float getFocalLengthY()
+	{
+		return cameraMatrix[4];
+	}
+
+
+	/**
+	 * @return The x coordinate of the principal point, in pixels.
+	 */
+	public float getPrincipalPointX()
+	{
+		return cameraMatrix[2];
+	}
+
+
+	/**
+	 * @return The y coordinate of the principal point, in pixels.
+	 */
+	public float getPrincipalPointY()
+	{
+		return cameraMatrix[5];
+	}
+
+
+	/**
+	 * @param index The index in the 4x4 extrinsic matrix, in column major order.
+	 * @return The element at <code>index</code>.
+	 */
+	public float getExtrinsicMatrix(int index)
+	{
+		return extrinsicMatrix[index];
+	}
+
+
+	/**
+	 * @param index The index of the coefficient: [k1, k2, p1, p2, k3, k4, k5, k6].
+	 * @return The coefficient at <code>index</code>.
+	 */
+	public float getDistortionCoeff(int index)
+	{
+		return distortionCoeffs[index];
+	}
+
+
+	/**
+	 * @param index The index in the 4x4 scale-offset matrix, in column major order.
+	 * @return The element at <code>index</code>.
+	 */
+	public float getScaleOffsetMatrix(int index)
+	{
+		return scaleOffsetMatrix[index];
+	}
+
+
+	/**
+	 * @param dest The array to copy the camera matrix to, if it is large enough; otherwise
+	 *          a new array is allocated. May be <code>null</code>.
+	 * @return The array containing the camera matrix.
+	 */
+	public float[] copyCameraMatrix(float[] dest)
+	{
+		return copy(cameraMatrix, dest);
+	}
+
+
+	/**
+	 * @param dest The array to copy the extrinsic matrix to, if it is large enough;
+	 *          otherwise a new array is allocated. May be <code>null</code>.
+	 * @return The array containing the extrinsic matrix.
+	 */
+	public float[] copyExtrinsicMatrix(float[] dest)
+	{
+		return copy(extrinsicMatrix, dest);
+	}
+
+
+	/**
+	 * @param dest The array to copy the distortion coefficients to, if it is large enough;
+	 *          otherwise a new array is allocated. May be <code>null</code>.
+	 * @return The array containing the distortion coefficients.
+	 */
+	public float[] copyDistortionCoeffs(float[] dest)
+	{
+		return copy(distortionCoeffs, dest);
+	}
+
+
+	/**
+	 * @param dest The array to copy the scale-offset matrix to, if it is large enough;
+	 *          otherwise a new array is allocated. May be <code>null</code>.
+	 * @return The array containing the scale-offset matrix.
+	 */
+	public float[] copyScaleOffsetMatrix(float[] dest)
+	{
+		return copy(scaleOffsetMatrix, dest);
+	}
+
+
+	private static float[] copy(float[] source, float[] dest)
+	{
+		if (dest == null || dest.length < source.length)
+			dest = new float[source.length];
+
+		System.arraycopy(source, 0, dest, 0, source.length);
+		return dest;
+	}
+}
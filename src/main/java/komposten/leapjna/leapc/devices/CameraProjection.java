@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.devices;
+
+import komposten.leapjna.leapc.LeapC;
+
+
+/**
+ * <p>
+ * Projects points between pixel and rectilinear coordinates in Java, using the camera
+ * matrix and distortion coefficients of a {@link CameraCalibration}.
+ * </p>
+ * <p>
+ * The projection methods work on primitive arrays and do not allocate, so e.g. all
+ * joints of a hand can be projected into both cameras every frame without one native
+ * call per point.
+ * </p>
+ * <p>
+ * Rectilinear coordinates are stored as <code>[x, y, z]</code> triplets and pixel
+ * coordinates as <code>[x, y]</code> pairs. The projection is a pinhole model using the
+ * camera matrix, with distortion following the OpenCV rational model used by
+ * {@link CameraCalibration#getDistortionCoeff(int)}. Distortion is removed iteratively
+ * when projecting from pixels.
+ * </p>
+ * <p>
+ * <b>Note:</b> This is <i>not</i> a replacement for
+ * {@link LeapC#LeapRectilinearToPixelEx(com.sun.jna.Pointer, com.sun.jna.Pointer, int, komposten.leapjna.leapc.data.LEAP_VECTOR.ByValue)
+ * LeapRectilinearToPixelEx()} and
+ * {@link LeapC#LeapPixelToRectilinearEx(com.sun.jna.Pointer, com.sun.jna.Pointer, int, komposten.leapjna.leapc.data.LEAP_VECTOR.ByValue)
+ * LeapPixelToRectilinearEx()}. It has only been compared with
+ * {@link komposten.leapjna.leapc.simulated.SimulatedLeapC SimulatedLeapC}, which uses
+ * the same pinhole model without distortion. The distortion model and the handling of
+ * points with a <code>z</code> of <code>0</code> (taken from the simulator) have not
+ * been verified against the native functions. Use the native functions where exact
+ * results matter. <code>komposten.leapjna.example.ProjectionRecorder</code> records
+ * their results on a connected device, which <code>CameraProjectionTest</code> then
+ * compares with this class.
+ * </p>
+ *
+ * @see CameraCalibration#getProjection()
+ * @since LeapJna 1.2.1
+ */
+public final class CameraProjection
+{
+	/** The number of floats per rectilinear coordinate. */
+	public static final int RECTILINEAR_STRIDE = 3;
+	/** The number of floats per pixel coordinate. */
+	public static final int PIXEL_STRIDE = 2;
+
+	/** The number of iterations used to remove distortion, as in OpenCV's undistortPoints. */
+	private static final int UNDISTORT_ITERATIONS = 10;
+
+	private final float fx;
+	private final float fy;
+	private final float cx;
+	private final float cy;
+	private final float k1;
+	private final float k2;
+	private final float p1;
+	private final float p2;
+	private final float k3;
+	private final float k4;
+	private final float k5;
+	private final float k6;
+	private final boolean distorted;
+
+
+	CameraProjection(CameraCalibration calibration)
+	{
+		float[] camera = calibration.cameraMatrix;
+		float[] coeffs = calibration.distortionCoeffs;
+
+		fx = camera[0];
+		fy = camera[4];
+		cx = camera[2];
+		cy = camera[5];
+		k1 = coeffs[0];
+		k2 = coeffs[1];
+		p1 = coeffs[2];
+		p2 = coeffs[3];
+		k3 = coeffs[4];
+		k4 = coeffs[5];
+		k5 = coeffs[6];
+		k6 = coeffs[7];
+
+		boolean hasDistortion = false;
+		for (float coeff : coeffs)
+			hasDistortion |= (coeff != 0);
+		distorted = hasDistortion;
+	}
+
+
+	/**
+	 * Projects rectilinear coordinates (e.g. camera rays) to pixel coordinates. A
+	 * <code>z</code> of <code>0</code> is treated as <code>1</code>, as in
+	 * {@link komposten.leapjna.leapc.simulated.SimulatedLeapC SimulatedLeapC}. The
+	 * native functions may not do the same.
+	 *
+	 * @param rectilinear The rectilinear <code>[x, y, z]</code> coordinates.
+	 * @param rectilinearOffset The index of the first coordinate in
+	 *          <code>rectilinear</code>.
+	 * @param pixels The array to write the <code>[x, y]</code> pixel coordinates to.
+	 * @param pixelOffset The index in <code>pixels</code> to write the first coordinate to.
+	 * @param count The number of points to project.
+	 */
+	public void rectilinearToPixel(float[] rectilinear, int rectilinearOffset,
+			float[] pixels, int pixelOffset, int count)
+	{
+		int in = rectilinearOffset;
+		int out = pixelOffset;
+		for (int i = 0; i < count; i++)
+		{
+			float z = rectilinear[in + 2];
+			if (z == 0)
+				z = 1;
+
+			float x = rectilinear[in] / z;
+			float y = rectilinear[in + 1] / z;
+
+			if (distorted)
+			{
+				float r2 = x * x + y * y;
+				float radial = radial(r2);
+				float xy2 = 2 * x * y;
+				float dx = x * radial + p1 * xy2 + p2 * (r2 + 2 * x * x);
+				float dy = y * radial + p1 * (r2 + 2 * y * y) + p2 * xy2;
+				x = dx;
+				y = dy;
+			}
+
+			pixels[out] = fx * x + cx;
+			pixels[out + 1] = fy * y + cy;
+
+			in += RECTILINEAR_STRIDE;
+			out += PIXEL_STRIDE;
+		}
+	}
+
+
+	/**
+	 * Projects pixel coordinates to rectilinear coordinates (camera rays). The
+	 * <code>z</code> component of each result is always <code>1</code>.
+	 *
+	 * @param pixels The <code>[x, y]</code> pixel coordinates.
+	 * @param pixelOffset The index of the first coordinate in <code>pixels</code>.
+	 * @param rectilinear The array to write the <code>[x, y, z]</code> rectilinear
+	 *          coordinates to.
+	 * @param rectilinearOffset The index in <code>rectilinear</code> to write the first
+	 *          coordinate to.
+	 * @param count The number of points to project.
+	 */
+	public void pixelToRectilinear(float[] pixels, int pixelOffset, float[] rectilinear,
+			int rectilinearOffset, int count)
+	{
+		int in = pixelOffset;
+		int out = rectilinearOffset;
+		for (int i = 0; i < count; i++)
+		{
+			float dx = (pixels[in] - cx) / fx;
+			float dy = (pixels[in + 1] - cy) / fy;
+			float x = dx;
+			float y = dy;
+
+			if (distorted)
+			{
+				for (int j = 0; j < UNDISTORT_ITERATIONS; j++)
+				{
+					float r2 = x * x + y * y;
+					float inverseRadial = 1 / radial(r2);
+					float xy2 = 2 * x * y;
+					x = (dx - p1 * xy2 - p2 * (r2 + 2 * x * x)) * inverseRadial;
+					y = (dy - p1 * (r2 + 2 * y * y) - p2 * xy2) * inverseRadial;
+				}
+			}
+
+			rectilinear[out] = x;
+			rectilinear[out + 1] = y;
+			rectilinear[out + 2] = 1;
+
+			in += PIXEL_STRIDE;
+			out += RECTILINEAR_STRIDE;
+		}
+	}
+
+
+	private float radial(float r2)
+	{
+		float r4 = r2 * r2;
+		float r6 = r4 * r2;
+		return (1 + k1 * r2 + k2 * r4 + k3 * r6) / (1 + k4 * r2 + k5 * r4 + k6 * r6);
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.devices;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_DEVICE_INFO;
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapDeviceCaps;
+import komposten.leapjna.leapc.enums.eLeapDevicePID;
+import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
+
+
+/**
+ * <p>
+ * A device in a {@link DeviceRegistry}: the open device handle and a copy of the device
+ * information read when the device was registered.
+ * </p>
+ * <p>
+ * Everything but the status is immutable. The status is updated by the registry when it
+ * handles device status change events.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class Device
+{
+	private final int id;
+	private final Pointer handle;
+	private final String serial;
+	private final int pid;
+	private final int caps;
+	private final int baseline;
+	private final float hFov;
+	private final float vFov;
+	private final int range;
+	private volatile int status;
+
+
+	Device(int id, Pointer handle, LEAP_DEVICE_INFO info)
+	{
+		this.id = id;
+		this.handle = handle;
+		this.serial = info.serial;
+		this.pid = info.pid;
+		this.caps = info.caps;
+		this.baseline = info.baseline;
+		this.hFov = info.h_fov;
+		this.vFov = info.v_fov;
+		this.range = info.range;
+		this.status = info.status;
+	}
+
+
+	/**
+	 * @return The device ID, as in {@link komposten.leapjna.leapc.data.LEAP_DEVICE_REF#id}
+	 *         and {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#device_id}.
+	 */
+	public int getId()
+	{
+		return id;
+	}
+
+
+	/**
+	 * @return The open device handle. It is closed when the device is removed from the
+	 *         registry.
+	 */
+	public Pointer getHandle()
+	{
+		return handle;
+	}
+
+
+	/**
+	 * @return The device serial number.
+	 */
+	public String getSerial()
+	{
+		return serial;
+	}
+
+
+	/**
+	 * @return The product identifier as an <code>int</code>.
+	 */
+	public int getPidValue()
+	{
+		return pid;
+	}
+
+
+	/**
+	 * @return The product identifier.
+	 */
+	public eLeapDevicePID getPid()
+	{
+		return Enums.parse(pid, eLeapDevicePID.Invalid);
+	}
+
+
+	/**
+	 * @return The device capabilities as a bit mask.
+	 */
+	public int getCapsValue()
+	{
+		return caps;
+	}
+
+
+	/**
+	 * @return The device capabilities.
+	 */
+	public eLeapDeviceCaps[] getCapabilities()
+	{
+		return Enums.parseMask(caps, eLeapDeviceCaps.class);
+	}
+
+
+	/**
+	 * @return The camera baseline, in micrometers.
+	 */
+	public int getBaseline()
+	{
+		return baseline;
+	}
+
+
+	/**
+	 * @return The horizontal field of view, in radians.
+	 */
+	public float getHorizontalFov()
+	{
+		return hFov;
+	}
+
+
+	/**
+	 * @return The vertical field of view, in radians.
+	 */
+	public float getVerticalFov()
+	{
+		return vFov;
+	}
+
+
+	/**
+	 * @return The maximum tracking range, in micrometers.
+	 */
+	public int getRange()
+	{
+		return range;
+	}
+
+
+	/**
+	 * @return The current device status as a bit mask.
+	 */
+	public int getStatusValue()
+	{
+		return status;
+	}
+
+
+	/**
+	 * @return The current device status.
+	 */
+	public eLeapDeviceStatus[] getStatus()
+	{
+		return Enums.parseMask(status, eLeapDeviceStatus.class);
+	}
+
+
+	void setStatus(int status)
+	{
+		this.status = status;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return "Device[id=" + id + ", serial=" + serial + "]";
+	}
+}
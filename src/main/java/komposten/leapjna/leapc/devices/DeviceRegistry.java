@@ -0,0 +1,265 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.devices;
+
+import java.util.Arrays;
+import java.util.List;
+
+import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE_INFO;
+import komposten.leapjna.leapc.data.LEAP_DEVICE_REF;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_STATUS_CHANGE_EVENT;
+
+
+/**
+ * <p>
+ * A thread-safe registry of the connected devices, keyed by device ID.
+ * </p>
+ * <p>
+ * When a device is {@link #add(LEAP_DEVICE_REF) added}, it is opened and its information
+ * (serial number, capabilities, field of view, etc.) is read once. The handle is kept open
+ * until the device is {@link #remove(int) removed} or the registry is
+ * {@link #close() closed}. Pass polled messages to {@link #handle(LEAP_CONNECTION_MESSAGE)}
+ * to add devices, update their status and remove lost devices as the events arrive.
+ * </p>
+ * <p>
+ * The registered devices are stored in an immutable array that is replaced when devices
+ * are added or removed. {@link #get(int)} is therefore lock-free and does not allocate,
+ * which makes it suitable for looking up the device of each frame (e.g. using
+ * {@link LEAP_CONNECTION_MESSAGE#device_id}).
+ * </p>
+ * <p>
+ * Note that {@link LeapC#LeapCloseDevice(com.sun.jna.Pointer) LeapCloseDevice()} must not
+ * be called while other calls on the same device are in progress, so a device should not
+ * be removed while other threads are using its handle.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class DeviceRegistry implements AutoCloseable
+{
+	private static final Device[] NO_DEVICES = new Device[0];
+
+	/** The serial buffer size tried first, to avoid a second call in the common case. */
+	private static final int INITIAL_SERIAL_LENGTH = 64;
+
+	private final LeapC leapC;
+	private final Object lock = new Object();
+	private volatile Device[] devices = NO_DEVICES;
+
+
+	/**
+	 * Creates a registry that uses {@link LeapC#INSTANCE}.
+	 */
+	public DeviceRegistry()
+	{
+		this(LeapC.INSTANCE);
+	}
+
+
+	/**
+	 * @param leapC The LeapC instance to open devices and read device information with.
+	 */
+	public DeviceRegistry(LeapC leapC)
+	{
+		this.leapC = leapC;
+	}
+
+
+	/**
+	 * Updates the registry from a device-related message:
+	 * <ul>
+	 * <li>{@link eLeapEventType#Device}: the device is {@link #add(LEAP_DEVICE_REF)
+	 * added}.</li>
+	 * <li>{@link eLeapEventType#DeviceStatusChange}: the status of the device is
+	 * updated.</li>
+	 * <li>{@link eLeapEventType#DeviceLost}: the device is {@link #remove(int)
+	 * removed}.</li>
+	 * </ul>
+	 * Other messages are ignored.
+	 *
+	 * @return <code>true</code> if the message was one of the types listed above.
+	 */
+	public boolean handle(LEAP_CONNECTION_MESSAGE message)
+	{
+		switch (message.getType())
+		{
+			case Device :
+				add(message.getDeviceEvent().device);
+				return true;
+			case DeviceStatusChange :
+				LEAP_DEVICE_STATUS_CHANGE_EVENT event = message.getDeviceStatusChangeEvent();
+				updateStatus(event.device.id, event.status);
+				return true;
+			case DeviceLost :
+				remove(message.getDeviceLostEvent().device.id);
+				return true;
+			default :
+				return false;
+		}
+	}
+
+
+	/**
+	 * Opens a device, reads its information and adds it to the registry. Does nothing if a
+	 * device with the same ID is already registered.
+	 *
+	 * @param ref The device reference, e.g. from a
+	 *          {@link komposten.leapjna.leapc.events.LEAP_DEVICE_EVENT}.
+	 * @return {@link eLeapRS#Success} if the device was added or already registered,
+	 *         otherwise the result of the failed LeapC call.
+	 */
+	public eLeapRS add(LEAP_DEVICE_REF ref)
+	{
+		synchronized (lock)
+		{
+			if (get(ref.id) != null)
+				return eLeapRS.Success;
+
+			LEAP_DEVICE device = new LEAP_DEVICE();
+			eLeapRS result = leapC.LeapOpenDevice(ref, device);
+			if (result != eLeapRS.Success)
+				return result;
+
+			LEAP_DEVICE_INFO info = new LEAP_DEVICE_INFO(INITIAL_SERIAL_LENGTH);
+			result = leapC.LeapGetDeviceInfo(device.handle, info);
+			if (result == eLeapRS.InsufficientBuffer)
+			{
+				info.allocateSerialBuffer(info.serial_length);
+				result = leapC.LeapGetDeviceInfo(device.handle, info);
+			}
+
+			if (result != eLeapRS.Success)
+			{
+				leapC.LeapCloseDevice(device.handle);
+				return result;
+			}
+
+			Device[] current = devices;
+			Device[] updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = new Device(ref.id, device.handle, info);
+			devices = updated;
+			return eLeapRS.Success;
+		}
+	}
+
+
+	/**
+	 * Updates the status of a registered device.
+	 *
+	 * @param id The device ID.
+	 * @param status The new status, as a bit mask of
+	 *          {@link komposten.leapjna.leapc.enums.eLeapDeviceStatus} values.
+	 * @return <code>true</code> if the device is registered.
+	 */
+	public boolean updateStatus(int id, int status)
+	{
+		Device device = get(id);
+		if (device == null)
+			return false;
+
+		device.setStatus(status);
+		return true;
+	}
+
+
+	/**
+	 * Removes a device from the registry and closes its handle.
+	 *
+	 * @param id The device ID.
+	 * @return <code>true</code> if the device was registered.
+	 */
+	public boolean remove(int id)
+	{
+		Device removed;
+		synchronized (lock)
+		{
+			Device[] current = devices;
+			int index = indexOf(current, id);
+			if (index < 0)
+				return false;
+
+			removed = current[index];
+			Device[] updated = new Device[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, updated.length - index);
+			devices = updated;
+		}
+
+		leapC.LeapCloseDevice(removed.getHandle());
+		return true;
+	}
+
+
+	/**
+	 * @param id The device ID.
+	 * @return The device, or <code>null</code> if no device with that ID is registered.
+	 */
+	public Device get(int id)
+	{
+		Device[] current = devices;
+		int index = indexOf(current, id);
+		return (index >= 0 ? current[index] : null);
+	}
+
+
+	/**
+	 * @return An unmodifiable snapshot of the registered devices, in the order they were
+	 *         added.
+	 */
+	public List<Device> getDevices()
+	{
+		return List.of(devices);
+	}
+
+
+	/**
+	 * @return The number of registered devices.
+	 */
+	public int size()
+	{
+		return devices.length;
+	}
+
+
+	/**
+	 * Removes all devices and closes their handles.
+	 */
+	@Override
+	public void close()
+	{
+		Device[] removed;
+		synchronized (lock)
+		{
+			removed = devices;
+			devices = NO_DEVICES;
+		}
+
+		for (Device device : removed)
+			leapC.LeapCloseDevice(device.getHandle());
+	}
+
+
+	private static int indexOf(Device[] devices, int id)
+	{
+		// There are rarely more than a couple of devices, so a linear search is fastest.
+		for (int i = 0; i < devices.length; i++)
+		{
+			if (devices[i].getId() == id)
+				return i;
+		}
+
+		return -1;
+	}
+}
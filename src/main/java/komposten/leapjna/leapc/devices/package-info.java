@@ -0,0 +1,17 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+
+/**
+ * Provides {@link komposten.leapjna.leapc.devices.DeviceRegistry}, which keeps track of
+ * the connected devices and keeps their handles open and their information cached, and
+ * {@link komposten.leapjna.leapc.devices.CalibrationCache}, which caches the calibration
+ * of each device camera.
+ */
+package komposten.leapjna.leapc.devices;
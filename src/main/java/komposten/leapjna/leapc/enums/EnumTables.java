@@ -0,0 +1,357 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.enums;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import komposten.leapjna.leapc.enums.Enums.ByteEnum;
+import komposten.leapjna.leapc.enums.Enums.IntEnum;
+import komposten.leapjna.leapc.enums.Enums.IntFlagEnum;
+
+
+/**
+ * <p>
+ * Lookup tables used by {@link Enums} to convert values to enum constants without
+ * scanning (and cloning) the enum's constants on every call.
+ * </p>
+ * <p>
+ * The tables are built the first time an enum class is used and are cached per class
+ * using {@link ClassValue}, so they do not keep the enum classes from being unloaded.
+ * </p>
+ */
+final class EnumTables
+{
+	/** Value ranges up to this size are looked up in a directly indexed array. */
+	private static final int MAX_DENSE_RANGE = 1024;
+
+	/** Masks with up to this many significant bits are cached in an array. */
+	private static final int MAX_MASK_BITS = 16;
+
+	private static final ClassValue<IntTable> INT_TABLES = new ClassValue<IntTable>()
+	{
+		@Override
+		protected IntTable computeValue(Class<?> type)
+		{
+			return IntTable.create((IntEnum[]) type.getEnumConstants());
+		}
+	};
+
+	private static final ClassValue<ByteTable> BYTE_TABLES = new ClassValue<ByteTable>()
+	{
+		@Override
+		protected ByteTable computeValue(Class<?> type)
+		{
+			return new ByteTable((ByteEnum[]) type.getEnumConstants());
+		}
+	};
+
+	private static final ClassValue<MaskTable<?>> MASK_TABLES = new ClassValue<MaskTable<?>>()
+	{
+		@Override
+		protected MaskTable<?> computeValue(Class<?> type)
+		{
+			return createMaskTable(type);
+		}
+	};
+
+
+	private EnumTables()
+	{}
+
+
+	/**
+	 * @return The class that declares the enum constant. Unlike <code>getClass()</code>,
+	 *         this also works for constants with a class body.
+	 */
+	private static Class<?> enumClass(Object constant)
+	{
+		if (constant instanceof Enum)
+			return ((Enum<?>) constant).getDeclaringClass();
+		return constant.getClass();
+	}
+
+
+	@SuppressWarnings("unchecked")
+	static <E extends IntEnum> E lookup(int value, E defaultValue)
+	{
+		E result = (E) INT_TABLES.get(enumClass(defaultValue)).get(value);
+		return (result != null ? result : defaultValue);
+	}
+
+
+	@SuppressWarnings("unchecked")
+	static <E extends ByteEnum> E lookup(byte value, E defaultValue)
+	{
+		E result = (E) BYTE_TABLES.get(enumClass(defaultValue)).get(value);
+		return (result != null ? result : defaultValue);
+	}
+
+
+	@SuppressWarnings("unchecked")
+	static <E extends Enum<E> & IntFlagEnum<E>> MaskEntry<E> lookupMask(int mask,
+			Class<E> enumClass)
+	{
+		return ((MaskTable<E>) MASK_TABLES.get(enumClass)).get(mask);
+	}
+
+
+	/**
+	 * Like {@link #lookupMask(int, Class)}, but only requires <code>E</code> to be an
+	 * {@link IntFlagEnum} so that {@link Enums#parseMask(int, Class)} can keep its
+	 * original signature. <code>enumClass</code> must still be an enum class.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static <E extends IntFlagEnum<E>> E[] lookupMaskArray(int mask, Class<E> enumClass)
+	{
+		return (E[]) ((MaskTable) MASK_TABLES.get(enumClass)).get(mask).array;
+	}
+
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static MaskTable<?> createMaskTable(Class<?> type)
+	{
+		return new MaskTable((Enum[]) type.getEnumConstants());
+	}
+
+
+	/**
+	 * Maps integer values to enum constants. Enums whose values lie in a small range use a
+	 * directly indexed array; other enums (like {@link eLeapRS}, whose values are spread
+	 * over the whole <code>int</code> range) use an open-addressing hash table.
+	 */
+	private abstract static class IntTable
+	{
+		static IntTable create(IntEnum[] constants)
+		{
+			long min = Integer.MAX_VALUE;
+			long max = Integer.MIN_VALUE;
+			for (IntEnum constant : constants)
+			{
+				min = Math.min(min, constant.getValue());
+				max = Math.max(max, constant.getValue());
+			}
+
+			if (constants.length == 0)
+				return new DenseIntTable(constants, 0, -1);
+			if (max - min < MAX_DENSE_RANGE)
+				return new DenseIntTable(constants, (int) min, (int) max);
+			return new SparseIntTable(constants);
+		}
+
+
+		abstract Object get(int value);
+	}
+
+
+	private static final class DenseIntTable extends IntTable
+	{
+		private final int min;
+		private final Object[] table;
+
+
+		DenseIntTable(IntEnum[] constants, int min, int max)
+		{
+			this.min = min;
+			this.table = new Object[max - min + 1];
+
+			// Iterate backwards so that the first constant wins if values are duplicated.
+			for (int i = constants.length - 1; i >= 0; i--)
+				table[constants[i].getValue() - min] = constants[i];
+		}
+
+
+		@Override
+		Object get(int value)
+		{
+			int index = value - min;
+			return (index >= 0 && index < table.length ? table[index] : null);
+		}
+	}
+
+
+	private static final class SparseIntTable extends IntTable
+	{
+		private final int[] keys;
+		private final Object[] values;
+		private final int shift;
+
+
+		SparseIntTable(IntEnum[] constants)
+		{
+			// Keep the load factor at or below 0.5 so that probe sequences stay short.
+			int bits = 32 - Integer.numberOfLeadingZeros(constants.length * 2 - 1);
+			keys = new int[1 << bits];
+			values = new Object[1 << bits];
+			shift = 32 - bits;
+
+			for (IntEnum constant : constants)
+			{
+				int index = indexOf(constant.getValue());
+				while (values[index] != null && keys[index] != constant.getValue())
+					index = (index + 1) & (keys.length - 1);
+
+				if (values[index] == null)
+				{
+					keys[index] = constant.getValue();
+					values[index] = constant;
+				}
+			}
+		}
+
+
+		private int indexOf(int value)
+		{
+			return (value * 0x9E3779B9) >>> shift;
+		}
+
+
+		@Override
+		Object get(int value)
+		{
+			int index = indexOf(value);
+			Object result;
+			while ((result = values[index]) != null)
+			{
+				if (keys[index] == value)
+					return result;
+				index = (index + 1) & (keys.length - 1);
+			}
+
+			return null;
+		}
+	}
+
+
+	private static final class ByteTable
+	{
+		private final Object[] table = new Object[256];
+
+
+		ByteTable(ByteEnum[] constants)
+		{
+			for (int i = constants.length - 1; i >= 0; i--)
+				table[constants[i].getValue() & 0xFF] = constants[i];
+		}
+
+
+		Object get(byte value)
+		{
+			return table[value & 0xFF];
+		}
+	}
+
+
+	/**
+	 * The result of parsing a mask: the constants as both an array and an unmodifiable set.
+	 * The fields are final, so entries can be shared between threads without locking.
+	 */
+	static final class MaskEntry<E extends Enum<E>>
+	{
+		final E[] array;
+		final Set<E> set;
+
+
+		MaskEntry(E[] array, Class<E> enumClass)
+		{
+			this.array = array;
+
+			EnumSet<E> enumSet = EnumSet.noneOf(enumClass);
+			Collections.addAll(enumSet, array);
+			this.set = Collections.unmodifiableSet(enumSet);
+		}
+	}
+
+
+	/**
+	 * <p>
+	 * Caches the result of {@link IntFlagEnum#parseMask(int)} per mask value.
+	 * </p>
+	 * <p>
+	 * Only the bits used by at least one of the enum's constants can affect the result, so
+	 * the mask is first reduced to those bits. If there are at most
+	 * {@value #MAX_MASK_BITS} such bits, the reduced mask is compressed into an index into
+	 * an array of entries; otherwise the entries are kept in a map.
+	 * </p>
+	 */
+	private static final class MaskTable<E extends Enum<E> & IntFlagEnum<E>>
+	{
+		private final E parser;
+		private final Class<E> enumClass;
+		private final int significantBits;
+		private final int[] bitPositions;
+		private final MaskEntry<E>[] entries;
+		private final ConcurrentHashMap<Integer, MaskEntry<E>> entryMap;
+
+
+		MaskTable(E[] constants)
+		{
+			parser = constants[0];
+			enumClass = parser.getDeclaringClass();
+
+			int bits = 0;
+			for (E constant : constants)
+				bits |= constant.getValue();
+			significantBits = bits;
+
+			bitPositions = new int[Integer.bitCount(bits)];
+			for (int i = 0; i < bitPositions.length; i++)
+			{
+				bitPositions[i] = Integer.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+			}
+
+			if (bitPositions.length <= MAX_MASK_BITS)
+			{
+				int size = 1 << bitPositions.length;
+				@SuppressWarnings("unchecked")
+				MaskEntry<E>[] array = (MaskEntry<E>[]) new MaskEntry<?>[size];
+				entries = array;
+				entryMap = null;
+			}
+			else
+			{
+				entries = null;
+				entryMap = new ConcurrentHashMap<>();
+			}
+		}
+
+
+		MaskEntry<E> get(int mask)
+		{
+			mask &= significantBits;
+
+			if (entries == null)
+				return entryMap.computeIfAbsent(mask, this::compute);
+
+			int index = 0;
+			for (int i = 0; i < bitPositions.length; i++)
+				index |= ((mask >>> bitPositions[i]) & 1) << i;
+
+			// Racing threads may both compute the entry, but the results are equal.
+			MaskEntry<E> entry = entries[index];
+			if (entry == null)
+			{
+				entry = compute(mask);
+				entries[index] = entry;
+			}
+
+			return entry;
+		}
+
+
+		private MaskEntry<E> compute(int mask)
+		{
+			return new MaskEntry<>(parser.parseMask(mask), enumClass);
+		}
+	}
+}
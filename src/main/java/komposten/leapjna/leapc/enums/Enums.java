@@ -12,10 +12,18 @@ package komposten.leapjna.leapc.enums;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 
 /**
+ * <p>
  * Utility functions for converting from primitives to enum constants and back.
+ * </p>
+ * <p>
+ * The conversions use lookup tables that are built the first time each enum class is
+ * used, so {@link #parse(int, IntEnum)}, {@link #parse(byte, ByteEnum)} and
+ * {@link #parseMaskSet(int, Class)} do not allocate.
+ * </p>
  */
 public class Enums
 {
@@ -111,18 +119,7 @@ public class Enums
 	 */
 	public static <E extends IntEnum> E parse(int value, E defaultValue)
 	{
-		@SuppressWarnings("unchecked")
-		E[] enumValues = (E[]) defaultValue.getClass().getEnumConstants();
-
-		for (E enumValue : enumValues)
-		{
-			if (enumValue.getValue() == value)
-			{
-				return enumValue;
-			}
-		}
-
-		return defaultValue;
+		return EnumTables.lookup(value, defaultValue);
 	}
 
 
@@ -141,23 +138,21 @@ public class Enums
 	 */
 	public static <E extends ByteEnum> E parse(byte value, E defaultValue)
 	{
-		@SuppressWarnings("unchecked")
-		E[] enumValues = (E[]) defaultValue.getClass().getEnumConstants();
-
-		for (E enumValue : enumValues)
-		{
-			if (enumValue.getValue() == value)
-			{
-				return enumValue;
-			}
-		}
-
-		return defaultValue;
+		return EnumTables.lookup(value, defaultValue);
 	}
 
 
 	/**
+	 * <p>
 	 * Parses the provided bitmask into an array of corresponding enum constants.
+	 * </p>
+	 * <p>
+	 * The result for each mask is computed once using
+	 * {@link IntFlagEnum#parseMask(int)} and then cached, so custom
+	 * <code>parseMask</code> implementations must only depend on the bits used by
+	 * the enum's constants. The returned array is a copy of the cached result;
+	 * use {@link #parseMaskSet(int, Class)} to avoid the copy.
+	 * </p>
 	 * 
 	 * @param mask A bitmask.
 	 * @param <E> The flag enum type whose constants to use.
@@ -169,9 +164,27 @@ public class Enums
 	 */
 	public static <E extends IntFlagEnum<E>> E[] parseMask(int mask, Class<E> enumClass)
 	{
-		E[] enumValues = enumClass.getEnumConstants();
+		return EnumTables.lookupMaskArray(mask, enumClass).clone();
+	}
+
 
-		return enumValues[0].parseMask(mask);
+	/**
+	 * Parses the provided bitmask into a set of corresponding enum constants. The
+	 * sets are cached and shared, which makes this method allocation-free.
+	 * 
+	 * @param mask A bitmask.
+	 * @param <E> The flag enum type whose constants to use.
+	 * @param enumClass The flag enum class whose constants to use.
+	 * @return An unmodifiable set of the enum constants corresponding to the
+	 *         flags set in the mask, or a set containing only the enum class'
+	 *         {@link IntFlagEnum#getEmptyMaskConstant() empty constant} if there
+	 *         are no matching enum constants or the mask is empty.
+	 * @since LeapJna 1.2.1
+	 */
+	public static <E extends Enum<E> & IntFlagEnum<E>> Set<E> parseMaskSet(int mask,
+			Class<E> enumClass)
+	{
+		return EnumTables.lookupMask(mask, enumClass).set;
 	}
 
 
@@ -10,13 +10,14 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 import com.sun.jna.ptr.LongByReference;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
 import komposten.leapjna.leapc.data.LEAP_VARIANT;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -39,7 +40,7 @@ import komposten.leapjna.leapc.data.LEAP_VARIANT;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "requestID", "status" })
-public class LEAP_CONFIG_CHANGE_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_CONFIG_CHANGE_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/** An identifier for correlating the request and response. */
 	public int requestID;
@@ -54,4 +55,20 @@ public class LEAP_CONFIG_CHANGE_EVENT extends Structure implements LEAP_EVENT
 		super(pointer, ALIGN_NONE);
 		read();
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
@@ -10,13 +10,13 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 import com.sun.jna.ptr.LongByReference;
 
 import komposten.leapjna.leapc.LeapC;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
 import komposten.leapjna.leapc.data.LEAP_VARIANT;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -38,7 +38,7 @@ import komposten.leapjna.leapc.data.LEAP_VARIANT;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "requestID", "value" })
-public class LEAP_CONFIG_RESPONSE_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_CONFIG_RESPONSE_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/** An identifier for correlating the request and response. */
 	public int requestID;
@@ -10,13 +10,14 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapServiceDisposition;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -30,7 +31,7 @@ import komposten.leapjna.leapc.enums.eLeapServiceDisposition;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "flags" })
-public class LEAP_CONNECTION_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_CONNECTION_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/**
 	 * A combination of {@link eLeapServiceDisposition} flags. Use {@link #getFlags()} to
@@ -47,6 +48,22 @@ public class LEAP_CONNECTION_EVENT extends Structure implements LEAP_EVENT
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The flags as an {@link eLeapServiceDisposition} instead of an
 	 *         <code>int</code>.
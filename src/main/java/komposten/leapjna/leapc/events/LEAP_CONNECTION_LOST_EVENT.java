@@ -10,11 +10,12 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -36,7 +37,7 @@ import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "flags" })
-public class LEAP_CONNECTION_LOST_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_CONNECTION_LOST_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/** Reserved for future use. */
 	public int flags;
@@ -47,4 +48,20 @@ public class LEAP_CONNECTION_LOST_EVENT extends Structure implements LEAP_EVENT
 		super(pointer);
 		read();
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
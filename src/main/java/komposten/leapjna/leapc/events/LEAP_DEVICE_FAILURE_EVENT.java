@@ -10,14 +10,15 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
 import komposten.leapjna.leapc.data.LEAP_DEVICE;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -37,7 +38,7 @@ import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "status", "hDevice" })
-public class LEAP_DEVICE_FAILURE_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_DEVICE_FAILURE_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/** The status of this failure event. */
 	public int status;
@@ -60,6 +61,22 @@ public class LEAP_DEVICE_FAILURE_EVENT extends Structure implements LEAP_EVENT
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The status flags as an {@link eLeapDeviceStatus} array instead of an
 	 *         <code>int</code> mask.
@@ -10,12 +10,13 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_DEVICE_REF;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -34,7 +35,7 @@ import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
  * @since Ultraleap Orion SDK 3.1.3
  */
 @FieldOrder({ "device", "last_status", "status" })
-public class LEAP_DEVICE_STATUS_CHANGE_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_DEVICE_STATUS_CHANGE_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/** The handle reference of the newly attached device. */
 	public LEAP_DEVICE_REF device;
@@ -72,6 +73,22 @@ public class LEAP_DEVICE_STATUS_CHANGE_EVENT extends Structure implements LEAP_E
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The status flags as an {@link eLeapDeviceStatus} array instead of an
 	 *         <code>int</code> mask.
@@ -10,11 +10,12 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapDroppedFrameType;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -22,7 +23,7 @@ import komposten.leapjna.leapc.enums.eLeapDroppedFrameType;
  * @since LeapJna 1.0.0
  */
 @FieldOrder({ "frame_id", "type" })
-public class LEAP_DROPPED_FRAME_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_DROPPED_FRAME_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	public long frame_id;
 
@@ -41,6 +42,22 @@ public class LEAP_DROPPED_FRAME_EVENT extends Structure implements LEAP_EVENT
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The type as an {@link eLeapDroppedFrameType} instead of an <code>int</code>.
 	 */
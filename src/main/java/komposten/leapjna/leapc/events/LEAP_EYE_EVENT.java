@@ -10,10 +10,11 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 /**
  * @see <a href=
@@ -23,7 +24,7 @@ import komposten.leapjna.leapc.data.LEAP_VECTOR;
  */
 @FieldOrder({ "frame_id", "timestamp", "left_eye_position", "right_eye_position",
 		"left_eye_estimated_error", "right_eye_estimated_error" })
-public class LEAP_EYE_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_EYE_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/**
 	 * The ID of the frame corresponding to the source of the currently tracked eye
@@ -63,4 +64,20 @@ public class LEAP_EYE_EVENT extends Structure implements LEAP_EVENT
 		super(pointer, ALIGN_NONE);
 		read();
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
@@ -10,12 +10,13 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_QUATERNION;
 import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -30,7 +31,7 @@ import komposten.leapjna.leapc.data.LEAP_VECTOR;
  */
 @FieldOrder({ "timestamp", "head_position", "head_orientation", "head_linear_velocity",
 		"head_angular_velocity" })
-public class LEAP_HEAD_POSE_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_HEAD_POSE_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/**
 	 * The timestamp for this head pose, in microseconds, referenced against
@@ -69,4 +70,20 @@ public class LEAP_HEAD_POSE_EVENT extends Structure implements LEAP_EVENT
 		super(pointer, ALIGN_NONE);
 		read();
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
@@ -10,7 +10,6 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
@@ -19,6 +18,9 @@ import komposten.leapjna.leapc.data.LEAP_CALIBRATION;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
 import komposten.leapjna.leapc.data.LEAP_FRAME_HEADER;
 import komposten.leapjna.leapc.data.LEAP_IMAGE;
+import komposten.leapjna.leapc.data.LEAP_IMAGE_PROPERTIES;
+import komposten.leapjna.leapc.util.ReusableStructure;
+import komposten.leapjna.leapc.util.Structures;
 
 
 /**
@@ -32,6 +34,12 @@ import komposten.leapjna.leapc.data.LEAP_IMAGE;
  * allocated using the allocator function passed to LeapC using the
  * {@link LeapC#LeapSetAllocator(Pointer, LEAP_ALLOCATOR)}.
  * </p>
+ * <p>
+ * Image events created with <code>lazy = true</code> do not read any fields when they are
+ * created or {@link #read() read}. Instead, {@link #getInfo()},
+ * {@link #getImage(int)} and {@link #getImageProperties(int)} read only the part
+ * they return, the first time they are called after each read.
+ * </p>
  * 
  * @see <a href=
  *      "https://docs.ultraleap.com/tracking-api/group/group___structs.html#_CPPv416LEAP_IMAGE_EVENT">LeapC
@@ -40,7 +48,7 @@ import komposten.leapjna.leapc.data.LEAP_IMAGE;
  * @since Ultraleap Orion SDK 4.0.0
  */
 @FieldOrder({ "info", "image", "calib" })
-public class LEAP_IMAGE_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_IMAGE_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/** The information header identifying the images tracking frame. */
 	public LEAP_FRAME_HEADER info;
@@ -51,11 +59,168 @@ public class LEAP_IMAGE_EVENT extends Structure implements LEAP_EVENT
 	/** For internal use only. */
 	public LEAP_CALIBRATION calib;
 
+	private static final int CAMERA_COUNT = 2;
+
+	private final boolean lazy;
+	private final int imageOffset;
+	private final int imageSize;
+
+	private boolean infoRead;
+	/** Bit <code>camera</code> is set if that image has been read. */
+	private int imagesRead;
+	/** Bit <code>camera</code> is set if the properties of that image have been read. */
+	private int propertiesRead;
+
 	public LEAP_IMAGE_EVENT(Pointer pointer)
+	{
+		this(pointer, false);
+	}
+
+
+	/**
+	 * @param pointer The event data.
+	 * @param lazy <code>true</code> to only read the parts of the event that are requested
+	 *          through the accessor methods.
+	 * @since LeapJna 1.2.1
+	 */
+	public LEAP_IMAGE_EVENT(Pointer pointer, boolean lazy)
 	{
 		super(pointer, ALIGN_NONE);
-		image = new LEAP_IMAGE[2];
+		image = new LEAP_IMAGE[CAMERA_COUNT];
 		calculateSize(true);
+
+		this.lazy = lazy;
+		imageOffset = fieldOffset("image");
+		imageSize = (fieldOffset("calib") - imageOffset) / CAMERA_COUNT;
+
 		read();
 	}
+
+
+	/**
+	 * @return <code>true</code> if the parts of this event are only read when they are
+	 *         requested.
+	 * @since LeapJna 1.2.1
+	 */
+	public boolean isLazy()
+	{
+		return lazy;
+	}
+
+
+	/**
+	 * <p>
+	 * Reads the event from native memory. If this event is {@link #isLazy() lazy}, nothing
+	 * is read until it is requested through the accessor methods, and the public fields
+	 * should not be accessed directly.
+	 * </p>
+	 */
+	@Override
+	public void read()
+	{
+		if (lazy)
+		{
+			infoRead = false;
+			imagesRead = 0;
+			propertiesRead = 0;
+			return;
+		}
+
+		super.read();
+		infoRead = true;
+		imagesRead = propertiesRead = (1 << CAMERA_COUNT) - 1;
+	}
+
+
+	/**
+	 * @return The frame header, which is read from native memory if it has not been read
+	 *         already.
+	 * @since LeapJna 1.2.1
+	 */
+	public LEAP_FRAME_HEADER getInfo()
+	{
+		if (!infoRead)
+		{
+			Structures.useMemory(info, getPointer(), 0);
+			info.read();
+			infoRead = true;
+		}
+
+		return info;
+	}
+
+
+	/**
+	 * @param camera The camera index: 0 for the left camera and 1 for the right one.
+	 * @return The image from the specified camera, which is read from native memory if it
+	 *         has not been read already.
+	 * @throws IndexOutOfBoundsException If <code>camera</code> is not 0 or 1.
+	 * @since LeapJna 1.2.1
+	 */
+	public LEAP_IMAGE getImage(int camera)
+	{
+		int bit = cameraBit(camera);
+		if ((imagesRead & bit) == 0)
+		{
+			LEAP_IMAGE cameraImage = attachImage(camera);
+			cameraImage.read();
+			imagesRead |= bit;
+			propertiesRead |= bit;
+		}
+
+		return image[camera];
+	}
+
+
+	/**
+	 * <p>
+	 * Returns the properties of the specified camera's image, without reading the rest of
+	 * the image.
+	 * </p>
+	 * <p>
+	 * The properties are the same object as <code>getImage(camera).properties</code>.
+	 * </p>
+	 * 
+	 * @param camera The camera index: 0 for the left camera and 1 for the right one.
+	 * @return The properties of the image, which are read from native memory if they have
+	 *         not been read already.
+	 * @throws IndexOutOfBoundsException If <code>camera</code> is not 0 or 1.
+	 * @since LeapJna 1.2.1
+	 */
+	public LEAP_IMAGE_PROPERTIES getImageProperties(int camera)
+	{
+		int bit = cameraBit(camera);
+		if ((propertiesRead & bit) == 0)
+		{
+			LEAP_IMAGE cameraImage = attachImage(camera);
+			Structures.useMemory(cameraImage.properties, cameraImage.getPointer(), 0);
+			cameraImage.properties.read();
+			propertiesRead |= bit;
+		}
+
+		return image[camera].properties;
+	}
+
+
+	private LEAP_IMAGE attachImage(int camera)
+	{
+		if (image[camera] == null)
+		{
+			image[camera] = new LEAP_IMAGE();
+		}
+
+		Structures.useMemory(image[camera], getPointer(), imageOffset + (long) camera * imageSize);
+		return image[camera];
+	}
+
+
+	private static int cameraBit(int camera)
+	{
+		if (camera < 0 || camera >= CAMERA_COUNT)
+		{
+			throw new IndexOutOfBoundsException("camera must be 0 or 1: " + camera);
+		}
+
+		return 1 << camera;
+	}
 }
@@ -10,12 +10,13 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_VECTOR;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapIMUFlag;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 /**
  * @see <a href=
@@ -25,7 +26,7 @@ import komposten.leapjna.leapc.enums.eLeapIMUFlag;
  */
 @FieldOrder({ "timestamp", "timestamp_hw", "flags",
 		"accelerometer", "gyroscope", "temperature" })
-public class LEAP_IMU_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_IMU_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/**
 	 * The timestamp for these measurements, in microseconds, referenced against
@@ -63,6 +64,23 @@ public class LEAP_IMU_EVENT extends Structure implements LEAP_EVENT
 		super(pointer, ALIGN_NONE);
 		read();
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
 	
 	/**
 	 * @return An array containing the {@link eLeapIMUFlag}s.
@@ -10,12 +10,13 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -28,7 +29,7 @@ import komposten.leapjna.leapc.enums.eLeapLogSeverity;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "severity", "timestamp", "message" })
-public class LEAP_LOG_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_LOG_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/**
 	 * The type of message. Use {@link #getSeverity()} to get the severity as an
@@ -65,6 +66,14 @@ public class LEAP_LOG_EVENT extends Structure implements LEAP_EVENT
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
 	/**
 	 * @return The severity as an {@link eLeapLogSeverity} instead of an <code>int</code>.
 	 */
@@ -10,9 +10,11 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.ReusableStructure;
+
 
 /**
  * A group of system log messages.
@@ -24,7 +26,7 @@ import com.sun.jna.Structure.FieldOrder;
  * @since Ultraleap Orion SDK 4.0.0
  */
 @FieldOrder({ "nEvents", "events" })
-public class LEAP_LOG_EVENTS extends Structure implements LEAP_EVENT
+public class LEAP_LOG_EVENTS extends ReusableStructure implements LEAP_EVENT
 {
 	/** The number of log events being pointed to by the <code>events</code> field. */
 	public int nEvents;
@@ -42,6 +44,16 @@ public class LEAP_LOG_EVENTS extends Structure implements LEAP_EVENT
 
 
 	/**
+	 * <p>
+	 * Returns the log events pointed to by {@link #events}.
+	 * </p>
+	 * <p>
+	 * The events (including their messages) are decoded eagerly by {@link #read()}, so the
+	 * returned array remains valid after LeapC reuses the native memory. To skip events
+	 * without decoding them, e.g. when filtering by severity, use a
+	 * {@link komposten.leapjna.leapc.views.LogEventCursor LogEventCursor} instead.
+	 * </p>
+	 * 
 	 * @return The array of {@link LEAP_LOG_EVENT} structs pointed to by {@link #events}.
 	 */
 	public LEAP_LOG_EVENT[] getEvents()
@@ -53,7 +65,8 @@ public class LEAP_LOG_EVENTS extends Structure implements LEAP_EVENT
 	@Override
 	public void read()
 	{
-		super.read();
+		if (!StructCodecs.read(this))
+			super.read();
 
 		logEvents = new LEAP_LOG_EVENT[nEvents];
 
@@ -64,4 +77,12 @@ public class LEAP_LOG_EVENTS extends Structure implements LEAP_EVENT
 			offset += logEvents[i].size();
 		}
 	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
@@ -10,10 +10,11 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -28,7 +29,7 @@ import komposten.leapjna.leapc.LeapC;
  */
 @Deprecated
 @FieldOrder({ "frame_id", "timestamp", "nPoints" })
-public class LEAP_POINT_MAPPING_CHANGE_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_POINT_MAPPING_CHANGE_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/**
 	 * The ID of the frame corresponding to the source of the currently tracked points.
@@ -51,4 +52,20 @@ public class LEAP_POINT_MAPPING_CHANGE_EVENT extends Structure implements LEAP_E
 		super(pointer, ALIGN_NONE);
 		read();
 	}
+
+
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
 }
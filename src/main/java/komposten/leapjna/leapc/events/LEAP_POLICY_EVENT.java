@@ -10,13 +10,14 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapPolicyFlag;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -35,7 +36,7 @@ import komposten.leapjna.leapc.enums.eLeapPolicyFlag;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "reserved", "current_policy" })
-public class LEAP_POLICY_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_POLICY_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/** Reserved for future use. */
 	public int reserved;
@@ -54,6 +55,22 @@ public class LEAP_POLICY_EVENT extends Structure implements LEAP_EVENT
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return An array containing the current {@link eLeapPolicyFlag}s.
 	 */
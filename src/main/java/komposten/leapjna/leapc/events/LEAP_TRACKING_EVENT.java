@@ -10,11 +10,14 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
+import komposten.leapjna.leapc.codec.HandDecodeSpec;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_FRAME_HEADER;
 import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.util.ReusableStructure;
+import komposten.leapjna.leapc.util.Structures;
 
 
 /**
@@ -28,7 +31,7 @@ import komposten.leapjna.leapc.data.LEAP_HAND;
  * @since Ultraleap Orion SDK 3.0.0
  */
 @FieldOrder({ "info", "tracking_frame_id", "nHands", "pHands", "framerate" })
-public class LEAP_TRACKING_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_TRACKING_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/** A universal frame identification header. */
 	public LEAP_FRAME_HEADER info;
@@ -83,7 +86,13 @@ public class LEAP_TRACKING_EVENT extends Structure implements LEAP_EVENT
 	 */
 	public float framerate;
 
+	private static final LEAP_HAND[] NO_HANDS = new LEAP_HAND[0];
+
 	private LEAP_HAND[] hands;
+	private boolean reuseHands;
+	/** Re-usable hand arrays, indexed by length. All arrays share the same hand objects. */
+	private LEAP_HAND[][] handArrays;
+	private HandDecodeSpec handDecodeSpec;
 
 	public LEAP_TRACKING_EVENT()
 	{
@@ -105,6 +114,21 @@ public class LEAP_TRACKING_EVENT extends Structure implements LEAP_EVENT
 	}
 
 
+	/**
+	 * Creates a tracking event backed by the memory at <code>pointer</code> and reads it,
+	 * only reading the parts of the hands selected by <code>spec</code>.
+	 *
+	 * @see #setHandDecodeSpec(HandDecodeSpec)
+	 * @since LeapJna 1.2.1
+	 */
+	public LEAP_TRACKING_EVENT(Pointer pointer, HandDecodeSpec spec)
+	{
+		super(pointer, ALIGN_NONE);
+		handDecodeSpec = spec;
+		read();
+	}
+
+
 	/**
 	 * @return An array of {@link LEAP_HAND} structs holding the hand data for this frame.
 	 */
@@ -114,22 +138,168 @@ public class LEAP_TRACKING_EVENT extends Structure implements LEAP_EVENT
 	}
 
 
+	/**
+	 * <p>
+	 * Replaces the hand array returned by {@link #getHands()}.
+	 * </p>
+	 * <p>
+	 * This is intended for decoders that populate the event without going through
+	 * {@link #read()}, such as
+	 * {@link komposten.leapjna.leapc.LeapCForeign#readTrackingEvent(Pointer, LEAP_TRACKING_EVENT)
+	 * LeapCForeign.readTrackingEvent()}. The next call to <code>read()</code> replaces the
+	 * array again.
+	 * </p>
+	 * 
+	 * @param hands The hands of this frame. Should contain <code>nHands</code> elements.
+	 * @since LeapJna 1.2.1
+	 */
+	public void setHands(LEAP_HAND[] hands)
+	{
+		this.hands = hands;
+	}
+
+
+	/**
+	 * <p>
+	 * Selects whether {@link #read()} re-uses the hand objects from previous reads.
+	 * </p>
+	 * <p>
+	 * When enabled, the array returned by {@link #getHands()} and the hands in it are
+	 * overwritten by the next <code>read()</code> instead of being replaced. This is used
+	 * by {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#setReuseEvents(boolean)
+	 * LEAP_CONNECTION_MESSAGE.setReuseEvents()}.
+	 * </p>
+	 * 
+	 * @param reuseHands <code>true</code> to re-use hand objects.
+	 * @since LeapJna 1.2.1
+	 */
+	public void setReuseHands(boolean reuseHands)
+	{
+		this.reuseHands = reuseHands;
+		handArrays = null;
+
+		if (this.reuseHands && hands != null && hands.length > 0)
+		{
+			handArrays = new LEAP_HAND[hands.length + 1][];
+			handArrays[hands.length] = hands;
+		}
+	}
+
+
+	/**
+	 * <p>
+	 * Selects which parts of the hands {@link #read()} reads from native memory. Parts
+	 * that are not selected are never read, which makes reading the event considerably
+	 * faster when only a few joints are needed.
+	 * </p>
+	 * <p>
+	 * Note that unselected fields are not cleared: newly created hands have all of them
+	 * set to zero, while {@link #setReuseHands(boolean) re-used} hands keep the values
+	 * from the last read that selected them.
+	 * </p>
+	 * 
+	 * @param spec The parts to read, or <code>null</code> to read the whole hands (the
+	 *          default).
+	 * @since LeapJna 1.2.1
+	 */
+	public void setHandDecodeSpec(HandDecodeSpec spec)
+	{
+		this.handDecodeSpec = spec;
+	}
+
+
+	/**
+	 * @return The parts of the hands that are read, or <code>null</code> if the whole
+	 *         hands are read.
+	 * @since LeapJna 1.2.1
+	 */
+	public HandDecodeSpec getHandDecodeSpec()
+	{
+		return handDecodeSpec;
+	}
+
+
 	@Override
 	public void read()
 	{
-		super.read();
+		if (!StructCodecs.read(this))
+			super.read();
+
+		if (reuseHands)
+		{
+			readReusedHands();
+			return;
+		}
 
 		hands = new LEAP_HAND[nHands];
 		
 		if (nHands > 0)
 		{
-			hands[0] = new LEAP_HAND(pHands);
+			hands[0] = new LEAP_HAND(pHands, handDecodeSpec);
 			int size = hands[0].size();
 			for (int i = 1; i < nHands; i++)
 			{
 				int offset = i * size;
-				hands[i] = new LEAP_HAND(pHands.share(offset));
+				hands[i] = new LEAP_HAND(pHands.share(offset), handDecodeSpec);
 			}
 		}
 	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
+	private void readReusedHands()
+	{
+		if (nHands <= 0)
+		{
+			hands = NO_HANDS;
+			return;
+		}
+
+		if (handArrays == null || handArrays.length <= nHands)
+		{
+			LEAP_HAND[][] newArrays = new LEAP_HAND[nHands + 1][];
+			if (handArrays != null)
+				System.arraycopy(handArrays, 0, newArrays, 0, handArrays.length);
+			handArrays = newArrays;
+		}
+
+		hands = handArrays[nHands];
+		if (hands == null)
+		{
+			hands = new LEAP_HAND[nHands];
+			for (int i = 0; i < nHands; i++)
+				hands[i] = getReusableHand(i);
+			handArrays[nHands] = hands;
+		}
+
+		int size = hands[0].size();
+		for (int i = 0; i < nHands; i++)
+		{
+			Structures.useMemory(hands[i], pHands, (long) i * size);
+			hands[i].read(handDecodeSpec);
+		}
+	}
+
+
+	/**
+	 * @return The hand at <code>index</code> in the longest hand array, or a new hand if no
+	 *         array is that long.
+	 */
+	private LEAP_HAND getReusableHand(int index)
+	{
+		for (int length = handArrays.length - 1; length > index; length--)
+		{
+			if (handArrays[length] != null)
+				return handArrays[length][index];
+		}
+
+		return new LEAP_HAND();
+	}
 }
\ No newline at end of file
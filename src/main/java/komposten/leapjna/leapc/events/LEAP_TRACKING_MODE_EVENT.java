@@ -10,13 +10,14 @@
 package komposten.leapjna.leapc.events;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
 
 import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.codec.StructCodecs;
 import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
 import komposten.leapjna.leapc.enums.Enums;
 import komposten.leapjna.leapc.enums.eLeapTrackingMode;
+import komposten.leapjna.leapc.util.ReusableStructure;
 
 
 /**
@@ -35,7 +36,7 @@ import komposten.leapjna.leapc.enums.eLeapTrackingMode;
  * @since Ultraleap Gemini SDK 5.0.0
  */
 @FieldOrder({ "reserved", "current_tracking_mode" })
-public class LEAP_TRACKING_MODE_EVENT extends Structure implements LEAP_EVENT
+public class LEAP_TRACKING_MODE_EVENT extends ReusableStructure implements LEAP_EVENT
 {
 	/** Reserved for future use. */
 	public int reserved;
@@ -54,6 +55,22 @@ public class LEAP_TRACKING_MODE_EVENT extends Structure implements LEAP_EVENT
 	}
 
 
+	@Override
+	public void read()
+	{
+		if (!StructCodecs.read(this))
+			super.read();
+	}
+
+
+	@Override
+	public void write()
+	{
+		if (!StructCodecs.write(this))
+			super.write();
+	}
+
+
 	/**
 	 * @return The tracking mode as an {@link eLeapTrackingMode} instead of an <code>int</code>.
 	 */
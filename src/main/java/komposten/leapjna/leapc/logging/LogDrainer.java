@@ -0,0 +1,294 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENTS;
+import komposten.leapjna.leapc.views.LogEventCursor;
+
+
+/**
+ * <p>
+ * Moves log events from the poll thread to a background thread.
+ * </p>
+ * <p>
+ * The poll thread passes log messages to {@link #offer(LEAP_CONNECTION_MESSAGE)}, which
+ * checks the severity of each event before its message is decoded. Events with a
+ * severity that is not {@link #setSeverities(eLeapLogSeverity...) accepted} are
+ * counted and skipped, while the others are copied into a {@link LogRingBuffer}. After
+ * {@link #start()} has been called, a daemon thread drains the buffer and passes the
+ * entries to a {@link LogHandler}. Offering events does not allocate, and never blocks:
+ * if the buffer is full the events are dropped and counted instead.
+ * </p>
+ *
+ * <pre>
+ * LogDrainer drainer = new LogDrainer(new LogRingBuffer(256, 512),
+ *     (severity, timestamp, text) -&gt; System.out.println(severity + ": " + text));
+ * drainer.setSeverities(eLeapLogSeverity.Critical, eLeapLogSeverity.Warning);
+ * drainer.start();
+ * ...
+ * if (message.getType() == eLeapEventType.LogEvents)
+ *   drainer.offer(message);
+ * ...
+ * drainer.close();
+ * </pre>
+ * <p>
+ * The <code>offer()</code> methods must only be called from one thread at a time.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class LogDrainer implements AutoCloseable
+{
+	/** The maximum number of entries handled between checks for {@link #close()}. */
+	private static final int BATCH_SIZE = 64;
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final LogRingBuffer buffer;
+	private final LogHandler handler;
+	private final LogEventCursor cursor = new LogEventCursor();
+
+	/** Bit <code>severity</code> is set for each accepted severity value. */
+	private volatile int severityMask = ~0;
+
+	private volatile long acceptedCount;
+	private volatile long filteredCount;
+
+	private volatile boolean running;
+	private Thread thread;
+
+
+	/**
+	 * Creates a drainer that accepts all severities.
+	 *
+	 * @param buffer The buffer to copy accepted log events into.
+	 * @param handler The handler to pass drained entries to.
+	 */
+	public LogDrainer(LogRingBuffer buffer, LogHandler handler)
+	{
+		this.buffer = buffer;
+		this.handler = handler;
+	}
+
+
+	/**
+	 * @return The buffer used by this drainer.
+	 */
+	public LogRingBuffer getBuffer()
+	{
+		return buffer;
+	}
+
+
+	/**
+	 * Selects which severities are accepted. Log events with other severities are
+	 * counted as filtered and skipped.
+	 *
+	 * @param severities The severities to accept. If none are specified, all log events
+	 *          are filtered.
+	 */
+	public void setSeverities(eLeapLogSeverity... severities)
+	{
+		int mask = 0;
+		for (eLeapLogSeverity severity : severities)
+			mask |= 1 << severity.value;
+		severityMask = mask;
+	}
+
+
+	/**
+	 * @return <code>true</code> if log events with the specified severity value are
+	 *         accepted.
+	 */
+	public boolean isAccepted(int severity)
+	{
+		return severity >= 0 && severity < Integer.SIZE
+				&& (severityMask & (1 << severity)) != 0;
+	}
+
+
+	/**
+	 * @return The number of log events that have been copied into the buffer.
+	 */
+	public long getAcceptedCount()
+	{
+		return acceptedCount;
+	}
+
+
+	/**
+	 * @return The number of log events that have been skipped due to their severity.
+	 */
+	public long getFilteredCount()
+	{
+		return filteredCount;
+	}
+
+
+	/**
+	 * @return The number of accepted log events that have been dropped because the buffer
+	 *         was full.
+	 */
+	public long getDroppedCount()
+	{
+		return buffer.getDroppedCount();
+	}
+
+
+	/**
+	 * Offers the log events of a message. Messages of other types are ignored.
+	 *
+	 * @param message A polled message.
+	 * @return <code>true</code> if the message was a {@link eLeapEventType#LogEvent} or
+	 *         {@link eLeapEventType#LogEvents} message.
+	 */
+	public boolean offer(LEAP_CONNECTION_MESSAGE message)
+	{
+		if (message.type != eLeapEventType.LogEvent.value
+				&& message.type != eLeapEventType.LogEvents.value)
+		{
+			return false;
+		}
+
+		offer(cursor.wrap(message));
+		return true;
+	}
+
+
+	/**
+	 * Offers the log events of a log events structure.
+	 *
+	 * @param events A log events structure whose native memory is still valid.
+	 * @return The number of events that were copied into the buffer.
+	 */
+	public int offer(LEAP_LOG_EVENTS events)
+	{
+		return offer(cursor.wrap(events));
+	}
+
+
+	/**
+	 * Offers the remaining events of a cursor. The cursor is moved past the last event.
+	 *
+	 * @param cursor A cursor over some log events.
+	 * @return The number of events that were copied into the buffer.
+	 */
+	public int offer(LogEventCursor cursor)
+	{
+		int accepted = 0;
+		while (cursor.next())
+		{
+			int severity = cursor.getSeverityValue();
+			if (!isAccepted(severity))
+			{
+				filteredCount++;
+			}
+			else if (buffer.offer(severity, cursor.getTimestamp(), cursor.getMessagePointer()))
+			{
+				accepted++;
+			}
+		}
+
+		acceptedCount += accepted;
+		return accepted;
+	}
+
+
+	/**
+	 * Passes all entries in the buffer to the handler on the calling thread. Should not be
+	 * called while the drainer thread is running.
+	 *
+	 * @return The number of entries that were handled.
+	 */
+	public int drain()
+	{
+		return buffer.drain(handler, Integer.MAX_VALUE);
+	}
+
+
+	/**
+	 * Starts a daemon thread that drains the buffer.
+	 *
+	 * @throws IllegalStateException If the drainer has already been started.
+	 */
+	public synchronized void start()
+	{
+		if (thread != null)
+			throw new IllegalStateException("The drainer has already been started");
+
+		running = true;
+		thread = new Thread(this::run, "LeapJna log drainer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+
+	/**
+	 * @return <code>true</code> if the drainer thread is running.
+	 */
+	public boolean isRunning()
+	{
+		return running;
+	}
+
+
+	/**
+	 * Stops the drainer thread, waits for it to finish, and then handles any entries left
+	 * in the buffer on the calling thread.
+	 */
+	@Override
+	public synchronized void close()
+	{
+		running = false;
+
+		if (thread != null)
+		{
+			LockSupport.unpark(thread);
+			try
+			{
+				thread.join();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+
+		drain();
+	}
+
+
+	private void run()
+	{
+		while (running)
+		{
+			int handled = 0;
+			try
+			{
+				handled = buffer.drain(handler, BATCH_SIZE);
+			}
+			catch (RuntimeException e)
+			{
+				Thread current = Thread.currentThread();
+				current.getUncaughtExceptionHandler().uncaughtException(current, e);
+				handled = 1;
+			}
+
+			if (handled == 0)
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+		}
+	}
+}
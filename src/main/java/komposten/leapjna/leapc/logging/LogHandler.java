@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.logging;
+
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+
+
+/**
+ * Receives log entries drained from a {@link LogRingBuffer}.
+ *
+ * @since LeapJna 1.2.1
+ */
+@FunctionalInterface
+public interface LogHandler
+{
+	/**
+	 * @param severity The severity of the entry.
+	 * @param timestamp The timestamp of the entry in microseconds.
+	 * @param message The message, possibly truncated to the ring buffer's maximum message
+	 *          length.
+	 */
+	void onLog(eLeapLogSeverity severity, long timestamp, String message);
+}
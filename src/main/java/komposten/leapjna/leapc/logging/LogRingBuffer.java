@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.logging;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+import komposten.leapjna.leapc.util.NativeMemory;
+
+
+/**
+ * <p>
+ * A bounded ring buffer of log entries, stored in native memory.
+ * </p>
+ * <p>
+ * Each entry holds a severity, a timestamp and up to <code>maxMessageLength</code> bytes
+ * of message. Messages are copied from native memory straight into the buffer and are
+ * only decoded into <code>String</code>s when the entries are drained, so offering an
+ * entry does not allocate. When the buffer is full, new entries are dropped.
+ * </p>
+ * <p>
+ * The buffer supports a single producer thread (calling the <code>offer()</code>
+ * methods) and a single consumer thread (calling {@link #poll(LogHandler)} and
+ * {@link #drain(LogHandler, int)}) running concurrently.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class LogRingBuffer
+{
+	private static final long SEVERITY = 0;
+	private static final long LENGTH = 4;
+	private static final long TIMESTAMP = 8;
+	private static final long MESSAGE = 16;
+
+	private static final Charset CHARSET = Charset.forName(Native.getDefaultStringEncoding());
+
+	private final int capacity;
+	private final int maxMessageLength;
+	private final long slotSize;
+	private final Memory memory;
+
+	/** The sequence number of the next entry to write. Only written by the producer. */
+	private final AtomicLong tail = new AtomicLong();
+	/** The sequence number of the next entry to read. Only written by the consumer. */
+	private final AtomicLong head = new AtomicLong();
+
+	private final byte[] consumerBuffer;
+
+	private volatile long droppedCount;
+	private volatile long truncatedCount;
+
+
+	/**
+	 * @param capacity The maximum number of entries in the buffer.
+	 * @param maxMessageLength The maximum length of a message, in bytes. Longer messages
+	 *          are truncated.
+	 * @throws IllegalArgumentException If <code>capacity</code> is less than 1 or
+	 *           <code>maxMessageLength</code> is negative.
+	 */
+	public LogRingBuffer(int capacity, int maxMessageLength)
+	{
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+		if (maxMessageLength < 0)
+			throw new IllegalArgumentException(
+					"maxMessageLength must not be negative: " + maxMessageLength);
+
+		this.capacity = capacity;
+		this.maxMessageLength = maxMessageLength;
+		this.slotSize = (MESSAGE + maxMessageLength + 7) & ~7L;
+		this.memory = new Memory(capacity * slotSize);
+		this.consumerBuffer = new byte[maxMessageLength];
+	}
+
+
+	/**
+	 * @return The maximum number of entries in the buffer.
+	 */
+	public int capacity()
+	{
+		return capacity;
+	}
+
+
+	/**
+	 * @return The maximum length of a message, in bytes.
+	 */
+	public int getMaxMessageLength()
+	{
+		return maxMessageLength;
+	}
+
+
+	/**
+	 * @return The number of entries currently in the buffer.
+	 */
+	public int size()
+	{
+		return (int) (tail.get() - head.get());
+	}
+
+
+	/**
+	 * @return The number of entries that have been dropped because the buffer was full.
+	 */
+	public long getDroppedCount()
+	{
+		return droppedCount;
+	}
+
+
+	/**
+	 * @return The number of messages that have been truncated.
+	 */
+	public long getTruncatedCount()
+	{
+		return truncatedCount;
+	}
+
+
+	/**
+	 * Adds an entry, copying the message from native memory.
+	 *
+	 * @param severity The severity of the entry.
+	 * @param timestamp The timestamp of the entry in microseconds.
+	 * @param message A pointer to a null-terminated message, or <code>null</code>.
+	 * @return <code>true</code> if the entry was added, <code>false</code> if it was
+	 *         dropped because the buffer is full.
+	 */
+	public boolean offer(int severity, long timestamp, Pointer message)
+	{
+		long sequence = tail.get();
+		if (sequence - head.get() >= capacity)
+		{
+			droppedCount++;
+			return false;
+		}
+
+		long slot = slotOffset(sequence);
+		int length = 0;
+		if (message != null)
+		{
+			long messageLength = message.indexOf(0, (byte) 0);
+			length = (int) Math.min(messageLength, maxMessageLength);
+			if (length < messageLength)
+				truncatedCount++;
+			NativeMemory.copy(message, 0, memory, slot + MESSAGE, length);
+		}
+
+		publish(sequence, slot, severity, timestamp, length);
+		return true;
+	}
+
+
+	/**
+	 * Adds an entry.
+	 *
+	 * @param severity The severity of the entry.
+	 * @param timestamp The timestamp of the entry in microseconds.
+	 * @param message The message, or <code>null</code>.
+	 * @return <code>true</code> if the entry was added, <code>false</code> if it was
+	 *         dropped because the buffer is full.
+	 */
+	public boolean offer(int severity, long timestamp, String message)
+	{
+		long sequence = tail.get();
+		if (sequence - head.get() >= capacity)
+		{
+			droppedCount++;
+			return false;
+		}
+
+		long slot = slotOffset(sequence);
+		int length = 0;
+		if (message != null)
+		{
+			byte[] bytes = message.getBytes(CHARSET);
+			length = Math.min(bytes.length, maxMessageLength);
+			if (length < bytes.length)
+				truncatedCount++;
+			memory.write(slot + MESSAGE, bytes, 0, length);
+		}
+
+		publish(sequence, slot, severity, timestamp, length);
+		return true;
+	}
+
+
+	/**
+	 * Writes the header of the entry in <code>slot</code>, whose message has already been
+	 * written, and makes the entry visible to the consumer.
+	 */
+	private void publish(long sequence, long slot, int severity, long timestamp, int length)
+	{
+		memory.setInt(slot + SEVERITY, severity);
+		memory.setInt(slot + LENGTH, length);
+		memory.setLong(slot + TIMESTAMP, timestamp);
+
+		tail.lazySet(sequence + 1);
+	}
+
+
+	/**
+	 * Removes the oldest entry and passes it to <code>handler</code>.
+	 *
+	 * @return <code>true</code> if an entry was removed, <code>false</code> if the buffer
+	 *         was empty.
+	 */
+	public boolean poll(LogHandler handler)
+	{
+		long sequence = head.get();
+		if (sequence == tail.get())
+			return false;
+
+		long slot = slotOffset(sequence);
+		int severity = memory.getInt(slot + SEVERITY);
+		int length = memory.getInt(slot + LENGTH);
+		long timestamp = memory.getLong(slot + TIMESTAMP);
+		memory.read(slot + MESSAGE, consumerBuffer, 0, length);
+		String message = new String(consumerBuffer, 0, length, CHARSET);
+
+		head.lazySet(sequence + 1);
+
+		handler.onLog(Enums.parse(severity, eLeapLogSeverity.Unknown), timestamp, message);
+		return true;
+	}
+
+
+	/**
+	 * Removes up to <code>maxEntries</code> entries and passes them to
+	 * <code>handler</code>, oldest first.
+	 *
+	 * @return The number of entries that were removed.
+	 */
+	public int drain(LogHandler handler, int maxEntries)
+	{
+		int count = 0;
+		while (count < maxEntries && poll(handler))
+			count++;
+		return count;
+	}
+
+
+	private long slotOffset(long sequence)
+	{
+		return (sequence % capacity) * slotSize;
+	}
+}
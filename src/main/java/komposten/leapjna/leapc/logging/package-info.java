@@ -0,0 +1,18 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+
+/**
+ * Provides classes for handling LeapC log events off the poll thread:
+ * {@link komposten.leapjna.leapc.logging.LogDrainer} filters log events by severity and
+ * copies them into a bounded, off-heap
+ * {@link komposten.leapjna.leapc.logging.LogRingBuffer}, which is drained by a background
+ * thread.
+ */
+package komposten.leapjna.leapc.logging;
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * <p>
+ * A consumer's position in an {@link EventRingBuffer}. Each consumer has its own cursor
+ * and reads the published events at its own pace. The producer does not wait for the
+ * cursors, so a consumer that falls a whole buffer behind is lapped: it skips ahead to
+ * the oldest event still in the buffer and counts the events it missed (see
+ * {@link #getDroppedCount()}).
+ * </p>
+ * <p>
+ * Events are copied from the shared ring into a slot owned by the cursor before they
+ * are passed to the handler, so the handler never sees a slot that is being
+ * overwritten. A cursor must only be used by one thread at a time.
+ * </p>
+ *
+ * @see EventRingBuffer#addConsumer()
+ * @since LeapJna 1.2.1
+ */
+public final class ConsumerCursor
+{
+	private final EventRingBuffer ring;
+	/** The slot that events are copied into before they are handled. */
+	private final EventSlot event;
+	/** The sequence number of the last handled event. Only written by the consumer. */
+	private final AtomicLong sequence;
+
+	private volatile long droppedCount;
+
+
+	ConsumerCursor(EventRingBuffer ring, long sequence, int maxHands)
+	{
+		this.ring = ring;
+		this.event = new EventSlot(maxHands);
+		this.sequence = new AtomicLong(sequence);
+	}
+
+
+	/**
+	 * @return The sequence number of the last event this consumer has handled or skipped.
+	 */
+	public long getSequence()
+	{
+		return sequence.get();
+	}
+
+
+	/**
+	 * @return The number of events that the producer has overwritten before this consumer
+	 *         handled them, including any that the consumer has not skipped yet.
+	 */
+	public long getDroppedCount()
+	{
+		long overwritten = ring.getCursor() - ring.capacity() - sequence.get();
+		return droppedCount + Math.max(overwritten, 0);
+	}
+
+
+	/**
+	 * @return The number of published events that this consumer has not handled yet,
+	 *         including any that have already been overwritten.
+	 */
+	public int available()
+	{
+		return (int) (ring.getCursor() - sequence.get());
+	}
+
+
+	/**
+	 * Passes the available events, up to <code>maxEvents</code>, to a handler. Events that
+	 * have been overwritten are skipped and counted as dropped. If the handler throws an
+	 * exception, the event that caused it is skipped and the exception is re-thrown.
+	 *
+	 * @param handler The handler.
+	 * @param maxEvents The maximum number of events to handle.
+	 * @return The number of events that were handled.
+	 */
+	public int poll(EventHandler handler, int maxEvents)
+	{
+		int handled = 0;
+		long next = sequence.get() + 1;
+
+		while (handled < maxEvents)
+		{
+			long published = ring.getCursor();
+			if (next > published)
+				break;
+
+			long oldest = published - ring.capacity() + 1;
+			if (next < oldest)
+			{
+				droppedCount += oldest - next;
+				next = oldest;
+			}
+
+			// The slot is only being overwritten if the producer has lapped this cursor
+			// since the cursor was read; the event is then lost.
+			boolean copied = ring.get(next).copyTo(event, next);
+			sequence.lazySet(next);
+			if (!copied)
+			{
+				droppedCount++;
+				next++;
+				continue;
+			}
+
+			handled++;
+			boolean endOfBatch = (handled == maxEvents || next == ring.getCursor());
+			handler.onEvent(event, next, endOfBatch);
+			next++;
+		}
+
+		return handled;
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * <p>
+ * Creates the threads that event consumers run on.
+ * </p>
+ * <p>
+ * LeapJna is a multi-release jar. On Java 21 and later this class is replaced by a
+ * version that can run consumers on virtual threads, so that hundreds of lightweight
+ * consumers (e.g. one per network session) can be attached to a {@link LeapEventLoop}
+ * or a {@link LeapFlowPublisher} without a platform thread each. This is the fallback
+ * version for older JVMs: {@link #isVirtualSupported()} returns <code>false</code> and
+ * all consumers run on daemon platform threads.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class ConsumerThreads
+{
+	/**
+	 * @return <code>true</code> if the running JVM supports virtual threads (Java 21 or
+	 *         later).
+	 */
+	public static boolean isVirtualSupported()
+	{
+		return false;
+	}
+
+
+	/**
+	 * Creates an unstarted consumer thread. The thread is a daemon thread.
+	 *
+	 * @param name The name of the thread.
+	 * @param task The task to run.
+	 * @param virtual <code>true</code> to create a virtual thread. Ignored if virtual
+	 *          threads are not supported.
+	 * @return The thread.
+	 */
+	public static Thread newThread(String name, Runnable task, boolean virtual)
+	{
+		Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+
+	/**
+	 * Creates an executor for e.g. a {@link LeapFlowPublisher}. On Java 21 and later each
+	 * task runs on a new virtual thread; on older JVMs the tasks run on a cached pool of
+	 * daemon platform threads.
+	 *
+	 * @param name The prefix of the thread names.
+	 * @return The executor, which should be shut down when it is no longer used.
+	 */
+	public static ExecutorService newExecutor(String name)
+	{
+		return Executors.newCachedThreadPool(task -> newThread(name, task, false));
+	}
+
+
+	private ConsumerThreads()
+	{}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_STATUS_CHANGE_EVENT;
+
+
+/**
+ * <p>
+ * An immutable copy of a device event ({@link eLeapEventType#Device},
+ * {@link eLeapEventType#DeviceLost}, {@link eLeapEventType#DeviceStatusChange} or
+ * {@link eLeapEventType#DeviceFailure}), which unlike the event structures can be handed
+ * to another thread.
+ * </p>
+ *
+ * @see LeapFlowPublisher#devices(java.util.concurrent.Executor, int, OverflowStrategy)
+ * @since LeapJna 1.2.1
+ */
+public final class DeviceChange
+{
+	private final eLeapEventType type;
+	private final int deviceId;
+	private final int status;
+	private final int lastStatus;
+
+
+	/**
+	 * @param type The type of the device event.
+	 * @param deviceId The ID of the device.
+	 * @param status The current status flags.
+	 * @param lastStatus The previous status flags, or <code>0</code> if unknown.
+	 */
+	public DeviceChange(eLeapEventType type, int deviceId, int status, int lastStatus)
+	{
+		this.type = type;
+		this.deviceId = deviceId;
+		this.status = status;
+		this.lastStatus = lastStatus;
+	}
+
+
+	/**
+	 * Copies the device event of a message.
+	 *
+	 * @param message A polled device message.
+	 * @return The copy.
+	 * @throws IllegalArgumentException If the message is not one of the device event types
+	 *           listed in the class description.
+	 */
+	public static DeviceChange of(LEAP_CONNECTION_MESSAGE message)
+	{
+		eLeapEventType type = message.getType();
+		switch (type)
+		{
+			case Device :
+			{
+				LEAP_DEVICE_EVENT event = message.getDeviceEvent();
+				return new DeviceChange(type, event.device.id, event.status, 0);
+			}
+			case DeviceLost :
+			{
+				LEAP_DEVICE_EVENT event = message.getDeviceLostEvent();
+				return new DeviceChange(type, event.device.id, event.status, 0);
+			}
+			case DeviceStatusChange :
+			{
+				LEAP_DEVICE_STATUS_CHANGE_EVENT event = message.getDeviceStatusChangeEvent();
+				return new DeviceChange(type, event.device.id, event.status, event.last_status);
+			}
+			case DeviceFailure :
+				// The failure event only has a device handle, so use the message's device ID.
+				return new DeviceChange(type, message.device_id,
+						message.getDeviceFailureEvent().status, 0);
+			default :
+				throw new IllegalArgumentException("Not a device event: " + type);
+		}
+	}
+
+
+	/**
+	 * @return The type of the device event.
+	 */
+	public eLeapEventType getType()
+	{
+		return type;
+	}
+
+
+	/**
+	 * @return The ID of the device.
+	 */
+	public int getDeviceId()
+	{
+		return deviceId;
+	}
+
+
+	/**
+	 * @return The current status flags, as a combination of {@link eLeapDeviceStatus}
+	 *         values.
+	 */
+	public int getStatusValue()
+	{
+		return status;
+	}
+
+
+	/**
+	 * @return The current status flags as an {@link eLeapDeviceStatus} array.
+	 */
+	public eLeapDeviceStatus[] getStatus()
+	{
+		return Enums.parseMask(status, eLeapDeviceStatus.class);
+	}
+
+
+	/**
+	 * @return The previous status flags, or <code>0</code> if the event type does not
+	 *         report them.
+	 */
+	public int getLastStatusValue()
+	{
+		return lastStatus;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return type + "[device=" + deviceId + ", status=0x" + Integer.toHexString(status)
+				+ "]";
+	}
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+/**
+ * Handles events read from an {@link EventRingBuffer}.
+ *
+ * @since LeapJna 1.2.1
+ */
+@FunctionalInterface
+public interface EventHandler
+{
+	/**
+	 * @param event The event. It is only valid until this method returns.
+	 * @param sequence The sequence number of the event in the ring buffer.
+	 * @param endOfBatch <code>true</code> if this is the last event that was available
+	 *          when the batch started, e.g. to flush or repaint once per batch.
+	 */
+	void onEvent(EventSlot event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.jna.Pointer;
+
+
+/**
+ * <p>
+ * A preallocated, lock-free ring buffer of {@link EventSlot}s with a single producer and
+ * any number of consumers.
+ * </p>
+ * <p>
+ * The producer {@link #publish(int, int, Pointer) publishes} events by copying them into
+ * the next slot, once for all consumers. Each consumer reads the events through its own
+ * {@link ConsumerCursor}, at its own pace. The producer never waits for the consumers:
+ * when the buffer wraps around it overwrites the oldest slot, and a consumer that has
+ * fallen a whole buffer behind skips the overwritten events and counts them as dropped
+ * (see {@link ConsumerCursor#getDroppedCount()}). A slow consumer therefore never
+ * delays the producer or the other consumers. Publishing and consuming events do not
+ * allocate.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class EventRingBuffer
+{
+	private final EventSlot[] slots;
+	private final int mask;
+	private final int maxHands;
+
+	/** The sequence number of the last published event. Only written by the producer. */
+	private final AtomicLong cursor = new AtomicLong(-1);
+
+
+	/**
+	 * @param capacity The number of slots. Must be a power of two.
+	 * @param maxHands The maximum number of hands stored for each tracking event.
+	 * @throws IllegalArgumentException If <code>capacity</code> is not a positive power of
+	 *           two, or <code>maxHands</code> is less than 1.
+	 */
+	public EventRingBuffer(int capacity, int maxHands)
+	{
+		if (capacity < 1 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+
+		slots = new EventSlot[capacity];
+		for (int i = 0; i < capacity; i++)
+			slots[i] = new EventSlot(maxHands);
+		mask = capacity - 1;
+		this.maxHands = maxHands;
+	}
+
+
+	/**
+	 * @return The number of slots.
+	 */
+	public int capacity()
+	{
+		return slots.length;
+	}
+
+
+	/**
+	 * @return The sequence number of the last published event, or <code>-1</code> if none
+	 *         have been published.
+	 */
+	public long getCursor()
+	{
+		return cursor.get();
+	}
+
+
+	/**
+	 * Adds a consumer, which will see the events published after this call. Consumers do
+	 * not hold back the producer, so they do not need to be removed.
+	 *
+	 * @return The consumer's cursor.
+	 */
+	public ConsumerCursor addConsumer()
+	{
+		return new ConsumerCursor(this, cursor.get(), maxHands);
+	}
+
+
+	/**
+	 * Copies an event into the next slot and makes it visible to the consumers. If the
+	 * buffer is full, the oldest event is overwritten. Must only be called by one thread.
+	 *
+	 * @param type The event type, as an {@link komposten.leapjna.leapc.enums.eLeapEventType}
+	 *          value.
+	 * @param deviceId The ID of the device that sent the event.
+	 * @param pEvent The event data, e.g.
+	 *          {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#pEvent}. Only
+	 *          read for tracking events.
+	 */
+	public void publish(int type, int deviceId, Pointer pEvent)
+	{
+		long next = cursor.get() + 1;
+		slots[(int) next & mask].set(next, type, deviceId, pEvent);
+		cursor.lazySet(next);
+	}
+
+
+	EventSlot get(long sequence)
+	{
+		return slots[(int) sequence & mask];
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.views.HandFrameBuffer;
+
+
+/**
+ * <p>
+ * A preallocated entry in an {@link EventRingBuffer}, which is overwritten each time the
+ * buffer wraps around.
+ * </p>
+ * <p>
+ * Every slot holds the type and device ID of a polled message. For
+ * {@link eLeapEventType#Tracking} messages, the frame is also copied into
+ * {@link #getFrame()}, so consumers never read LeapC-owned memory. The contents of a slot
+ * are only valid while a consumer is handling it.
+ * </p>
+ * <p>
+ * The slots in the ring are shared by all consumers and may be overwritten while a
+ * consumer reads them. Each consumer therefore copies a slot into its own slot and
+ * checks the slot's sequence number afterwards, discarding the copy if the producer
+ * wrote to the slot in the meantime.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class EventSlot
+{
+	/** Written while the slot is being written, so readers can detect torn copies. */
+	private static final long WRITING = Long.MIN_VALUE;
+
+	/** The sequence number of the event in the slot, or {@link #WRITING}. */
+	private final AtomicLong sequence = new AtomicLong(WRITING);
+	private final HandFrameBuffer frame;
+	private int type;
+	private int deviceId;
+
+
+	EventSlot(int maxHands)
+	{
+		frame = new HandFrameBuffer(1, maxHands);
+	}
+
+
+	void set(long sequence, int type, int deviceId, Pointer pEvent)
+	{
+		this.sequence.set(WRITING);
+		VarHandle.storeStoreFence();
+
+		this.type = type;
+		this.deviceId = deviceId;
+
+		frame.clear();
+		if (type == eLeapEventType.Tracking.value && pEvent != null)
+			frame.add(pEvent);
+
+		this.sequence.lazySet(sequence);
+	}
+
+
+	/**
+	 * Copies the event with the given sequence number into another slot.
+	 *
+	 * @return <code>false</code> if the slot does not hold that event, or was overwritten
+	 *         during the copy. The contents of <code>target</code> are then undefined.
+	 */
+	boolean copyTo(EventSlot target, long sequence)
+	{
+		if (this.sequence.get() != sequence)
+			return false;
+
+		target.type = type;
+		target.deviceId = deviceId;
+		target.frame.clear();
+		if (frame.size() > 0)
+			target.frame.add(frame, 0);
+
+		VarHandle.loadLoadFence();
+		return this.sequence.get() == sequence;
+	}
+
+
+	/**
+	 * @return The event type, as an {@link eLeapEventType} value.
+	 */
+	public int getTypeValue()
+	{
+		return type;
+	}
+
+
+	/**
+	 * @return The event type.
+	 */
+	public eLeapEventType getType()
+	{
+		return Enums.parse(type, eLeapEventType.Unknown);
+	}
+
+
+	/**
+	 * @return The ID of the device the event came from, or <code>0</code> if the event is
+	 *         not device-specific.
+	 */
+	public int getDeviceId()
+	{
+		return deviceId;
+	}
+
+
+	/**
+	 * @return <code>true</code> if this is a tracking event and {@link #getFrame()} holds
+	 *         its frame.
+	 */
+	public boolean hasFrame()
+	{
+		return frame.size() > 0;
+	}
+
+
+	/**
+	 * @return A buffer with room for a single frame, which holds the frame of a tracking
+	 *         event (use frame index <code>0</code>), or is empty for other events.
+	 */
+	public HandFrameBuffer getFrame()
+	{
+		return frame;
+	}
+}
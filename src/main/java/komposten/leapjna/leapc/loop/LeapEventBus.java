@@ -0,0 +1,372 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.events.LEAP_CONFIG_CHANGE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_CONFIG_RESPONSE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_CONNECTION_EVENT;
+import komposten.leapjna.leapc.events.LEAP_CONNECTION_LOST_EVENT;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_FAILURE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_STATUS_CHANGE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_DROPPED_FRAME_EVENT;
+import komposten.leapjna.leapc.events.LEAP_EYE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_HEAD_POSE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_IMAGE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_IMU_EVENT;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENT;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENTS;
+import komposten.leapjna.leapc.events.LEAP_POINT_MAPPING_CHANGE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_POLICY_EVENT;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_MODE_EVENT;
+
+
+/**
+ * <p>
+ * Dispatches polled messages to listeners subscribed to their event type.
+ * </p>
+ * <p>
+ * The listeners of each event type are kept in a table indexed by the type, so
+ * {@link #dispatch(LEAP_CONNECTION_MESSAGE)} does a single lookup instead of a
+ * <code>switch</code>. The event structure of a message is only decoded (once) if a typed
+ * listener is subscribed to its type; messages of other types are skipped without
+ * creating any <code>LEAP_*_EVENT</code> objects. Listeners added with
+ * {@link #on(eLeapEventType, Consumer)} receive the message itself, without decoding, e.g.
+ * to wrap a {@link komposten.leapjna.leapc.views.TrackingFrameView} around the event.
+ * </p>
+ *
+ * <pre>
+ * LeapEventBus bus = new LeapEventBus();
+ * bus.onTracking(event -&gt; draw(event.getHands()));
+ * bus.onDeviceStatusChange(event -&gt; log(event.getStatus()));
+ * while (polling)
+ * {
+ * 	if (LeapC.INSTANCE.LeapPollConnection(handle, 30, message) == eLeapRS.Success)
+ * 		bus.dispatch(message);
+ * }
+ * </pre>
+ * <p>
+ * Listeners can be added and removed from any thread, but are called on the thread that
+ * dispatches the message. Events are only valid while their listeners are running.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class LeapEventBus
+{
+	/**
+	 * A handle to a subscription, which removes its listener when closed.
+	 */
+	@FunctionalInterface
+	public interface Subscription extends AutoCloseable
+	{
+		@Override
+		void close();
+	}
+
+
+	private final Route[] routes = new Route[eLeapEventType.values().length];
+	private final Object lock = new Object();
+
+
+	// The point mapping change route uses a deprecated event struct.
+	@SuppressWarnings("deprecation")
+	public LeapEventBus()
+	{
+		route(eLeapEventType.Connection, LEAP_CONNECTION_MESSAGE::getConnectionEvent);
+		route(eLeapEventType.ConnectionLost, LEAP_CONNECTION_MESSAGE::getConnectionLostEvent);
+		route(eLeapEventType.Device, LEAP_CONNECTION_MESSAGE::getDeviceEvent);
+		route(eLeapEventType.DeviceFailure, LEAP_CONNECTION_MESSAGE::getDeviceFailureEvent);
+		route(eLeapEventType.Policy, LEAP_CONNECTION_MESSAGE::getPolicyEvent);
+		route(eLeapEventType.Tracking, LEAP_CONNECTION_MESSAGE::getTrackingEvent);
+		route(eLeapEventType.LogEvent, LEAP_CONNECTION_MESSAGE::getLogEvent);
+		route(eLeapEventType.DeviceLost, LEAP_CONNECTION_MESSAGE::getDeviceLostEvent);
+		route(eLeapEventType.ConfigResponse, LEAP_CONNECTION_MESSAGE::getConfigResponseEvent);
+		route(eLeapEventType.ConfigChange, LEAP_CONNECTION_MESSAGE::getConfigChangeEvent);
+		route(eLeapEventType.DeviceStatusChange,
+				LEAP_CONNECTION_MESSAGE::getDeviceStatusChangeEvent);
+		route(eLeapEventType.DroppedFrame, LEAP_CONNECTION_MESSAGE::getDroppedFrameEvent);
+		route(eLeapEventType.Image, LEAP_CONNECTION_MESSAGE::getImageEvent);
+		route(eLeapEventType.PointMappingChange,
+				LEAP_CONNECTION_MESSAGE::getPointMappingChangeEvent);
+		route(eLeapEventType.TrackingMode, LEAP_CONNECTION_MESSAGE::getTrackingModeEvent);
+		route(eLeapEventType.LogEvents, LEAP_CONNECTION_MESSAGE::getLogEvents);
+		route(eLeapEventType.HeadPose, LEAP_CONNECTION_MESSAGE::getHeadPoseEvent);
+		route(eLeapEventType.Eyes, LEAP_CONNECTION_MESSAGE::getEyeEvent);
+		route(eLeapEventType.IMU, LEAP_CONNECTION_MESSAGE::getIMUEvent);
+
+		// Types without an event structure (e.g. None) only have message listeners.
+		for (int i = 0; i < routes.length; i++)
+		{
+			if (routes[i] == null)
+				routes[i] = new Route(null);
+		}
+	}
+
+
+	private void route(eLeapEventType type, Function<LEAP_CONNECTION_MESSAGE, ?> decoder)
+	{
+		routes[type.ordinal()] = new Route(decoder);
+	}
+
+
+	/**
+	 * Passes a message to the listeners subscribed to its type. The event is decoded at
+	 * most once, and only if a typed listener is subscribed.
+	 *
+	 * @param message A polled message.
+	 * @return <code>true</code> if any listener was subscribed to the message's type.
+	 */
+	public boolean dispatch(LEAP_CONNECTION_MESSAGE message)
+	{
+		Route route = routes[message.getType().ordinal()];
+		Consumer<Object>[] messageListeners = route.messageListeners;
+		Consumer<Object>[] eventListeners = route.eventListeners;
+
+		if (messageListeners.length == 0 && eventListeners.length == 0)
+			return false;
+
+		for (Consumer<Object> listener : messageListeners)
+			listener.accept(message);
+
+		if (eventListeners.length > 0)
+		{
+			Object event = route.decoder.apply(message);
+			for (Consumer<Object> listener : eventListeners)
+				listener.accept(event);
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * @return <code>true</code> if any listener is subscribed to the event type.
+	 */
+	public boolean hasListeners(eLeapEventType type)
+	{
+		Route route = routes[type.ordinal()];
+		return route.messageListeners.length > 0 || route.eventListeners.length > 0;
+	}
+
+
+	/**
+	 * Subscribes to the messages of an event type. The event is not decoded for these
+	 * listeners.
+	 */
+	public Subscription on(eLeapEventType type, Consumer<LEAP_CONNECTION_MESSAGE> listener)
+	{
+		return subscribe(type, listener, false);
+	}
+
+
+	public Subscription onConnection(Consumer<LEAP_CONNECTION_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.Connection, listener, true);
+	}
+
+
+	public Subscription onConnectionLost(Consumer<LEAP_CONNECTION_LOST_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.ConnectionLost, listener, true);
+	}
+
+
+	public Subscription onDevice(Consumer<LEAP_DEVICE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.Device, listener, true);
+	}
+
+
+	public Subscription onDeviceLost(Consumer<LEAP_DEVICE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.DeviceLost, listener, true);
+	}
+
+
+	public Subscription onDeviceFailure(Consumer<LEAP_DEVICE_FAILURE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.DeviceFailure, listener, true);
+	}
+
+
+	public Subscription onDeviceStatusChange(
+			Consumer<LEAP_DEVICE_STATUS_CHANGE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.DeviceStatusChange, listener, true);
+	}
+
+
+	public Subscription onPolicy(Consumer<LEAP_POLICY_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.Policy, listener, true);
+	}
+
+
+	public Subscription onTracking(Consumer<LEAP_TRACKING_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.Tracking, listener, true);
+	}
+
+
+	public Subscription onTrackingMode(Consumer<LEAP_TRACKING_MODE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.TrackingMode, listener, true);
+	}
+
+
+	public Subscription onImage(Consumer<LEAP_IMAGE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.Image, listener, true);
+	}
+
+
+	/**
+	 * Subscribes to log events. The listener is called for {@link eLeapEventType#LogEvent}
+	 * messages, and once for each event in {@link eLeapEventType#LogEvents} messages.
+	 */
+	public Subscription onLog(Consumer<LEAP_LOG_EVENT> listener)
+	{
+		Consumer<LEAP_LOG_EVENTS> eventsListener = events -> {
+			for (LEAP_LOG_EVENT event : events.getEvents())
+				listener.accept(event);
+		};
+
+		Subscription single = subscribe(eLeapEventType.LogEvent, listener, true);
+		Subscription multiple = subscribe(eLeapEventType.LogEvents, eventsListener, true);
+		return () -> {
+			single.close();
+			multiple.close();
+		};
+	}
+
+
+	public Subscription onConfigResponse(Consumer<LEAP_CONFIG_RESPONSE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.ConfigResponse, listener, true);
+	}
+
+
+	public Subscription onConfigChange(Consumer<LEAP_CONFIG_CHANGE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.ConfigChange, listener, true);
+	}
+
+
+	public Subscription onDroppedFrame(Consumer<LEAP_DROPPED_FRAME_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.DroppedFrame, listener, true);
+	}
+
+
+	@SuppressWarnings("deprecation")
+	public Subscription onPointMappingChange(
+			Consumer<LEAP_POINT_MAPPING_CHANGE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.PointMappingChange, listener, true);
+	}
+
+
+	public Subscription onHeadPose(Consumer<LEAP_HEAD_POSE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.HeadPose, listener, true);
+	}
+
+
+	public Subscription onEyes(Consumer<LEAP_EYE_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.Eyes, listener, true);
+	}
+
+
+	public Subscription onIMU(Consumer<LEAP_IMU_EVENT> listener)
+	{
+		return subscribe(eLeapEventType.IMU, listener, true);
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private Subscription subscribe(eLeapEventType type, Consumer<?> listener,
+			boolean decode)
+	{
+		Route route = routes[type.ordinal()];
+		Consumer<Object> consumer = (Consumer<Object>) listener;
+
+		synchronized (lock)
+		{
+			if (decode)
+				route.eventListeners = add(route.eventListeners, consumer);
+			else
+				route.messageListeners = add(route.messageListeners, consumer);
+		}
+
+		return () -> {
+			synchronized (lock)
+			{
+				if (decode)
+					route.eventListeners = remove(route.eventListeners, consumer);
+				else
+					route.messageListeners = remove(route.messageListeners, consumer);
+			}
+		};
+	}
+
+
+	private static Consumer<Object>[] add(Consumer<Object>[] listeners,
+			Consumer<Object> listener)
+	{
+		Consumer<Object>[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+		updated[listeners.length] = listener;
+		return updated;
+	}
+
+
+	private static Consumer<Object>[] remove(Consumer<Object>[] listeners,
+			Consumer<Object> listener)
+	{
+		for (int i = 0; i < listeners.length; i++)
+		{
+			if (listeners[i] == listener)
+			{
+				Consumer<Object>[] updated = Arrays.copyOf(listeners, listeners.length - 1);
+				System.arraycopy(listeners, i + 1, updated, i, updated.length - i);
+				return updated;
+			}
+		}
+
+		return listeners;
+	}
+
+
+	private static final class Route
+	{
+		@SuppressWarnings("unchecked")
+		private static final Consumer<Object>[] NO_LISTENERS = (Consumer<Object>[])
+				new Consumer<?>[0];
+
+		final Function<LEAP_CONNECTION_MESSAGE, ?> decoder;
+		/** Copy-on-write arrays, so that dispatching does not need a lock. */
+		volatile Consumer<Object>[] messageListeners = NO_LISTENERS;
+		volatile Consumer<Object>[] eventListeners = NO_LISTENERS;
+
+
+		Route(Function<LEAP_CONNECTION_MESSAGE, ?> decoder)
+		{
+			this.decoder = decoder;
+		}
+	}
+}
@@ -0,0 +1,492 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.LeapCDirect;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapRS;
+
+
+/**
+ * <p>
+ * Polls a connection on a dedicated thread and hands the events to consumers on their
+ * own threads, through one bounded {@link EventRingBuffer}.
+ * </p>
+ * <p>
+ * The poll thread only copies each event into the next slot of the ring buffer, once
+ * for all consumers (tracking frames are copied into a preallocated
+ * {@link komposten.leapjna.leapc.views.HandFrameBuffer}), and goes straight back to
+ * polling. It never waits for the consumers, so a slow consumer (e.g. a renderer or a
+ * network stream) does not delay the next poll or the other consumers. If a consumer
+ * falls a whole buffer behind, it skips the events that have been overwritten and
+ * counts them (see {@link #getDroppedCount(ConsumerCursor)}); the other consumers still
+ * receive them.
+ * </p>
+ * <p>
+ * Events whose data is not copied into the slots (e.g. device or configuration events)
+ * can be handled on the poll thread by a {@link #setMessageHandler(Consumer) message
+ * handler}, such as a {@link komposten.leapjna.leapc.devices.DeviceRegistry}. The
+ * handler runs before the event is published and must return quickly.
+ * </p>
+ * <p>
+ * The poll thread is always a platform thread, since it spends most of its time blocked
+ * in native code, where a virtual thread would pin its carrier anyway. The consumers can
+ * run on {@link #setVirtualConsumers(boolean) virtual threads} on Java 21 and later. Each
+ * consumer parks while it has no events to read, and the poll thread unparks the waiting
+ * consumers after every publish.
+ * </p>
+ *
+ * <pre>
+ * LeapEventLoop loop = new LeapEventLoop(connection.handle, 256, 2);
+ * loop.setMessageHandler(registry::handle);
+ * loop.addConsumer("renderer", (event, sequence, endOfBatch) -&gt; {
+ * 	if (event.hasFrame())
+ * 		...
+ * });
+ * loop.start();
+ * ...
+ * loop.close();
+ * </pre>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class LeapEventLoop implements AutoCloseable
+{
+	/**
+	 * The timeout of the default wait strategy, which bounds how long {@link #close()}
+	 * waits for the poller.
+	 */
+	private static final int POLL_TIMEOUT = 100;
+	/** The maximum number of events handled between checks for {@link #close()}. */
+	private static final int BATCH_SIZE = 64;
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	/** How long an idle consumer parks if it is not unparked by a publish or close(). */
+	private static final long CONSUMER_PARK_NANOS = TimeUnit.MILLISECONDS
+			.toNanos(POLL_TIMEOUT);
+	private static final ConsumerThread[] NO_CONSUMERS = new ConsumerThread[0];
+
+	private final LeapC leapC;
+	/** <code>true</code> to poll through {@link LeapCDirect} instead of {@link #leapC}. */
+	private final boolean direct;
+	private final Pointer hConnection;
+	private final EventRingBuffer ring;
+	private final LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+	private final List<ConsumerThread> consumers = new ArrayList<>();
+	/** The started consumers, read by the poll thread to unpark them. */
+	private volatile ConsumerThread[] startedConsumers = NO_CONSUMERS;
+
+	private volatile Consumer<LEAP_CONNECTION_MESSAGE> messageHandler;
+	private volatile WaitStrategy waitStrategy = WaitStrategy.blocking(POLL_TIMEOUT);
+	private volatile boolean virtualConsumers;
+	private volatile boolean running;
+	private Thread poller;
+
+
+	/**
+	 * Creates an event loop that uses {@link LeapC#INSTANCE}. The poll thread calls
+	 * {@link LeapCDirect} instead if it is {@link LeapCDirect#isSupported() supported}
+	 * by the selected backend.
+	 *
+	 * @param hConnection The handle of an open connection.
+	 * @param capacity The number of ring buffer slots. Must be a power of two.
+	 * @param maxHands The maximum number of hands copied from each tracking frame.
+	 * @throws IllegalArgumentException If <code>capacity</code> is not a positive power of
+	 *           two, or <code>maxHands</code> is less than 1.
+	 */
+	public LeapEventLoop(Pointer hConnection, int capacity, int maxHands)
+	{
+		this(LeapC.INSTANCE, LeapCDirect.isSupported(), hConnection, capacity, maxHands);
+	}
+
+
+	/**
+	 * @param leapC The LeapC instance to poll with.
+	 * @param hConnection The handle of an open connection.
+	 * @param capacity The number of ring buffer slots. Must be a power of two.
+	 * @param maxHands The maximum number of hands copied from each tracking frame.
+	 * @throws IllegalArgumentException If <code>capacity</code> is not a positive power of
+	 *           two, or <code>maxHands</code> is less than 1.
+	 */
+	public LeapEventLoop(LeapC leapC, Pointer hConnection, int capacity, int maxHands)
+	{
+		this(leapC, false, hConnection, capacity, maxHands);
+	}
+
+
+	private LeapEventLoop(LeapC leapC, boolean direct, Pointer hConnection, int capacity,
+			int maxHands)
+	{
+		if (capacity < 1 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+		if (maxHands < 1)
+			throw new IllegalArgumentException("maxHands must be at least 1: " + maxHands);
+
+		this.leapC = leapC;
+		this.direct = direct;
+		this.hConnection = hConnection;
+		this.ring = new EventRingBuffer(capacity, maxHands);
+	}
+
+
+	/**
+	 * @param cursor The cursor of a consumer added to this loop.
+	 * @return The number of events that the consumer has skipped because they were
+	 *         overwritten before it handled them.
+	 * @throws IllegalArgumentException If the cursor does not belong to a consumer of this
+	 *           loop.
+	 */
+	public synchronized long getDroppedCount(ConsumerCursor cursor)
+	{
+		return find(cursor).cursor.getDroppedCount();
+	}
+
+
+	private ConsumerThread find(ConsumerCursor cursor)
+	{
+		for (ConsumerThread consumer : consumers)
+		{
+			if (consumer.cursor == cursor)
+				return consumer;
+		}
+
+		throw new IllegalArgumentException("The cursor does not belong to this event loop");
+	}
+
+
+	/**
+	 * Sets a handler that is called on the poll thread for every message other than
+	 * tracking events, before the event is published.
+	 *
+	 * @param handler The handler, or <code>null</code> to remove it.
+	 */
+	public void setMessageHandler(Consumer<LEAP_CONNECTION_MESSAGE> handler)
+	{
+		messageHandler = handler;
+	}
+
+
+	/**
+	 * Sets how the poll thread waits for messages. The default is
+	 * {@link WaitStrategy#blocking(int) blocking} with a timeout of 100 ms. Spinning
+	 * strategies pick up frames sooner, at the cost of keeping (part of) a core busy.
+	 *
+	 * @param strategy The wait strategy.
+	 */
+	public void setWaitStrategy(WaitStrategy strategy)
+	{
+		waitStrategy = strategy;
+	}
+
+
+	/**
+	 * @return The wait strategy of the poll thread.
+	 */
+	public WaitStrategy getWaitStrategy()
+	{
+		return waitStrategy;
+	}
+
+
+	/**
+	 * Sets whether consumers started after this call run on virtual threads instead of
+	 * platform threads. Virtual threads let many lightweight consumers (e.g. one per
+	 * network session) share a few carrier threads. Ignored if the running JVM does not
+	 * support virtual threads (see {@link ConsumerThreads#isVirtualSupported()}).
+	 *
+	 * @param virtual <code>true</code> to use virtual threads.
+	 */
+	public void setVirtualConsumers(boolean virtual)
+	{
+		virtualConsumers = virtual;
+	}
+
+
+	/**
+	 * @return <code>true</code> if new consumers run on virtual threads.
+	 */
+	public boolean isVirtualConsumers()
+	{
+		return virtualConsumers && ConsumerThreads.isVirtualSupported();
+	}
+
+
+	/**
+	 * Adds a consumer that handles the events on its own daemon thread, reading them with
+	 * its own cursor. If the loop is running, the thread is started immediately;
+	 * otherwise it is started by {@link #start()}. The consumer receives the events
+	 * published after its thread has been started.
+	 *
+	 * @param name The name of the consumer, used in the thread name.
+	 * @param handler The handler to pass the events to.
+	 * @return The consumer's cursor.
+	 */
+	public synchronized ConsumerCursor addConsumer(String name, EventHandler handler)
+	{
+		ConsumerThread consumer = new ConsumerThread(name, handler);
+		consumers.add(consumer);
+		if (running)
+			startConsumer(consumer);
+		return consumer.cursor;
+	}
+
+
+	/**
+	 * Removes a consumer and stops its thread. Unless this is called from the consumer's
+	 * own handler, it waits for the thread to finish the event it is handling. Events that
+	 * the consumer has not handled yet are discarded.
+	 *
+	 * @param cursor The cursor returned by {@link #addConsumer(String, EventHandler)}.
+	 * @throws IllegalArgumentException If the cursor does not belong to a consumer of this
+	 *           loop.
+	 */
+	public void removeConsumer(ConsumerCursor cursor)
+	{
+		ConsumerThread consumer;
+		synchronized (this)
+		{
+			consumer = find(cursor);
+			consumers.remove(consumer);
+			consumer.stopped = true;
+
+			ConsumerThread[] current = startedConsumers;
+			for (int i = 0; i < current.length; i++)
+			{
+				if (current[i] == consumer)
+				{
+					ConsumerThread[] updated = new ConsumerThread[current.length - 1];
+					System.arraycopy(current, 0, updated, 0, i);
+					System.arraycopy(current, i + 1, updated, i, updated.length - i);
+					startedConsumers = updated;
+					break;
+				}
+			}
+		}
+
+		Thread thread = consumer.thread;
+		if (thread != null && thread != Thread.currentThread())
+		{
+			LockSupport.unpark(thread);
+			try
+			{
+				thread.join();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
+	/**
+	 * Starts the poll thread and the consumer threads.
+	 *
+	 * @throws IllegalStateException If the loop has already been started.
+	 */
+	public synchronized void start()
+	{
+		if (poller != null)
+			throw new IllegalStateException("The event loop has already been started");
+
+		running = true;
+		for (ConsumerThread consumer : consumers)
+			startConsumer(consumer);
+
+		poller = new Thread(this::poll, "LeapJna poller");
+		poller.setDaemon(true);
+		poller.start();
+	}
+
+
+	/**
+	 * @return <code>true</code> if the loop is running.
+	 */
+	public boolean isRunning()
+	{
+		return running;
+	}
+
+
+	/**
+	 * Stops the poll thread, waits for the consumers to handle the remaining events, and
+	 * stops the consumer threads.
+	 */
+	@Override
+	public synchronized void close()
+	{
+		running = false;
+
+		try
+		{
+			if (poller != null)
+				poller.join();
+
+			for (ConsumerThread consumer : startedConsumers)
+			{
+				LockSupport.unpark(consumer.thread);
+				consumer.thread.join();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	private void startConsumer(ConsumerThread consumer)
+	{
+		consumer.start();
+
+		ConsumerThread[] current = startedConsumers;
+		ConsumerThread[] updated = Arrays.copyOf(current, current.length + 1);
+		updated[current.length] = consumer;
+		startedConsumers = updated;
+	}
+
+
+	private void poll()
+	{
+		int idleCount = 0;
+		while (running)
+		{
+			WaitStrategy strategy = waitStrategy;
+			int result = pollConnection(strategy.getTimeout());
+
+			if (result == eLeapRS.Success.getValue())
+			{
+				idleCount = 0;
+				if (message.type != eLeapEventType.Tracking.value)
+					handleMessage();
+
+				ring.publish(message.type, message.device_id, message.pEvent);
+				for (ConsumerThread consumer : startedConsumers)
+					consumer.signal();
+			}
+			else if (result == eLeapRS.Timeout.getValue())
+			{
+				idleCount = strategy.idle(idleCount);
+			}
+			else
+			{
+				// Avoid spinning if the connection is broken.
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+
+	/**
+	 * Polls into {@link #message}.
+	 *
+	 * @return The result code, a value from {@link eLeapRS}.
+	 */
+	private int pollConnection(int timeout)
+	{
+		if (!direct)
+			return leapC.LeapPollConnection(hConnection, timeout, message).getValue();
+
+		int result = LeapCDirect.LeapPollConnection(hConnection, timeout, message.getPointer());
+		if (result == eLeapRS.Success.getValue())
+			message.read();
+		return result;
+	}
+
+
+	private void handleMessage()
+	{
+		Consumer<LEAP_CONNECTION_MESSAGE> handler = messageHandler;
+		if (handler == null)
+			return;
+
+		try
+		{
+			handler.accept(message);
+		}
+		catch (RuntimeException e)
+		{
+			Thread current = Thread.currentThread();
+			current.getUncaughtExceptionHandler().uncaughtException(current, e);
+		}
+	}
+
+
+	private final class ConsumerThread
+	{
+		private final String name;
+		private final ConsumerCursor cursor;
+		private final EventHandler handler;
+		private volatile Thread thread;
+		private volatile boolean waiting;
+		private volatile boolean stopped;
+
+
+		ConsumerThread(String name, EventHandler handler)
+		{
+			this.name = name;
+			this.cursor = ring.addConsumer();
+			this.handler = handler;
+		}
+
+
+		void start()
+		{
+			thread = ConsumerThreads.newThread("LeapJna consumer: " + name, this::run,
+					virtualConsumers);
+			thread.start();
+		}
+
+
+		void signal()
+		{
+			if (waiting)
+				LockSupport.unpark(thread);
+		}
+
+
+		private void run()
+		{
+			// Keep going after close() until the events published before it are handled.
+			while (!stopped && (running || cursor.available() > 0))
+			{
+				int handled;
+				try
+				{
+					handled = cursor.poll(handler, BATCH_SIZE);
+				}
+				catch (RuntimeException e)
+				{
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+					handled = 1;
+				}
+
+				if (handled == 0)
+				{
+					waiting = true;
+					// Check again after setting the flag, so that a publish is never missed.
+					if (running && !stopped && cursor.available() == 0)
+						LockSupport.parkNanos(this, CONSUMER_PARK_NANOS);
+					waiting = false;
+				}
+			}
+		}
+	}
+}
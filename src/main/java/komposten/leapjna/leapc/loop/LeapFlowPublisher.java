@@ -0,0 +1,552 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.views.FrameSnapshot;
+import komposten.leapjna.leapc.views.ImageSnapshot;
+
+
+/**
+ * <p>
+ * A {@link Flow.Publisher} of copies of polled events, e.g. {@link FrameSnapshot}s, with a
+ * bounded buffer per subscriber.
+ * </p>
+ * <p>
+ * The publisher is fed from the poll loop, either by passing it messages directly (it is
+ * a <code>Consumer&lt;LEAP_CONNECTION_MESSAGE&gt;</code>) or by
+ * {@link #attach(LeapEventBus) attaching} it to a {@link LeapEventBus}. Each message is
+ * copied once, and only if there is a subscriber, into an immutable item that is then
+ * buffered for every subscriber. Items are delivered on the publisher's
+ * {@link Executor}, never on the poll thread, and only as far as each subscriber has
+ * {@link Flow.Subscription#request(long) requested}.
+ * </p>
+ * <p>
+ * When a subscriber's buffer is full, the publisher's {@link OverflowStrategy} decides
+ * what happens to the new item. Items dropped or replaced are counted per subscriber
+ * (see {@link FlowSubscription#getDroppedCount()}). Apart from
+ * {@link OverflowStrategy#BLOCK_POLLER}, a slow subscriber never delays the poll loop.
+ * </p>
+ * <p>
+ * <b>Note:</b> {@link OverflowStrategy#BLOCK_POLLER} must not be combined with an
+ * executor that runs tasks on the calling thread (e.g. <code>Runnable::run</code>). The
+ * items would then be delivered on the poll thread, which deadlocks as soon as it blocks
+ * waiting for room in a full buffer.
+ * </p>
+ *
+ * <pre>
+ * LeapFlowPublisher&lt;FrameSnapshot&gt; frames = LeapFlowPublisher.tracking(executor, 4,
+ * 		OverflowStrategy.CONFLATE_LATEST);
+ * frames.attach(bus);
+ * frames.subscribe(renderer);
+ * ...
+ * frames.close();
+ * </pre>
+ *
+ * @param <T> The type of the published items.
+ * @since LeapJna 1.2.1
+ */
+public final class LeapFlowPublisher<T>
+		implements Flow.Publisher<T>, Consumer<LEAP_CONNECTION_MESSAGE>, AutoCloseable
+{
+	private static final FlowSubscription[] NO_SUBSCRIPTIONS = new FlowSubscription[0];
+
+	private final Function<LEAP_CONNECTION_MESSAGE, ? extends T> copier;
+	private final Executor executor;
+	private final int bufferSize;
+	private final OverflowStrategy strategy;
+	private final eLeapEventType[] types;
+	private final Object lock = new Object();
+	private volatile FlowSubscription[] subscriptions = NO_SUBSCRIPTIONS;
+	private volatile boolean closed;
+
+
+	/**
+	 * @param copier Copies a message into an item that stays valid after the next poll.
+	 * @param executor The executor to deliver the items on.
+	 * @param bufferSize The maximum number of undelivered items per subscriber. Ignored by
+	 *          {@link OverflowStrategy#CONFLATE_LATEST}, which buffers one item.
+	 * @param strategy What to do with new items when a subscriber's buffer is full.
+	 * @param types The event types to publish when {@link #attach(LeapEventBus) attached}
+	 *          to a bus.
+	 */
+	public LeapFlowPublisher(Function<LEAP_CONNECTION_MESSAGE, ? extends T> copier,
+			Executor executor, int bufferSize, OverflowStrategy strategy,
+			eLeapEventType... types)
+	{
+		if (bufferSize < 1)
+			throw new IllegalArgumentException(
+					"The buffer size must be positive: " + bufferSize);
+
+		this.copier = copier;
+		this.executor = executor;
+		this.bufferSize = (strategy == OverflowStrategy.CONFLATE_LATEST ? 1 : bufferSize);
+		this.strategy = strategy;
+		this.types = types.clone();
+	}
+
+
+	/**
+	 * Creates a publisher of {@link eLeapEventType#Tracking} events as
+	 * {@link FrameSnapshot}s.
+	 */
+	public static LeapFlowPublisher<FrameSnapshot> tracking(Executor executor,
+			int bufferSize, OverflowStrategy strategy)
+	{
+		return new LeapFlowPublisher<>(message -> FrameSnapshot.of(message.pEvent), executor,
+				bufferSize, strategy, eLeapEventType.Tracking);
+	}
+
+
+	/**
+	 * Creates a publisher of {@link eLeapEventType#Image} events as
+	 * {@link ImageSnapshot}s.
+	 */
+	public static LeapFlowPublisher<ImageSnapshot> images(Executor executor,
+			int bufferSize, OverflowStrategy strategy)
+	{
+		return new LeapFlowPublisher<>(message -> ImageSnapshot.of(message.getImageEvent()),
+				executor, bufferSize, strategy, eLeapEventType.Image);
+	}
+
+
+	/**
+	 * Creates a publisher of device, device lost, device status change and device failure
+	 * events as {@link DeviceChange}s.
+	 */
+	public static LeapFlowPublisher<DeviceChange> devices(Executor executor, int bufferSize,
+			OverflowStrategy strategy)
+	{
+		return new LeapFlowPublisher<>(DeviceChange::of, executor, bufferSize, strategy,
+				eLeapEventType.Device, eLeapEventType.DeviceLost,
+				eLeapEventType.DeviceStatusChange, eLeapEventType.DeviceFailure);
+	}
+
+
+	/**
+	 * Subscribes this publisher to its event types on a bus.
+	 *
+	 * @return A subscription that detaches the publisher from the bus when closed.
+	 */
+	public LeapEventBus.Subscription attach(LeapEventBus bus)
+	{
+		LeapEventBus.Subscription[] busSubscriptions =
+				new LeapEventBus.Subscription[types.length];
+		for (int i = 0; i < types.length; i++)
+			busSubscriptions[i] = bus.on(types[i], this);
+
+		return () -> {
+			for (LeapEventBus.Subscription subscription : busSubscriptions)
+				subscription.close();
+		};
+	}
+
+
+	/**
+	 * Copies a message and publishes the copy to all subscribers. Nothing is copied if
+	 * there are no subscribers.
+	 */
+	@Override
+	public void accept(LEAP_CONNECTION_MESSAGE message)
+	{
+		if (subscriptions.length > 0 && !closed)
+			submit(copier.apply(message));
+	}
+
+
+	/**
+	 * Publishes an item to all subscribers. If a subscriber's buffer is full, the item is
+	 * handled according to the publisher's {@link OverflowStrategy}.
+	 *
+	 * @param item An item that stays valid after the next poll.
+	 */
+	public void submit(T item)
+	{
+		if (closed)
+			return;
+
+		for (FlowSubscription subscription : subscriptions)
+			subscription.offer(item);
+	}
+
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber)
+	{
+		@SuppressWarnings("unchecked")
+		FlowSubscription subscription = new FlowSubscription(this,
+				(Flow.Subscriber<Object>) subscriber);
+
+		synchronized (lock)
+		{
+			for (FlowSubscription existing : subscriptions)
+			{
+				if (existing.subscriber == subscriber)
+				{
+					subscription.fail(new IllegalStateException("Already subscribed"));
+					return;
+				}
+			}
+
+			if (closed)
+			{
+				subscription.complete();
+				return;
+			}
+
+			FlowSubscription[] current = subscriptions;
+			FlowSubscription[] updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = subscription;
+			subscriptions = updated;
+		}
+
+		subscription.signal();
+	}
+
+
+	/**
+	 * @return The current subscriptions, e.g. to read their drop counts.
+	 */
+	public List<FlowSubscription> getSubscriptions()
+	{
+		return List.of(subscriptions);
+	}
+
+
+	/**
+	 * @return The overflow strategy.
+	 */
+	public OverflowStrategy getStrategy()
+	{
+		return strategy;
+	}
+
+
+	/**
+	 * Stops publishing. Each subscriber receives its buffered items (as far as it
+	 * requests them) and is then completed.
+	 */
+	@Override
+	public void close()
+	{
+		FlowSubscription[] current;
+		synchronized (lock)
+		{
+			closed = true;
+			current = subscriptions;
+		}
+
+		for (FlowSubscription subscription : current)
+			subscription.complete();
+	}
+
+
+	private void remove(FlowSubscription subscription)
+	{
+		synchronized (lock)
+		{
+			FlowSubscription[] current = subscriptions;
+			int index = Arrays.asList(current).indexOf(subscription);
+			if (index == -1)
+				return;
+
+			FlowSubscription[] updated = new FlowSubscription[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, updated.length - index);
+			subscriptions = updated;
+		}
+	}
+
+
+	/**
+	 * <p>
+	 * The subscription of one subscriber, with its own buffer, demand and drop count.
+	 * </p>
+	 * <p>
+	 * The signals to the subscriber are serialised: at most one executor task delivers
+	 * items to it at a time.
+	 * </p>
+	 */
+	public static final class FlowSubscription implements Flow.Subscription
+	{
+		private final LeapFlowPublisher<?> publisher;
+		private final Flow.Subscriber<Object> subscriber;
+		private final Object[] buffer;
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger pendingSignals = new AtomicInteger();
+		private final Runnable drainTask = this::drain;
+		private int head;
+		private int count;
+		private volatile long dropped;
+		private volatile boolean completed;
+		private volatile boolean cancelled;
+		private volatile Throwable error;
+		private boolean started;
+
+
+		private FlowSubscription(LeapFlowPublisher<?> publisher,
+				Flow.Subscriber<Object> subscriber)
+		{
+			this.publisher = publisher;
+			this.subscriber = subscriber;
+			this.buffer = new Object[publisher.bufferSize];
+		}
+
+
+		/**
+		 * @return The subscriber.
+		 */
+		public Flow.Subscriber<?> getSubscriber()
+		{
+			return subscriber;
+		}
+
+
+		/**
+		 * @return The number of items that were dropped or replaced because the
+		 *         subscriber's buffer was full.
+		 */
+		public long getDroppedCount()
+		{
+			return dropped;
+		}
+
+
+		/**
+		 * @return The number of items waiting to be delivered.
+		 */
+		public synchronized int getBufferedCount()
+		{
+			return count;
+		}
+
+
+		/**
+		 * @return The number of items requested but not yet delivered.
+		 */
+		public long getDemand()
+		{
+			return requested.get();
+		}
+
+
+		@Override
+		public void request(long n)
+		{
+			if (n <= 0)
+			{
+				fail(new IllegalArgumentException("The request must be positive: " + n));
+				return;
+			}
+
+			long current;
+			long updated;
+			do
+			{
+				current = requested.get();
+				updated = current + n;
+				if (updated < 0)
+					updated = Long.MAX_VALUE;
+			}
+			while (!requested.compareAndSet(current, updated));
+
+			signal();
+		}
+
+
+		@Override
+		public void cancel()
+		{
+			cancelled = true;
+			synchronized (this)
+			{
+				Arrays.fill(buffer, null);
+				count = 0;
+				notifyAll();
+			}
+
+			publisher.remove(this);
+		}
+
+
+		private void offer(Object item)
+		{
+			synchronized (this)
+			{
+				if (cancelled || completed)
+					return;
+
+				if (count == buffer.length && !makeRoom())
+					return;
+
+				buffer[(head + count) % buffer.length] = item;
+				count++;
+			}
+
+			signal();
+		}
+
+
+		/**
+		 * Called with the lock held when the buffer is full.
+		 *
+		 * @return <code>true</code> if there is room for the new item.
+		 */
+		private boolean makeRoom()
+		{
+			switch (publisher.strategy)
+			{
+				case DROP_OLDEST :
+				case CONFLATE_LATEST :
+					buffer[head] = null;
+					head = (head + 1) % buffer.length;
+					count--;
+					dropped++;
+					return true;
+				case BLOCK_POLLER :
+					try
+					{
+						while (count == buffer.length && !cancelled && !completed)
+							wait();
+						return !cancelled && !completed;
+					}
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+						dropped++;
+						return false;
+					}
+				case DROP_NEWEST :
+				default :
+					dropped++;
+					return false;
+			}
+		}
+
+
+		private synchronized Object take()
+		{
+			if (count == 0)
+				return null;
+
+			Object item = buffer[head];
+			buffer[head] = null;
+			head = (head + 1) % buffer.length;
+			count--;
+
+			if (publisher.strategy == OverflowStrategy.BLOCK_POLLER)
+				notifyAll();
+			return item;
+		}
+
+
+		private void complete()
+		{
+			synchronized (this)
+			{
+				completed = true;
+				notifyAll();
+			}
+			signal();
+		}
+
+
+		private void fail(Throwable throwable)
+		{
+			error = throwable;
+			signal();
+		}
+
+
+		private void signal()
+		{
+			if (pendingSignals.getAndIncrement() == 0)
+				publisher.executor.execute(drainTask);
+		}
+
+
+		private void drain()
+		{
+			int missed = 1;
+			do
+			{
+				try
+				{
+					deliver();
+				}
+				catch (RuntimeException e)
+				{
+					// A subscriber must not throw, so treat it as a cancellation.
+					cancel();
+					Thread current = Thread.currentThread();
+					current.getUncaughtExceptionHandler().uncaughtException(current, e);
+				}
+
+				missed = pendingSignals.addAndGet(-missed);
+			}
+			while (missed != 0);
+		}
+
+
+		private void deliver()
+		{
+			if (cancelled)
+				return;
+
+			if (!started)
+			{
+				started = true;
+				subscriber.onSubscribe(this);
+			}
+
+			Throwable failure = error;
+			if (failure != null)
+			{
+				cancel();
+				subscriber.onError(failure);
+				return;
+			}
+
+			long demand = requested.get();
+			long emitted = 0;
+			while (!cancelled)
+			{
+				// Read before taking, so that an empty buffer after completion is final.
+				boolean done = completed;
+				Object item = (emitted < demand ? take() : null);
+				if (item == null)
+				{
+					if (done && getBufferedCount() == 0)
+					{
+						cancel();
+						subscriber.onComplete();
+					}
+					break;
+				}
+
+				subscriber.onNext(item);
+				emitted++;
+			}
+
+			if (emitted > 0 && demand != Long.MAX_VALUE)
+				requested.addAndGet(-emitted);
+		}
+	}
+}
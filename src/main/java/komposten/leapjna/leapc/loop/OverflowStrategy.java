@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+
+/**
+ * What a {@link LeapFlowPublisher} does with a new item when a subscriber's buffer is
+ * full, i.e. when the subscriber has not requested or consumed the items published
+ * before it.
+ *
+ * @since LeapJna 1.2.1
+ */
+public enum OverflowStrategy
+{
+	/** Removes the oldest buffered item to make room for the new one. */
+	DROP_OLDEST,
+	/** Discards the new item, keeping the buffered ones. */
+	DROP_NEWEST,
+	/**
+	 * Keeps only the most recent item: the buffer holds at most one item, which is replaced
+	 * by each new item until the subscriber takes it. Suitable for state such as tracking
+	 * frames, where only the latest value matters.
+	 */
+	CONFLATE_LATEST,
+	/**
+	 * Blocks the publishing thread (usually the poll thread) until the subscriber has
+	 * taken an item. Nothing is dropped, but a slow subscriber delays the next poll and
+	 * thereby every other subscriber. Publishing stops blocking when the subscriber
+	 * cancels or the publisher is closed.
+	 * <p>
+	 * Do not use this strategy with an executor that runs tasks on the publishing thread
+	 * (such as <code>Runnable::run</code>): the subscriber would never get to take an item
+	 * from the full buffer, so the publishing thread deadlocks.
+	 * </p>
+	 */
+	BLOCK_POLLER
+}
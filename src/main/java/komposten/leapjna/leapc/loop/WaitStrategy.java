@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * <p>
+ * How a poll loop waits for the next message: the timeout passed to
+ * {@link komposten.leapjna.leapc.LeapC#LeapPollConnection(com.sun.jna.Pointer, int, komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE)
+ * LeapPollConnection()}, and what to do between polls that time out.
+ * </p>
+ * <p>
+ * A poll loop using a strategy looks like this:
+ * </p>
+ *
+ * <pre>
+ * int idleCount = 0;
+ * while (polling)
+ * {
+ * 	eLeapRS result = leapC.LeapPollConnection(handle, strategy.getTimeout(), message);
+ * 	if (result == eLeapRS.Timeout)
+ * 		idleCount = strategy.idle(idleCount);
+ * 	else
+ * 		idleCount = 0;
+ * 	...
+ * }
+ * </pre>
+ * <p>
+ * The strategies trade CPU time for wake-up latency (the time from a frame being
+ * available until the loop has picked it up):
+ * </p>
+ * <ul>
+ * <li>{@link #blocking(int)} waits inside LeapC. It uses no CPU while waiting, and its
+ * latency is that of LeapC's internal wake-up. Use it on shared machines.</li>
+ * <li>{@link #busySpin()} polls with a timeout of 0 without pausing. It has the lowest
+ * latency but keeps one core fully busy.</li>
+ * <li>{@link #spinThenYield(int)} spins for a while, then yields the core to other threads
+ * between polls. Latency is almost as low, and other threads can use the core, but the
+ * loop still shows as fully busy.</li>
+ * <li>{@link #spinThenPark(int, int, long)} spins, yields, and then parks for a short time
+ * between polls. While idle it uses a fraction of a core, and its latency is bounded by
+ * the park time.</li>
+ * </ul>
+ * <p>
+ * Run <code>WaitStrategyBenchmark</code> (see the README) to measure the latency and CPU
+ * cost of each strategy on the target machine.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class WaitStrategy
+{
+	/**
+	 * The system property that {@link #fromProperty(WaitStrategy)} reads, e.g.
+	 * <code>-Dleapjna.waitStrategy=spin-park:1000:100:50</code>. See
+	 * {@link #parse(String)} for the format.
+	 */
+	public static final String PROPERTY = "leapjna.waitStrategy";
+
+	/** The default timeout of {@link #blocking(int)} in {@link #parse(String)}. */
+	public static final int DEFAULT_TIMEOUT = 30;
+	/** The default number of spins in {@link #parse(String)}. */
+	public static final int DEFAULT_SPINS = 1000;
+	/** The default number of yields of {@link #spinThenPark(int, int, long)}. */
+	public static final int DEFAULT_YIELDS = 100;
+	/** The default park time of {@link #spinThenPark(int, int, long)}, in microseconds. */
+	public static final int DEFAULT_PARK_MICROS = 50;
+
+	private final String name;
+	private final int timeout;
+	private final int spins;
+	private final int yields;
+	private final long parkNanos;
+
+
+	private WaitStrategy(String name, int timeout, int spins, int yields, long parkNanos)
+	{
+		this.name = name;
+		this.timeout = timeout;
+		this.spins = spins;
+		this.yields = yields;
+		this.parkNanos = parkNanos;
+	}
+
+
+	/**
+	 * Creates a strategy that waits inside LeapC for up to <code>timeout</code>
+	 * milliseconds.
+	 *
+	 * @param timeout The poll timeout in milliseconds. Also the longest a loop takes to
+	 *          notice that it should stop.
+	 */
+	public static WaitStrategy blocking(int timeout)
+	{
+		if (timeout <= 0)
+			throw new IllegalArgumentException("The timeout must be positive: " + timeout);
+
+		return new WaitStrategy("blocking:" + timeout, timeout, 0, 0, 0);
+	}
+
+
+	/**
+	 * Creates a strategy that polls with a timeout of 0, and spins between polls.
+	 */
+	public static WaitStrategy busySpin()
+	{
+		return new WaitStrategy("busy-spin", 0, Integer.MAX_VALUE, 0, 0);
+	}
+
+
+	/**
+	 * Creates a strategy that polls with a timeout of 0, spins between the first
+	 * <code>spins</code> polls that time out, and then yields between polls.
+	 */
+	public static WaitStrategy spinThenYield(int spins)
+	{
+		checkNotNegative("spins", spins);
+		return new WaitStrategy("spin-yield:" + spins, 0, spins, Integer.MAX_VALUE, 0);
+	}
+
+
+	/**
+	 * Creates a strategy that polls with a timeout of 0, spins between the first
+	 * <code>spins</code> polls that time out, yields between the next <code>yields</code>,
+	 * and then parks for <code>parkNanos</code> between polls.
+	 */
+	public static WaitStrategy spinThenPark(int spins, int yields, long parkNanos)
+	{
+		checkNotNegative("spins", spins);
+		checkNotNegative("yields", yields);
+		if (parkNanos <= 0)
+			throw new IllegalArgumentException(
+					"The park time must be positive: " + parkNanos);
+
+		return new WaitStrategy("spin-park:" + spins + ":" + yields + ":"
+				+ TimeUnit.NANOSECONDS.toMicros(parkNanos), 0, spins, yields, parkNanos);
+	}
+
+
+	private static void checkNotNegative(String name, int value)
+	{
+		if (value < 0)
+			throw new IllegalArgumentException(
+					"The " + name + " must not be negative: " + value);
+	}
+
+
+	/**
+	 * <p>
+	 * Parses a strategy from a string, e.g. a system property. The formats are (with
+	 * optional parts in brackets):
+	 * </p>
+	 * <ul>
+	 * <li><code>blocking[:timeoutMillis]</code></li>
+	 * <li><code>busy-spin</code></li>
+	 * <li><code>spin-yield[:spins]</code></li>
+	 * <li><code>spin-park[:spins[:yields[:parkMicros]]]</code></li>
+	 * </ul>
+	 * <p>
+	 * Missing values use the <code>DEFAULT_*</code> constants. The result of
+	 * {@link #toString()} can be parsed.
+	 * </p>
+	 *
+	 * @throws IllegalArgumentException If the string is not a valid strategy.
+	 */
+	public static WaitStrategy parse(String strategy)
+	{
+		String[] parts = strategy.trim().split(":");
+		try
+		{
+			switch (parts[0])
+			{
+				case "blocking" :
+					checkPartCount(strategy, parts, 2);
+					return blocking(intPart(parts, 1, DEFAULT_TIMEOUT));
+				case "busy-spin" :
+					checkPartCount(strategy, parts, 1);
+					return busySpin();
+				case "spin-yield" :
+					checkPartCount(strategy, parts, 2);
+					return spinThenYield(intPart(parts, 1, DEFAULT_SPINS));
+				case "spin-park" :
+					checkPartCount(strategy, parts, 4);
+					return spinThenPark(intPart(parts, 1, DEFAULT_SPINS),
+							intPart(parts, 2, DEFAULT_YIELDS), TimeUnit.MICROSECONDS
+									.toNanos(intPart(parts, 3, DEFAULT_PARK_MICROS)));
+				default :
+					throw new IllegalArgumentException(
+							"Unknown wait strategy: " + strategy);
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("Invalid wait strategy: " + strategy, e);
+		}
+	}
+
+
+	private static void checkPartCount(String strategy, String[] parts, int max)
+	{
+		if (parts.length > max)
+			throw new IllegalArgumentException(
+					"Too many values in wait strategy: " + strategy);
+	}
+
+
+	private static int intPart(String[] parts, int index, int defaultValue)
+	{
+		return (index < parts.length ? Integer.parseInt(parts[index]) : defaultValue);
+	}
+
+
+	/**
+	 * @param defaultStrategy The strategy to use if the {@link #PROPERTY} system property
+	 *          is not set.
+	 * @return The strategy in the {@link #PROPERTY} system property, or
+	 *         <code>defaultStrategy</code>.
+	 * @throws IllegalArgumentException If the property is not a valid strategy.
+	 */
+	public static WaitStrategy fromProperty(WaitStrategy defaultStrategy)
+	{
+		String property = System.getProperty(PROPERTY);
+		return (property != null ? parse(property) : defaultStrategy);
+	}
+
+
+	/**
+	 * @return The timeout to pass to <code>LeapPollConnection()</code>, in milliseconds.
+	 */
+	public int getTimeout()
+	{
+		return timeout;
+	}
+
+
+	/**
+	 * Waits between two polls after a poll has timed out.
+	 *
+	 * @param idleCount The number of polls in a row that have timed out before this one, or
+	 *          <code>0</code> after a poll that returned a message.
+	 * @return The idle count to pass to the next call.
+	 */
+	public int idle(int idleCount)
+	{
+		if (idleCount < spins)
+			Thread.onSpinWait();
+		else if ((long) idleCount - spins < yields)
+			Thread.yield();
+		else if (parkNanos > 0)
+			LockSupport.parkNanos(this, parkNanos);
+
+		return (idleCount < Integer.MAX_VALUE ? idleCount + 1 : idleCount);
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return name;
+	}
+}
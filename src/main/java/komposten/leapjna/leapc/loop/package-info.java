@@ -0,0 +1,24 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+
+/**
+ * Provides {@link komposten.leapjna.leapc.loop.LeapEventLoop}, which polls a connection on
+ * a dedicated thread and publishes the events into a preallocated
+ * {@link komposten.leapjna.leapc.loop.EventRingBuffer}, which is shared by all consumers.
+ * Each consumer reads the buffer through its own
+ * {@link komposten.leapjna.leapc.loop.ConsumerCursor}, on its own thread.
+ * {@link komposten.leapjna.leapc.loop.LeapEventBus} dispatches polled messages to typed
+ * listeners, decoding only the event types that have listeners, and
+ * {@link komposten.leapjna.leapc.loop.LeapFlowPublisher} publishes copies of them to
+ * {@link java.util.concurrent.Flow} subscribers with bounded buffers.
+ * {@link komposten.leapjna.leapc.loop.WaitStrategy} selects how a poll loop waits for
+ * messages.
+ */
+package komposten.leapjna.leapc.loop;
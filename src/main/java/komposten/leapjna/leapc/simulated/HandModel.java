@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.simulated;
+
+import komposten.leapjna.leapc.data.LEAP_BONE;
+import komposten.leapjna.leapc.data.LEAP_DIGIT;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.data.LEAP_PALM;
+import komposten.leapjna.leapc.data.LEAP_QUATERNION;
+import komposten.leapjna.leapc.enums.eLeapHandType;
+
+
+/**
+ * Poses simulated hands. The hands are flat with the fingers pointing away from the user
+ * (towards -z) and the palms facing down, and sway slowly above the device so that
+ * positions and velocities change from frame to frame.
+ */
+final class HandModel
+{
+	/** Bone lengths in millimetres, per finger (thumb first) and bone (metacarpal first). */
+	private static final float[][] BONE_LENGTHS = {
+			{ 0, 40, 30, 25 },
+			{ 65, 40, 25, 20 },
+			{ 63, 45, 28, 22 },
+			{ 58, 42, 26, 20 },
+			{ 52, 32, 20, 18 } };
+
+	/** The x offset of each finger's base from the palm centre, for a right hand. */
+	private static final float[] FINGER_OFFSETS = { -45, -25, -5, 15, 35 };
+
+	private static final float PALM_WIDTH = 85;
+	private static final float ARM_LENGTH = 250;
+	private static final float ARM_WIDTH = 60;
+
+
+	/**
+	 * Poses <code>hand</code> for the specified time. Only the Java fields are updated;
+	 * call {@link LEAP_HAND#write()} to write them to native memory.
+	 *
+	 * @param hand The hand to pose.
+	 * @param index The index of the hand in the frame. Hand 0 is a left hand and hand 1 a
+	 *          right hand.
+	 * @param seconds The time since the simulation started, in seconds.
+	 */
+	static void pose(LEAP_HAND hand, int index, double seconds)
+	{
+		boolean left = (index == 0);
+		float side = left ? -1 : 1;
+		double phase = 2 * Math.PI * seconds;
+
+		float x = side * 80 + (float) (40 * Math.sin(0.25 * phase + index));
+		float y = 200 + (float) (30 * Math.sin(0.5 * phase + index));
+		float z = (float) (20 * Math.cos(0.25 * phase + index));
+		float vx = (float) (40 * 0.25 * 2 * Math.PI * Math.cos(0.25 * phase + index));
+		float vy = (float) (30 * 0.5 * 2 * Math.PI * Math.cos(0.5 * phase + index));
+		float vz = (float) (-20 * 0.25 * 2 * Math.PI * Math.sin(0.25 * phase + index));
+		float pinch = (float) (0.5 + 0.5 * Math.sin(phase * 0.2 + index));
+
+		hand.id = index + 1;
+		hand.flags = 0;
+		hand.type = left ? eLeapHandType.Left.value : eLeapHandType.Right.value;
+		hand.confidence = 1;
+		hand.visible_time = (long) (seconds * 1_000_000);
+		hand.pinch_distance = 10 + 60 * (1 - pinch);
+		hand.grab_angle = 0;
+		hand.pinch_strength = pinch;
+		hand.grab_strength = 0;
+
+		LEAP_PALM palm = hand.palm;
+		palm.position.set(x, y, z);
+		palm.stabilized_position.set(x, y, z);
+		palm.velocity.set(vx, vy, vz);
+		palm.normal.set(0, -1, 0);
+		palm.width = PALM_WIDTH;
+		palm.direction.set(0, 0, -1);
+		identity(palm.orientation);
+
+		LEAP_DIGIT[] digits = hand.digits.asArray();
+		for (int i = 0; i < digits.length; i++)
+		{
+			LEAP_DIGIT digit = digits[i];
+			digit.finger_id = index * 10 + i;
+			digit.is_extended = 1;
+
+			float jointX = x + side * FINGER_OFFSETS[i];
+			float jointZ = z - (i == 0 ? 20 : 0);
+			LEAP_BONE[] bones = digit.boneArray();
+			for (int j = 0; j < bones.length; j++)
+			{
+				float length = BONE_LENGTHS[i][j];
+				pose(bones[j], jointX, y, jointZ, jointX, y, jointZ - length, 20 - 2 * j);
+				jointZ -= length;
+			}
+		}
+
+		pose(hand.arm, x, y, z + ARM_LENGTH + 50, x, y, z + 50, ARM_WIDTH);
+	}
+
+
+	private static void pose(LEAP_BONE bone, float prevX, float prevY, float prevZ,
+			float nextX, float nextY, float nextZ, float width)
+	{
+		bone.prev_joint.set(prevX, prevY, prevZ);
+		bone.next_joint.set(nextX, nextY, nextZ);
+		bone.width = width;
+		identity(bone.rotation);
+	}
+
+
+	private static void identity(LEAP_QUATERNION quaternion)
+	{
+		quaternion.w = 1;
+		quaternion.x = 0;
+		quaternion.y = 0;
+		quaternion.z = 0;
+	}
+
+
+	private HandModel()
+	{}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.simulated;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_DISTORTION_MATRIX;
+import komposten.leapjna.leapc.data.LEAP_IMAGE;
+import komposten.leapjna.leapc.enums.eLeapImageFormat;
+import komposten.leapjna.leapc.enums.eLeapImageType;
+import komposten.leapjna.leapc.events.LEAP_IMAGE_EVENT;
+
+
+/**
+ * Writes simulated stereo image events to native memory. The images are 8-bit IR images
+ * with a dark background and a bright vertical bar that moves one column per frame. The
+ * distortion matrices are identity grids, with a separate matrix version per camera.
+ */
+final class ImageEventWriter
+{
+	private static final byte BACKGROUND = 16;
+	private static final byte BAR = (byte) 200;
+	private static final int BAR_WIDTH = 8;
+
+	private final LEAP_IMAGE_EVENT event;
+	private final Memory[] data;
+	private final Memory[] matrices;
+	private final int width;
+	private final int height;
+
+
+	/**
+	 * @param width The image width.
+	 * @param height The image height.
+	 * @param matrixVersion The distortion matrix version of the first camera. The second
+	 *          camera uses <code>matrixVersion + 1</code>.
+	 */
+	ImageEventWriter(int width, int height, long matrixVersion)
+	{
+		this.width = width;
+		this.height = height;
+
+		// Passing null makes JNA allocate zeroed memory for the event.
+		event = new LEAP_IMAGE_EVENT(null);
+		data = new Memory[event.image.length];
+		matrices = new Memory[event.image.length];
+
+		for (int i = 0; i < event.image.length; i++)
+		{
+			data[i] = new Memory((long) width * height);
+			matrices[i] = createIdentityMatrix();
+
+			LEAP_IMAGE image = event.image[i];
+			image.properties.type = eLeapImageType.Default.value;
+			image.properties.format = eLeapImageFormat.IR.value;
+			image.properties.bpp = 1;
+			image.properties.width = width;
+			image.properties.height = height;
+			image.properties.x_scale = 1;
+			image.properties.y_scale = 1;
+			image.matrix_version = matrixVersion + i;
+			image.distortion_matrix = matrices[i];
+			image.data = data[i];
+			image.offset = 0;
+		}
+
+		event.write();
+	}
+
+
+	private static Memory createIdentityMatrix()
+	{
+		int n = LEAP_DISTORTION_MATRIX.LEAP_DISTORTION_MATRIX_N;
+		float[] matrix = new float[n * n * 2];
+		for (int row = 0; row < n; row++)
+		{
+			for (int column = 0; column < n; column++)
+			{
+				int index = (row * n + column) * 2;
+				matrix[index] = column / (float) (n - 1);
+				matrix[index + 1] = row / (float) (n - 1);
+			}
+		}
+
+		Memory memory = new Memory((long) matrix.length * Float.BYTES);
+		memory.write(0, matrix, 0, matrix.length);
+		return memory;
+	}
+
+
+	Pointer getPointer()
+	{
+		return event.getPointer();
+	}
+
+
+	/**
+	 * Writes a new frame to the memory.
+	 *
+	 * @param frameId The frame ID.
+	 * @param timestamp The frame timestamp, in microseconds.
+	 */
+	void write(long frameId, long timestamp)
+	{
+		int barX = (int) (frameId % Math.max(1, width - BAR_WIDTH));
+		int barWidth = Math.min(BAR_WIDTH, width);
+
+		for (Memory image : data)
+		{
+			image.setMemory(0, (long) width * height, BACKGROUND);
+			for (int row = 0; row < height; row++)
+				image.setMemory((long) row * width + barX, barWidth, BAR);
+		}
+
+		event.info.frame_id = frameId;
+		event.info.timestamp = timestamp;
+		event.info.write();
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.simulated;
+
+import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.LeapCBackend;
+
+
+/**
+ * The <code>simulated</code> backend. Creates a {@link SimulatedLeapC} configured by
+ * {@link SimulationSettings#fromSystemProperties()}.
+ *
+ * @since LeapJna 1.2.1
+ */
+public class SimulatedBackend implements LeapCBackend
+{
+	/** The name of this backend. */
+	public static final String NAME = "simulated";
+
+
+	@Override
+	public String getName()
+	{
+		return NAME;
+	}
+
+
+	@Override
+	public LeapC load()
+	{
+		return new SimulatedLeapC(SimulationSettings.fromSystemProperties());
+	}
+}
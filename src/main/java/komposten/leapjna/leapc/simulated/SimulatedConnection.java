@@ -0,0 +1,462 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.simulated;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_CONNECTION_EVENT;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENT;
+import komposten.leapjna.leapc.events.LEAP_POLICY_EVENT;
+
+
+/**
+ * <p>
+ * A simulated connection. Produces the events returned by
+ * {@link SimulatedLeapC#LeapPollConnection(Pointer, int, LEAP_CONNECTION_MESSAGE)}.
+ * </p>
+ * <p>
+ * When opened, the connection first produces a connection event followed by one device
+ * event per device. After that, tracking, image and log events are produced at the rates
+ * in the {@link SimulationSettings}. Each event type has its own schedule; if the client
+ * polls too slowly to keep up, events are dropped rather than queued, like LeapC does.
+ * </p>
+ * <p>
+ * Like LeapC, the event memory is re-used and is only valid until the next poll.
+ * </p>
+ */
+final class SimulatedConnection
+{
+	/** Below this many nanoseconds the poll loop spins instead of parking. */
+	private static final long SPIN_THRESHOLD = TimeUnit.MICROSECONDS.toNanos(50);
+	private static final EventStream[] NO_STREAMS = new EventStream[0];
+
+	private final SimulatedLeapC leapC;
+	private final SimulationSettings settings;
+
+	final Memory handle;
+
+	private final AtomicBoolean polling = new AtomicBoolean();
+	private final Queue<PendingEvent> pending = new ConcurrentLinkedQueue<>();
+	/** The event streams, replaced as a whole by open() and close(). */
+	private volatile EventStream[] streams = NO_STREAMS;
+
+	private final LEAP_CONNECTION_EVENT connectionEvent;
+	private final LEAP_DEVICE_EVENT deviceEvent;
+	private final LEAP_POLICY_EVENT policyEvent;
+	private final LEAP_LOG_EVENT logEvent;
+
+	private volatile boolean open;
+	private volatile boolean paused;
+	private volatile int policy;
+
+	/** The writer used by the last interpolate() call, reused while the memory is the same. */
+	private TrackingFrameWriter interpolationWriter;
+	private Pointer interpolationMemory;
+
+
+	SimulatedConnection(SimulatedLeapC leapC, SimulationSettings settings)
+	{
+		this.leapC = leapC;
+		this.settings = settings;
+
+		handle = new Memory(1);
+		handle.setByte(0, (byte) 0);
+
+		// Passing null makes JNA allocate zeroed memory for the events.
+		connectionEvent = new LEAP_CONNECTION_EVENT(null);
+		deviceEvent = new LEAP_DEVICE_EVENT(null);
+		policyEvent = new LEAP_POLICY_EVENT(null);
+		logEvent = new LEAP_LOG_EVENT(null);
+	}
+
+
+	/**
+	 * Opens the connection and schedules the start-up events. Does nothing if the
+	 * connection is already open. Re-opening a closed connection starts new event streams.
+	 */
+	synchronized void open()
+	{
+		if (open)
+			return;
+
+		long now = System.nanoTime();
+		List<EventStream> streams = new ArrayList<>();
+		pending.clear();
+		pending.add(new PendingEvent(eLeapEventType.Connection, 0));
+		for (SimulatedDevice device : leapC.getDevices())
+		{
+			pending.add(new PendingEvent(eLeapEventType.Device, device.id));
+
+			if (settings.getTrackingRate() > 0)
+				streams.add(new TrackingStream(device, settings.getTrackingRate(), now));
+			if (settings.getImageRate() > 0)
+				streams.add(new ImageStream(device, settings.getImageRate(), now));
+		}
+
+		if (settings.getLogRate() > 0)
+			streams.add(new LogStream(settings.getLogRate(), now));
+
+		this.streams = streams.toArray(NO_STREAMS);
+		open = true;
+	}
+
+
+	synchronized void close()
+	{
+		open = false;
+		streams = NO_STREAMS;
+		pending.clear();
+	}
+
+
+	boolean isOpen()
+	{
+		return open;
+	}
+
+
+	void setPaused(boolean paused)
+	{
+		this.paused = paused;
+	}
+
+
+	void setPolicyFlags(long set, long clear)
+	{
+		policy = (int) ((policy | set) & ~clear);
+		pending.add(new PendingEvent(eLeapEventType.Policy, 0));
+	}
+
+
+	long getFrameSize()
+	{
+		return TrackingFrameWriter.frameSize(settings.getHandCount());
+	}
+
+
+	/**
+	 * Writes an interpolated frame for the specified time to <code>memory</code>.
+	 */
+	synchronized void interpolate(long timestamp, Pointer memory)
+	{
+		if (interpolationWriter == null || !memory.equals(interpolationMemory))
+		{
+			interpolationWriter = new TrackingFrameWriter(memory, settings.getHandCount());
+			interpolationMemory = memory;
+		}
+
+		TrackingFrameWriter writer = interpolationWriter;
+		double rate = settings.getTrackingRate();
+		long frameId = Double.isInfinite(rate) ? timestamp : (long) (timestamp * rate / 1e6);
+		writer.write(frameId, timestamp, timestamp / 1e6, getFramerate(rate));
+	}
+
+
+	private static float getFramerate(double rate)
+	{
+		return Double.isInfinite(rate) ? 0 : (float) rate;
+	}
+
+
+	eLeapRS poll(int timeout, LEAP_CONNECTION_MESSAGE message)
+	{
+		if (!polling.compareAndSet(false, true))
+			return eLeapRS.ConcurrentPoll;
+
+		try
+		{
+			if (!open)
+				return eLeapRS.NotConnected;
+
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeout));
+			while (true)
+			{
+				PendingEvent event = pending.poll();
+				if (event != null)
+				{
+					emit(event, message);
+					return eLeapRS.Success;
+				}
+
+				EventStream next = nextStream();
+				long now = System.nanoTime();
+				if (next != null && next.nextDue - now <= 0)
+				{
+					next.emit(message);
+					next.reschedule(now);
+					return eLeapRS.Success;
+				}
+
+				if (deadline - now <= 0 || Thread.currentThread().isInterrupted())
+				{
+					message.set(message.size(), eLeapEventType.None.value, null, 0);
+					message.write();
+					return eLeapRS.Timeout;
+				}
+
+				long wakeUp = (next != null && next.nextDue - deadline < 0) ? next.nextDue : deadline;
+				waitUntil(wakeUp, now);
+			}
+		}
+		finally
+		{
+			polling.set(false);
+		}
+	}
+
+
+	private EventStream nextStream()
+	{
+		EventStream next = null;
+		for (EventStream stream : streams)
+		{
+			if (paused && stream.pausable)
+				continue;
+			if (next == null || stream.nextDue - next.nextDue < 0)
+				next = stream;
+		}
+
+		return next;
+	}
+
+
+	private static void waitUntil(long wakeUp, long now)
+	{
+		long remaining = wakeUp - now;
+		if (remaining > SPIN_THRESHOLD)
+			LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+		else
+			Thread.onSpinWait();
+	}
+
+
+	private void emit(PendingEvent event, LEAP_CONNECTION_MESSAGE message)
+	{
+		Pointer pEvent;
+		switch (event.type)
+		{
+			case Connection:
+				connectionEvent.flags = 0;
+				connectionEvent.write();
+				pEvent = connectionEvent.getPointer();
+				break;
+			case Device:
+				SimulatedDevice device = leapC.getDevice(event.deviceId);
+				deviceEvent.flags = 0;
+				deviceEvent.device.handle = device.handle;
+				deviceEvent.device.id = device.id;
+				deviceEvent.status = eLeapDeviceStatus.Streaming.value;
+				deviceEvent.write();
+				pEvent = deviceEvent.getPointer();
+				break;
+			case Policy:
+				policyEvent.current_policy = policy;
+				policyEvent.write();
+				pEvent = policyEvent.getPointer();
+				break;
+			default:
+				throw new IllegalStateException("Unexpected pending event: " + event.type);
+		}
+
+		setMessage(message, event.type, pEvent, event.deviceId);
+	}
+
+
+	private static void setMessage(LEAP_CONNECTION_MESSAGE message, eLeapEventType type,
+			Pointer pEvent, int deviceId)
+	{
+		message.set(message.size(), type.value, pEvent, deviceId);
+		message.write();
+	}
+
+
+	private static class PendingEvent
+	{
+		final eLeapEventType type;
+		final int deviceId;
+
+
+		PendingEvent(eLeapEventType type, int deviceId)
+		{
+			this.type = type;
+			this.deviceId = deviceId;
+		}
+	}
+
+
+	/**
+	 * An event type produced at a fixed rate.
+	 */
+	private abstract class EventStream
+	{
+		final long period;
+		final boolean pausable;
+		long nextDue;
+		long count;
+
+
+		EventStream(double rate, long start, boolean pausable)
+		{
+			this.period = Double.isInfinite(rate) ? 0 : (long) (1e9 / rate);
+			this.pausable = pausable;
+			this.nextDue = start;
+		}
+
+
+		/**
+		 * Moves the stream to its next due time. If the client has fallen more than one
+		 * period behind, the missed events are dropped.
+		 */
+		void reschedule(long now)
+		{
+			count++;
+			nextDue += period;
+			if (nextDue - now < 0)
+				nextDue = now;
+		}
+
+
+		long getTimestamp()
+		{
+			return leapC.toLeapTime(nextDue);
+		}
+
+
+		abstract void emit(LEAP_CONNECTION_MESSAGE message);
+	}
+
+
+	private class TrackingStream extends EventStream
+	{
+		private final SimulatedDevice device;
+		private final TrackingFrameWriter writer;
+		private final Memory memory;
+		private final float framerate;
+
+
+		TrackingStream(SimulatedDevice device, double rate, long start)
+		{
+			super(rate, start, true);
+			this.device = device;
+			this.framerate = getFramerate(rate);
+			memory = new Memory(TrackingFrameWriter.frameSize(settings.getHandCount()));
+			writer = new TrackingFrameWriter(memory, settings.getHandCount());
+		}
+
+
+		@Override
+		void emit(LEAP_CONNECTION_MESSAGE message)
+		{
+			long timestamp = getTimestamp();
+			writer.write(count + 1, timestamp, timestamp / 1e6, framerate);
+			setMessage(message, eLeapEventType.Tracking, memory, device.id);
+		}
+	}
+
+
+	private class ImageStream extends EventStream
+	{
+		private final SimulatedDevice device;
+		private final ImageEventWriter writer;
+
+
+		ImageStream(SimulatedDevice device, double rate, long start)
+		{
+			super(rate, start, true);
+			this.device = device;
+			writer = new ImageEventWriter(settings.getImageWidth(), settings.getImageHeight(),
+					device.id * 2L - 1);
+		}
+
+
+		@Override
+		void emit(LEAP_CONNECTION_MESSAGE message)
+		{
+			writer.write(count + 1, getTimestamp());
+			setMessage(message, eLeapEventType.Image, writer.getPointer(), device.id);
+		}
+	}
+
+
+	private class LogStream extends EventStream
+	{
+		private final byte[] prefix = "Simulated log message "
+				.getBytes(StandardCharsets.US_ASCII);
+		/** The number is written after the prefix; a long has at most 19 digits. */
+		private final Memory text = new Memory(prefix.length + 20);
+		private final long messageOffset;
+
+
+		LogStream(double rate, long start)
+		{
+			super(rate, start, false);
+			text.write(0, prefix, 0, prefix.length);
+			// The message pointer is the last field, and the struct has no padding.
+			messageOffset = logEvent.size() - Native.POINTER_SIZE;
+		}
+
+
+		@Override
+		void emit(LEAP_CONNECTION_MESSAGE message)
+		{
+			eLeapLogSeverity severity;
+			if (count % 100 == 99)
+				severity = eLeapLogSeverity.Critical;
+			else if (count % 10 == 9)
+				severity = eLeapLogSeverity.Warning;
+			else
+				severity = eLeapLogSeverity.Information;
+
+			// Write the message into the reused buffer instead of allocating a String and a
+			// native copy of it for every event.
+			writeNumber(count + 1);
+			logEvent.severity = severity.value;
+			logEvent.timestamp = getTimestamp();
+			logEvent.writeField("severity");
+			logEvent.writeField("timestamp");
+			logEvent.getPointer().setPointer(messageOffset, text);
+			setMessage(message, eLeapEventType.LogEvent, logEvent.getPointer(), 0);
+		}
+
+
+		private void writeNumber(long number)
+		{
+			int digits = 1;
+			for (long remaining = number / 10; remaining > 0; remaining /= 10)
+				digits++;
+
+			long offset = prefix.length + digits;
+			text.setByte(offset, (byte) 0);
+			do
+			{
+				text.setByte(--offset, (byte) ('0' + number % 10));
+				number /= 10;
+			}
+			while (number > 0);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.simulated;
+
+import com.sun.jna.Memory;
+
+
+/**
+ * A simulated device. The handle is a unique native address which identifies the device
+ * in calls to {@link SimulatedLeapC}.
+ */
+final class SimulatedDevice
+{
+	/** The distance between the cameras, in micrometres. */
+	static final int BASELINE = 40_000;
+	/** The horizontal field of view, in radians. */
+	static final float H_FOV = (float) Math.toRadians(140);
+	/** The vertical field of view, in radians. */
+	static final float V_FOV = (float) Math.toRadians(120);
+	/** The maximum tracking range, in micrometres. */
+	static final int RANGE = 800_000;
+
+	final Memory handle;
+	final int id;
+	final String serial;
+
+
+	SimulatedDevice(int id)
+	{
+		this.id = id;
+		this.serial = String.format("SIM%05d", id);
+		handle = new Memory(1);
+		handle.setByte(0, (byte) id);
+	}
+}
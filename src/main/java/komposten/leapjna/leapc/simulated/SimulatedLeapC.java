@@ -0,0 +1,839 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.simulated;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.LongByReference;
+
+import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.data.LEAP_ALLOCATOR;
+import komposten.leapjna.leapc.data.LEAP_CLOCK_REBASER;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_CONFIG;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_INFO;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE_INFO;
+import komposten.leapjna.leapc.data.LEAP_DEVICE_REF;
+import komposten.leapjna.leapc.data.LEAP_POINT_MAPPING;
+import komposten.leapjna.leapc.data.LEAP_RECORDING;
+import komposten.leapjna.leapc.data.LEAP_RECORDING_PARAMETERS;
+import komposten.leapjna.leapc.data.LEAP_RECORDING_STATUS;
+import komposten.leapjna.leapc.data.LEAP_TELEMETRY_DATA;
+import komposten.leapjna.leapc.data.LEAP_VARIANT;
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.data.LEAP_VERSION;
+import komposten.leapjna.leapc.enums.eLeapConnectionStatus;
+import komposten.leapjna.leapc.enums.eLeapDevicePID;
+import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_HEAD_POSE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.util.ArrayPointer;
+import komposten.leapjna.leapc.util.PrimitiveArrayPointer;
+
+
+/**
+ * <p>
+ * A pure-Java implementation of {@link LeapC} that does not need the native library or a
+ * running tracking service. It produces synthetic hands, images and log messages at the
+ * rates specified by a {@link SimulationSettings} object, which makes it possible to
+ * develop and test applications (and to benchmark LeapJna itself) on machines without a
+ * Leap Motion device.
+ * </p>
+ * <p>
+ * Connection and device handles are small blocks of native memory, so they can be passed
+ * around like handles from the real library. The events are also written to native
+ * memory in the same layout that LeapC uses, so the regular structure mappings can be
+ * used to read them.
+ * </p>
+ * <p>
+ * The following functions are not supported and return {@link eLeapRS#Unsupported}:
+ * the recording functions, point mapping, head pose interpolation, custom allocators
+ * and telemetry profiling.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+@SuppressWarnings("deprecation")
+public class SimulatedLeapC implements LeapC
+{
+	private static final int VERSION_MAJOR = 5;
+	private static final int VERSION_MINOR = 0;
+	private static final int VERSION_PATCH = 0;
+
+	private final SimulationSettings settings;
+	private final long epoch;
+	private final List<SimulatedDevice> devices;
+	private final Map<Long, SimulatedDevice> devicesByHandle = new ConcurrentHashMap<>();
+	private final Map<Long, SimulatedConnection> connections = new ConcurrentHashMap<>();
+	private final Map<Long, long[]> rebasers = new ConcurrentHashMap<>();
+	private final Map<Long, Memory> rebaserHandles = new ConcurrentHashMap<>();
+	private final AtomicLong configRequestId = new AtomicLong();
+
+
+	/**
+	 * Creates a simulated LeapC with the default settings.
+	 */
+	public SimulatedLeapC()
+	{
+		this(new SimulationSettings());
+	}
+
+
+	/**
+	 * Creates a simulated LeapC with the specified settings. Changes made to the settings
+	 * after connections have been opened will not affect those connections.
+	 *
+	 * @param settings The settings to use.
+	 */
+	public SimulatedLeapC(SimulationSettings settings)
+	{
+		this.settings = settings;
+		this.epoch = System.nanoTime();
+
+		List<SimulatedDevice> deviceList = new ArrayList<>();
+		for (int i = 1; i <= settings.getDeviceCount(); i++)
+		{
+			SimulatedDevice device = new SimulatedDevice(i);
+			deviceList.add(device);
+			devicesByHandle.put(Pointer.nativeValue(device.handle), device);
+		}
+		devices = Collections.unmodifiableList(deviceList);
+	}
+
+
+	/**
+	 * @return The settings used by this instance.
+	 */
+	public SimulationSettings getSettings()
+	{
+		return settings;
+	}
+
+
+	List<SimulatedDevice> getDevices()
+	{
+		return devices;
+	}
+
+
+	SimulatedDevice getDevice(int id)
+	{
+		return devices.get(id - 1);
+	}
+
+
+	/**
+	 * Converts a {@link System#nanoTime()} value to the simulated service clock.
+	 */
+	long toLeapTime(long nanoTime)
+	{
+		return (nanoTime - epoch) / 1000 + 1;
+	}
+
+
+	private SimulatedConnection getConnection(Pointer hConnection)
+	{
+		if (hConnection == null)
+			return null;
+		return connections.get(Pointer.nativeValue(hConnection));
+	}
+
+
+	private SimulatedDevice getDevice(Pointer hDevice)
+	{
+		if (hDevice == null)
+			return null;
+		return devicesByHandle.get(Pointer.nativeValue(hDevice));
+	}
+
+
+	@Override
+	public eLeapRS LeapCreateConnection(LEAP_CONNECTION_CONFIG pConfig,
+			LEAP_CONNECTION phConnection)
+	{
+		if (phConnection == null)
+			return eLeapRS.InvalidArgument;
+
+		SimulatedConnection connection = new SimulatedConnection(this, settings);
+		connections.put(Pointer.nativeValue(connection.handle), connection);
+
+		phConnection.handle = connection.handle;
+		phConnection.write();
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public void LeapDestroyConnection(Pointer hConnection)
+	{
+		if (hConnection != null)
+		{
+			SimulatedConnection connection = connections.remove(Pointer.nativeValue(hConnection));
+			if (connection != null)
+				connection.close();
+		}
+	}
+
+
+	@Override
+	public eLeapRS LeapOpenConnection(Pointer hConnection)
+	{
+		SimulatedConnection connection = getConnection(hConnection);
+		if (connection == null)
+			return eLeapRS.InvalidArgument;
+
+		connection.open();
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public void LeapCloseConnection(Pointer hConnection)
+	{
+		SimulatedConnection connection = getConnection(hConnection);
+		if (connection != null)
+			connection.close();
+	}
+
+
+	@Override
+	public eLeapRS LeapPollConnection(Pointer hConnection, int timeout,
+			LEAP_CONNECTION_MESSAGE message)
+	{
+		SimulatedConnection connection = getConnection(hConnection);
+		if (connection == null || message == null)
+			return eLeapRS.InvalidArgument;
+
+		return connection.poll(timeout, message);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetConnectionInfo(Pointer hConnection, LEAP_CONNECTION_INFO pInfo)
+	{
+		SimulatedConnection connection = getConnection(hConnection);
+		if (connection == null || pInfo == null)
+			return eLeapRS.InvalidArgument;
+
+		pInfo.status = connection.isOpen() ? eLeapConnectionStatus.Connected.value
+				: eLeapConnectionStatus.NotConnected.value;
+		pInfo.write();
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public eLeapRS LeapGetDeviceList(Pointer hConnection,
+			ArrayPointer<LEAP_DEVICE_REF> pArray, IntByReference pnArray)
+	{
+		if (getConnection(hConnection) == null || pnArray == null)
+			return eLeapRS.InvalidArgument;
+
+		if (pArray == null)
+		{
+			pnArray.setValue(devices.size());
+			return eLeapRS.Success;
+		}
+
+		int count = Math.min(pnArray.getValue(), Math.min(pArray.getArraySize(), devices.size()));
+		for (int i = 0; i < count; i++)
+		{
+			SimulatedDevice device = devices.get(i);
+			LEAP_DEVICE_REF ref = new LEAP_DEVICE_REF();
+			ref.handle = device.handle;
+			ref.id = device.id;
+			ref.write();
+			pArray.setElement(i, ref);
+		}
+
+		pnArray.setValue(count);
+		return (count < devices.size() ? eLeapRS.InsufficientBuffer : eLeapRS.Success);
+	}
+
+
+	@Override
+	public eLeapRS LeapOpenDevice(LEAP_DEVICE_REF rDevice, LEAP_DEVICE phDevice)
+	{
+		if (rDevice == null || phDevice == null || getDevice(rDevice.handle) == null)
+			return eLeapRS.InvalidArgument;
+
+		phDevice.handle = rDevice.handle;
+		phDevice.write();
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public void LeapCloseDevice(Pointer hDevice)
+	{
+		// Devices are owned by the simulation and are never released.
+	}
+
+
+	@Override
+	public eLeapRS LeapSetPrimaryDevice(Pointer hConnection, Pointer hDevice,
+			int unsubscribeOthers)
+	{
+		return checkHandles(hConnection, hDevice);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetDeviceInfo(Pointer hDevice, LEAP_DEVICE_INFO info)
+	{
+		SimulatedDevice device = getDevice(hDevice);
+		if (device == null || info == null)
+			return eLeapRS.InvalidArgument;
+
+		int serialLength = device.serial.length() + 1;
+		boolean hasBuffer = (info.serial != null && info.serial_length >= serialLength);
+
+		info.status = eLeapDeviceStatus.Streaming.value;
+		info.caps = 0;
+		info.pid = eLeapDevicePID.SIR170.value;
+		info.baseline = SimulatedDevice.BASELINE;
+		info.h_fov = SimulatedDevice.H_FOV;
+		info.v_fov = SimulatedDevice.V_FOV;
+		info.range = SimulatedDevice.RANGE;
+		info.serial_length = serialLength;
+		if (hasBuffer)
+			info.serial = device.serial;
+		info.write();
+
+		return (hasBuffer ? eLeapRS.Success : eLeapRS.InsufficientBuffer);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetDeviceTransform(Pointer hDevice, PrimitiveArrayPointer transform)
+	{
+		if (getDevice(hDevice) == null || transform == null)
+			return eLeapRS.InvalidArgument;
+
+		writeFloats(transform, identity4x4());
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public String LeapDevicePIDToString(int pid)
+	{
+		for (eLeapDevicePID value : eLeapDevicePID.values())
+		{
+			if (value.value == pid)
+				return value.name();
+		}
+
+		return eLeapDevicePID.Unknown.name();
+	}
+
+
+	@Override
+	public eLeapRS LeapSubscribeEvents(Pointer hConnection, Pointer hDevice)
+	{
+		return checkHandles(hConnection, hDevice);
+	}
+
+
+	@Override
+	public eLeapRS LeapUnsubscribeEvents(Pointer hConnection, Pointer hDevice)
+	{
+		return checkHandles(hConnection, hDevice);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetVersion(Pointer hConnection, int versionPart, LEAP_VERSION pVersion)
+	{
+		if (pVersion == null)
+			return eLeapRS.InvalidArgument;
+
+		pVersion.major = VERSION_MAJOR;
+		pVersion.minor = VERSION_MINOR;
+		pVersion.patch = VERSION_PATCH;
+		pVersion.write();
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public eLeapRS LeapGetFrameSize(Pointer hConnection, long timestamp,
+			LongByReference pncbEvent)
+	{
+		SimulatedConnection connection = getConnection(hConnection);
+		if (connection == null || pncbEvent == null)
+			return eLeapRS.InvalidArgument;
+
+		pncbEvent.setValue(connection.getFrameSize());
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public eLeapRS LeapGetFrameSizeEx(Pointer hConnection, Pointer hDevice, long timestamp,
+			LongByReference pncbEvent)
+	{
+		if (getDevice(hDevice) == null)
+			return eLeapRS.InvalidArgument;
+
+		return LeapGetFrameSize(hConnection, timestamp, pncbEvent);
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateFrameFromTime(Pointer hConnection, long timestamp,
+			long sourceTimestamp, LEAP_TRACKING_EVENT pEvent, long ncbEvent)
+	{
+		return LeapInterpolateFrame(hConnection, timestamp, pEvent, ncbEvent);
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateFrameFromTimeEx(Pointer hConnection, Pointer hDevice,
+			long timestamp, long sourceTimestamp, LEAP_TRACKING_EVENT pEvent, long ncbEvent)
+	{
+		return LeapInterpolateFrameEx(hConnection, hDevice, timestamp, pEvent, ncbEvent);
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateFrame(Pointer hConnection, long timestamp,
+			LEAP_TRACKING_EVENT pEvent, long ncbEvent)
+	{
+		SimulatedConnection connection = getConnection(hConnection);
+		if (connection == null || pEvent == null)
+			return eLeapRS.InvalidArgument;
+
+		if (ncbEvent < connection.getFrameSize() || pEvent.size() < ncbEvent)
+			return eLeapRS.InsufficientBuffer;
+
+		connection.interpolate(timestamp, pEvent.getPointer());
+		pEvent.read();
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateFrameEx(Pointer hConnection, Pointer hDevice,
+			long timestamp, LEAP_TRACKING_EVENT pEvent, long ncbEvent)
+	{
+		if (getDevice(hDevice) == null)
+			return eLeapRS.InvalidArgument;
+
+		return LeapInterpolateFrame(hConnection, timestamp, pEvent, ncbEvent);
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateHeadPose(Pointer hConnection, long timestamp,
+			LEAP_HEAD_POSE_EVENT pEvent)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public eLeapRS LeapSetPolicyFlags(Pointer hConnection, long set, long clear)
+	{
+		SimulatedConnection connection = getConnection(hConnection);
+		if (connection == null)
+			return eLeapRS.InvalidArgument;
+		if (!connection.isOpen())
+			return eLeapRS.NotConnected;
+
+		connection.setPolicyFlags(set, clear);
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public eLeapRS LeapSetPolicyFlagsEx(Pointer hConnection, Pointer hDevice, long set,
+			long clear)
+	{
+		if (getDevice(hDevice) == null)
+			return eLeapRS.InvalidArgument;
+
+		return LeapSetPolicyFlags(hConnection, set, clear);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetTrackingMode(Pointer hConnection, int mode)
+	{
+		return checkHandles(hConnection, null);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetTrackingModeEx(Pointer hConnection, Pointer hDevice, int mode)
+	{
+		return checkHandles(hConnection, hDevice);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetTrackingMode(Pointer hConnection)
+	{
+		return checkHandles(hConnection, null);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetTrackingModeEx(Pointer hConnection, Pointer hDevice)
+	{
+		return checkHandles(hConnection, hDevice);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetPause(Pointer hConnection, int pause)
+	{
+		SimulatedConnection connection = getConnection(hConnection);
+		if (connection == null)
+			return eLeapRS.InvalidArgument;
+
+		connection.setPaused(pause != 0);
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public eLeapRS LeapRequestConfigValue(Pointer hConnection, String key,
+			LongByReference pRequestID)
+	{
+		return setRequestId(hConnection, pRequestID);
+	}
+
+
+	@Override
+	public eLeapRS LeapSaveConfigValue(Pointer hConnection, String key, LEAP_VARIANT value,
+			LongByReference pRequestID)
+	{
+		return setRequestId(hConnection, pRequestID);
+	}
+
+
+	private eLeapRS setRequestId(Pointer hConnection, LongByReference pRequestID)
+	{
+		if (getConnection(hConnection) == null)
+			return eLeapRS.InvalidArgument;
+
+		if (pRequestID != null)
+			pRequestID.setValue(configRequestId.incrementAndGet());
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public eLeapRS LeapGetPointMappingSize(Pointer hConnection, LongByReference pSize)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public eLeapRS LeapGetPointMapping(Pointer hConnection, LEAP_POINT_MAPPING pointMapping,
+			LongByReference pSize)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public long LeapGetNow()
+	{
+		return toLeapTime(System.nanoTime());
+	}
+
+
+	@Override
+	public eLeapRS LeapSetAllocator(Pointer hConnection, LEAP_ALLOCATOR allocator)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public eLeapRS LeapCreateClockRebaser(LEAP_CLOCK_REBASER phClockRebaser)
+	{
+		if (phClockRebaser == null)
+			return eLeapRS.InvalidArgument;
+
+		Memory handle = new Memory(1);
+		long key = Pointer.nativeValue(handle);
+		rebaserHandles.put(key, handle);
+		rebasers.put(key, new long[1]);
+
+		phClockRebaser.handle = handle;
+		phClockRebaser.write();
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public void LeapDestroyClockRebaser(Pointer hClockRebaser)
+	{
+		if (hClockRebaser != null)
+		{
+			long key = Pointer.nativeValue(hClockRebaser);
+			rebasers.remove(key);
+			rebaserHandles.remove(key);
+		}
+	}
+
+
+	@Override
+	public eLeapRS LeapRebaseClock(Pointer hClockRebaser, long userClock,
+			LongByReference pLeapClock)
+	{
+		long[] offset = (hClockRebaser != null ? rebasers.get(Pointer.nativeValue(hClockRebaser))
+				: null);
+		if (offset == null || pLeapClock == null)
+			return eLeapRS.InvalidArgument;
+
+		pLeapClock.setValue(userClock + offset[0]);
+		return eLeapRS.Success;
+	}
+
+
+	@Override
+	public eLeapRS LeapUpdateRebase(Pointer hClockRebaser, long userClock, long leapClock)
+	{
+		long[] offset = (hClockRebaser != null ? rebasers.get(Pointer.nativeValue(hClockRebaser))
+				: null);
+		if (offset == null)
+			return eLeapRS.InvalidArgument;
+
+		offset[0] = leapClock - userClock;
+		return eLeapRS.Success;
+	}
+
+
+	/*
+	 * The camera functions use an ideal pinhole model: no distortion, the principal point
+	 * in the image centre and a focal length derived from the device's field of view. The
+	 * rectilinear coordinates are the x and y slopes of the ray, with z = 1.
+	 */
+
+
+	private float getFocalLength()
+	{
+		return (float) (settings.getImageWidth() / 2.0 / Math.tan(SimulatedDevice.H_FOV / 2));
+	}
+
+
+	@Override
+	public LEAP_VECTOR.ByValue LeapPixelToRectilinear(Pointer hConnection, int camera,
+			LEAP_VECTOR.ByValue pixel)
+	{
+		float focal = getFocalLength();
+		LEAP_VECTOR.ByValue result = new LEAP_VECTOR.ByValue();
+		result.set((pixel.x - settings.getImageWidth() / 2f) / focal,
+				(pixel.y - settings.getImageHeight() / 2f) / focal, 1);
+		return result;
+	}
+
+
+	@Override
+	public LEAP_VECTOR.ByValue LeapPixelToRectilinearEx(Pointer hConnection, Pointer hDevice,
+			int camera, LEAP_VECTOR.ByValue pixel)
+	{
+		return LeapPixelToRectilinear(hConnection, camera, pixel);
+	}
+
+
+	@Override
+	public LEAP_VECTOR.ByValue LeapRectilinearToPixel(Pointer hConnection, int camera,
+			LEAP_VECTOR.ByValue rectilinear)
+	{
+		float focal = getFocalLength();
+		float z = (rectilinear.z != 0 ? rectilinear.z : 1);
+		LEAP_VECTOR.ByValue result = new LEAP_VECTOR.ByValue();
+		result.set(rectilinear.x / z * focal + settings.getImageWidth() / 2f,
+				rectilinear.y / z * focal + settings.getImageHeight() / 2f, 0);
+		return result;
+	}
+
+
+	@Override
+	public LEAP_VECTOR.ByValue LeapRectilinearToPixelEx(Pointer hConnection, Pointer hDevice,
+			int camera, LEAP_VECTOR.ByValue rectilinear)
+	{
+		return LeapRectilinearToPixel(hConnection, camera, rectilinear);
+	}
+
+
+	@Override
+	public void LeapCameraMatrix(Pointer hConnection, int camera, PrimitiveArrayPointer dest)
+	{
+		float focal = getFocalLength();
+		float cx = settings.getImageWidth() / 2f;
+		float cy = settings.getImageHeight() / 2f;
+		writeFloats(dest, new float[] {
+				focal, 0, cx,
+				0, focal, cy,
+				0, 0, 1 });
+	}
+
+
+	@Override
+	public void LeapCameraMatrixEx(Pointer hConnection, Pointer hDevice, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		LeapCameraMatrix(hConnection, camera, dest);
+	}
+
+
+	@Override
+	public void LeapExtrinsicCameraMatrix(Pointer hConnection, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		float[] matrix = identity4x4();
+		// Column major, so the translation is in the last column (elements 12-14).
+		matrix[12] = (camera == 0 ? -1 : 1) * SimulatedDevice.BASELINE / 2000f;
+		writeFloats(dest, matrix);
+	}
+
+
+	@Override
+	public void LeapExtrinsicCameraMatrixEx(Pointer hConnection, Pointer hDevice, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		LeapExtrinsicCameraMatrix(hConnection, camera, dest);
+	}
+
+
+	@Override
+	public void LeapDistortionCoeffs(Pointer hConnection, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		writeFloats(dest, new float[8]);
+	}
+
+
+	@Override
+	public void LeapDistortionCoeffsEx(Pointer hConnection, Pointer hDevice, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		LeapDistortionCoeffs(hConnection, camera, dest);
+	}
+
+
+	@Override
+	public void LeapScaleOffsetMatrix(Pointer hConnection, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		writeFloats(dest, identity4x4());
+	}
+
+
+	@Override
+	public void LeapScaleOffsetMatrixEx(Pointer hConnection, Pointer hDevice, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		LeapScaleOffsetMatrix(hConnection, camera, dest);
+	}
+
+
+	private static float[] identity4x4()
+	{
+		float[] matrix = new float[16];
+		matrix[0] = matrix[5] = matrix[10] = matrix[15] = 1;
+		return matrix;
+	}
+
+
+	private static void writeFloats(PrimitiveArrayPointer dest, float[] values)
+	{
+		if (dest != null)
+			dest.write(0, values, 0, Math.min(values.length, dest.getArraySize()));
+	}
+
+
+	@Override
+	public eLeapRS LeapTelemetryProfiling(Pointer hConnection,
+			LEAP_TELEMETRY_DATA telemetryData)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public long LeapTelemetryGetNow()
+	{
+		return LeapGetNow();
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingOpen(LEAP_RECORDING ppRecording, String filePath,
+			LEAP_RECORDING_PARAMETERS params)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingWrite(Pointer pRecording, LEAP_TRACKING_EVENT pEvent,
+			LongByReference pnBytesWritten)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingGetStatus(Pointer pRecording, LEAP_RECORDING_STATUS pStatus)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingRead(Pointer pRecording, LEAP_TRACKING_EVENT pEvent,
+			long ncbEvent)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingReadSize(Pointer pRecording, LongByReference pncbEvent)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingClose(LEAP_RECORDING ppRecording)
+	{
+		return eLeapRS.Unsupported;
+	}
+
+
+	private eLeapRS checkHandles(Pointer hConnection, Pointer hDevice)
+	{
+		if (getConnection(hConnection) == null)
+			return eLeapRS.InvalidArgument;
+		if (hDevice != null && getDevice(hDevice) == null)
+			return eLeapRS.InvalidArgument;
+		return eLeapRS.Success;
+	}
+}
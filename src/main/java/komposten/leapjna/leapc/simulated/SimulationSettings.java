@@ -0,0 +1,238 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.simulated;
+
+/**
+ * <p>
+ * Settings for a {@link SimulatedLeapC}.
+ * </p>
+ * <p>
+ * Event rates are specified in hertz. A rate of <code>0</code> disables the event type,
+ * and a rate of {@link Double#POSITIVE_INFINITY} makes an event of that type available
+ * on every poll, which is useful for measuring the maximum throughput of a consumer.
+ * </p>
+ * <p>
+ * All setters return the settings object so that calls can be chained:
+ * </p>
+ *
+ * <pre>
+ * new SimulationSettings().setTrackingRate(2000).setImageRate(30).setHandCount(1);
+ * </pre>
+ *
+ * @since LeapJna 1.2.1
+ */
+public class SimulationSettings
+{
+	/** Prefix for the system properties read by {@link #fromSystemProperties()}. */
+	public static final String PROPERTY_PREFIX = "leapjna.simulated.";
+
+	/** The maximum number of hands a simulated frame can contain. */
+	public static final int MAX_HANDS = 2;
+
+	private double trackingRate = 120;
+	private double imageRate = 0;
+	private double logRate = 0;
+	private int handCount = 2;
+	private int deviceCount = 1;
+	private int imageWidth = 640;
+	private int imageHeight = 240;
+
+
+	/**
+	 * <p>
+	 * Creates settings from system properties, using the defaults for properties that are
+	 * not set. The property names are the setting names prefixed by
+	 * {@value #PROPERTY_PREFIX}, e.g. <code>leapjna.simulated.trackingRate=1000</code>.
+	 * </p>
+	 * <p>
+	 * Supported properties: <code>trackingRate</code>, <code>imageRate</code>,
+	 * <code>logRate</code>, <code>handCount</code>, <code>deviceCount</code>,
+	 * <code>imageWidth</code> and <code>imageHeight</code>.
+	 * </p>
+	 *
+	 * @throws IllegalArgumentException If a property has an invalid value.
+	 */
+	public static SimulationSettings fromSystemProperties()
+	{
+		SimulationSettings settings = new SimulationSettings();
+		settings.setTrackingRate(getDouble("trackingRate", settings.trackingRate));
+		settings.setImageRate(getDouble("imageRate", settings.imageRate));
+		settings.setLogRate(getDouble("logRate", settings.logRate));
+		settings.setHandCount(getInt("handCount", settings.handCount));
+		settings.setDeviceCount(getInt("deviceCount", settings.deviceCount));
+		settings.setImageSize(getInt("imageWidth", settings.imageWidth),
+				getInt("imageHeight", settings.imageHeight));
+		return settings;
+	}
+
+
+	private static double getDouble(String name, double defaultValue)
+	{
+		String value = System.getProperty(PROPERTY_PREFIX + name);
+		try
+		{
+			return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException(
+					PROPERTY_PREFIX + name + " is not a number: " + value, e);
+		}
+	}
+
+
+	private static int getInt(String name, int defaultValue)
+	{
+		String value = System.getProperty(PROPERTY_PREFIX + name);
+		try
+		{
+			return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException(
+					PROPERTY_PREFIX + name + " is not an integer: " + value, e);
+		}
+	}
+
+
+	private static double checkRate(double rate)
+	{
+		if (!(rate >= 0))
+			throw new IllegalArgumentException("rate must be >= 0: " + rate);
+		return rate;
+	}
+
+
+	/**
+	 * @param trackingRate The rate of tracking events, in hertz. Defaults to 120.
+	 * @return This settings object.
+	 * @throws IllegalArgumentException If <code>trackingRate</code> is negative or NaN.
+	 */
+	public SimulationSettings setTrackingRate(double trackingRate)
+	{
+		this.trackingRate = checkRate(trackingRate);
+		return this;
+	}
+
+
+	/**
+	 * @param imageRate The rate of image events, in hertz. Defaults to 0 (no images).
+	 * @return This settings object.
+	 * @throws IllegalArgumentException If <code>imageRate</code> is negative or NaN.
+	 */
+	public SimulationSettings setImageRate(double imageRate)
+	{
+		this.imageRate = checkRate(imageRate);
+		return this;
+	}
+
+
+	/**
+	 * @param logRate The rate of log events, in hertz. Defaults to 0 (no log events).
+	 * @return This settings object.
+	 * @throws IllegalArgumentException If <code>logRate</code> is negative or NaN.
+	 */
+	public SimulationSettings setLogRate(double logRate)
+	{
+		this.logRate = checkRate(logRate);
+		return this;
+	}
+
+
+	/**
+	 * @param handCount The number of hands in each tracking frame, between 0 and
+	 *          {@value #MAX_HANDS}. Defaults to 2.
+	 * @return This settings object.
+	 * @throws IllegalArgumentException If <code>handCount</code> is out of range.
+	 */
+	public SimulationSettings setHandCount(int handCount)
+	{
+		if (handCount < 0 || handCount > MAX_HANDS)
+			throw new IllegalArgumentException(
+					"handCount must be between 0 and " + MAX_HANDS + ": " + handCount);
+		this.handCount = handCount;
+		return this;
+	}
+
+
+	/**
+	 * @param deviceCount The number of simulated devices. Defaults to 1.
+	 * @return This settings object.
+	 * @throws IllegalArgumentException If <code>deviceCount</code> is less than 1.
+	 */
+	public SimulationSettings setDeviceCount(int deviceCount)
+	{
+		if (deviceCount < 1)
+			throw new IllegalArgumentException("deviceCount must be >= 1: " + deviceCount);
+		this.deviceCount = deviceCount;
+		return this;
+	}
+
+
+	/**
+	 * @param width The width of the simulated camera images. Defaults to 640.
+	 * @param height The height of the simulated camera images. Defaults to 240.
+	 * @return This settings object.
+	 * @throws IllegalArgumentException If <code>width</code> or <code>height</code> is less
+	 *           than 1.
+	 */
+	public SimulationSettings setImageSize(int width, int height)
+	{
+		if (width < 1 || height < 1)
+			throw new IllegalArgumentException(
+					"Image size must be at least 1x1: " + width + "x" + height);
+		this.imageWidth = width;
+		this.imageHeight = height;
+		return this;
+	}
+
+
+	public double getTrackingRate()
+	{
+		return trackingRate;
+	}
+
+
+	public double getImageRate()
+	{
+		return imageRate;
+	}
+
+
+	public double getLogRate()
+	{
+		return logRate;
+	}
+
+
+	public int getHandCount()
+	{
+		return handCount;
+	}
+
+
+	public int getDeviceCount()
+	{
+		return deviceCount;
+	}
+
+
+	public int getImageWidth()
+	{
+		return imageWidth;
+	}
+
+
+	public int getImageHeight()
+	{
+		return imageHeight;
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.simulated;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * Writes simulated tracking frames to native memory. The event is written at the start of
+ * the memory and the hand array directly after it, so a frame with <code>n</code> hands
+ * occupies {@link #frameSize(int) frameSize(n)} bytes.
+ */
+final class TrackingFrameWriter
+{
+	static final int EVENT_SIZE = new LEAP_TRACKING_EVENT().size();
+	static final int HAND_SIZE = new LEAP_HAND().size();
+
+	private final LEAP_TRACKING_EVENT event;
+	private final LEAP_HAND[] hands;
+	private final Pointer pHands;
+
+
+	/**
+	 * @param memory The memory to write frames to. Must be at least
+	 *          {@link #frameSize(int) frameSize(handCount)} bytes.
+	 * @param handCount The number of hands in each frame.
+	 */
+	TrackingFrameWriter(Pointer memory, int handCount)
+	{
+		memory.setMemory(0, frameSize(handCount), (byte) 0);
+
+		event = new LEAP_TRACKING_EVENT(memory);
+		hands = new LEAP_HAND[handCount];
+		pHands = memory.share(EVENT_SIZE);
+
+		for (int i = 0; i < handCount; i++)
+			hands[i] = new LEAP_HAND(pHands.share((long) i * HAND_SIZE));
+	}
+
+
+	static long frameSize(int handCount)
+	{
+		return EVENT_SIZE + (long) HAND_SIZE * handCount;
+	}
+
+
+	/**
+	 * Writes a frame to the memory.
+	 *
+	 * @param frameId The frame ID, used both for <code>info.frame_id</code> and
+	 *          <code>tracking_frame_id</code>.
+	 * @param timestamp The frame timestamp, in microseconds.
+	 * @param seconds The time since the simulation started, used to pose the hands.
+	 * @param framerate The frame rate to report.
+	 */
+	void write(long frameId, long timestamp, double seconds, float framerate)
+	{
+		for (int i = 0; i < hands.length; i++)
+		{
+			HandModel.pose(hands[i], i, seconds);
+			hands[i].write();
+		}
+
+		event.info.frame_id = frameId;
+		event.info.timestamp = timestamp;
+		event.tracking_frame_id = frameId;
+		event.nHands = hands.length;
+		event.pHands = (hands.length > 0 ? pHands : null);
+		event.framerate = framerate;
+		event.write();
+	}
+}
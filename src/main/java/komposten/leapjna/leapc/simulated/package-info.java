@@ -0,0 +1,16 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+
+/**
+ * Provides a pure-Java, simulated implementation of the Ultraleap C API for use without
+ * a device or native library. Select it with <code>-Dleapjna.backend=simulated</code> or
+ * create a {@link komposten.leapjna.leapc.simulated.SimulatedLeapC} directly.
+ */
+package komposten.leapjna.leapc.simulated;
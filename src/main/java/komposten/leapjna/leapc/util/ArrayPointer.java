@@ -10,7 +10,6 @@
 package komposten.leapjna.leapc.util;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -28,7 +27,9 @@ import com.sun.jna.Structure;
  * Use {@link #getElement(int)} or {@link #getElements(Structure[])} to access the array
  * data. <br>
  * Use {@link #setElement(int, Structure)} or {@link #setElements(Structure[], int)} to
- * write data to the array.
+ * write data to the array, and {@link #copyElements(ArrayPointer, int, int, int)} to copy
+ * elements from another array. All copies are made directly between native memory
+ * blocks.
  * </p>
  * <p>
  * In order for this class to work properly the structure class stored by this array must
@@ -196,8 +197,7 @@ public class ArrayPointer<T extends Structure> extends Memory
 		this.arraySize = arraySize;
 
 		// Clear the memory to get rid of garbage data.
-		int memorySize = (int) size();
-		write(0, new byte[memorySize], 0, memorySize);
+		clear();
 	}
 	
 	
@@ -266,14 +266,15 @@ public class ArrayPointer<T extends Structure> extends Memory
 			throw new ArrayIndexOutOfBoundsException(index);
 		}
 
-		byte[] buffer = new byte[elementSize];
-
+		long offset = (long)index * elementSize;
 		if (value != null)
 		{
-			value.getPointer().read(0, buffer, 0, elementSize);
+			NativeMemory.copy(getSourcePointer(value), 0, this, offset, elementSize);
+		}
+		else
+		{
+			setMemory(offset, elementSize, (byte) 0);
 		}
-
-		write((long)index * elementSize, buffer, 0, elementSize);
 	}
 
 
@@ -333,25 +334,113 @@ public class ArrayPointer<T extends Structure> extends Memory
 			throw new NullPointerException("source must not be null");
 		}
 		
-		boundsCheck(source, sourceOffset, destOffset, count);
+		boundsCheck(source.length, sourceOffset, destOffset, count);
 
-		byte[] buffer = new byte[elementSize];
-		for (int i = 0; i < count; i++)
+		// Copy runs of elements that are contiguous in memory (e.g. created by
+		// Structure.toArray()) and runs of nulls using a single operation each.
+		int i = 0;
+		while (i < count)
 		{
-			int si = i + sourceOffset;
-			int di = i + destOffset;
-			
-			if (source[si] != null)
-				source[si].getPointer().read(0, buffer, 0, elementSize);
+			T first = source[sourceOffset + i];
+			int runLength = 1;
+
+			if (first == null)
+			{
+				while (i + runLength < count && source[sourceOffset + i + runLength] == null)
+					runLength++;
+
+				setMemory((long)(destOffset + i) * elementSize, (long)runLength * elementSize,
+						(byte) 0);
+			}
 			else
-				Arrays.fill(buffer, (byte) 0);
+			{
+				Pointer firstPointer = getSourcePointer(first);
+				long firstAddress = Pointer.nativeValue(firstPointer);
+				while (i + runLength < count && isAt(source[sourceOffset + i + runLength],
+						firstAddress + (long)runLength * elementSize))
+					runLength++;
+
+				NativeMemory.copy(firstPointer, 0, this, (long)(destOffset + i) * elementSize,
+						(long)runLength * elementSize);
+			}
+
+			i += runLength;
+		}
+	}
+
+
+	/**
+	 * <p>
+	 * Copies elements from another <code>ArrayPointer</code> into the array referenced by
+	 * this object. The elements are copied directly between the native memory blocks,
+	 * which may overlap.
+	 * </p>
+	 * 
+	 * @param source The array to copy elements from.
+	 * @param sourceOffset The index in <code>source</code> to start copying from.
+	 * @param destOffset The index in this array to copy to.
+	 * @param count The number of elements to copy.
+	 * @throws NullPointerException If <code>source</code> is <code>null</code>.
+	 * @throws IllegalArgumentException If <code>count</code> is negative or the element
+	 *           sizes of the arrays differ.
+	 * @throws ArrayIndexOutOfBoundsException If the specified source or destination range
+	 *           exceeds the source or destination bounds.
+	 * @since LeapJna 1.2.1
+	 */
+	public void copyElements(ArrayPointer<? extends T> source, int sourceOffset,
+			int destOffset, int count)
+	{
+		if (source == null)
+		{
+			throw new NullPointerException("source must not be null");
+		}
+		
+		if (source.elementSize != elementSize)
+		{
+			String msg = String.format("The element sizes differ: %d != %d", source.elementSize,
+					elementSize);
+			throw new IllegalArgumentException(msg);
+		}
+
+		boundsCheck(source.arraySize, sourceOffset, destOffset, count);
+		NativeMemory.copy(source, (long)sourceOffset * elementSize, this,
+				(long)destOffset * elementSize, (long)count * elementSize);
+	}
+
 
-			write(((long)di) * elementSize, buffer, 0, elementSize);
+	private boolean isAt(T value, long address)
+	{
+		if (value == null || Pointer.nativeValue(value.getPointer()) != address)
+		{
+			return false;
 		}
+
+		getSourcePointer(value);
+		return true;
 	}
 
 
-	private void boundsCheck(T[] source, int sourceOffset, int destOffset, int count)
+	/**
+	 * @return The memory of <code>value</code>, after checking that it holds at least
+	 *         one element.
+	 * @throws IndexOutOfBoundsException If the memory is smaller than an element.
+	 */
+	private Pointer getSourcePointer(T value)
+	{
+		Pointer pointer = value.getPointer();
+
+		if (pointer instanceof Memory && ((Memory) pointer).size() < elementSize)
+		{
+			String msg = String.format("The source memory is smaller than an element: %d < %d",
+					((Memory) pointer).size(), elementSize);
+			throw new IndexOutOfBoundsException(msg);
+		}
+
+		return pointer;
+	}
+
+
+	private void boundsCheck(int sourceLength, int sourceOffset, int destOffset, int count)
 	{
 		if (count < 0)
 		{
@@ -365,11 +454,11 @@ public class ArrayPointer<T extends Structure> extends Memory
 			throw new ArrayIndexOutOfBoundsException(msg);
 		}
 		
-		if (sourceOffset + count > source.length)
+		if (sourceOffset + count > sourceLength)
 		{
 			String msg = String.format(
-					"sourceOffset + count must not exceed the source length: %d > %d", sourceOffset,
-					source.length);
+					"sourceOffset + count must not exceed the source length: %d > %d",
+					sourceOffset + count, sourceLength);
 			throw new ArrayIndexOutOfBoundsException(msg);
 		}
 		
@@ -382,8 +471,8 @@ public class ArrayPointer<T extends Structure> extends Memory
 		if (destOffset + count > getArraySize())
 		{
 			String msg = String.format(
-					"destOffset + count must not exceed the destination length: %d > %d", getArraySize(),
-					source.length);
+					"destOffset + count must not exceed the destination length: %d > %d",
+					destOffset + count, getArraySize());
 			throw new ArrayIndexOutOfBoundsException(msg);
 		}
 	}
@@ -453,7 +542,8 @@ public class ArrayPointer<T extends Structure> extends Memory
 	 * </p>
 	 * <p>
 	 * Element equality is tested using the elements' <code>equals()</code>
-	 * methods.
+	 * methods. Use {@link #contentEquals(ArrayPointer)} for a faster comparison of
+	 * the raw native memory.
 	 * </p>
 	 * <p>
 	 * Use {@link #shallowEquals(Object)} instead if you want to compare the
@@ -489,6 +579,38 @@ public class ArrayPointer<T extends Structure> extends Memory
 
 		return true;
 	}
+
+
+	/**
+	 * <p>
+	 * Checks whether this <code>ArrayPointer</code> has the same array size, element size
+	 * and element type as <code>other</code>, and the same bytes in native memory.
+	 * </p>
+	 * <p>
+	 * Unlike {@link #equals(Object)}, this does not create or read any element
+	 * structures. Since the raw memory is compared, any padding between fields is also
+	 * compared, so arrays whose elements are <code>equals()</code> may still differ here.
+	 * </p>
+	 * 
+	 * @param other The array to compare with.
+	 * @return <code>true</code> if the arrays have the same type, size and contents.
+	 * @since LeapJna 1.2.1
+	 */
+	public boolean contentEquals(ArrayPointer<?> other)
+	{
+		if (other == this)
+		{
+			return true;
+		}
+
+		if (other == null || other.clazz != clazz || other.elementSize != elementSize
+				|| other.arraySize != arraySize)
+		{
+			return false;
+		}
+
+		return NativeMemory.equals(this, 0, other, 0, (long)arraySize * elementSize);
+	}
 	
 	
 	/**
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.util;
+
+import java.util.Arrays;
+
+import komposten.leapjna.leapc.data.LEAP_DISTORTION_MATRIX;
+import komposten.leapjna.leapc.data.LEAP_IMAGE;
+import komposten.leapjna.leapc.events.LEAP_IMAGE_EVENT;
+
+
+/**
+ * <p>
+ * Caches the distortion matrices of each device and camera, keyed by
+ * {@link LEAP_IMAGE#matrix_version}.
+ * </p>
+ * <p>
+ * A distortion matrix only changes when its version changes, so re-reading the
+ * 64&times;64&times;2 floats for every image is wasted work. This cache keeps one
+ * <code>float[]</code> per device and camera and only reads it from native memory again
+ * when an image with a different matrix version is passed in. The array is laid out like
+ * {@link LEAP_DISTORTION_MATRIX#matrix} and is <i>shared</i>: it is updated in place when
+ * the version changes, and must not be modified by callers.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class DistortionMatrixCache
+{
+	/** The number of floats in a distortion matrix. */
+	public static final int MATRIX_LENGTH = LEAP_DISTORTION_MATRIX.LEAP_DISTORTION_MATRIX_N
+			* LEAP_DISTORTION_MATRIX.LEAP_DISTORTION_MATRIX_N * 2;
+	/** The number of cameras (and images) per device. */
+	public static final int CAMERA_COUNT = 2;
+
+	/**
+	 * Returned by {@link #getVersion(int, int)} if a matrix has not been cached. Since
+	 * <code>0</code> is also a valid matrix version, use {@link #isCached(int, int)} to
+	 * tell the two apart.
+	 */
+	public static final long NO_VERSION = 0;
+
+	private int[] deviceIds = new int[1];
+	private long[][] versions = new long[1][];
+	/** Whether a matrix has been read, since any version (including 0) is valid. */
+	private boolean[][] cached = new boolean[1][];
+	private float[][][] matrices = new float[1][][];
+	private int deviceCount;
+
+
+	/**
+	 * <p>
+	 * Returns the distortion matrix of the specified device and camera, reading it from
+	 * <code>image</code> if its {@link LEAP_IMAGE#matrix_version} differs from the cached
+	 * version.
+	 * </p>
+	 *
+	 * @param deviceId The ID of the device that produced the image (e.g.
+	 *          {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#device_id}).
+	 * @param camera The camera index: 0 for the left camera and 1 for the right one.
+	 * @param image The image.
+	 * @return The shared matrix array, or <code>null</code> if <code>image</code> has no
+	 *         distortion matrix.
+	 * @throws IndexOutOfBoundsException If <code>camera</code> is not 0 or 1.
+	 */
+	public float[] get(int deviceId, int camera, LEAP_IMAGE image)
+	{
+		checkCamera(camera);
+		if (image.distortion_matrix == null)
+		{
+			return null;
+		}
+
+		int device = indexOf(deviceId);
+		if (device < 0)
+		{
+			device = add(deviceId);
+		}
+
+		float[] matrix = matrices[device][camera];
+		if (matrix == null)
+		{
+			matrix = matrices[device][camera] = new float[MATRIX_LENGTH];
+		}
+
+		if (!cached[device][camera] || versions[device][camera] != image.matrix_version)
+		{
+			image.distortion_matrix.read(0, matrix, 0, MATRIX_LENGTH);
+			versions[device][camera] = image.matrix_version;
+			cached[device][camera] = true;
+		}
+
+		return matrix;
+	}
+
+
+	/**
+	 * Returns the distortion matrix for the specified camera of an image event. Equivalent
+	 * to <code>get(deviceId, camera, event.image[camera])</code>.
+	 *
+	 * @see #get(int, int, LEAP_IMAGE)
+	 */
+	public float[] get(int deviceId, int camera, LEAP_IMAGE_EVENT event)
+	{
+		checkCamera(camera);
+		return get(deviceId, camera, event.image[camera]);
+	}
+
+
+	/**
+	 * @return The version of the cached matrix for the specified device and camera, or
+	 *         {@link #NO_VERSION} if none has been cached.
+	 * @see #isCached(int, int)
+	 */
+	public long getVersion(int deviceId, int camera)
+	{
+		checkCamera(camera);
+		int device = indexOf(deviceId);
+		return (device < 0 ? NO_VERSION : versions[device][camera]);
+	}
+
+
+	/**
+	 * @return <code>true</code> if a matrix has been cached for the specified device and
+	 *         camera.
+	 */
+	public boolean isCached(int deviceId, int camera)
+	{
+		checkCamera(camera);
+		int device = indexOf(deviceId);
+		return (device >= 0 && cached[device][camera]);
+	}
+
+
+	/**
+	 * Removes the matrices of the specified device, e.g. after it has been lost.
+	 */
+	public void remove(int deviceId)
+	{
+		int device = indexOf(deviceId);
+		if (device < 0)
+		{
+			return;
+		}
+
+		int last = --deviceCount;
+		deviceIds[device] = deviceIds[last];
+		versions[device] = versions[last];
+		cached[device] = cached[last];
+		matrices[device] = matrices[last];
+		versions[last] = null;
+		cached[last] = null;
+		matrices[last] = null;
+	}
+
+
+	/**
+	 * Removes all cached matrices.
+	 */
+	public void clear()
+	{
+		Arrays.fill(versions, null);
+		Arrays.fill(cached, null);
+		Arrays.fill(matrices, null);
+		deviceCount = 0;
+	}
+
+
+	private int indexOf(int deviceId)
+	{
+		for (int i = 0; i < deviceCount; i++)
+		{
+			if (deviceIds[i] == deviceId)
+			{
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+
+	private int add(int deviceId)
+	{
+		if (deviceCount == deviceIds.length)
+		{
+			int capacity = deviceCount * 2;
+			deviceIds = Arrays.copyOf(deviceIds, capacity);
+			versions = Arrays.copyOf(versions, capacity);
+			cached = Arrays.copyOf(cached, capacity);
+			matrices = Arrays.copyOf(matrices, capacity);
+		}
+
+		int device = deviceCount++;
+		deviceIds[device] = deviceId;
+		versions[device] = new long[CAMERA_COUNT];
+		cached[device] = new boolean[CAMERA_COUNT];
+		matrices[device] = new float[CAMERA_COUNT][];
+		return device;
+	}
+
+
+	private static void checkCamera(int camera)
+	{
+		if (camera < 0 || camera >= CAMERA_COUNT)
+		{
+			throw new IndexOutOfBoundsException("camera must be 0 or 1: " + camera);
+		}
+	}
+}
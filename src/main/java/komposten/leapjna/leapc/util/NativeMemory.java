@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.util;
+
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+
+
+/**
+ * <p>
+ * Copies and compares blocks of native memory without staging them in Java arrays.
+ * </p>
+ * <p>
+ * On 64-bit platforms, copies are made by a direct-mapped <code>memmove</code> from the
+ * C library, which does not allocate. If it cannot be bound (e.g. on 32-bit platforms),
+ * the memory is copied through direct {@link java.nio.ByteBuffer}s instead.
+ * </p>
+ * <p>
+ * No bounds checks are made; callers must check that both ranges are valid.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class NativeMemory
+{
+	private NativeMemory()
+	{}
+
+
+	/**
+	 * Copies <code>length</code> bytes from <code>source + sourceOffset</code> to
+	 * <code>dest + destOffset</code>. The ranges may overlap.
+	 */
+	public static void copy(Pointer source, long sourceOffset, Pointer dest, long destOffset,
+			long length)
+	{
+		if (length <= 0)
+			return;
+
+		if (CLibrary.AVAILABLE)
+		{
+			CLibrary.memmove(Pointer.nativeValue(dest) + destOffset,
+					Pointer.nativeValue(source) + sourceOffset, length);
+		}
+		else
+		{
+			dest.getByteBuffer(destOffset, length)
+					.put(source.getByteBuffer(sourceOffset, length));
+		}
+	}
+
+
+	/**
+	 * @return <code>true</code> if the <code>length</code> bytes at
+	 *         <code>a + aOffset</code> equal those at <code>b + bOffset</code>.
+	 */
+	static boolean equals(Pointer a, long aOffset, Pointer b, long bOffset, long length)
+	{
+		if (length <= 0)
+			return true;
+		if (Pointer.nativeValue(a) + aOffset == Pointer.nativeValue(b) + bOffset)
+			return true;
+
+		return a.getByteBuffer(aOffset, length).equals(b.getByteBuffer(bOffset, length));
+	}
+
+
+	/**
+	 * Direct mapping of <code>memmove</code>. Addresses and sizes are passed as
+	 * <code>long</code>s to avoid allocating <code>Pointer</code>s, so the mapping is only
+	 * used where pointers and <code>size_t</code> are 64 bits wide.
+	 */
+	private static final class CLibrary
+	{
+		static final boolean AVAILABLE = register();
+
+
+		private CLibrary()
+		{}
+
+
+		private static boolean register()
+		{
+			if (Native.POINTER_SIZE != 8 || Native.SIZE_T_SIZE != 8)
+				return false;
+
+			try
+			{
+				Native.register(CLibrary.class, Platform.C_LIBRARY_NAME);
+				return true;
+			}
+			catch (UnsatisfiedLinkError e)
+			{
+				return false;
+			}
+		}
+
+
+		static native long memmove(long dest, long source, long length);
+	}
+}
@@ -9,6 +9,14 @@
  */
 package komposten.leapjna.leapc.util;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
 import com.sun.jna.Memory;
 import com.sun.jna.Native;
 
@@ -16,13 +24,26 @@ import com.sun.jna.Native;
  * <p>
  * A pointer to a memory block containing one or more values of a primitive type.
  * </p>
+ * <p>
+ * The <code>to***Array()</code> methods copy all values with a single native transfer
+ * and re-use the provided array if it is large enough, so a pointer and an array can be
+ * re-used when fetching e.g. a device transform repeatedly. Alternatively, the
+ * <code>as***Buffer()</code> methods provide NIO views that read the native memory
+ * directly.
+ * </p>
  */
 public class PrimitiveArrayPointer extends Memory
 {
 	public enum Primitive
 	{
 		INT(int.class),
-		FLOAT(float.class);
+		FLOAT(float.class),
+		/** @since LeapJna 1.2.1 */
+		DOUBLE(double.class),
+		/** @since LeapJna 1.2.1 */
+		LONG(long.class),
+		/** @since LeapJna 1.2.1 */
+		BYTE(byte.class);
 
 		private final Class<?> clazz;
 
@@ -35,6 +56,10 @@ public class PrimitiveArrayPointer extends Memory
 	private int arraySize;
 	private int elementSize;
 	private Primitive primitive;
+	/** A native-order view of the whole memory block, created when first needed. */
+	private ByteBuffer byteBuffer;
+	/** A typed view of {@link #byteBuffer}, created when first needed. */
+	private Buffer typedBuffer;
 
 	/**
 	 * <p>
@@ -79,6 +104,68 @@ public class PrimitiveArrayPointer extends Memory
 	}
 
 
+	/**
+	 * <p>
+	 * Creates an empty <code>PrimitiveArrayPointer</code> containing primitive double
+	 * values.
+	 * </p>
+	 * <p>
+	 * Use {@link #toDoubleArray(double[])} or {@link #getDoubleAt(int)} to access the array
+	 * data.
+	 * </p>
+	 * 
+	 * @param arraySize The number of elements to allocate space for.
+	 * @return A {@link PrimitiveArrayPointer} of the specified size pointing to an "empty" memory
+	 *         block.
+	 * @since LeapJna 1.2.1
+	 */
+	public static PrimitiveArrayPointer doubles(int arraySize)
+	{
+		int elementSize = Native.getNativeSize(double.class);
+		return new PrimitiveArrayPointer(Primitive.DOUBLE, elementSize, arraySize);
+	}
+
+
+	/**
+	 * <p>
+	 * Creates an empty <code>PrimitiveArrayPointer</code> containing primitive long values.
+	 * </p>
+	 * <p>
+	 * Use {@link #toLongArray(long[])} or {@link #getLongAt(int)} to access the array data.
+	 * </p>
+	 * 
+	 * @param arraySize The number of elements to allocate space for.
+	 * @return A {@link PrimitiveArrayPointer} of the specified size pointing to an "empty" memory
+	 *         block.
+	 * @since LeapJna 1.2.1
+	 */
+	public static PrimitiveArrayPointer longs(int arraySize)
+	{
+		int elementSize = Native.getNativeSize(long.class);
+		return new PrimitiveArrayPointer(Primitive.LONG, elementSize, arraySize);
+	}
+
+
+	/**
+	 * <p>
+	 * Creates an empty <code>PrimitiveArrayPointer</code> containing primitive byte values.
+	 * </p>
+	 * <p>
+	 * Use {@link #toByteArray(byte[])} or {@link #getByteAt(int)} to access the array data.
+	 * </p>
+	 * 
+	 * @param arraySize The number of elements to allocate space for.
+	 * @return A {@link PrimitiveArrayPointer} of the specified size pointing to an "empty" memory
+	 *         block.
+	 * @since LeapJna 1.2.1
+	 */
+	public static PrimitiveArrayPointer bytes(int arraySize)
+	{
+		int elementSize = Native.getNativeSize(byte.class);
+		return new PrimitiveArrayPointer(Primitive.BYTE, elementSize, arraySize);
+	}
+
+
 	public PrimitiveArrayPointer(Primitive primitive, int elementSize, int arraySize)
 	{
 		super((long)elementSize * arraySize);
@@ -87,8 +174,7 @@ public class PrimitiveArrayPointer extends Memory
 		this.arraySize = arraySize;
 
 		// Clear the memory to get rid of garbage data.
-		int memorySize = (int) size();
-		write(0, new byte[memorySize], 0, memorySize);
+		clear();
 	}
 
 
@@ -103,29 +189,47 @@ public class PrimitiveArrayPointer extends Memory
 	public int getIntAt(int index)
 	{
 		checkType(Primitive.INT);
-		
-
-		if (index < 0 || index >= arraySize)
-		{
-			throw new ArrayIndexOutOfBoundsException(index);
-		}
-		
+		checkIndex(index);
 		return getInt((long)index * elementSize);
 	}
 	
 	public float getFloatAt(int index)
 	{
 		checkType(Primitive.FLOAT);
-		
-
-		if (index < 0 || index >= arraySize)
-		{
-			throw new ArrayIndexOutOfBoundsException(index);
-		}
-		
+		checkIndex(index);
 		return getFloat((long)index * elementSize);
 	}
 	
+	/**
+	 * @since LeapJna 1.2.1
+	 */
+	public double getDoubleAt(int index)
+	{
+		checkType(Primitive.DOUBLE);
+		checkIndex(index);
+		return getDouble((long)index * elementSize);
+	}
+	
+	/**
+	 * @since LeapJna 1.2.1
+	 */
+	public long getLongAt(int index)
+	{
+		checkType(Primitive.LONG);
+		checkIndex(index);
+		return getLong((long)index * elementSize);
+	}
+	
+	/**
+	 * @since LeapJna 1.2.1
+	 */
+	public byte getByteAt(int index)
+	{
+		checkType(Primitive.BYTE);
+		checkIndex(index);
+		return getByte((long)index * elementSize);
+	}
+	
 	/**
 	 * @param array The array into which the elements of this list are to be stored, if it
 	 *          is big enough; otherwise, a new array of the same runtime type is allocated
@@ -141,11 +245,7 @@ public class PrimitiveArrayPointer extends Memory
 			array = new int[arraySize];
 		}
 		
-		for (int i = 0; i < arraySize; i++)
-		{
-			array[i] = getInt((long)i * elementSize);
-		}
-		
+		read(0, array, 0, arraySize);
 		return array;
 	}
 	
@@ -164,13 +264,174 @@ public class PrimitiveArrayPointer extends Memory
 			array = new float[arraySize];
 		}
 		
-		for (int i = 0; i < arraySize; i++)
+		read(0, array, 0, arraySize);
+		return array;
+	}
+	
+	/**
+	 * @param array The array into which the elements of this list are to be stored, if it
+	 *          is big enough; otherwise, a new array of the same runtime type is allocated
+	 *          for this purpose.
+	 * @return An array containing the data referenced by this object.
+	 * @since LeapJna 1.2.1
+	 */
+	public double[] toDoubleArray(double[] array)
+	{
+		checkType(Primitive.DOUBLE);
+		
+		if (array.length < arraySize)
+		{
+			array = new double[arraySize];
+		}
+		
+		read(0, array, 0, arraySize);
+		return array;
+	}
+	
+	/**
+	 * @param array The array into which the elements of this list are to be stored, if it
+	 *          is big enough; otherwise, a new array of the same runtime type is allocated
+	 *          for this purpose.
+	 * @return An array containing the data referenced by this object.
+	 * @since LeapJna 1.2.1
+	 */
+	public long[] toLongArray(long[] array)
+	{
+		checkType(Primitive.LONG);
+		
+		if (array.length < arraySize)
+		{
+			array = new long[arraySize];
+		}
+		
+		read(0, array, 0, arraySize);
+		return array;
+	}
+	
+	/**
+	 * @param array The array into which the elements of this list are to be stored, if it
+	 *          is big enough; otherwise, a new array of the same runtime type is allocated
+	 *          for this purpose.
+	 * @return An array containing the data referenced by this object.
+	 * @since LeapJna 1.2.1
+	 */
+	public byte[] toByteArray(byte[] array)
+	{
+		checkType(Primitive.BYTE);
+		
+		if (array.length < arraySize)
 		{
-			array[i] = getFloat((long)i * elementSize);
+			array = new byte[arraySize];
 		}
 		
+		read(0, array, 0, arraySize);
 		return array;
 	}
+	
+	/**
+	 * <p>
+	 * Returns a view of the native memory as an {@link IntBuffer}. Reads and writes through
+	 * the buffer go directly to the native memory.
+	 * </p>
+	 * <p>
+	 * The same buffer is returned on every call, with its position and limit reset to cover
+	 * the whole array.
+	 * </p>
+	 * 
+	 * @since LeapJna 1.2.1
+	 */
+	public IntBuffer asIntBuffer()
+	{
+		checkType(Primitive.INT);
+		if (typedBuffer == null)
+			typedBuffer = duplicateByteBuffer().asIntBuffer();
+		return (IntBuffer) typedBuffer.clear();
+	}
+	
+	/**
+	 * Returns a view of the native memory as a {@link FloatBuffer}.
+	 * 
+	 * @see #asIntBuffer()
+	 * @since LeapJna 1.2.1
+	 */
+	public FloatBuffer asFloatBuffer()
+	{
+		checkType(Primitive.FLOAT);
+		if (typedBuffer == null)
+			typedBuffer = duplicateByteBuffer().asFloatBuffer();
+		return (FloatBuffer) typedBuffer.clear();
+	}
+	
+	/**
+	 * Returns a view of the native memory as a {@link DoubleBuffer}.
+	 * 
+	 * @see #asIntBuffer()
+	 * @since LeapJna 1.2.1
+	 */
+	public DoubleBuffer asDoubleBuffer()
+	{
+		checkType(Primitive.DOUBLE);
+		if (typedBuffer == null)
+			typedBuffer = duplicateByteBuffer().asDoubleBuffer();
+		return (DoubleBuffer) typedBuffer.clear();
+	}
+	
+	/**
+	 * Returns a view of the native memory as a {@link LongBuffer}.
+	 * 
+	 * @see #asIntBuffer()
+	 * @since LeapJna 1.2.1
+	 */
+	public LongBuffer asLongBuffer()
+	{
+		checkType(Primitive.LONG);
+		if (typedBuffer == null)
+			typedBuffer = duplicateByteBuffer().asLongBuffer();
+		return (LongBuffer) typedBuffer.clear();
+	}
+	
+	/**
+	 * Returns a view of the native memory as a {@link ByteBuffer} in native byte order.
+	 * Unlike the other views, this is available for all primitive types. A new buffer
+	 * covering the whole array is returned on every call, so moving its position or limit
+	 * does not affect the other views.
+	 * 
+	 * @see #asIntBuffer()
+	 * @since LeapJna 1.2.1
+	 */
+	public ByteBuffer asByteBuffer()
+	{
+		return duplicateByteBuffer();
+	}
+
+
+	private ByteBuffer getByteBuffer()
+	{
+		// Memory.getByteBuffer() uses the native byte order and keeps the memory alive for
+		// as long as the buffer is reachable.
+		if (byteBuffer == null)
+			byteBuffer = getByteBuffer(0, size());
+		return byteBuffer;
+	}
+
+
+	/**
+	 * @return A new view of the whole memory block. Duplicates do not inherit the byte
+	 *         order, so it is set again.
+	 */
+	private ByteBuffer duplicateByteBuffer()
+	{
+		return getByteBuffer().duplicate().clear().order(ByteOrder.nativeOrder());
+	}
+
+
+	private void checkIndex(int index)
+	{
+		if (index < 0 || index >= arraySize)
+		{
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+	}
 
 
 	private void checkType(Primitive expected)
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.util;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+
+/**
+ * <p>
+ * A {@link Structure} that can be moved to a different block of native memory after it
+ * has been created.
+ * </p>
+ * <p>
+ * JNA only lets a structure change the memory it is backed by from within the structure
+ * itself. The structures that are re-used between LeapC calls extend this class, so that
+ * {@link Structures#useMemory(ReusableStructure, Pointer, long)} can move them without
+ * creating a new instance.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public abstract class ReusableStructure extends Structure
+{
+	protected ReusableStructure()
+	{
+		super();
+	}
+
+
+	protected ReusableStructure(int alignType)
+	{
+		super(alignType);
+	}
+
+
+	protected ReusableStructure(Pointer pointer)
+	{
+		super(pointer);
+	}
+
+
+	protected ReusableStructure(Pointer pointer, int alignType)
+	{
+		super(pointer, alignType);
+	}
+
+
+	/**
+	 * <p>
+	 * Makes this structure use the memory at <code>pointer + offset</code>. Does nothing
+	 * (and does not allocate) if the structure already uses memory at that address.
+	 * </p>
+	 * <p>
+	 * The fields of the structure are not read.
+	 * </p>
+	 * <p>
+	 * <b>Note:</b> JNA copies the contents of {@link Structure.ByValue} structures
+	 * instead of moving them, so those cannot be moved with this method.
+	 * </p>
+	 */
+	protected final void useMemoryAt(Pointer pointer, long offset)
+	{
+		if (Pointer.nativeValue(getPointer()) != Pointer.nativeValue(pointer) + offset)
+			useMemory(pointer, (int) offset);
+	}
+}
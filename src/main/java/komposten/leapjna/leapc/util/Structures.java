@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.util;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+
+/**
+ * <p>
+ * Utility methods for re-using {@link Structure} instances.
+ * </p>
+ * <p>
+ * Lets a single {@link ReusableStructure} instance be moved between the memory blocks
+ * returned by LeapC instead of creating a new instance for each.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class Structures
+{
+	private Structures()
+	{}
+
+
+	/**
+	 * <p>
+	 * Makes <code>structure</code> use the memory at <code>pointer + offset</code>. Does
+	 * nothing (and does not allocate) if the structure already uses memory at that
+	 * address.
+	 * </p>
+	 * <p>
+	 * The fields of the structure are not read.
+	 * </p>
+	 */
+	public static void useMemory(ReusableStructure structure, Pointer pointer, long offset)
+	{
+		structure.useMemoryAt(pointer, offset);
+	}
+}
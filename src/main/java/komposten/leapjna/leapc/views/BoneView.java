@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import komposten.leapjna.leapc.data.LEAP_BONE;
+
+
+/**
+ * A flyweight view of a {@link LEAP_BONE}.
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class BoneView extends StructView
+{
+	private static final long PREV_JOINT = StructLayout.offset(LEAP_BONE.class, "prev_joint");
+	private static final long NEXT_JOINT = StructLayout.offset(LEAP_BONE.class, "next_joint");
+	private static final long WIDTH = StructLayout.offset(LEAP_BONE.class, "width");
+	private static final long ROTATION = StructLayout.offset(LEAP_BONE.class, "rotation");
+
+	private final VectorView prevJoint = new VectorView();
+	private final VectorView nextJoint = new VectorView();
+	private final QuaternionView rotation = new QuaternionView();
+
+
+	BoneView()
+	{}
+
+
+	@Override
+	void wrapChildren()
+	{
+		prevJoint.wrap(pointer, offset + PREV_JOINT);
+		nextJoint.wrap(pointer, offset + NEXT_JOINT);
+		rotation.wrap(pointer, offset + ROTATION);
+	}
+
+
+	/**
+	 * @return The base of the bone, closer to the heart.
+	 */
+	public VectorView getPrevJoint()
+	{
+		return prevJoint;
+	}
+
+
+	/**
+	 * @return The end of the bone, further from the heart.
+	 */
+	public VectorView getNextJoint()
+	{
+		return nextJoint;
+	}
+
+
+	/**
+	 * @return The average width of the flesh around the bone in millimetres.
+	 */
+	public float getWidth()
+	{
+		return readFloat(WIDTH);
+	}
+
+
+	/**
+	 * @return Rotation in world space from the forward direction.
+	 */
+	public QuaternionView getRotation()
+	{
+		return rotation;
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import komposten.leapjna.leapc.data.LEAP_BONE;
+import komposten.leapjna.leapc.data.LEAP_DIGIT;
+
+
+/**
+ * A flyweight view of a {@link LEAP_DIGIT}.
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class DigitView extends StructView
+{
+	/** The number of bones in a digit. */
+	public static final int BONE_COUNT = 4;
+
+	private static final long FINGER_ID = StructLayout.offset(LEAP_DIGIT.class, "finger_id");
+	private static final long METACARPAL = StructLayout.offset(LEAP_DIGIT.class, "metacarpal");
+	private static final long IS_EXTENDED = StructLayout.offset(LEAP_DIGIT.class,
+			"is_extended");
+	private static final long BONE_SIZE = StructLayout.size(LEAP_BONE.class);
+
+	private final BoneView[] bones = new BoneView[BONE_COUNT];
+
+
+	DigitView()
+	{
+		for (int i = 0; i < bones.length; i++)
+			bones[i] = new BoneView();
+	}
+
+
+	@Override
+	void wrapChildren()
+	{
+		// The bones are stored consecutively, starting with the metacarpal.
+		for (int i = 0; i < bones.length; i++)
+			bones[i].wrap(pointer, offset + METACARPAL + i * BONE_SIZE);
+	}
+
+
+	/**
+	 * @return The Leap identifier of this finger.
+	 */
+	public int getFingerId()
+	{
+		return readInt(FINGER_ID);
+	}
+
+
+	/**
+	 * @param index The bone index: 0 (metacarpal), 1 (proximal), 2 (intermediate) or 3
+	 *          (distal).
+	 * @return A view of the bone.
+	 * @throws ArrayIndexOutOfBoundsException If the index is not in the range [0, 3].
+	 */
+	public BoneView getBone(int index)
+	{
+		return bones[index];
+	}
+
+
+	public BoneView getMetacarpal()
+	{
+		return bones[0];
+	}
+
+
+	public BoneView getProximal()
+	{
+		return bones[1];
+	}
+
+
+	public BoneView getIntermediate()
+	{
+		return bones[2];
+	}
+
+
+	public BoneView getDistal()
+	{
+		return bones[3];
+	}
+
+
+	/**
+	 * @return <code>true</code> if the finger is more or less straight.
+	 */
+	public boolean isExtended()
+	{
+		return readInt(IS_EXTENDED) != 0;
+	}
+}
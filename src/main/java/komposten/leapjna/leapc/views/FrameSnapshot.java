@@ -0,0 +1,475 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import static komposten.leapjna.leapc.views.HandFrameBuffer.CONFIDENCE;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.FRAMERATE;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.GRAB_ANGLE;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.GRAB_STRENGTH;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.HAND_WORDS;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.ID;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.JOINTS;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.JOINT_COUNT;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.N_HANDS;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.PALM;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.PINCH_DISTANCE;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.PINCH_STRENGTH;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.P_HANDS;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.TIMESTAMP;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.TRACKING_FRAME_ID;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.TYPE;
+import static komposten.leapjna.leapc.views.HandFrameBuffer.VISIBLE_TIME;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.codec.LEAP_FRAME_HEADER_Codec;
+import komposten.leapjna.leapc.codec.LEAP_HAND_Codec;
+import komposten.leapjna.leapc.codec.LEAP_PALM_Codec;
+import komposten.leapjna.leapc.codec.LEAP_TRACKING_EVENT_Codec;
+import komposten.leapjna.leapc.data.LEAP_QUATERNION;
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapHandType;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * <p>
+ * An immutable copy of a tracking frame, stored on the heap in one <code>float[]</code>
+ * and one <code>long[]</code>.
+ * </p>
+ * <p>
+ * The native memory of a tracking event is owned by LeapC and is re-used by the next
+ * call to {@link komposten.leapjna.leapc.LeapC#LeapPollConnection(Pointer, int,
+ * komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE) LeapPollConnection()}, so
+ * neither the event structure nor a view of it can safely be handed to another thread.
+ * A snapshot is copied from native memory in one pass, one bulk copy per hand, and can
+ * then be shared freely: e.g. created on the poll thread and painted on the Swing
+ * thread.
+ * </p>
+ * <p>
+ * Joints are indexed as in {@link HandFrameBuffer}; see
+ * {@link HandFrameBuffer#digitJoint(int, int)}, {@link HandFrameBuffer#PALM},
+ * {@link HandFrameBuffer#WRIST} and {@link HandFrameBuffer#ELBOW}.
+ * </p>
+ *
+ * <pre>
+ * if (message.type == eLeapEventType.Tracking.value)
+ * {
+ * 	FrameSnapshot frame = FrameSnapshot.of(message.pEvent);
+ * 	SwingUtilities.invokeLater(() -&gt; panel.setFrame(frame));
+ * }
+ * </pre>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class FrameSnapshot
+{
+	private static final long FRAME_ID = LEAP_TRACKING_EVENT_Codec.OFFSET_INFO
+			+ LEAP_FRAME_HEADER_Codec.OFFSET_FRAME_ID;
+
+	private static final int PALM_WIDTH = palmWord(LEAP_PALM_Codec.OFFSET_WIDTH);
+	private static final int PALM_VELOCITY = palmWord(LEAP_PALM_Codec.OFFSET_VELOCITY);
+	private static final int PALM_NORMAL = palmWord(LEAP_PALM_Codec.OFFSET_NORMAL);
+	private static final int PALM_DIRECTION = palmWord(LEAP_PALM_Codec.OFFSET_DIRECTION);
+	private static final int PALM_ORIENTATION = palmWord(LEAP_PALM_Codec.OFFSET_ORIENTATION);
+
+	// The layout of the long array: the frame values, followed by the values of each hand.
+	private static final int L_FRAME_ID = 0;
+	private static final int L_TRACKING_FRAME_ID = 1;
+	private static final int L_TIMESTAMP = 2;
+	private static final int FRAME_LONGS = 3;
+	private static final int L_HAND_ID = 0;
+	private static final int L_HAND_TYPE = 1;
+	private static final int L_VISIBLE_TIME = 2;
+	private static final int HAND_LONGS = 3;
+
+	// The layout of the float array, in the same way.
+	private static final int F_FRAMERATE = 0;
+	private static final int FRAME_FLOATS = 1;
+	private static final int F_CONFIDENCE = 0;
+	private static final int F_PINCH_DISTANCE = 1;
+	private static final int F_GRAB_ANGLE = 2;
+	private static final int F_PINCH_STRENGTH = 3;
+	private static final int F_GRAB_STRENGTH = 4;
+	private static final int F_PALM_WIDTH = 5;
+	private static final int F_PALM_VELOCITY = 6;
+	private static final int F_PALM_NORMAL = 9;
+	private static final int F_PALM_DIRECTION = 12;
+	/** The palm orientation, in the native order: w, x, y, z. */
+	private static final int F_PALM_ORIENTATION = 15;
+	private static final int F_JOINTS = 19;
+	private static final int HAND_FLOATS = F_JOINTS + JOINT_COUNT * 3;
+
+	/** A scratch buffer for the bulk copy of each hand. */
+	private static final ThreadLocal<int[]> HAND_BUFFER = ThreadLocal
+			.withInitial(() -> new int[HAND_WORDS]);
+
+	private final long[] longs;
+	private final float[] floats;
+
+
+	private FrameSnapshot(long[] longs, float[] floats)
+	{
+		this.longs = longs;
+		this.floats = floats;
+	}
+
+
+	/**
+	 * Copies a tracking event into a new snapshot.
+	 *
+	 * @param pEvent A pointer to a {@link LEAP_TRACKING_EVENT}, e.g.
+	 *          {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#pEvent}.
+	 * @return The snapshot.
+	 */
+	public static FrameSnapshot of(Pointer pEvent)
+	{
+		return of(pEvent, 0);
+	}
+
+
+	/**
+	 * Copies the native memory of a tracking event into a new snapshot. Only the memory is
+	 * read, so the event's fields and hands do not need to be up to date.
+	 *
+	 * @return The snapshot.
+	 */
+	public static FrameSnapshot of(LEAP_TRACKING_EVENT event)
+	{
+		return of(event.getPointer(), 0);
+	}
+
+
+	/**
+	 * Copies the tracking event a view currently points to into a new snapshot.
+	 *
+	 * @return The snapshot.
+	 */
+	public static FrameSnapshot of(TrackingFrameView frame)
+	{
+		return of(frame.pointer, frame.offset);
+	}
+
+
+	private static FrameSnapshot of(Pointer event, long offset)
+	{
+		int handCount = Math.max(event.getInt(offset + N_HANDS), 0);
+		long[] longs = new long[FRAME_LONGS + handCount * HAND_LONGS];
+		float[] floats = new float[FRAME_FLOATS + handCount * HAND_FLOATS];
+
+		longs[L_FRAME_ID] = event.getLong(offset + FRAME_ID);
+		longs[L_TRACKING_FRAME_ID] = event.getLong(offset + TRACKING_FRAME_ID);
+		longs[L_TIMESTAMP] = event.getLong(offset + TIMESTAMP);
+		floats[F_FRAMERATE] = event.getFloat(offset + FRAMERATE);
+
+		if (handCount > 0)
+		{
+			long address = (Native.POINTER_SIZE == 8 ? event.getLong(offset + P_HANDS)
+					: event.getInt(offset + P_HANDS) & 0xFFFFFFFFL);
+			Pointer hands = new Pointer(address);
+			int[] words = HAND_BUFFER.get();
+
+			for (int hand = 0; hand < handCount; hand++)
+			{
+				long handOffset = hand * (long) LEAP_HAND_Codec.SIZE;
+				hands.read(handOffset, words, 0, HAND_WORDS);
+				copyHand(words, hands.getLong(handOffset + VISIBLE_TIME), longs,
+						FRAME_LONGS + hand * HAND_LONGS, floats, FRAME_FLOATS + hand * HAND_FLOATS);
+			}
+		}
+
+		return new FrameSnapshot(longs, floats);
+	}
+
+
+	private static void copyHand(int[] words, long visibleTime, long[] longs, int l,
+			float[] floats, int f)
+	{
+		longs[l + L_HAND_ID] = words[ID];
+		longs[l + L_HAND_TYPE] = words[TYPE];
+		longs[l + L_VISIBLE_TIME] = visibleTime;
+
+		floats[f + F_CONFIDENCE] = Float.intBitsToFloat(words[CONFIDENCE]);
+		floats[f + F_PINCH_DISTANCE] = Float.intBitsToFloat(words[PINCH_DISTANCE]);
+		floats[f + F_GRAB_ANGLE] = Float.intBitsToFloat(words[GRAB_ANGLE]);
+		floats[f + F_PINCH_STRENGTH] = Float.intBitsToFloat(words[PINCH_STRENGTH]);
+		floats[f + F_GRAB_STRENGTH] = Float.intBitsToFloat(words[GRAB_STRENGTH]);
+		floats[f + F_PALM_WIDTH] = Float.intBitsToFloat(words[PALM_WIDTH]);
+		copyWords(words, PALM_VELOCITY, floats, f + F_PALM_VELOCITY, 3);
+		copyWords(words, PALM_NORMAL, floats, f + F_PALM_NORMAL, 3);
+		copyWords(words, PALM_DIRECTION, floats, f + F_PALM_DIRECTION, 3);
+		copyWords(words, PALM_ORIENTATION, floats, f + F_PALM_ORIENTATION, 4);
+
+		for (int joint = 0; joint < JOINT_COUNT; joint++)
+			copyWords(words, JOINTS[joint], floats, f + F_JOINTS + joint * 3, 3);
+	}
+
+
+	private static void copyWords(int[] words, int word, float[] floats, int index,
+			int count)
+	{
+		for (int i = 0; i < count; i++)
+			floats[index + i] = Float.intBitsToFloat(words[word + i]);
+	}
+
+
+	/** @return The word offset into a hand of the palm field at <code>offset</code>. */
+	private static int palmWord(int offset)
+	{
+		return (LEAP_HAND_Codec.OFFSET_PALM + offset) / 4;
+	}
+
+
+	private int handLongs(int hand)
+	{
+		return FRAME_LONGS + hand * HAND_LONGS;
+	}
+
+
+	private int handFloats(int hand)
+	{
+		return FRAME_FLOATS + hand * HAND_FLOATS;
+	}
+
+
+	private int joint(int hand, int joint)
+	{
+		return handFloats(hand) + F_JOINTS + joint * 3;
+	}
+
+
+	public long getFrameId()
+	{
+		return longs[L_FRAME_ID];
+	}
+
+
+	public long getTrackingFrameId()
+	{
+		return longs[L_TRACKING_FRAME_ID];
+	}
+
+
+	/**
+	 * @return The timestamp of the frame, in microseconds.
+	 */
+	public long getTimestamp()
+	{
+		return longs[L_TIMESTAMP];
+	}
+
+
+	public float getFramerate()
+	{
+		return floats[F_FRAMERATE];
+	}
+
+
+	public int getHandCount()
+	{
+		return (longs.length - FRAME_LONGS) / HAND_LONGS;
+	}
+
+
+	public int getHandId(int hand)
+	{
+		return (int) longs[handLongs(hand) + L_HAND_ID];
+	}
+
+
+	/**
+	 * @return The chirality of the hand: either 0 (left) or 1 (right).
+	 */
+	public int getHandTypeValue(int hand)
+	{
+		return (int) longs[handLongs(hand) + L_HAND_TYPE];
+	}
+
+
+	/**
+	 * @return The chirality of the hand as an {@link eLeapHandType}.
+	 */
+	public eLeapHandType getHandType(int hand)
+	{
+		return Enums.parse(getHandTypeValue(hand), eLeapHandType.Unknown);
+	}
+
+
+	/**
+	 * @return The time the hand has been tracked, in microseconds.
+	 */
+	public long getVisibleTime(int hand)
+	{
+		return longs[handLongs(hand) + L_VISIBLE_TIME];
+	}
+
+
+	public float getConfidence(int hand)
+	{
+		return floats[handFloats(hand) + F_CONFIDENCE];
+	}
+
+
+	public float getPinchDistance(int hand)
+	{
+		return floats[handFloats(hand) + F_PINCH_DISTANCE];
+	}
+
+
+	public float getGrabAngle(int hand)
+	{
+		return floats[handFloats(hand) + F_GRAB_ANGLE];
+	}
+
+
+	public float getPinchStrength(int hand)
+	{
+		return floats[handFloats(hand) + F_PINCH_STRENGTH];
+	}
+
+
+	public float getGrabStrength(int hand)
+	{
+		return floats[handFloats(hand) + F_GRAB_STRENGTH];
+	}
+
+
+	public float getPalmWidth(int hand)
+	{
+		return floats[handFloats(hand) + F_PALM_WIDTH];
+	}
+
+
+	/**
+	 * @param axis 0 (x), 1 (y) or 2 (z).
+	 */
+	public float getPalmVelocity(int hand, int axis)
+	{
+		return floats[handFloats(hand) + F_PALM_VELOCITY + axis];
+	}
+
+
+	/**
+	 * @param axis 0 (x), 1 (y) or 2 (z).
+	 */
+	public float getPalmNormal(int hand, int axis)
+	{
+		return floats[handFloats(hand) + F_PALM_NORMAL + axis];
+	}
+
+
+	/**
+	 * @param axis 0 (x), 1 (y) or 2 (z).
+	 */
+	public float getPalmDirection(int hand, int axis)
+	{
+		return floats[handFloats(hand) + F_PALM_DIRECTION + axis];
+	}
+
+
+	/**
+	 * @param component 0 (w), 1 (x), 2 (y) or 3 (z), as in
+	 *          {@link LEAP_QUATERNION}.
+	 */
+	public float getPalmOrientation(int hand, int component)
+	{
+		return floats[handFloats(hand) + F_PALM_ORIENTATION + component];
+	}
+
+
+	/**
+	 * @return The roll of the palm in radians, calculated as in
+	 *         {@link LEAP_QUATERNION#getRoll()}.
+	 */
+	public float getPalmRoll(int hand)
+	{
+		int q = handFloats(hand) + F_PALM_ORIENTATION;
+		return LEAP_QUATERNION.roll(floats[q], floats[q + 1], floats[q + 2], floats[q + 3]);
+	}
+
+
+	/**
+	 * @return The pitch of the palm in radians, calculated as in
+	 *         {@link LEAP_QUATERNION#getPitch()}.
+	 */
+	public float getPalmPitch(int hand)
+	{
+		int q = handFloats(hand) + F_PALM_ORIENTATION;
+		return LEAP_QUATERNION.pitch(floats[q], floats[q + 1], floats[q + 2], floats[q + 3]);
+	}
+
+
+	/**
+	 * @return The yaw of the palm in radians, calculated as in
+	 *         {@link LEAP_QUATERNION#getYaw()}.
+	 */
+	public float getPalmYaw(int hand)
+	{
+		int q = handFloats(hand) + F_PALM_ORIENTATION;
+		return LEAP_QUATERNION.yaw(floats[q], floats[q + 1], floats[q + 2], floats[q + 3]);
+	}
+
+
+	/**
+	 * @param joint A joint index from {@link HandFrameBuffer#digitJoint(int, int)}, or one
+	 *          of {@link HandFrameBuffer#PALM}, {@link HandFrameBuffer#WRIST} and
+	 *          {@link HandFrameBuffer#ELBOW}.
+	 */
+	public float getJointX(int hand, int joint)
+	{
+		return floats[joint(hand, joint)];
+	}
+
+
+	/**
+	 * @see #getJointX(int, int)
+	 */
+	public float getJointY(int hand, int joint)
+	{
+		return floats[joint(hand, joint) + 1];
+	}
+
+
+	/**
+	 * @see #getJointX(int, int)
+	 */
+	public float getJointZ(int hand, int joint)
+	{
+		return floats[joint(hand, joint) + 2];
+	}
+
+
+	/**
+	 * Equivalent to <code>getJointX(hand, HandFrameBuffer.PALM)</code>.
+	 */
+	public float getPalmX(int hand)
+	{
+		return getJointX(hand, PALM);
+	}
+
+
+	/**
+	 * Equivalent to <code>getJointY(hand, HandFrameBuffer.PALM)</code>.
+	 */
+	public float getPalmY(int hand)
+	{
+		return getJointY(hand, PALM);
+	}
+
+
+	/**
+	 * Equivalent to <code>getJointZ(hand, HandFrameBuffer.PALM)</code>.
+	 */
+	public float getPalmZ(int hand)
+	{
+		return getJointZ(hand, PALM);
+	}
+}
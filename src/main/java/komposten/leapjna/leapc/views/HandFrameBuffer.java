@@ -0,0 +1,494 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.codec.LEAP_BONE_Codec;
+import komposten.leapjna.leapc.codec.LEAP_DIGIT_Codec;
+import komposten.leapjna.leapc.codec.LEAP_FRAME_HEADER_Codec;
+import komposten.leapjna.leapc.codec.LEAP_HAND_Codec;
+import komposten.leapjna.leapc.codec.LEAP_PALM_Codec;
+import komposten.leapjna.leapc.codec.LEAP_TRACKING_EVENT_Codec;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * <p>
+ * Copies tracking frames into primitive arrays in a structure-of-arrays layout, so that
+ * filters and analytics can loop over joints without walking the
+ * <code>LEAP_HAND</code> object graph.
+ * </p>
+ * <p>
+ * The buffer holds up to <code>frameCapacity</code> frames with up to
+ * <code>maxHands</code> hands each. Every value is stored in a column:
+ * </p>
+ * <ul>
+ * <li>Frame columns (e.g. {@link #getTimestamps()}) are indexed by frame.</li>
+ * <li>Hand columns (e.g. {@link #getConfidences()}) are indexed by
+ * {@link #handIndex(int, int)}.</li>
+ * <li>Joint columns ({@link #getJointX()}, {@link #getJointY()} and
+ * {@link #getJointZ()}) are indexed by {@link #jointIndex(int, int, int)}. The joints of
+ * a hand are stored consecutively; see {@link #digitJoint(int, int)} for their order.</li>
+ * </ul>
+ * <p>
+ * The getters return the backing arrays, which are overwritten as frames are added.
+ * Only the first {@link #size()} frames, and in each frame the first
+ * {@link #getHandCounts() handCount} hands, hold valid data. Hands beyond
+ * <code>maxHands</code> are dropped.
+ * </p>
+ * <p>
+ * Frames are read straight from native memory, one bulk copy per hand, and adding a
+ * frame does not allocate. Buffers are not thread-safe.
+ * </p>
+ *
+ * <pre>
+ * HandFrameBuffer buffer = new HandFrameBuffer(120, 2);
+ * ...
+ * buffer.add(message.pEvent);
+ * ...
+ * float[] y = buffer.getJointY();
+ * int tip = HandFrameBuffer.digitJoint(1, 4);
+ * for (int frame = 0; frame &lt; buffer.size(); frame++)
+ * 	sum += y[buffer.jointIndex(frame, 0, tip)];
+ * </pre>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class HandFrameBuffer
+{
+	/** The number of joints per digit: the base of the metacarpal and each bone's end. */
+	public static final int JOINTS_PER_DIGIT = 5;
+	/** The joint index of the palm position. */
+	public static final int PALM = HandView.DIGIT_COUNT * JOINTS_PER_DIGIT;
+	/** The joint index of the wrist (the next joint of the arm). */
+	public static final int WRIST = PALM + 1;
+	/** The joint index of the elbow (the previous joint of the arm). */
+	public static final int ELBOW = PALM + 2;
+	/** The number of joints stored per hand. */
+	public static final int JOINT_COUNT = PALM + 3;
+
+	// These offsets are package-private so that FrameSnapshot can share them.
+	static final long TIMESTAMP = LEAP_TRACKING_EVENT_Codec.OFFSET_INFO
+			+ LEAP_FRAME_HEADER_Codec.OFFSET_TIMESTAMP;
+	static final long TRACKING_FRAME_ID = LEAP_TRACKING_EVENT_Codec.OFFSET_TRACKING_FRAME_ID;
+	static final long N_HANDS = LEAP_TRACKING_EVENT_Codec.OFFSET_NHANDS;
+	static final long P_HANDS = LEAP_TRACKING_EVENT_Codec.OFFSET_PHANDS;
+	static final long FRAMERATE = LEAP_TRACKING_EVENT_Codec.OFFSET_FRAMERATE;
+
+	// Offsets into a hand, in 32-bit words. All hand fields are 4-byte aligned.
+	static final int HAND_WORDS = LEAP_HAND_Codec.SIZE / 4;
+	static final int ID = LEAP_HAND_Codec.OFFSET_ID / 4;
+	static final int TYPE = LEAP_HAND_Codec.OFFSET_TYPE / 4;
+	static final int CONFIDENCE = LEAP_HAND_Codec.OFFSET_CONFIDENCE / 4;
+	static final long VISIBLE_TIME = LEAP_HAND_Codec.OFFSET_VISIBLE_TIME;
+	static final int PINCH_DISTANCE = LEAP_HAND_Codec.OFFSET_PINCH_DISTANCE / 4;
+	static final int GRAB_ANGLE = LEAP_HAND_Codec.OFFSET_GRAB_ANGLE / 4;
+	static final int PINCH_STRENGTH = LEAP_HAND_Codec.OFFSET_PINCH_STRENGTH / 4;
+	static final int GRAB_STRENGTH = LEAP_HAND_Codec.OFFSET_GRAB_STRENGTH / 4;
+	/** The word offset of each joint's vector; x, y and z are consecutive. */
+	static final int[] JOINTS = createJointOffsets();
+
+	private final int frameCapacity;
+	private final int maxHands;
+	private int size;
+
+	private final long[] frameIds;
+	private final long[] timestamps;
+	private final float[] framerates;
+	private final int[] handCounts;
+
+	private final int[] handIds;
+	private final int[] handTypes;
+	private final float[] confidences;
+	private final long[] visibleTimes;
+	private final float[] pinchDistances;
+	private final float[] grabAngles;
+	private final float[] pinchStrengths;
+	private final float[] grabStrengths;
+
+	private final float[] jointX;
+	private final float[] jointY;
+	private final float[] jointZ;
+
+	/** Re-pointed at the hand array of each frame, so that no Pointer is allocated. */
+	private final Pointer hands = new Pointer(0);
+	private final int[] handWords = new int[HAND_WORDS];
+
+
+	/**
+	 * @param frameCapacity The maximum number of frames in the buffer.
+	 * @param maxHands The maximum number of hands stored per frame.
+	 * @throws IllegalArgumentException If either argument is less than 1.
+	 */
+	public HandFrameBuffer(int frameCapacity, int maxHands)
+	{
+		if (frameCapacity < 1)
+			throw new IllegalArgumentException(
+					"frameCapacity must be at least 1: " + frameCapacity);
+		if (maxHands < 1)
+			throw new IllegalArgumentException("maxHands must be at least 1: " + maxHands);
+
+		this.frameCapacity = frameCapacity;
+		this.maxHands = maxHands;
+
+		frameIds = new long[frameCapacity];
+		timestamps = new long[frameCapacity];
+		framerates = new float[frameCapacity];
+		handCounts = new int[frameCapacity];
+
+		int handSlots = Math.multiplyExact(frameCapacity, maxHands);
+		handIds = new int[handSlots];
+		handTypes = new int[handSlots];
+		confidences = new float[handSlots];
+		visibleTimes = new long[handSlots];
+		pinchDistances = new float[handSlots];
+		grabAngles = new float[handSlots];
+		pinchStrengths = new float[handSlots];
+		grabStrengths = new float[handSlots];
+
+		int jointSlots = Math.multiplyExact(handSlots, JOINT_COUNT);
+		jointX = new float[jointSlots];
+		jointY = new float[jointSlots];
+		jointZ = new float[jointSlots];
+	}
+
+
+	private static int[] createJointOffsets()
+	{
+		int[] joints = new int[JOINT_COUNT];
+		int digits = LEAP_HAND_Codec.OFFSET_DIGITS;
+		int[] bones = { LEAP_DIGIT_Codec.OFFSET_METACARPAL, LEAP_DIGIT_Codec.OFFSET_PROXIMAL,
+				LEAP_DIGIT_Codec.OFFSET_INTERMEDIATE, LEAP_DIGIT_Codec.OFFSET_DISTAL };
+
+		for (int digit = 0; digit < HandView.DIGIT_COUNT; digit++)
+		{
+			int digitOffset = digits + digit * LEAP_DIGIT_Codec.SIZE;
+			joints[digitJoint(digit, 0)] = (digitOffset + bones[0]
+					+ LEAP_BONE_Codec.OFFSET_PREV_JOINT) / 4;
+
+			for (int bone = 0; bone < bones.length; bone++)
+			{
+				joints[digitJoint(digit, bone + 1)] = (digitOffset + bones[bone]
+						+ LEAP_BONE_Codec.OFFSET_NEXT_JOINT) / 4;
+			}
+		}
+
+		joints[PALM] = (LEAP_HAND_Codec.OFFSET_PALM + LEAP_PALM_Codec.OFFSET_POSITION) / 4;
+		joints[WRIST] = (LEAP_HAND_Codec.OFFSET_ARM + LEAP_BONE_Codec.OFFSET_NEXT_JOINT) / 4;
+		joints[ELBOW] = (LEAP_HAND_Codec.OFFSET_ARM + LEAP_BONE_Codec.OFFSET_PREV_JOINT) / 4;
+		return joints;
+	}
+
+
+	/**
+	 * @param digit The digit: 0 (thumb), 1 (index), 2 (middle), 3 (ring) or 4 (pinky).
+	 * @param joint The joint along the digit: 0 is the base of the metacarpal, and 1 to 4
+	 *          the ends of the metacarpal, proximal, intermediate and distal bones (so 4
+	 *          is the finger tip).
+	 * @return The index of the joint within a hand, from 0 to {@link #PALM} - 1.
+	 */
+	public static int digitJoint(int digit, int joint)
+	{
+		return digit * JOINTS_PER_DIGIT + joint;
+	}
+
+
+	/**
+	 * @return The index of a hand in the hand columns.
+	 */
+	public int handIndex(int frame, int hand)
+	{
+		return frame * maxHands + hand;
+	}
+
+
+	/**
+	 * @param joint A joint index from {@link #digitJoint(int, int)}, or one of
+	 *          {@link #PALM}, {@link #WRIST} and {@link #ELBOW}.
+	 * @return The index of a joint in the joint columns.
+	 */
+	public int jointIndex(int frame, int hand, int joint)
+	{
+		return handIndex(frame, hand) * JOINT_COUNT + joint;
+	}
+
+
+	/**
+	 * Copies a tracking event into the buffer.
+	 *
+	 * @param pEvent A pointer to a {@link LEAP_TRACKING_EVENT}, e.g.
+	 *          {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#pEvent}.
+	 * @return <code>false</code> if the buffer is full and the frame was not added.
+	 */
+	public boolean add(Pointer pEvent)
+	{
+		return add(pEvent, 0);
+	}
+
+
+	/**
+	 * Copies the native memory of a tracking event into the buffer. Only the memory is
+	 * read, so the event's fields and hands do not need to be up to date.
+	 *
+	 * @return <code>false</code> if the buffer is full and the frame was not added.
+	 */
+	public boolean add(LEAP_TRACKING_EVENT event)
+	{
+		return add(event.getPointer(), 0);
+	}
+
+
+	/**
+	 * Copies the tracking event a view currently points to into the buffer.
+	 *
+	 * @return <code>false</code> if the buffer is full and the frame was not added.
+	 */
+	public boolean add(TrackingFrameView frame)
+	{
+		return add(frame.pointer, frame.offset);
+	}
+
+
+	/**
+	 * Copies a frame from another buffer into this buffer. Hands beyond this buffer's
+	 * {@link #getMaxHands() maximum} are left out.
+	 *
+	 * @param source The buffer to copy from.
+	 * @param frame The index of the frame in <code>source</code>.
+	 * @return <code>false</code> if the buffer is full and the frame was not added.
+	 */
+	public boolean add(HandFrameBuffer source, int frame)
+	{
+		if (size == frameCapacity)
+			return false;
+
+		int target = size;
+		int handCount = Math.min(source.handCounts[frame], maxHands);
+		frameIds[target] = source.frameIds[frame];
+		timestamps[target] = source.timestamps[frame];
+		framerates[target] = source.framerates[frame];
+		handCounts[target] = handCount;
+
+		int from = source.handIndex(frame, 0);
+		int to = handIndex(target, 0);
+		System.arraycopy(source.handIds, from, handIds, to, handCount);
+		System.arraycopy(source.handTypes, from, handTypes, to, handCount);
+		System.arraycopy(source.confidences, from, confidences, to, handCount);
+		System.arraycopy(source.visibleTimes, from, visibleTimes, to, handCount);
+		System.arraycopy(source.pinchDistances, from, pinchDistances, to, handCount);
+		System.arraycopy(source.grabAngles, from, grabAngles, to, handCount);
+		System.arraycopy(source.pinchStrengths, from, pinchStrengths, to, handCount);
+		System.arraycopy(source.grabStrengths, from, grabStrengths, to, handCount);
+
+		int joints = handCount * JOINT_COUNT;
+		System.arraycopy(source.jointX, from * JOINT_COUNT, jointX, to * JOINT_COUNT, joints);
+		System.arraycopy(source.jointY, from * JOINT_COUNT, jointY, to * JOINT_COUNT, joints);
+		System.arraycopy(source.jointZ, from * JOINT_COUNT, jointZ, to * JOINT_COUNT, joints);
+
+		size++;
+		return true;
+	}
+
+
+	private boolean add(Pointer event, long offset)
+	{
+		if (size == frameCapacity)
+			return false;
+
+		int frame = size;
+		int handCount = Math.min(Math.max(event.getInt(offset + N_HANDS), 0), maxHands);
+		frameIds[frame] = event.getLong(offset + TRACKING_FRAME_ID);
+		timestamps[frame] = event.getLong(offset + TIMESTAMP);
+		framerates[frame] = event.getFloat(offset + FRAMERATE);
+		handCounts[frame] = handCount;
+
+		long address = (Native.POINTER_SIZE == 8 ? event.getLong(offset + P_HANDS)
+				: event.getInt(offset + P_HANDS) & 0xFFFFFFFFL);
+		Pointer.nativeValue(hands, address);
+
+		for (int hand = 0; hand < handCount; hand++)
+			copyHand(hand * (long) LEAP_HAND_Codec.SIZE, handIndex(frame, hand));
+
+		size++;
+		return true;
+	}
+
+
+	private void copyHand(long handOffset, int index)
+	{
+		int[] words = handWords;
+		hands.read(handOffset, words, 0, HAND_WORDS);
+
+		handIds[index] = words[ID];
+		handTypes[index] = words[TYPE];
+		confidences[index] = Float.intBitsToFloat(words[CONFIDENCE]);
+		visibleTimes[index] = hands.getLong(handOffset + VISIBLE_TIME);
+		pinchDistances[index] = Float.intBitsToFloat(words[PINCH_DISTANCE]);
+		grabAngles[index] = Float.intBitsToFloat(words[GRAB_ANGLE]);
+		pinchStrengths[index] = Float.intBitsToFloat(words[PINCH_STRENGTH]);
+		grabStrengths[index] = Float.intBitsToFloat(words[GRAB_STRENGTH]);
+
+		int jointIndex = index * JOINT_COUNT;
+		for (int joint = 0; joint < JOINT_COUNT; joint++)
+		{
+			int word = JOINTS[joint];
+			jointX[jointIndex + joint] = Float.intBitsToFloat(words[word]);
+			jointY[jointIndex + joint] = Float.intBitsToFloat(words[word + 1]);
+			jointZ[jointIndex + joint] = Float.intBitsToFloat(words[word + 2]);
+		}
+	}
+
+
+	/**
+	 * Removes all frames from the buffer. The arrays are not cleared.
+	 */
+	public void clear()
+	{
+		size = 0;
+	}
+
+
+	/**
+	 * @return The number of frames in the buffer.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * @return <code>true</code> if no more frames can be added until the buffer is
+	 *         {@link #clear() cleared}.
+	 */
+	public boolean isFull()
+	{
+		return size == frameCapacity;
+	}
+
+
+	public int getFrameCapacity()
+	{
+		return frameCapacity;
+	}
+
+
+	public int getMaxHands()
+	{
+		return maxHands;
+	}
+
+
+	/**
+	 * @return The <code>tracking_frame_id</code> of each frame.
+	 */
+	public long[] getFrameIds()
+	{
+		return frameIds;
+	}
+
+
+	/**
+	 * @return The timestamp of each frame, in microseconds.
+	 */
+	public long[] getTimestamps()
+	{
+		return timestamps;
+	}
+
+
+	public float[] getFramerates()
+	{
+		return framerates;
+	}
+
+
+	/**
+	 * @return The number of hands stored for each frame, at most {@link #getMaxHands()}.
+	 */
+	public int[] getHandCounts()
+	{
+		return handCounts;
+	}
+
+
+	public int[] getHandIds()
+	{
+		return handIds;
+	}
+
+
+	/**
+	 * @return The chirality of each hand: either 0 (left) or 1 (right).
+	 */
+	public int[] getHandTypes()
+	{
+		return handTypes;
+	}
+
+
+	public float[] getConfidences()
+	{
+		return confidences;
+	}
+
+
+	/**
+	 * @return The time each hand has been tracked, in microseconds.
+	 */
+	public long[] getVisibleTimes()
+	{
+		return visibleTimes;
+	}
+
+
+	public float[] getPinchDistances()
+	{
+		return pinchDistances;
+	}
+
+
+	public float[] getGrabAngles()
+	{
+		return grabAngles;
+	}
+
+
+	public float[] getPinchStrengths()
+	{
+		return pinchStrengths;
+	}
+
+
+	public float[] getGrabStrengths()
+	{
+		return grabStrengths;
+	}
+
+
+	public float[] getJointX()
+	{
+		return jointX;
+	}
+
+
+	public float[] getJointY()
+	{
+		return jointY;
+	}
+
+
+	public float[] getJointZ()
+	{
+		return jointZ;
+	}
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import komposten.leapjna.leapc.data.LEAP_DIGIT;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapHandType;
+
+
+/**
+ * A flyweight view of a {@link LEAP_HAND}.
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class HandView extends StructView
+{
+	/** The number of digits in a hand. */
+	public static final int DIGIT_COUNT = 5;
+
+	static final long SIZE = StructLayout.size(LEAP_HAND.class);
+
+	private static final long ID = StructLayout.offset(LEAP_HAND.class, "id");
+	private static final long FLAGS = StructLayout.offset(LEAP_HAND.class, "flags");
+	private static final long TYPE = StructLayout.offset(LEAP_HAND.class, "type");
+	private static final long CONFIDENCE = StructLayout.offset(LEAP_HAND.class, "confidence");
+	private static final long VISIBLE_TIME = StructLayout.offset(LEAP_HAND.class,
+			"visible_time");
+	private static final long PINCH_DISTANCE = StructLayout.offset(LEAP_HAND.class,
+			"pinch_distance");
+	private static final long GRAB_ANGLE = StructLayout.offset(LEAP_HAND.class, "grab_angle");
+	private static final long PINCH_STRENGTH = StructLayout.offset(LEAP_HAND.class,
+			"pinch_strength");
+	private static final long GRAB_STRENGTH = StructLayout.offset(LEAP_HAND.class,
+			"grab_strength");
+	private static final long PALM = StructLayout.offset(LEAP_HAND.class, "palm");
+	private static final long DIGITS = StructLayout.offset(LEAP_HAND.class, "digits");
+	private static final long ARM = StructLayout.offset(LEAP_HAND.class, "arm");
+	private static final long DIGIT_SIZE = StructLayout.size(LEAP_DIGIT.class);
+
+	private final PalmView palm = new PalmView();
+	private final DigitView[] digits = new DigitView[DIGIT_COUNT];
+	private final BoneView arm = new BoneView();
+
+
+	HandView()
+	{
+		for (int i = 0; i < digits.length; i++)
+			digits[i] = new DigitView();
+	}
+
+
+	@Override
+	void wrapChildren()
+	{
+		palm.wrap(pointer, offset + PALM);
+		arm.wrap(pointer, offset + ARM);
+
+		// The digits are stored consecutively, starting with the thumb.
+		for (int i = 0; i < digits.length; i++)
+			digits[i].wrap(pointer, offset + DIGITS + i * DIGIT_SIZE);
+	}
+
+
+	/**
+	 * @return A unique ID for a hand tracked across frames.
+	 */
+	public int getId()
+	{
+		return readInt(ID);
+	}
+
+
+	public int getFlags()
+	{
+		return readInt(FLAGS);
+	}
+
+
+	/**
+	 * @return The chirality of this hand as an <code>int</code>: either 0 (left) or 1
+	 *         (right).
+	 */
+	public int getTypeValue()
+	{
+		return readInt(TYPE);
+	}
+
+
+	/**
+	 * @return The chirality of this hand as an {@link eLeapHandType}.
+	 */
+	public eLeapHandType getType()
+	{
+		return Enums.parse(getTypeValue(), eLeapHandType.Unknown);
+	}
+
+
+	public float getConfidence()
+	{
+		return readFloat(CONFIDENCE);
+	}
+
+
+	/**
+	 * @return The total amount of time this hand has been tracked, in microseconds.
+	 */
+	public long getVisibleTime()
+	{
+		return readLong(VISIBLE_TIME);
+	}
+
+
+	/**
+	 * @return The distance between index finger and thumb.
+	 */
+	public float getPinchDistance()
+	{
+		return readFloat(PINCH_DISTANCE);
+	}
+
+
+	/**
+	 * @return The average angle of fingers to palm.
+	 */
+	public float getGrabAngle()
+	{
+		return readFloat(GRAB_ANGLE);
+	}
+
+
+	/**
+	 * @return The normalised estimate of the pinch pose, from 0 to 1.
+	 */
+	public float getPinchStrength()
+	{
+		return readFloat(PINCH_STRENGTH);
+	}
+
+
+	/**
+	 * @return The normalised estimate of the grab pose, from 0 to 1.
+	 */
+	public float getGrabStrength()
+	{
+		return readFloat(GRAB_STRENGTH);
+	}
+
+
+	public PalmView getPalm()
+	{
+		return palm;
+	}
+
+
+	/**
+	 * @param index The digit index: 0 (thumb), 1 (index), 2 (middle), 3 (ring) or 4
+	 *          (pinky).
+	 * @return A view of the digit.
+	 * @throws ArrayIndexOutOfBoundsException If the index is not in the range [0, 4].
+	 */
+	public DigitView getDigit(int index)
+	{
+		return digits[index];
+	}
+
+
+	public DigitView getThumb()
+	{
+		return digits[0];
+	}
+
+
+	public DigitView getIndex()
+	{
+		return digits[1];
+	}
+
+
+	public DigitView getMiddle()
+	{
+		return digits[2];
+	}
+
+
+	public DigitView getRing()
+	{
+		return digits[3];
+	}
+
+
+	public DigitView getPinky()
+	{
+		return digits[4];
+	}
+
+
+	/**
+	 * @return The arm to which this hand is attached.
+	 */
+	public BoneView getArm()
+	{
+		return arm;
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import java.nio.ByteBuffer;
+
+import komposten.leapjna.leapc.data.LEAP_IMAGE;
+import komposten.leapjna.leapc.data.LEAP_IMAGE_PROPERTIES;
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapImageFormat;
+import komposten.leapjna.leapc.enums.eLeapImageType;
+import komposten.leapjna.leapc.events.LEAP_IMAGE_EVENT;
+
+
+/**
+ * <p>
+ * An immutable copy of the images of an image event, stored on the heap.
+ * </p>
+ * <p>
+ * Like a tracking event, the image data of an image event is owned by LeapC and is
+ * re-used after the next poll. A snapshot copies the properties and pixels of both
+ * cameras so that the images can be processed or displayed on another thread.
+ * </p>
+ *
+ * @see FrameSnapshot
+ * @since LeapJna 1.2.1
+ */
+public final class ImageSnapshot
+{
+	/** The number of cameras (and images) per event. */
+	public static final int CAMERA_COUNT = 2;
+
+	private final long frameId;
+	private final long timestamp;
+	private final int[] types = new int[CAMERA_COUNT];
+	private final int[] formats = new int[CAMERA_COUNT];
+	private final int[] bpps = new int[CAMERA_COUNT];
+	private final int[] widths = new int[CAMERA_COUNT];
+	private final int[] heights = new int[CAMERA_COUNT];
+	private final byte[][] data = new byte[CAMERA_COUNT][];
+
+
+	private ImageSnapshot(LEAP_IMAGE_EVENT event)
+	{
+		frameId = event.getInfo().frame_id;
+		timestamp = event.getInfo().timestamp;
+
+		for (int camera = 0; camera < CAMERA_COUNT; camera++)
+		{
+			LEAP_IMAGE image = event.getImage(camera);
+			LEAP_IMAGE_PROPERTIES properties = image.properties;
+			types[camera] = properties.type;
+			formats[camera] = properties.format;
+			bpps[camera] = properties.bpp;
+			widths[camera] = properties.width;
+			heights[camera] = properties.height;
+			data[camera] = (image.data != null ? image.copyInto(null) : new byte[0]);
+		}
+	}
+
+
+	/**
+	 * Copies the images of an image event into a new snapshot.
+	 *
+	 * @param event An image event, e.g. from
+	 *          {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#getImageEvent()}.
+	 * @return The snapshot.
+	 */
+	public static ImageSnapshot of(LEAP_IMAGE_EVENT event)
+	{
+		return new ImageSnapshot(event);
+	}
+
+
+	/**
+	 * @return The ID of the tracking frame the images belong to.
+	 */
+	public long getFrameId()
+	{
+		return frameId;
+	}
+
+
+	/**
+	 * @return The timestamp of the images, in microseconds.
+	 */
+	public long getTimestamp()
+	{
+		return timestamp;
+	}
+
+
+	/**
+	 * @param camera The camera: <code>0</code> for left, <code>1</code> for right.
+	 * @return The image type.
+	 */
+	public eLeapImageType getType(int camera)
+	{
+		return Enums.parse(types[camera], eLeapImageType.Unknown);
+	}
+
+
+	/**
+	 * @param camera The camera: <code>0</code> for left, <code>1</code> for right.
+	 * @return The image format.
+	 */
+	public eLeapImageFormat getFormat(int camera)
+	{
+		return Enums.parse(formats[camera], eLeapImageFormat.Unknown);
+	}
+
+
+	/**
+	 * @param camera The camera: <code>0</code> for left, <code>1</code> for right.
+	 * @return The number of bytes per pixel.
+	 */
+	public int getBpp(int camera)
+	{
+		return bpps[camera];
+	}
+
+
+	/**
+	 * @param camera The camera: <code>0</code> for left, <code>1</code> for right.
+	 * @return The width of the image, in pixels.
+	 */
+	public int getWidth(int camera)
+	{
+		return widths[camera];
+	}
+
+
+	/**
+	 * @param camera The camera: <code>0</code> for left, <code>1</code> for right.
+	 * @return The height of the image, in pixels.
+	 */
+	public int getHeight(int camera)
+	{
+		return heights[camera];
+	}
+
+
+	/**
+	 * @param camera The camera: <code>0</code> for left, <code>1</code> for right.
+	 * @return The size of the image data in bytes.
+	 */
+	public int getDataSize(int camera)
+	{
+		return data[camera].length;
+	}
+
+
+	/**
+	 * @param camera The camera: <code>0</code> for left, <code>1</code> for right.
+	 * @return A read-only view of the image data.
+	 */
+	public ByteBuffer getDataBuffer(int camera)
+	{
+		return ByteBuffer.wrap(data[camera]).asReadOnlyBuffer();
+	}
+
+
+	/**
+	 * @param camera The camera: <code>0</code> for left, <code>1</code> for right.
+	 * @param dest The array to copy the image data to, if it is large enough; otherwise a
+	 *          new array is allocated. May be <code>null</code>.
+	 * @return The array containing the image data in its first
+	 *         {@link #getDataSize(int)} bytes.
+	 */
+	public byte[] copyData(int camera, byte[] dest)
+	{
+		byte[] source = data[camera];
+		if (dest == null || dest.length < source.length)
+			dest = new byte[source.length];
+
+		System.arraycopy(source, 0, dest, 0, source.length);
+		return dest;
+	}
+}
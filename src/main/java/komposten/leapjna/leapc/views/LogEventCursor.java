@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENT;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENTS;
+
+
+/**
+ * <p>
+ * A flyweight cursor over the log events of a {@link LEAP_LOG_EVENTS} (or a single
+ * {@link LEAP_LOG_EVENT}). The severity and timestamp of each event are read directly
+ * from native memory, and the message is only decoded into a <code>String</code> when
+ * {@link #getMessage()} is called. This allows filtering log events by severity without
+ * creating any objects for the events that are skipped.
+ * </p>
+ *
+ * <pre>
+ * LogEventCursor cursor = new LogEventCursor();
+ * cursor.wrap(message);
+ * while (cursor.next())
+ * {
+ *   if (cursor.getSeverity() == eLeapLogSeverity.Critical)
+ *     System.err.println(cursor.getMessage());
+ * }
+ * </pre>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class LogEventCursor extends StructView
+{
+	private static final long N_EVENTS = StructLayout.offset(LEAP_LOG_EVENTS.class,
+			"nEvents");
+	private static final long EVENTS = StructLayout.offset(LEAP_LOG_EVENTS.class, "events");
+
+	private static final long SEVERITY = StructLayout.offset(LEAP_LOG_EVENT.class,
+			"severity");
+	private static final long TIMESTAMP = StructLayout.offset(LEAP_LOG_EVENT.class,
+			"timestamp");
+	private static final long MESSAGE = StructLayout.offset(LEAP_LOG_EVENT.class, "message");
+
+	/** The size of a {@link LEAP_LOG_EVENT}. */
+	static final long SIZE = MESSAGE + Native.POINTER_SIZE;
+
+	/** Re-pointed at the event array of each wrapped event, so that no Pointer is allocated. */
+	private final Pointer events = new Pointer(0);
+	/** Re-pointed at the message of the current event. */
+	private final Pointer message = new Pointer(0);
+	private int count;
+	private int index;
+
+
+	/**
+	 * Creates a cursor that must be wrapped before it is used.
+	 */
+	public LogEventCursor()
+	{}
+
+
+	/**
+	 * Points this cursor at the log event(s) of a message. The cursor is placed before the
+	 * first event.
+	 *
+	 * @param message A message of type {@link eLeapEventType#LogEvent} or
+	 *          {@link eLeapEventType#LogEvents}.
+	 * @return This cursor.
+	 * @throws IllegalStateException If the message is of another type.
+	 */
+	public LogEventCursor wrap(LEAP_CONNECTION_MESSAGE message)
+	{
+		if (message.type == eLeapEventType.LogEvents.value)
+			return wrapEvents(message.pEvent);
+		if (message.type == eLeapEventType.LogEvent.value)
+			return wrapEvent(message.pEvent);
+
+		throw new IllegalStateException("Incorrect event type: " + message.getType()
+				+ " != " + eLeapEventType.LogEvent + " or " + eLeapEventType.LogEvents);
+	}
+
+
+	/**
+	 * Points this cursor at the events of a log events structure. The cursor is placed
+	 * before the first event.
+	 *
+	 * @param pEvents A pointer to a {@link LEAP_LOG_EVENTS}.
+	 * @return This cursor.
+	 */
+	public LogEventCursor wrapEvents(Pointer pEvents)
+	{
+		int eventCount = pEvents.getInt(N_EVENTS);
+		long address = (Native.POINTER_SIZE == 8 ? pEvents.getLong(EVENTS)
+				: pEvents.getInt(EVENTS) & 0xFFFFFFFFL);
+		Pointer.nativeValue(events, address);
+		return reset(events, (address != 0 ? eventCount : 0));
+	}
+
+
+	/**
+	 * Points this cursor at the events of an existing log events structure.
+	 *
+	 * @param events A log events structure whose native memory has been written or read.
+	 * @return This cursor.
+	 */
+	public LogEventCursor wrap(LEAP_LOG_EVENTS events)
+	{
+		return wrapEvents(events.getPointer());
+	}
+
+
+	/**
+	 * Points this cursor at a single log event. The cursor is placed before the event.
+	 *
+	 * @param pEvent A pointer to a {@link LEAP_LOG_EVENT}.
+	 * @return This cursor.
+	 */
+	public LogEventCursor wrapEvent(Pointer pEvent)
+	{
+		return reset(pEvent, 1);
+	}
+
+
+	private LogEventCursor reset(Pointer pointer, int count)
+	{
+		this.count = Math.max(count, 0);
+		this.index = -1;
+		wrap(pointer, -SIZE);
+		return this;
+	}
+
+
+	/**
+	 * Moves the cursor to the next event.
+	 *
+	 * @return <code>true</code> if the cursor is at an event, <code>false</code> if there
+	 *         are no more events.
+	 */
+	public boolean next()
+	{
+		if (index + 1 >= count)
+		{
+			index = count;
+			return false;
+		}
+
+		index++;
+		offset += SIZE;
+		return true;
+	}
+
+
+	/**
+	 * @return The number of events the cursor iterates over.
+	 */
+	public int getCount()
+	{
+		return count;
+	}
+
+
+	/**
+	 * @return The index of the current event, or -1 if {@link #next()} has not been called.
+	 */
+	public int getIndex()
+	{
+		return index;
+	}
+
+
+	/**
+	 * @return The severity of the current event as an <code>int</code>.
+	 */
+	public int getSeverityValue()
+	{
+		checkPosition();
+		return readInt(SEVERITY);
+	}
+
+
+	/**
+	 * @return The severity of the current event.
+	 */
+	public eLeapLogSeverity getSeverity()
+	{
+		return Enums.parse(getSeverityValue(), eLeapLogSeverity.Unknown);
+	}
+
+
+	/**
+	 * @return The timestamp of the current event in microseconds.
+	 */
+	public long getTimestamp()
+	{
+		checkPosition();
+		return readLong(TIMESTAMP);
+	}
+
+
+	/**
+	 * @return A pointer to the current event's null-terminated message, or
+	 *         <code>null</code> if it has no message. The same pointer object is re-pointed
+	 *         for every event.
+	 */
+	public Pointer getMessagePointer()
+	{
+		checkPosition();
+		long address = (Native.POINTER_SIZE == 8 ? readLong(MESSAGE)
+				: readInt(MESSAGE) & 0xFFFFFFFFL);
+		if (address == 0)
+			return null;
+
+		Pointer.nativeValue(message, address);
+		return message;
+	}
+
+
+	/**
+	 * @return The current event's message, decoded from native memory, or
+	 *         <code>null</code> if it has no message.
+	 */
+	public String getMessage()
+	{
+		Pointer pointer = getMessagePointer();
+		return (pointer != null ? pointer.getString(0) : null);
+	}
+
+
+	private void checkPosition()
+	{
+		if (index < 0 || index >= count)
+			throw new IllegalStateException("The cursor is not at an event");
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import komposten.leapjna.leapc.data.LEAP_PALM;
+
+
+/**
+ * A flyweight view of a {@link LEAP_PALM}.
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class PalmView extends StructView
+{
+	private static final long POSITION = StructLayout.offset(LEAP_PALM.class, "position");
+	private static final long STABILIZED_POSITION = StructLayout.offset(LEAP_PALM.class,
+			"stabilized_position");
+	private static final long VELOCITY = StructLayout.offset(LEAP_PALM.class, "velocity");
+	private static final long NORMAL = StructLayout.offset(LEAP_PALM.class, "normal");
+	private static final long WIDTH = StructLayout.offset(LEAP_PALM.class, "width");
+	private static final long DIRECTION = StructLayout.offset(LEAP_PALM.class, "direction");
+	private static final long ORIENTATION = StructLayout.offset(LEAP_PALM.class,
+			"orientation");
+
+	private final VectorView position = new VectorView();
+	private final VectorView stabilizedPosition = new VectorView();
+	private final VectorView velocity = new VectorView();
+	private final VectorView normal = new VectorView();
+	private final VectorView direction = new VectorView();
+	private final QuaternionView orientation = new QuaternionView();
+
+
+	PalmView()
+	{}
+
+
+	@Override
+	void wrapChildren()
+	{
+		position.wrap(pointer, offset + POSITION);
+		stabilizedPosition.wrap(pointer, offset + STABILIZED_POSITION);
+		velocity.wrap(pointer, offset + VELOCITY);
+		normal.wrap(pointer, offset + NORMAL);
+		direction.wrap(pointer, offset + DIRECTION);
+		orientation.wrap(pointer, offset + ORIENTATION);
+	}
+
+
+	/**
+	 * @return The centre position of the palm in millimetres from the device origin.
+	 */
+	public VectorView getPosition()
+	{
+		return position;
+	}
+
+
+	/**
+	 * @return The time-filtered and stabilised position of the palm.
+	 */
+	public VectorView getStabilizedPosition()
+	{
+		return stabilizedPosition;
+	}
+
+
+	/**
+	 * @return The rate of change of the palm position in millimetres per second.
+	 */
+	public VectorView getVelocity()
+	{
+		return velocity;
+	}
+
+
+	/**
+	 * @return The normal vector of the palm.
+	 */
+	public VectorView getNormal()
+	{
+		return normal;
+	}
+
+
+	/**
+	 * @return The estimated width of the palm when the hand is in a flat position.
+	 */
+	public float getWidth()
+	{
+		return readFloat(WIDTH);
+	}
+
+
+	/**
+	 * @return The unit direction vector pointing from the palm position towards the
+	 *         fingers.
+	 */
+	public VectorView getDirection()
+	{
+		return direction;
+	}
+
+
+	/**
+	 * @return The quaternion representing the palm's orientation.
+	 */
+	public QuaternionView getOrientation()
+	{
+		return orientation;
+	}
+}
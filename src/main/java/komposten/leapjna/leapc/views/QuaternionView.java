@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import komposten.leapjna.leapc.data.LEAP_QUATERNION;
+
+
+/**
+ * A flyweight view of a {@link LEAP_QUATERNION}.
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class QuaternionView extends StructView
+{
+	private static final long W = StructLayout.offset(LEAP_QUATERNION.class, "w");
+	private static final long X = StructLayout.offset(LEAP_QUATERNION.class, "x");
+	private static final long Y = StructLayout.offset(LEAP_QUATERNION.class, "y");
+	private static final long Z = StructLayout.offset(LEAP_QUATERNION.class, "z");
+
+
+	QuaternionView()
+	{}
+
+
+	public float getW()
+	{
+		return readFloat(W);
+	}
+
+
+	public float getX()
+	{
+		return readFloat(X);
+	}
+
+
+	public float getY()
+	{
+		return readFloat(Y);
+	}
+
+
+	public float getZ()
+	{
+		return readFloat(Z);
+	}
+}
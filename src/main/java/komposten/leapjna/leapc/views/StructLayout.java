@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+import com.sun.jna.Structure.FieldOrder;
+
+
+/**
+ * Computes field offsets of LeapJna's structures from their {@link FieldOrder}
+ * annotations. All LeapC structures are packed (<code>ALIGN_NONE</code>), so the offset
+ * of a field is the sum of the sizes of the fields before it.
+ */
+final class StructLayout
+{
+	private StructLayout()
+	{}
+
+
+	/**
+	 * @param type The structure type.
+	 * @param path The names of the fields leading to the field, e.g.
+	 *          <code>"palm", "position"</code>.
+	 * @return The offset of the field from the start of the structure, in bytes.
+	 * @throws IllegalArgumentException If a field in the path does not exist.
+	 */
+	static long offset(Class<?> type, String... path)
+	{
+		long offset = 0;
+		for (String name : path)
+		{
+			FieldOrder order = type.getAnnotation(FieldOrder.class);
+			if (order == null)
+				throw new IllegalArgumentException(type.getName() + " has no @FieldOrder");
+
+			Class<?> fieldType = null;
+			for (String field : order.value())
+			{
+				Class<?> currentType = fieldType(type, field);
+				if (field.equals(name))
+				{
+					fieldType = currentType;
+					break;
+				}
+
+				offset += size(currentType);
+			}
+
+			if (fieldType == null)
+				throw new IllegalArgumentException(type.getName() + " has no field " + name);
+			type = fieldType;
+		}
+
+		return offset;
+	}
+
+
+	/**
+	 * @return The native size of the specified type, in bytes.
+	 */
+	@SuppressWarnings("unchecked")
+	static int size(Class<?> type)
+	{
+		if (Structure.class.isAssignableFrom(type))
+			return Structure.newInstance((Class<? extends Structure>) type).size();
+		if (Pointer.class.isAssignableFrom(type))
+			return Native.POINTER_SIZE;
+		return Native.getNativeSize(type);
+	}
+
+
+	private static Class<?> fieldType(Class<?> type, String field)
+	{
+		try
+		{
+			return type.getField(field).getType();
+		}
+		catch (NoSuchFieldException e)
+		{
+			throw new IllegalArgumentException(type.getName() + " has no field " + field, e);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import com.sun.jna.Pointer;
+
+
+/**
+ * <p>
+ * Base class for the flyweight views. A view reads the fields of a native structure
+ * directly from memory each time a getter is called, instead of copying them into Java
+ * fields like {@link com.sun.jna.Structure#read()} does.
+ * </p>
+ * <p>
+ * A view is re-pointed at new memory with <code>wrap()</code>, which also re-points all
+ * of its child views. Neither wrapping nor reading allocates, so a single set of views
+ * can be used for every frame. The data read through a view is only valid as long as the
+ * underlying memory is; for events returned by
+ * {@link komposten.leapjna.leapc.LeapC#LeapPollConnection(Pointer, int, komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE)
+ * LeapPollConnection()} that is until the next poll.
+ * </p>
+ * <p>
+ * Views are not thread-safe.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public abstract class StructView
+{
+	Pointer pointer;
+	long offset;
+
+
+	StructView()
+	{}
+
+
+	void wrap(Pointer pointer, long offset)
+	{
+		this.pointer = pointer;
+		this.offset = offset;
+		wrapChildren();
+	}
+
+
+	/**
+	 * Called after the view has been re-pointed, to re-point the child views.
+	 */
+	void wrapChildren()
+	{}
+
+
+	/**
+	 * @return The memory this view reads from, or <code>null</code> if the view has not
+	 *         been wrapped yet.
+	 */
+	public Pointer getPointer()
+	{
+		return pointer;
+	}
+
+
+	/**
+	 * @return The offset of the viewed structure within {@link #getPointer()}.
+	 */
+	public long getOffset()
+	{
+		return offset;
+	}
+
+
+	int readInt(long field)
+	{
+		return pointer.getInt(offset + field);
+	}
+
+
+	long readLong(long field)
+	{
+		return pointer.getLong(offset + field);
+	}
+
+
+	float readFloat(long field)
+	{
+		return pointer.getFloat(offset + field);
+	}
+}
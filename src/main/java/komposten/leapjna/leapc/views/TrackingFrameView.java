@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import java.util.Arrays;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * <p>
+ * A flyweight view of a {@link LEAP_TRACKING_EVENT}. Unlike the structure, which reads
+ * the whole event and creates some 400 objects per hand on every read, the view reads
+ * only the fields that are accessed, straight from native memory, and allocates nothing
+ * once it has seen the largest number of hands in a frame.
+ * </p>
+ *
+ * <pre>
+ * TrackingFrameView frame = new TrackingFrameView();
+ * while (running)
+ * {
+ * 	if (leapC.LeapPollConnection(hConnection, 1000, message) == eLeapRS.Success
+ * 			&amp;&amp; message.type == eLeapEventType.Tracking.value)
+ * 	{
+ * 		frame.wrap(message.pEvent);
+ * 		for (int i = 0; i &lt; frame.getHandCount(); i++)
+ * 			draw(frame.getHand(i).getPalm().getPosition());
+ * 	}
+ * }
+ * </pre>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class TrackingFrameView extends StructView
+{
+	private static final long FRAME_ID = StructLayout.offset(LEAP_TRACKING_EVENT.class, "info",
+			"frame_id");
+	private static final long TIMESTAMP = StructLayout.offset(LEAP_TRACKING_EVENT.class,
+			"info", "timestamp");
+	private static final long TRACKING_FRAME_ID = StructLayout.offset(
+			LEAP_TRACKING_EVENT.class, "tracking_frame_id");
+	private static final long N_HANDS = StructLayout.offset(LEAP_TRACKING_EVENT.class,
+			"nHands");
+	private static final long P_HANDS = StructLayout.offset(LEAP_TRACKING_EVENT.class,
+			"pHands");
+	private static final long FRAMERATE = StructLayout.offset(LEAP_TRACKING_EVENT.class,
+			"framerate");
+
+	/** Re-pointed at the hand array of each frame, so that no Pointer is allocated. */
+	private final Pointer hands = new Pointer(0);
+	private HandView[] handViews = new HandView[0];
+
+
+	/**
+	 * Creates a view that must be {@link #wrap(Pointer) wrapped} before it is used.
+	 */
+	public TrackingFrameView()
+	{}
+
+
+	/**
+	 * Points this view at a tracking event.
+	 *
+	 * @param pEvent A pointer to a {@link LEAP_TRACKING_EVENT}, e.g.
+	 *          {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#pEvent}.
+	 * @return This view.
+	 */
+	public TrackingFrameView wrap(Pointer pEvent)
+	{
+		wrap(pEvent, 0);
+		return this;
+	}
+
+
+	/**
+	 * Points this view at the tracking event in an existing structure.
+	 *
+	 * @param event A tracking event whose native memory has been written or read.
+	 * @return This view.
+	 */
+	public TrackingFrameView wrap(LEAP_TRACKING_EVENT event)
+	{
+		return wrap(event.getPointer());
+	}
+
+
+	@Override
+	void wrapChildren()
+	{
+		int count = getHandCount();
+		long address = (Native.POINTER_SIZE == 8 ? readLong(P_HANDS) : readInt(P_HANDS));
+		Pointer.nativeValue(hands, address);
+
+		if (handViews.length < count)
+		{
+			int oldLength = handViews.length;
+			handViews = Arrays.copyOf(handViews, count);
+			for (int i = oldLength; i < count; i++)
+				handViews[i] = new HandView();
+		}
+
+		for (int i = 0; i < count; i++)
+			handViews[i].wrap(hands, i * HandView.SIZE);
+	}
+
+
+	/**
+	 * @return An identifier for this tracking frame.
+	 */
+	public long getFrameId()
+	{
+		return readLong(FRAME_ID);
+	}
+
+
+	/**
+	 * @return The timestamp of the frame, in microseconds, referenced against
+	 *         {@link komposten.leapjna.leapc.LeapC#LeapGetNow()}.
+	 */
+	public long getTimestamp()
+	{
+		return readLong(TIMESTAMP);
+	}
+
+
+	/**
+	 * @return An identifier for this tracking frame.
+	 */
+	public long getTrackingFrameId()
+	{
+		return readLong(TRACKING_FRAME_ID);
+	}
+
+
+	/**
+	 * @return The number of hands tracked in this frame.
+	 */
+	public int getHandCount()
+	{
+		return readInt(N_HANDS);
+	}
+
+
+	/**
+	 * @param index The index of the hand, from 0 to {@link #getHandCount()} - 1.
+	 * @return A view of the hand. The same view instance is returned for the same index
+	 *         on every frame.
+	 * @throws IndexOutOfBoundsException If the index is out of range.
+	 */
+	public HandView getHand(int index)
+	{
+		if (index < 0 || index >= getHandCount())
+			throw new IndexOutOfBoundsException("Hand " + index + " of " + getHandCount());
+		return handViews[index];
+	}
+
+
+	/**
+	 * @return The instantaneous framerate.
+	 */
+	public float getFramerate()
+	{
+		return readFloat(FRAMERATE);
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+
+
+/**
+ * A flyweight view of a {@link LEAP_VECTOR}.
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class VectorView extends StructView
+{
+	private static final long X = StructLayout.offset(LEAP_VECTOR.class, "x");
+	private static final long Y = StructLayout.offset(LEAP_VECTOR.class, "y");
+	private static final long Z = StructLayout.offset(LEAP_VECTOR.class, "z");
+
+
+	VectorView()
+	{}
+
+
+	public float getX()
+	{
+		return readFloat(X);
+	}
+
+
+	public float getY()
+	{
+		return readFloat(Y);
+	}
+
+
+	public float getZ()
+	{
+		return readFloat(Z);
+	}
+
+
+	/**
+	 * Copies the vector into <code>dest</code>.
+	 *
+	 * @param dest The array to copy into.
+	 * @param destOffset The index of <code>dest</code> to write <code>x</code> to.
+	 *          <code>y</code> and <code>z</code> are written to the following indices.
+	 */
+	public void copyTo(float[] dest, int destOffset)
+	{
+		pointer.read(offset + X, dest, destOffset, 3);
+	}
+}
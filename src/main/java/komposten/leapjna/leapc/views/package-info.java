@@ -0,0 +1,22 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+
+/**
+ * Provides flyweight views that read LeapC structures directly from native memory
+ * without allocating, as an alternative to the structure mappings in
+ * {@link komposten.leapjna.leapc.data} and {@link komposten.leapjna.leapc.events}.
+ * {@link komposten.leapjna.leapc.views.HandFrameBuffer} copies frames into primitive
+ * arrays in the same way, {@link komposten.leapjna.leapc.views.FrameSnapshot} copies a
+ * frame into an immutable object that can be shared between threads (as
+ * {@link komposten.leapjna.leapc.views.ImageSnapshot} does for images), and
+ * {@link komposten.leapjna.leapc.views.LogEventCursor} iterates over log events without
+ * decoding their messages.
+ */
+package komposten.leapjna.leapc.views;
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * <p>
+ * Creates the threads that event consumers run on.
+ * </p>
+ * <p>
+ * This is the Java 21 version of the class, which can run consumers on virtual threads.
+ * A consumer that waits for events (or blocks in its handler, e.g. on a socket) then
+ * unmounts from its carrier thread instead of occupying a platform thread, so hundreds
+ * of consumers can be attached to a {@link LeapEventLoop} or a
+ * {@link LeapFlowPublisher}.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class ConsumerThreads
+{
+	/**
+	 * @return <code>true</code> if the running JVM supports virtual threads (Java 21 or
+	 *         later).
+	 */
+	public static boolean isVirtualSupported()
+	{
+		return true;
+	}
+
+
+	/**
+	 * Creates an unstarted consumer thread. Platform threads are daemon threads; virtual
+	 * threads always are.
+	 *
+	 * @param name The name of the thread.
+	 * @param task The task to run.
+	 * @param virtual <code>true</code> to create a virtual thread.
+	 * @return The thread.
+	 */
+	public static Thread newThread(String name, Runnable task, boolean virtual)
+	{
+		if (virtual)
+			return Thread.ofVirtual().name(name).unstarted(task);
+
+		return Thread.ofPlatform().name(name).daemon(true).unstarted(task);
+	}
+
+
+	/**
+	 * Creates an executor for e.g. a {@link LeapFlowPublisher}, which runs each task on a
+	 * new virtual thread.
+	 *
+	 * @param name The prefix of the thread names.
+	 * @return The executor, which should be shut down when it is no longer used.
+	 */
+	public static ExecutorService newExecutor(String name)
+	{
+		return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name).factory());
+	}
+
+
+	private ConsumerThreads()
+	{}
+}
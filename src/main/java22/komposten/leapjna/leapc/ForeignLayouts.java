@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+import static java.lang.foreign.ValueLayout.ADDRESS_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_INT_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.StructLayout;
+
+
+/**
+ * <p>
+ * Memory layouts of the LeapC structs decoded by the foreign backend.
+ * </p>
+ * <p>
+ * The layouts mirror the JNA structures in {@link komposten.leapjna.leapc.data} and
+ * {@link komposten.leapjna.leapc.events}, which are packed (<code>ALIGN_NONE</code>).
+ * Field offsets are resolved once and stored as constants so that the decoding code only
+ * does plain offset reads.
+ * </p>
+ */
+final class ForeignLayouts
+{
+	static final StructLayout LEAP_VECTOR = MemoryLayout.structLayout(
+			JAVA_FLOAT_UNALIGNED.withName("x"),
+			JAVA_FLOAT_UNALIGNED.withName("y"),
+			JAVA_FLOAT_UNALIGNED.withName("z"));
+
+	static final StructLayout LEAP_QUATERNION = MemoryLayout.structLayout(
+			JAVA_FLOAT_UNALIGNED.withName("w"),
+			JAVA_FLOAT_UNALIGNED.withName("x"),
+			JAVA_FLOAT_UNALIGNED.withName("y"),
+			JAVA_FLOAT_UNALIGNED.withName("z"));
+
+	static final StructLayout LEAP_BONE = MemoryLayout.structLayout(
+			LEAP_VECTOR.withName("prev_joint"),
+			LEAP_VECTOR.withName("next_joint"),
+			JAVA_FLOAT_UNALIGNED.withName("width"),
+			LEAP_QUATERNION.withName("rotation"));
+
+	static final StructLayout LEAP_DIGIT = MemoryLayout.structLayout(
+			JAVA_INT_UNALIGNED.withName("finger_id"),
+			LEAP_BONE.withName("metacarpal"),
+			LEAP_BONE.withName("proximal"),
+			LEAP_BONE.withName("intermediate"),
+			LEAP_BONE.withName("distal"),
+			JAVA_INT_UNALIGNED.withName("is_extended"));
+
+	static final StructLayout LEAP_PALM = MemoryLayout.structLayout(
+			LEAP_VECTOR.withName("position"),
+			LEAP_VECTOR.withName("stabilized_position"),
+			LEAP_VECTOR.withName("velocity"),
+			LEAP_VECTOR.withName("normal"),
+			JAVA_FLOAT_UNALIGNED.withName("width"),
+			LEAP_VECTOR.withName("direction"),
+			LEAP_QUATERNION.withName("orientation"));
+
+	static final StructLayout LEAP_HAND = MemoryLayout.structLayout(
+			JAVA_INT_UNALIGNED.withName("id"),
+			JAVA_INT_UNALIGNED.withName("flags"),
+			JAVA_INT_UNALIGNED.withName("type"),
+			JAVA_FLOAT_UNALIGNED.withName("confidence"),
+			JAVA_LONG_UNALIGNED.withName("visible_time"),
+			JAVA_FLOAT_UNALIGNED.withName("pinch_distance"),
+			JAVA_FLOAT_UNALIGNED.withName("grab_angle"),
+			JAVA_FLOAT_UNALIGNED.withName("pinch_strength"),
+			JAVA_FLOAT_UNALIGNED.withName("grab_strength"),
+			LEAP_PALM.withName("palm"),
+			MemoryLayout.structLayout(
+					LEAP_DIGIT.withName("thumb"),
+					LEAP_DIGIT.withName("index"),
+					LEAP_DIGIT.withName("middle"),
+					LEAP_DIGIT.withName("ring"),
+					LEAP_DIGIT.withName("pinky")).withName("digits"),
+			LEAP_BONE.withName("arm"));
+
+	static final StructLayout LEAP_FRAME_HEADER = MemoryLayout.structLayout(
+			ADDRESS_UNALIGNED.withName("reserved"),
+			JAVA_LONG_UNALIGNED.withName("frame_id"),
+			JAVA_LONG_UNALIGNED.withName("timestamp"));
+
+	static final StructLayout LEAP_TRACKING_EVENT = MemoryLayout.structLayout(
+			LEAP_FRAME_HEADER.withName("info"),
+			JAVA_LONG_UNALIGNED.withName("tracking_frame_id"),
+			JAVA_INT_UNALIGNED.withName("nHands"),
+			ADDRESS_UNALIGNED.withName("pHands"),
+			JAVA_FLOAT_UNALIGNED.withName("framerate"));
+
+	static final StructLayout LEAP_CONNECTION_MESSAGE = MemoryLayout.structLayout(
+			JAVA_INT_UNALIGNED.withName("size"),
+			JAVA_INT_UNALIGNED.withName("type"),
+			ADDRESS_UNALIGNED.withName("pEvent"),
+			JAVA_INT_UNALIGNED.withName("device_id"));
+
+	// LEAP_CONNECTION_MESSAGE
+	static final long MESSAGE_SIZE = offset(LEAP_CONNECTION_MESSAGE, "size");
+	static final long MESSAGE_TYPE = offset(LEAP_CONNECTION_MESSAGE, "type");
+	static final long MESSAGE_EVENT = offset(LEAP_CONNECTION_MESSAGE, "pEvent");
+	static final long MESSAGE_DEVICE_ID = offset(LEAP_CONNECTION_MESSAGE, "device_id");
+
+	// LEAP_TRACKING_EVENT
+	static final long TRACKING_RESERVED = offset(LEAP_TRACKING_EVENT, "info", "reserved");
+	static final long TRACKING_FRAME_ID = offset(LEAP_TRACKING_EVENT, "info", "frame_id");
+	static final long TRACKING_TIMESTAMP = offset(LEAP_TRACKING_EVENT, "info", "timestamp");
+	static final long TRACKING_TRACKING_FRAME_ID = offset(LEAP_TRACKING_EVENT,
+			"tracking_frame_id");
+	static final long TRACKING_N_HANDS = offset(LEAP_TRACKING_EVENT, "nHands");
+	static final long TRACKING_P_HANDS = offset(LEAP_TRACKING_EVENT, "pHands");
+	static final long TRACKING_FRAMERATE = offset(LEAP_TRACKING_EVENT, "framerate");
+
+	// LEAP_HAND
+	static final long HAND_ID = offset(LEAP_HAND, "id");
+	static final long HAND_FLAGS = offset(LEAP_HAND, "flags");
+	static final long HAND_TYPE = offset(LEAP_HAND, "type");
+	static final long HAND_CONFIDENCE = offset(LEAP_HAND, "confidence");
+	static final long HAND_VISIBLE_TIME = offset(LEAP_HAND, "visible_time");
+	static final long HAND_PINCH_DISTANCE = offset(LEAP_HAND, "pinch_distance");
+	static final long HAND_GRAB_ANGLE = offset(LEAP_HAND, "grab_angle");
+	static final long HAND_PINCH_STRENGTH = offset(LEAP_HAND, "pinch_strength");
+	static final long HAND_GRAB_STRENGTH = offset(LEAP_HAND, "grab_strength");
+	static final long HAND_PALM = offset(LEAP_HAND, "palm");
+	static final long HAND_DIGITS = offset(LEAP_HAND, "digits");
+	static final long HAND_ARM = offset(LEAP_HAND, "arm");
+
+	// LEAP_PALM
+	static final long PALM_POSITION = offset(LEAP_PALM, "position");
+	static final long PALM_STABILIZED_POSITION = offset(LEAP_PALM, "stabilized_position");
+	static final long PALM_VELOCITY = offset(LEAP_PALM, "velocity");
+	static final long PALM_NORMAL = offset(LEAP_PALM, "normal");
+	static final long PALM_WIDTH = offset(LEAP_PALM, "width");
+	static final long PALM_DIRECTION = offset(LEAP_PALM, "direction");
+	static final long PALM_ORIENTATION = offset(LEAP_PALM, "orientation");
+
+	// LEAP_DIGIT
+	static final long DIGIT_FINGER_ID = offset(LEAP_DIGIT, "finger_id");
+	static final long DIGIT_METACARPAL = offset(LEAP_DIGIT, "metacarpal");
+	static final long DIGIT_IS_EXTENDED = offset(LEAP_DIGIT, "is_extended");
+
+	// LEAP_BONE
+	static final long BONE_PREV_JOINT = offset(LEAP_BONE, "prev_joint");
+	static final long BONE_NEXT_JOINT = offset(LEAP_BONE, "next_joint");
+	static final long BONE_WIDTH = offset(LEAP_BONE, "width");
+	static final long BONE_ROTATION = offset(LEAP_BONE, "rotation");
+
+
+	private static long offset(MemoryLayout layout, String... path)
+	{
+		PathElement[] elements = new PathElement[path.length];
+		for (int i = 0; i < path.length; i++)
+			elements[i] = groupElement(path[i]);
+
+		return layout.byteOffset(elements);
+	}
+
+
+	private ForeignLayouts()
+	{}
+}
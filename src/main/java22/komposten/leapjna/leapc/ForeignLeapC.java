@@ -0,0 +1,653 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.ADDRESS_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_INT_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandle;
+
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.LongByReference;
+
+import komposten.leapjna.leapc.data.LEAP_ALLOCATOR;
+import komposten.leapjna.leapc.data.LEAP_CLOCK_REBASER;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_CONFIG;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_INFO;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE_INFO;
+import komposten.leapjna.leapc.data.LEAP_DEVICE_REF;
+import komposten.leapjna.leapc.data.LEAP_POINT_MAPPING;
+import komposten.leapjna.leapc.data.LEAP_RECORDING;
+import komposten.leapjna.leapc.data.LEAP_RECORDING_PARAMETERS;
+import komposten.leapjna.leapc.data.LEAP_RECORDING_STATUS;
+import komposten.leapjna.leapc.data.LEAP_TELEMETRY_DATA;
+import komposten.leapjna.leapc.data.LEAP_VARIANT;
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.data.LEAP_VERSION;
+import komposten.leapjna.leapc.enums.Enums;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_HEAD_POSE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.util.ArrayPointer;
+import komposten.leapjna.leapc.util.PrimitiveArrayPointer;
+
+
+/**
+ * <p>
+ * An implementation of {@link LeapC} that calls the hot-path functions through
+ * <code>java.lang.foreign</code> downcalls and reads {@link LEAP_CONNECTION_MESSAGE}s and
+ * {@link LEAP_TRACKING_EVENT}s through {@link ForeignLayouts} instead of JNA's structure
+ * reflection. All other functions are delegated to a JNA-backed instance.
+ * </p>
+ * <p>
+ * The native functions are looked up through JNA's {@link NativeLibrary} so that the
+ * foreign backend finds LeapC in the same places as the JNA backend (e.g.
+ * <code>jna.library.path</code>).
+ * </p>
+ */
+@SuppressWarnings("deprecation")
+final class ForeignLeapC implements LeapC
+{
+	private final LeapC fallback;
+
+	private final MethodHandle pollConnection;
+	private final MethodHandle getNow;
+	private final MethodHandle getFrameSize;
+	private final MethodHandle getFrameSizeEx;
+	private final MethodHandle interpolateFrame;
+	private final MethodHandle interpolateFrameEx;
+
+
+	ForeignLeapC(LeapC fallback)
+	{
+		this.fallback = fallback;
+
+		NativeLibrary library = NativeLibrary.getInstance(LeapCConfig.getDllName());
+		Linker linker = Linker.nativeLinker();
+
+		pollConnection = downcall(linker, library, "LeapPollConnection",
+				FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, ADDRESS));
+		getNow = downcall(linker, library, "LeapGetNow", FunctionDescriptor.of(JAVA_LONG));
+		getFrameSize = downcall(linker, library, "LeapGetFrameSize",
+				FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_LONG, ADDRESS));
+		getFrameSizeEx = downcall(linker, library, "LeapGetFrameSizeEx",
+				FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_LONG, ADDRESS));
+		interpolateFrame = downcall(linker, library, "LeapInterpolateFrame",
+				FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG));
+		interpolateFrameEx = downcall(linker, library, "LeapInterpolateFrameEx",
+				FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG));
+	}
+
+
+	private static MethodHandle downcall(Linker linker, NativeLibrary library, String name,
+			FunctionDescriptor descriptor)
+	{
+		long address = Pointer.nativeValue(library.getFunction(name));
+		return linker.downcallHandle(MemorySegment.ofAddress(address), descriptor);
+	}
+
+
+	private static MemorySegment segment(Pointer pointer)
+	{
+		return pointer == null ? MemorySegment.NULL
+				: MemorySegment.ofAddress(Pointer.nativeValue(pointer));
+	}
+
+
+	private static eLeapRS result(int value)
+	{
+		return Enums.parse(value, eLeapRS.Unknown);
+	}
+
+
+	private static RuntimeException rethrow(Throwable throwable)
+	{
+		if (throwable instanceof RuntimeException)
+			return (RuntimeException) throwable;
+		if (throwable instanceof Error)
+			throw (Error) throwable;
+		return new IllegalStateException(throwable);
+	}
+
+
+	@Override
+	public eLeapRS LeapPollConnection(Pointer hConnection, int timeout,
+			LEAP_CONNECTION_MESSAGE message)
+	{
+		MemorySegment memory = segment(message.getPointer())
+				.reinterpret(ForeignLayouts.LEAP_CONNECTION_MESSAGE.byteSize());
+		memory.set(JAVA_INT_UNALIGNED, ForeignLayouts.MESSAGE_SIZE, message.size);
+		memory.set(JAVA_INT_UNALIGNED, ForeignLayouts.MESSAGE_TYPE, message.type);
+		memory.set(ADDRESS_UNALIGNED, ForeignLayouts.MESSAGE_EVENT, segment(message.pEvent));
+		memory.set(JAVA_INT_UNALIGNED, ForeignLayouts.MESSAGE_DEVICE_ID, message.device_id);
+
+		int result;
+		try
+		{
+			result = (int) pollConnection.invokeExact(segment(hConnection), timeout, memory);
+		}
+		catch (Throwable e)
+		{
+			throw rethrow(e);
+		}
+
+		long pEvent = memory.get(ADDRESS_UNALIGNED, ForeignLayouts.MESSAGE_EVENT).address();
+		message.set(memory.get(JAVA_INT_UNALIGNED, ForeignLayouts.MESSAGE_SIZE),
+				memory.get(JAVA_INT_UNALIGNED, ForeignLayouts.MESSAGE_TYPE),
+				LeapCForeign.toPointer(pEvent, message.pEvent),
+				memory.get(JAVA_INT_UNALIGNED, ForeignLayouts.MESSAGE_DEVICE_ID));
+
+		return result(result);
+	}
+
+
+	@Override
+	public long LeapGetNow()
+	{
+		try
+		{
+			return (long) getNow.invokeExact();
+		}
+		catch (Throwable e)
+		{
+			throw rethrow(e);
+		}
+	}
+
+
+	@Override
+	public eLeapRS LeapGetFrameSize(Pointer hConnection, long timestamp,
+			LongByReference pncbEvent)
+	{
+		try
+		{
+			return result((int) getFrameSize.invokeExact(segment(hConnection), timestamp,
+					segment(pncbEvent.getPointer())));
+		}
+		catch (Throwable e)
+		{
+			throw rethrow(e);
+		}
+	}
+
+
+	@Override
+	public eLeapRS LeapGetFrameSizeEx(Pointer hConnection, Pointer hDevice, long timestamp,
+			LongByReference pncbEvent)
+	{
+		try
+		{
+			return result((int) getFrameSizeEx.invokeExact(segment(hConnection),
+					segment(hDevice), timestamp, segment(pncbEvent.getPointer())));
+		}
+		catch (Throwable e)
+		{
+			throw rethrow(e);
+		}
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateFrame(Pointer hConnection, long timestamp,
+			LEAP_TRACKING_EVENT pEvent, long ncbEvent)
+	{
+		int result;
+		try
+		{
+			result = (int) interpolateFrame.invokeExact(segment(hConnection), timestamp,
+					segment(pEvent.getPointer()), ncbEvent);
+		}
+		catch (Throwable e)
+		{
+			throw rethrow(e);
+		}
+
+		LeapCForeign.readTrackingEvent(pEvent.getPointer(), pEvent);
+		return result(result);
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateFrameEx(Pointer hConnection, Pointer hDevice,
+			long timestamp, LEAP_TRACKING_EVENT pEvent, long ncbEvent)
+	{
+		int result;
+		try
+		{
+			result = (int) interpolateFrameEx.invokeExact(segment(hConnection),
+					segment(hDevice), timestamp, segment(pEvent.getPointer()), ncbEvent);
+		}
+		catch (Throwable e)
+		{
+			throw rethrow(e);
+		}
+
+		LeapCForeign.readTrackingEvent(pEvent.getPointer(), pEvent);
+		return result(result);
+	}
+
+
+	@Override
+	public eLeapRS LeapCreateConnection(LEAP_CONNECTION_CONFIG pConfig,
+			LEAP_CONNECTION phConnection)
+	{
+		return fallback.LeapCreateConnection(pConfig, phConnection);
+	}
+
+
+	@Override
+	public void LeapDestroyConnection(Pointer hConnection)
+	{
+		fallback.LeapDestroyConnection(hConnection);
+	}
+
+
+	@Override
+	public eLeapRS LeapOpenConnection(Pointer hConnection)
+	{
+		return fallback.LeapOpenConnection(hConnection);
+	}
+
+
+	@Override
+	public void LeapCloseConnection(Pointer hConnection)
+	{
+		fallback.LeapCloseConnection(hConnection);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetConnectionInfo(Pointer hConnection, LEAP_CONNECTION_INFO pInfo)
+	{
+		return fallback.LeapGetConnectionInfo(hConnection, pInfo);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetDeviceList(Pointer hConnection,
+			ArrayPointer<LEAP_DEVICE_REF> pArray, IntByReference pnArray)
+	{
+		return fallback.LeapGetDeviceList(hConnection, pArray, pnArray);
+	}
+
+
+	@Override
+	public eLeapRS LeapOpenDevice(LEAP_DEVICE_REF rDevice, LEAP_DEVICE phDevice)
+	{
+		return fallback.LeapOpenDevice(rDevice, phDevice);
+	}
+
+
+	@Override
+	public void LeapCloseDevice(Pointer hDevice)
+	{
+		fallback.LeapCloseDevice(hDevice);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetPrimaryDevice(Pointer hConnection, Pointer hDevice,
+			int unsubscribeOthers)
+	{
+		return fallback.LeapSetPrimaryDevice(hConnection, hDevice, unsubscribeOthers);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetDeviceInfo(Pointer hDevice, LEAP_DEVICE_INFO info)
+	{
+		return fallback.LeapGetDeviceInfo(hDevice, info);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetDeviceTransform(Pointer hDevice, PrimitiveArrayPointer transform)
+	{
+		return fallback.LeapGetDeviceTransform(hDevice, transform);
+	}
+
+
+	@Override
+	public String LeapDevicePIDToString(int pid)
+	{
+		return fallback.LeapDevicePIDToString(pid);
+	}
+
+
+	@Override
+	public eLeapRS LeapSubscribeEvents(Pointer hConnection, Pointer hDevice)
+	{
+		return fallback.LeapSubscribeEvents(hConnection, hDevice);
+	}
+
+
+	@Override
+	public eLeapRS LeapUnsubscribeEvents(Pointer hConnection, Pointer hDevice)
+	{
+		return fallback.LeapUnsubscribeEvents(hConnection, hDevice);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetVersion(Pointer hConnection, int versionPart,
+			LEAP_VERSION pVersion)
+	{
+		return fallback.LeapGetVersion(hConnection, versionPart, pVersion);
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateFrameFromTime(Pointer hConnection, long timestamp,
+			long sourceTimestamp, LEAP_TRACKING_EVENT pEvent, long ncbEvent)
+	{
+		return fallback.LeapInterpolateFrameFromTime(hConnection, timestamp, sourceTimestamp,
+				pEvent, ncbEvent);
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateFrameFromTimeEx(Pointer hConnection, Pointer hDevice,
+			long timestamp, long sourceTimestamp, LEAP_TRACKING_EVENT pEvent, long ncbEvent)
+	{
+		return fallback.LeapInterpolateFrameFromTimeEx(hConnection, hDevice, timestamp,
+				sourceTimestamp, pEvent, ncbEvent);
+	}
+
+
+	@Override
+	public eLeapRS LeapInterpolateHeadPose(Pointer hConnection, long timestamp,
+			LEAP_HEAD_POSE_EVENT pEvent)
+	{
+		return fallback.LeapInterpolateHeadPose(hConnection, timestamp, pEvent);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetPolicyFlags(Pointer hConnection, long set, long clear)
+	{
+		return fallback.LeapSetPolicyFlags(hConnection, set, clear);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetPolicyFlagsEx(Pointer hConnection, Pointer hDevice, long set,
+			long clear)
+	{
+		return fallback.LeapSetPolicyFlagsEx(hConnection, hDevice, set, clear);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetTrackingMode(Pointer hConnection, int mode)
+	{
+		return fallback.LeapSetTrackingMode(hConnection, mode);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetTrackingModeEx(Pointer hConnection, Pointer hDevice, int mode)
+	{
+		return fallback.LeapSetTrackingModeEx(hConnection, hDevice, mode);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetTrackingMode(Pointer hConnection)
+	{
+		return fallback.LeapGetTrackingMode(hConnection);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetTrackingModeEx(Pointer hConnection, Pointer hDevice)
+	{
+		return fallback.LeapGetTrackingModeEx(hConnection, hDevice);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetPause(Pointer hConnection, int pause)
+	{
+		return fallback.LeapSetPause(hConnection, pause);
+	}
+
+
+	@Override
+	public eLeapRS LeapRequestConfigValue(Pointer hConnection, String key,
+			LongByReference pRequestID)
+	{
+		return fallback.LeapRequestConfigValue(hConnection, key, pRequestID);
+	}
+
+
+	@Override
+	public eLeapRS LeapSaveConfigValue(Pointer hConnection, String key, LEAP_VARIANT value,
+			LongByReference pRequestID)
+	{
+		return fallback.LeapSaveConfigValue(hConnection, key, value, pRequestID);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetPointMappingSize(Pointer hConnection, LongByReference pSize)
+	{
+		return fallback.LeapGetPointMappingSize(hConnection, pSize);
+	}
+
+
+	@Override
+	public eLeapRS LeapGetPointMapping(Pointer hConnection, LEAP_POINT_MAPPING pointMapping,
+			LongByReference pSize)
+	{
+		return fallback.LeapGetPointMapping(hConnection, pointMapping, pSize);
+	}
+
+
+	@Override
+	public eLeapRS LeapSetAllocator(Pointer hConnection, LEAP_ALLOCATOR allocator)
+	{
+		return fallback.LeapSetAllocator(hConnection, allocator);
+	}
+
+
+	@Override
+	public eLeapRS LeapCreateClockRebaser(LEAP_CLOCK_REBASER phClockRebaser)
+	{
+		return fallback.LeapCreateClockRebaser(phClockRebaser);
+	}
+
+
+	@Override
+	public void LeapDestroyClockRebaser(Pointer hClockRebaser)
+	{
+		fallback.LeapDestroyClockRebaser(hClockRebaser);
+	}
+
+
+	@Override
+	public eLeapRS LeapRebaseClock(Pointer hClockRebaser, long userClock,
+			LongByReference pLeapClock)
+	{
+		return fallback.LeapRebaseClock(hClockRebaser, userClock, pLeapClock);
+	}
+
+
+	@Override
+	public eLeapRS LeapUpdateRebase(Pointer hClockRebaser, long userClock, long leapClock)
+	{
+		return fallback.LeapUpdateRebase(hClockRebaser, userClock, leapClock);
+	}
+
+
+	@Override
+	public LEAP_VECTOR.ByValue LeapPixelToRectilinear(Pointer hConnection, int camera,
+			LEAP_VECTOR.ByValue pixel)
+	{
+		return fallback.LeapPixelToRectilinear(hConnection, camera, pixel);
+	}
+
+
+	@Override
+	public LEAP_VECTOR.ByValue LeapPixelToRectilinearEx(Pointer hConnection, Pointer hDevice,
+			int camera, LEAP_VECTOR.ByValue pixel)
+	{
+		return fallback.LeapPixelToRectilinearEx(hConnection, hDevice, camera, pixel);
+	}
+
+
+	@Override
+	public LEAP_VECTOR.ByValue LeapRectilinearToPixel(Pointer hConnection, int camera,
+			LEAP_VECTOR.ByValue rectilinear)
+	{
+		return fallback.LeapRectilinearToPixel(hConnection, camera, rectilinear);
+	}
+
+
+	@Override
+	public LEAP_VECTOR.ByValue LeapRectilinearToPixelEx(Pointer hConnection, Pointer hDevice,
+			int camera, LEAP_VECTOR.ByValue rectilinear)
+	{
+		return fallback.LeapRectilinearToPixelEx(hConnection, hDevice, camera, rectilinear);
+	}
+
+
+	@Override
+	public void LeapCameraMatrix(Pointer hConnection, int camera, PrimitiveArrayPointer dest)
+	{
+		fallback.LeapCameraMatrix(hConnection, camera, dest);
+	}
+
+
+	@Override
+	public void LeapCameraMatrixEx(Pointer hConnection, Pointer hDevice, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		fallback.LeapCameraMatrixEx(hConnection, hDevice, camera, dest);
+	}
+
+
+	@Override
+	public void LeapExtrinsicCameraMatrix(Pointer hConnection, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		fallback.LeapExtrinsicCameraMatrix(hConnection, camera, dest);
+	}
+
+
+	@Override
+	public void LeapExtrinsicCameraMatrixEx(Pointer hConnection, Pointer hDevice, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		fallback.LeapExtrinsicCameraMatrixEx(hConnection, hDevice, camera, dest);
+	}
+
+
+	@Override
+	public void LeapDistortionCoeffs(Pointer hConnection, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		fallback.LeapDistortionCoeffs(hConnection, camera, dest);
+	}
+
+
+	@Override
+	public void LeapDistortionCoeffsEx(Pointer hConnection, Pointer hDevice, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		fallback.LeapDistortionCoeffsEx(hConnection, hDevice, camera, dest);
+	}
+
+
+	@Override
+	public void LeapScaleOffsetMatrix(Pointer hConnection, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		fallback.LeapScaleOffsetMatrix(hConnection, camera, dest);
+	}
+
+
+	@Override
+	public void LeapScaleOffsetMatrixEx(Pointer hConnection, Pointer hDevice, int camera,
+			PrimitiveArrayPointer dest)
+	{
+		fallback.LeapScaleOffsetMatrixEx(hConnection, hDevice, camera, dest);
+	}
+
+
+	@Override
+	public eLeapRS LeapTelemetryProfiling(Pointer hConnection,
+			LEAP_TELEMETRY_DATA telemetryData)
+	{
+		return fallback.LeapTelemetryProfiling(hConnection, telemetryData);
+	}
+
+
+	@Override
+	public long LeapTelemetryGetNow()
+	{
+		return fallback.LeapTelemetryGetNow();
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingOpen(LEAP_RECORDING ppRecording, String filePath,
+			LEAP_RECORDING_PARAMETERS params)
+	{
+		return fallback.LeapRecordingOpen(ppRecording, filePath, params);
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingWrite(Pointer pRecording, LEAP_TRACKING_EVENT pEvent,
+			LongByReference pnBytesWritten)
+	{
+		return fallback.LeapRecordingWrite(pRecording, pEvent, pnBytesWritten);
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingGetStatus(Pointer pRecording, LEAP_RECORDING_STATUS pStatus)
+	{
+		return fallback.LeapRecordingGetStatus(pRecording, pStatus);
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingRead(Pointer pRecording, LEAP_TRACKING_EVENT pEvent,
+			long ncbEvent)
+	{
+		return fallback.LeapRecordingRead(pRecording, pEvent, ncbEvent);
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingReadSize(Pointer pRecording, LongByReference pncbEvent)
+	{
+		return fallback.LeapRecordingReadSize(pRecording, pncbEvent);
+	}
+
+
+	@Override
+	public eLeapRS LeapRecordingClose(LEAP_RECORDING ppRecording)
+	{
+		return fallback.LeapRecordingClose(ppRecording);
+	}
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import static java.lang.foreign.ValueLayout.ADDRESS_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_INT_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+
+import java.lang.foreign.MemorySegment;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_BONE;
+import komposten.leapjna.leapc.data.LEAP_DIGIT;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.data.LEAP_PALM;
+import komposten.leapjna.leapc.data.LEAP_QUATERNION;
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * <p>
+ * Entry point for the <code>java.lang.foreign</code> (FFM) backend of LeapJna.
+ * </p>
+ * <p>
+ * This is the Java 22 version of the class, which calls LeapC through
+ * {@link java.lang.foreign.Linker} downcalls and reads structs through
+ * {@link java.lang.foreign.MemoryLayout}s instead of JNA's
+ * {@link com.sun.jna.Structure} reflection.
+ * </p>
+ * <p>
+ * Set the system property <code>leapjna.backend=foreign</code> to back
+ * {@link LeapC#INSTANCE} by the foreign backend.
+ * </p>
+ *
+ * @since LeapJna 1.2.1
+ */
+public final class LeapCForeign
+{
+	/**
+	 * @return <code>true</code> if the running JVM supports the foreign backend (Java 22 or
+	 *         later).
+	 */
+	public static boolean isSupported()
+	{
+		return true;
+	}
+
+
+	/**
+	 * Creates a foreign-backed implementation of {@link LeapC}. Functions not implemented
+	 * by the foreign backend are delegated to <code>fallback</code>.
+	 */
+	static LeapC create(LeapC fallback)
+	{
+		return new ForeignLeapC(fallback);
+	}
+
+
+	/**
+	 * <p>
+	 * Reads a tracking event from native memory.
+	 * </p>
+	 * <p>
+	 * The event is decoded using memory layouts into <code>reuse</code>. If the hand count
+	 * is the same as in the previous frame decoded into <code>reuse</code>, its existing
+	 * {@link LEAP_HAND} objects are also reused, so that polling at tracking rate does not
+	 * allocate new structures. Note that the hands' Java fields are populated directly; their
+	 * {@link LEAP_HAND#getPointer() native memory} is <em>not</em> the memory of the
+	 * frame.
+	 * </p>
+	 *
+	 * @param pEvent A pointer to a <code>LEAP_TRACKING_EVENT</code>, e.g.
+	 *          {@link komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE#pEvent}.
+	 * @param reuse An event to decode into, or <code>null</code> to create a new one.
+	 * @return The decoded event.
+	 */
+	public static LEAP_TRACKING_EVENT readTrackingEvent(Pointer pEvent,
+			LEAP_TRACKING_EVENT reuse)
+	{
+		LEAP_TRACKING_EVENT event = (reuse != null ? reuse : new LEAP_TRACKING_EVENT());
+		MemorySegment memory = MemorySegment.ofAddress(Pointer.nativeValue(pEvent))
+				.reinterpret(ForeignLayouts.LEAP_TRACKING_EVENT.byteSize());
+
+		long reserved = memory.get(ADDRESS_UNALIGNED, ForeignLayouts.TRACKING_RESERVED)
+				.address();
+		event.info.reserved = toPointer(reserved, event.info.reserved);
+		event.info.frame_id = memory.get(JAVA_LONG_UNALIGNED, ForeignLayouts.TRACKING_FRAME_ID);
+		event.info.timestamp = memory.get(JAVA_LONG_UNALIGNED,
+				ForeignLayouts.TRACKING_TIMESTAMP);
+		event.tracking_frame_id = memory.get(JAVA_LONG_UNALIGNED,
+				ForeignLayouts.TRACKING_TRACKING_FRAME_ID);
+		event.nHands = memory.get(JAVA_INT_UNALIGNED, ForeignLayouts.TRACKING_N_HANDS);
+		event.framerate = memory.get(JAVA_FLOAT_UNALIGNED, ForeignLayouts.TRACKING_FRAMERATE);
+
+		long pHands = memory.get(ADDRESS_UNALIGNED, ForeignLayouts.TRACKING_P_HANDS).address();
+		event.pHands = toPointer(pHands, event.pHands);
+
+		LEAP_HAND[] hands = event.getHands();
+		if (hands == null || hands.length != event.nHands)
+		{
+			hands = new LEAP_HAND[event.nHands];
+			for (int i = 0; i < hands.length; i++)
+				hands[i] = new LEAP_HAND();
+			event.setHands(hands);
+		}
+
+		if (event.nHands > 0)
+		{
+			long handSize = ForeignLayouts.LEAP_HAND.byteSize();
+			MemorySegment handMemory = MemorySegment.ofAddress(pHands)
+					.reinterpret(handSize * event.nHands);
+
+			for (int i = 0; i < hands.length; i++)
+				readHand(handMemory, i * handSize, hands[i]);
+		}
+
+		return event;
+	}
+
+
+	/**
+	 * Returns <code>current</code> if it points to <code>address</code>, otherwise a new
+	 * pointer to the address. Avoids allocating a new {@link Pointer} for every frame when
+	 * LeapC re-uses the same memory.
+	 */
+	static Pointer toPointer(long address, Pointer current)
+	{
+		if (address == 0)
+			return null;
+		if (current != null && Pointer.nativeValue(current) == address)
+			return current;
+		return new Pointer(address);
+	}
+
+
+	private static void readHand(MemorySegment memory, long offset, LEAP_HAND hand)
+	{
+		hand.id = memory.get(JAVA_INT_UNALIGNED, offset + ForeignLayouts.HAND_ID);
+		hand.flags = memory.get(JAVA_INT_UNALIGNED, offset + ForeignLayouts.HAND_FLAGS);
+		hand.type = memory.get(JAVA_INT_UNALIGNED, offset + ForeignLayouts.HAND_TYPE);
+		hand.confidence = memory.get(JAVA_FLOAT_UNALIGNED,
+				offset + ForeignLayouts.HAND_CONFIDENCE);
+		hand.visible_time = memory.get(JAVA_LONG_UNALIGNED,
+				offset + ForeignLayouts.HAND_VISIBLE_TIME);
+		hand.pinch_distance = memory.get(JAVA_FLOAT_UNALIGNED,
+				offset + ForeignLayouts.HAND_PINCH_DISTANCE);
+		hand.grab_angle = memory.get(JAVA_FLOAT_UNALIGNED,
+				offset + ForeignLayouts.HAND_GRAB_ANGLE);
+		hand.pinch_strength = memory.get(JAVA_FLOAT_UNALIGNED,
+				offset + ForeignLayouts.HAND_PINCH_STRENGTH);
+		hand.grab_strength = memory.get(JAVA_FLOAT_UNALIGNED,
+				offset + ForeignLayouts.HAND_GRAB_STRENGTH);
+
+		readPalm(memory, offset + ForeignLayouts.HAND_PALM, hand.palm);
+
+		long digitOffset = offset + ForeignLayouts.HAND_DIGITS;
+		long digitSize = ForeignLayouts.LEAP_DIGIT.byteSize();
+		readDigit(memory, digitOffset, hand.digits.thumb);
+		readDigit(memory, digitOffset + digitSize, hand.digits.index);
+		readDigit(memory, digitOffset + 2 * digitSize, hand.digits.middle);
+		readDigit(memory, digitOffset + 3 * digitSize, hand.digits.ring);
+		readDigit(memory, digitOffset + 4 * digitSize, hand.digits.pinky);
+
+		readBone(memory, offset + ForeignLayouts.HAND_ARM, hand.arm);
+	}
+
+
+	private static void readPalm(MemorySegment memory, long offset, LEAP_PALM palm)
+	{
+		readVector(memory, offset + ForeignLayouts.PALM_POSITION, palm.position);
+		readVector(memory, offset + ForeignLayouts.PALM_STABILIZED_POSITION,
+				palm.stabilized_position);
+		readVector(memory, offset + ForeignLayouts.PALM_VELOCITY, palm.velocity);
+		readVector(memory, offset + ForeignLayouts.PALM_NORMAL, palm.normal);
+		palm.width = memory.get(JAVA_FLOAT_UNALIGNED, offset + ForeignLayouts.PALM_WIDTH);
+		readVector(memory, offset + ForeignLayouts.PALM_DIRECTION, palm.direction);
+		readQuaternion(memory, offset + ForeignLayouts.PALM_ORIENTATION, palm.orientation);
+	}
+
+
+	private static void readDigit(MemorySegment memory, long offset, LEAP_DIGIT digit)
+	{
+		digit.finger_id = memory.get(JAVA_INT_UNALIGNED,
+				offset + ForeignLayouts.DIGIT_FINGER_ID);
+
+		long boneOffset = offset + ForeignLayouts.DIGIT_METACARPAL;
+		long boneSize = ForeignLayouts.LEAP_BONE.byteSize();
+		readBone(memory, boneOffset, digit.metacarpal);
+		readBone(memory, boneOffset + boneSize, digit.proximal);
+		readBone(memory, boneOffset + 2 * boneSize, digit.intermediate);
+		readBone(memory, boneOffset + 3 * boneSize, digit.distal);
+
+		digit.is_extended = memory.get(JAVA_INT_UNALIGNED,
+				offset + ForeignLayouts.DIGIT_IS_EXTENDED);
+	}
+
+
+	private static void readBone(MemorySegment memory, long offset, LEAP_BONE bone)
+	{
+		readVector(memory, offset + ForeignLayouts.BONE_PREV_JOINT, bone.prev_joint);
+		readVector(memory, offset + ForeignLayouts.BONE_NEXT_JOINT, bone.next_joint);
+		bone.width = memory.get(JAVA_FLOAT_UNALIGNED, offset + ForeignLayouts.BONE_WIDTH);
+		readQuaternion(memory, offset + ForeignLayouts.BONE_ROTATION, bone.rotation);
+	}
+
+
+	private static void readVector(MemorySegment memory, long offset, LEAP_VECTOR vector)
+	{
+		vector.x = memory.get(JAVA_FLOAT_UNALIGNED, offset);
+		vector.y = memory.get(JAVA_FLOAT_UNALIGNED, offset + Float.BYTES);
+		vector.z = memory.get(JAVA_FLOAT_UNALIGNED, offset + 2 * Float.BYTES);
+	}
+
+
+	private static void readQuaternion(MemorySegment memory, long offset,
+			LEAP_QUATERNION quaternion)
+	{
+		quaternion.w = memory.get(JAVA_FLOAT_UNALIGNED, offset);
+		quaternion.x = memory.get(JAVA_FLOAT_UNALIGNED, offset + Float.BYTES);
+		quaternion.y = memory.get(JAVA_FLOAT_UNALIGNED, offset + 2 * Float.BYTES);
+		quaternion.z = memory.get(JAVA_FLOAT_UNALIGNED, offset + 3 * Float.BYTES);
+	}
+
+
+	private LeapCForeign()
+	{}
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.processor;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+
+
+/**
+ * Writes the source code of a structure codec. The offsets are written as a chain of
+ * constants, each defined as the previous offset plus the size of the previous field,
+ * so that pointer sizes and nested structure sizes can be resolved when the codec is
+ * loaded.
+ */
+class CodecWriter
+{
+	enum FieldType
+	{
+		BYTE("Byte", "1"),
+		SHORT("Short", "2"),
+		INT("Int", "4"),
+		LONG("Long", "8"),
+		FLOAT("Float", "4"),
+		DOUBLE("Double", "8"),
+		/** JNA maps <code>boolean</code> to a 32-bit integer. */
+		BOOLEAN(null, "4"),
+		POINTER(null, "Native.POINTER_SIZE"),
+		STRING(null, "Native.POINTER_SIZE"),
+		STRUCT(null, null);
+
+		final String accessor;
+		final String size;
+
+
+		private FieldType(String accessor, String size)
+		{
+			this.accessor = accessor;
+			this.size = size;
+		}
+	}
+
+
+	static class Field
+	{
+		final String name;
+		final FieldType type;
+		final TypeElement structType;
+
+
+		Field(String name, FieldType type, TypeElement structType)
+		{
+			this.name = name;
+			this.type = type;
+			this.structType = structType;
+		}
+
+
+		String getOffsetName()
+		{
+			return "OFFSET_" + name.toUpperCase(Locale.ROOT);
+		}
+	}
+
+
+	private final String codecPackage;
+	private final TypeElement type;
+	private final List<Field> fields;
+	private final boolean writable;
+	private final StringBuilder builder = new StringBuilder();
+
+
+	CodecWriter(String codecPackage, TypeElement type, List<Field> fields, boolean writable)
+	{
+		this.codecPackage = codecPackage;
+		this.type = type;
+		this.fields = fields;
+		this.writable = writable;
+	}
+
+
+	/**
+	 * @return The simple name of the codec for <code>type</code>. Nested classes are
+	 *         named after all enclosing classes, e.g. <code>LEAP_HAND_DigitStruct_Codec</code>.
+	 */
+	static String getCodecName(TypeElement type)
+	{
+		StringBuilder name = new StringBuilder(type.getSimpleName());
+		Element enclosing = type.getEnclosingElement();
+		while (enclosing.getKind() != ElementKind.PACKAGE)
+		{
+			name.insert(0, enclosing.getSimpleName() + "_");
+			enclosing = enclosing.getEnclosingElement();
+		}
+
+		return name.append("_Codec").toString();
+	}
+
+
+	String getCodecName()
+	{
+		return getCodecName(type);
+	}
+
+
+	String generate()
+	{
+		String codecName = getCodecName();
+		String typeName = getTypeName();
+
+		line(0, "// Generated by " + StructCodecProcessor.class.getName() + ". Do not edit.");
+		line(0, "package " + codecPackage + ";");
+		line(0, "");
+		line(0, "import com.sun.jna.Native;");
+		line(0, "import com.sun.jna.Pointer;");
+		line(0, "");
+		line(0, "import " + getTopLevelType().getQualifiedName() + ";");
+		line(0, "");
+		line(0, "");
+		line(0, "/**");
+		line(0, " * Reads and writes {@link " + typeName + "} at fixed offsets.");
+		line(0, " * <p>");
+		line(0, " * The <code>OFFSET_*</code> constants are the byte offsets of the fields and");
+		line(0, " * <code>SIZE</code> is the size of the structure. They are public so that code");
+		line(0, " * which reads the structure directly from native memory can share them.");
+		line(0, " * </p>");
+		line(0, " */");
+		line(0, "@javax.annotation.processing.Generated(\""
+				+ StructCodecProcessor.class.getName() + "\")");
+		// The codecs also cover deprecated structs, e.g. LEAP_POINT_MAPPING.
+		line(0, "@SuppressWarnings(\"deprecation\")");
+		line(0, "public final class " + codecName + " extends StructCodec<" + typeName + ">");
+		line(0, "{");
+
+		String previous = null;
+		for (Field field : fields)
+		{
+			line(1, "public static final int " + field.getOffsetName() + " = "
+					+ (previous == null ? "0" : previous) + ";");
+			previous = field.getOffsetName() + " + " + getSize(field);
+		}
+		line(1, "public static final int SIZE = " + previous + ";");
+		line(1, "static final boolean WRITABLE = " + writable + ";");
+		line(0, "");
+		line(0, "");
+		line(1, codecName + "()");
+		line(1, "{");
+		line(2, "super(" + typeName + ".class, SIZE, WRITABLE);");
+		line(1, "}");
+		line(0, "");
+		line(0, "");
+		line(1, "@Override");
+		line(1, "public void read(Pointer pointer, long offset, " + typeName + " target)");
+		line(1, "{");
+		line(2, "decode(pointer, offset, target);");
+		line(1, "}");
+		line(0, "");
+		line(0, "");
+		line(1, "static void decode(Pointer pointer, long offset, " + typeName + " target)");
+		line(1, "{");
+		for (Field field : fields)
+		{
+			if (field.type == FieldType.STRUCT)
+				line(2, getAttachStatement(field, "target"));
+			line(2, getDecodeStatement(field));
+		}
+		line(1, "}");
+
+		if (writable)
+		{
+			line(0, "");
+			line(0, "");
+			line(1, "@Override");
+			line(1, "public void write(" + typeName + " source, Pointer pointer, long offset)");
+			line(1, "{");
+			line(2, "encode(source, pointer, offset);");
+			line(1, "}");
+			line(0, "");
+			line(0, "");
+			line(1, "static void encode(" + typeName + " source, Pointer pointer, long offset)");
+			line(1, "{");
+			for (Field field : fields)
+			{
+				if (field.type == FieldType.STRUCT)
+					line(2, getAttachStatement(field, "source"));
+				line(2, getEncodeStatement(field));
+			}
+			line(1, "}");
+		}
+
+		line(0, "}");
+		return builder.toString();
+	}
+
+
+	private TypeElement getTopLevelType()
+	{
+		TypeElement topLevel = type;
+		while (!(topLevel.getEnclosingElement() instanceof PackageElement))
+			topLevel = (TypeElement) topLevel.getEnclosingElement();
+		return topLevel;
+	}
+
+
+	/**
+	 * @return The name of the structure type relative to the imported top-level class.
+	 */
+	private String getTypeName()
+	{
+		String qualifiedName = type.getQualifiedName().toString();
+		String topLevelName = getTopLevelType().getQualifiedName().toString();
+		return qualifiedName.substring(topLevelName.length() - getTopLevelType().getSimpleName().length());
+	}
+
+
+	private static String getSize(Field field)
+	{
+		if (field.type == FieldType.STRUCT)
+			return getCodecName(field.structType) + ".SIZE";
+		return field.type.size;
+	}
+
+
+	private static String getAttachStatement(Field field, String structure)
+	{
+		return "attach(" + structure + "." + field.name + ", pointer, offset + "
+				+ field.getOffsetName() + ");";
+	}
+
+
+	private static String getDecodeStatement(Field field)
+	{
+		String target = "target." + field.name;
+		String offset = "offset + " + field.getOffsetName();
+
+		switch (field.type)
+		{
+			case BOOLEAN :
+				return target + " = pointer.getInt(" + offset + ") != 0;";
+			case POINTER :
+				return target + " = readPointer(pointer, " + offset + ", " + target + ");";
+			case STRING :
+				return target + " = readString(pointer, " + offset + ");";
+			case STRUCT :
+				return getCodecName(field.structType) + ".decode(pointer, " + offset + ", " + target + ");";
+			default :
+				return target + " = pointer.get" + field.type.accessor + "(" + offset + ");";
+		}
+	}
+
+
+	private static String getEncodeStatement(Field field)
+	{
+		String source = "source." + field.name;
+		String offset = "offset + " + field.getOffsetName();
+
+		switch (field.type)
+		{
+			case BOOLEAN :
+				return "pointer.setInt(" + offset + ", " + source + " ? 1 : 0);";
+			case POINTER :
+				return "pointer.setPointer(" + offset + ", " + source + ");";
+			case STRUCT :
+				return getCodecName(field.structType) + ".encode(" + source + ", pointer, " + offset + ");";
+			case STRING :
+				throw new IllegalStateException("Strings cannot be encoded: " + field.name);
+			default :
+				return "pointer.set" + field.type.accessor + "(" + offset + ", " + source + ");";
+		}
+	}
+
+
+	private void line(int indent, String line)
+	{
+		for (int i = 0; i < indent; i++)
+			builder.append('\t');
+		builder.append(line).append('\n');
+	}
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import komposten.leapjna.processor.CodecWriter.Field;
+import komposten.leapjna.processor.CodecWriter.FieldType;
+
+
+/**
+ * <p>
+ * Generates a codec for every JNA structure annotated with <code>@FieldOrder</code> in
+ * the source packages. The codecs read and write the structure fields at fixed offsets,
+ * which avoids the reflection JNA's <code>Structure.read()</code> and
+ * <code>write()</code> use.
+ * </p>
+ * <p>
+ * Only structures with a layout that can be computed at compile time get a codec. That
+ * rules out structures with array, union, callback, by-reference or by-value structure
+ * fields, as well as structures that do not extend <code>Structure</code> directly. Such
+ * structures are reported as notes and are decoded by JNA as usual.
+ * </p>
+ * <p>
+ * Options:
+ * <ul>
+ * <li><code>leapjna.codec.sources</code>: Comma-separated list of packages to generate
+ * codecs for.</li>
+ * <li><code>leapjna.codec.package</code>: The package of the generated codecs.</li>
+ * </ul>
+ */
+@SupportedAnnotationTypes(StructCodecProcessor.FIELD_ORDER)
+@SupportedOptions({ StructCodecProcessor.SOURCES_OPTION, StructCodecProcessor.PACKAGE_OPTION })
+public class StructCodecProcessor extends AbstractProcessor
+{
+	static final String FIELD_ORDER = "com.sun.jna.Structure.FieldOrder";
+	static final String SOURCES_OPTION = "leapjna.codec.sources";
+	static final String PACKAGE_OPTION = "leapjna.codec.package";
+
+	private static final String DEFAULT_SOURCES = "komposten.leapjna.leapc.data,komposten.leapjna.leapc.events";
+	private static final String DEFAULT_PACKAGE = "komposten.leapjna.leapc.codec";
+
+	private static final String STRUCTURE = "com.sun.jna.Structure";
+	private static final String REUSABLE_STRUCTURE = "komposten.leapjna.leapc.util.ReusableStructure";
+	private static final String BY_REFERENCE = "com.sun.jna.Structure.ByReference";
+	private static final String BY_VALUE = "com.sun.jna.Structure.ByValue";
+	private static final String POINTER = "com.sun.jna.Pointer";
+	private static final String STRING = "java.lang.String";
+
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+	{
+		TypeElement fieldOrder = processingEnv.getElementUtils().getTypeElement(FIELD_ORDER);
+		if (fieldOrder == null || annotations.isEmpty())
+			return false;
+
+		Set<String> sources = new HashSet<>(Arrays.asList(
+				getOption(SOURCES_OPTION, DEFAULT_SOURCES).split("\\s*,\\s*")));
+
+		List<TypeElement> candidates = new ArrayList<>();
+		for (Element element : roundEnv.getElementsAnnotatedWith(fieldOrder))
+		{
+			if (element.getKind() == ElementKind.CLASS
+					&& sources.contains(getPackage(element)))
+				candidates.add((TypeElement) element);
+		}
+
+		Map<TypeElement, List<Field>> structs = collectStructs(candidates);
+		String codecPackage = getOption(PACKAGE_OPTION, DEFAULT_PACKAGE);
+		for (TypeElement type : structs.keySet())
+			writeCodec(codecPackage, type, structs.get(type), isWritable(type, structs));
+
+		return false;
+	}
+
+
+	private String getOption(String name, String defaultValue)
+	{
+		String value = processingEnv.getOptions().get(name);
+		return (value == null || value.isBlank() ? defaultValue : value.trim());
+	}
+
+
+	/**
+	 * Builds the field lists of all candidates that can have a codec. Candidates with
+	 * structure fields are only accepted once the type of each such field has been
+	 * accepted, so the loop is repeated until no more candidates are accepted.
+	 */
+	private Map<TypeElement, List<Field>> collectStructs(List<TypeElement> candidates)
+	{
+		Map<TypeElement, List<Field>> structs = new LinkedHashMap<>();
+		Map<TypeElement, String> rejected = new LinkedHashMap<>();
+		List<TypeElement> pending = new ArrayList<>(candidates);
+
+		boolean changed = true;
+		while (changed)
+		{
+			changed = false;
+			for (TypeElement type : new ArrayList<>(pending))
+			{
+				try
+				{
+					List<Field> fields = getFields(type, candidates, structs);
+					if (fields != null)
+					{
+						structs.put(type, fields);
+						pending.remove(type);
+						changed = true;
+					}
+				}
+				catch (UnsupportedStructException e)
+				{
+					rejected.put(type, e.getMessage());
+					pending.remove(type);
+				}
+			}
+		}
+
+		for (TypeElement type : pending)
+			rejected.put(type, "depends on a structure without a codec");
+
+		for (Map.Entry<TypeElement, String> entry : rejected.entrySet())
+		{
+			processingEnv.getMessager().printMessage(Kind.NOTE,
+					"No codec generated for " + entry.getKey().getQualifiedName() + ": "
+							+ entry.getValue(),
+					entry.getKey());
+		}
+
+		return structs;
+	}
+
+
+	/**
+	 * @return The fields of <code>type</code> in field order, or <code>null</code> if a
+	 *         structure field refers to a candidate that has not been accepted yet.
+	 * @throws UnsupportedStructException If <code>type</code> cannot have a codec.
+	 */
+	private List<Field> getFields(TypeElement type, List<TypeElement> candidates,
+			Map<TypeElement, List<Field>> accepted) throws UnsupportedStructException
+	{
+		if (!type.getModifiers().contains(Modifier.PUBLIC)
+				|| type.getModifiers().contains(Modifier.ABSTRACT))
+			throw new UnsupportedStructException("not a public, concrete class");
+		if (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC))
+			throw new UnsupportedStructException("inner classes are not supported");
+		if (!isType(type.getSuperclass(), STRUCTURE)
+				&& !isType(type.getSuperclass(), REUSABLE_STRUCTURE))
+			throw new UnsupportedStructException(
+					"does not extend Structure or ReusableStructure directly");
+
+		Map<String, VariableElement> fieldsByName = new LinkedHashMap<>();
+		for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements()))
+		{
+			if (!field.getModifiers().contains(Modifier.STATIC))
+				fieldsByName.put(field.getSimpleName().toString(), field);
+		}
+
+		List<Field> fields = new ArrayList<>();
+		for (String name : getFieldOrder(type))
+		{
+			VariableElement field = fieldsByName.get(name);
+			if (field == null || !field.getModifiers().contains(Modifier.PUBLIC)
+					|| field.getModifiers().contains(Modifier.FINAL))
+				throw new UnsupportedStructException("'" + name + "' is not a public, non-final field");
+
+			TypeMirror fieldType = field.asType();
+			FieldType kind = getFieldType(fieldType);
+			if (kind == FieldType.STRUCT)
+			{
+				TypeElement structType = (TypeElement) ((DeclaredType) fieldType).asElement();
+				if (isSubtype(fieldType, BY_REFERENCE))
+					throw new UnsupportedStructException("'" + name + "' is a by-reference structure");
+				// JNA copies by-value structures instead of moving them to new memory.
+				if (isSubtype(fieldType, BY_VALUE))
+					throw new UnsupportedStructException("'" + name + "' is a by-value structure");
+				if (!candidates.contains(structType))
+					throw new UnsupportedStructException("'" + name + "' has an unsupported structure type");
+				if (!accepted.containsKey(structType))
+					return null;
+				if (!isSubtype(fieldType, REUSABLE_STRUCTURE))
+					throw new UnsupportedStructException("'" + name + "' is not a ReusableStructure");
+				fields.add(new Field(name, kind, structType));
+			}
+			else if (kind != null)
+			{
+				fields.add(new Field(name, kind, null));
+			}
+			else
+			{
+				throw new UnsupportedStructException(
+						"'" + name + "' has an unsupported type: " + fieldType);
+			}
+		}
+
+		if (fields.isEmpty())
+			throw new UnsupportedStructException("has no fields");
+
+		return fields;
+	}
+
+
+	/**
+	 * @return <code>true</code> if the codec for <code>type</code> can write structures.
+	 *         Strings cannot be written, since the native copies would have to be kept
+	 *         alive for as long as the structure refers to them.
+	 */
+	private static boolean isWritable(TypeElement type, Map<TypeElement, List<Field>> structs)
+	{
+		for (Field field : structs.get(type))
+		{
+			if (field.type == FieldType.STRING)
+				return false;
+			if (field.type == FieldType.STRUCT && !isWritable(field.structType, structs))
+				return false;
+		}
+
+		return true;
+	}
+
+
+	private FieldType getFieldType(TypeMirror type)
+	{
+		switch (type.getKind())
+		{
+			case BYTE :
+				return FieldType.BYTE;
+			case SHORT :
+				return FieldType.SHORT;
+			case INT :
+				return FieldType.INT;
+			case LONG :
+				return FieldType.LONG;
+			case FLOAT :
+				return FieldType.FLOAT;
+			case DOUBLE :
+				return FieldType.DOUBLE;
+			case BOOLEAN :
+				return FieldType.BOOLEAN;
+			case DECLARED :
+				if (isType(type, POINTER))
+					return FieldType.POINTER;
+				if (isType(type, STRING))
+					return FieldType.STRING;
+				if (isSubtype(type, STRUCTURE) && !isSubtype(type, "com.sun.jna.Union"))
+					return FieldType.STRUCT;
+				return null;
+			default :
+				return null;
+		}
+	}
+
+
+	private boolean isType(TypeMirror type, String name)
+	{
+		return type.getKind() == TypeKind.DECLARED && ((TypeElement) ((DeclaredType) type)
+				.asElement()).getQualifiedName().contentEquals(name);
+	}
+
+
+	private boolean isSubtype(TypeMirror type, String name)
+	{
+		TypeElement element = processingEnv.getElementUtils().getTypeElement(name);
+		return element != null && processingEnv.getTypeUtils().isSubtype(
+				processingEnv.getTypeUtils().erasure(type),
+				processingEnv.getTypeUtils().erasure(element.asType()));
+	}
+
+
+	private static List<String> getFieldOrder(TypeElement type)
+	{
+		for (AnnotationMirror annotation : type.getAnnotationMirrors())
+		{
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			if (!annotationType.getQualifiedName().contentEquals(FIELD_ORDER))
+				continue;
+
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation
+					.getElementValues().entrySet())
+			{
+				if (entry.getKey().getSimpleName().contentEquals("value"))
+				{
+					List<String> names = new ArrayList<>();
+					for (Object value : (List<?>) entry.getValue().getValue())
+						names.add((String) ((AnnotationValue) value).getValue());
+					return names;
+				}
+			}
+		}
+
+		return Collections.emptyList();
+	}
+
+
+	private String getPackage(Element element)
+	{
+		return processingEnv.getElementUtils().getPackageOf(element).getQualifiedName()
+				.toString();
+	}
+
+
+	private void writeCodec(String codecPackage, TypeElement type, List<Field> fields,
+			boolean writable)
+	{
+		CodecWriter writer = new CodecWriter(codecPackage, type, fields, writable);
+		try
+		{
+			JavaFileObject file = processingEnv.getFiler()
+					.createSourceFile(codecPackage + "." + writer.getCodecName(), type);
+			try (Writer out = file.openWriter())
+			{
+				out.write(writer.generate());
+			}
+		}
+		catch (IOException e)
+		{
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Could not write codec for " + type.getQualifiedName() + ": " + e, type);
+		}
+	}
+
+
+	private static class UnsupportedStructException extends Exception
+	{
+		private static final long serialVersionUID = 1L;
+
+
+		UnsupportedStructException(String message)
+		{
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import komposten.leapjna.leapc.simulated.SimulatedBackend;
+import komposten.leapjna.leapc.simulated.SimulatedLeapC;
+
+
+class LeapCConfigTest
+{
+	@Test
+	void findBackend_builtInNames_correctBackend()
+	{
+		assertThat(LeapCConfig.findBackend(" JNA ")).isSameAs(LeapCConfig.JNA_BACKEND);
+
+		LeapCBackend expectedForeign = LeapCForeign.isSupported() ? LeapCConfig.FOREIGN_BACKEND
+				: LeapCConfig.JNA_BACKEND;
+		assertThat(LeapCConfig.findBackend("foreign")).isSameAs(expectedForeign);
+	}
+
+
+	@Test
+	void findBackend_serviceLoaderName_backendFromServiceLoader()
+	{
+		LeapCBackend backend = LeapCConfig.findBackend("Simulated");
+
+		assertThat(backend).isInstanceOf(SimulatedBackend.class);
+		assertThat(backend.load()).isInstanceOf(SimulatedLeapC.class);
+	}
+
+
+	@Test
+	void usesNativeLibrary_builtInAndSimulatedBackends()
+	{
+		assertThat(LeapCConfig.JNA_BACKEND.usesNativeLibrary()).isTrue();
+		assertThat(LeapCConfig.FOREIGN_BACKEND.usesNativeLibrary()).isTrue();
+		assertThat(LeapCConfig.findBackend("simulated").usesNativeLibrary()).isFalse();
+	}
+
+
+	@Test
+	void findBackend_invalidOrMissingName_jna()
+	{
+		assertThat(LeapCConfig.findBackend("panama")).isSameAs(LeapCConfig.JNA_BACKEND);
+		assertThat(LeapCConfig.findBackend(null)).isSameAs(LeapCConfig.JNA_BACKEND);
+		assertThat(LeapCConfig.findBackend("")).isSameAs(LeapCConfig.JNA_BACKEND);
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+
+
+/**
+ * <p>
+ * Measures how a thread blocked in {@link LeapC#LeapPollConnection(com.sun.jna.Pointer,
+ * int, LEAP_CONNECTION_MESSAGE) LeapPollConnection} affects other calls into LeapC,
+ * comparing {@link LeapC#INSTANCE} against
+ * the globally locked {@link LeapC#SYNCHRONIZED_INSTANCE}.
+ * </p>
+ * <p>
+ * Each benchmark group runs one thread that polls a connection with a blocking
+ * {@value #POLL_TIMEOUT} ms timeout, and one thread that calls
+ * {@link LeapC#LeapGetNow()}. The simulated device produces no tracking frames, so every
+ * poll blocks for the whole timeout, like a poll thread waiting for the next frame. With
+ * the unsynchronised instance, <code>LeapGetNow</code> is not held up by the blocked
+ * poll. With the synchronised instance, it can only run between polls, so its throughput
+ * drops.
+ * </p>
+ * <p>
+ * Runs against the simulated backend, so it needs neither LeapC nor a device. Run with
+ * <code>mvn -Pbenchmark test -Dbenchmark=LeapCContentionBenchmark</code>.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Dleapjna.backend=simulated",
+		"-Dleapjna.simulated.trackingRate=0" })
+@State(Scope.Group)
+public class LeapCContentionBenchmark
+{
+	private static final int POLL_TIMEOUT = 10;
+
+	@Param({ "unsynchronized", "synchronized" })
+	public String instance;
+
+	private LeapC leapC;
+
+
+	@Setup
+	public void setup()
+	{
+		leapC = ("synchronized".equals(instance) ? LeapC.SYNCHRONIZED_INSTANCE
+				: LeapC.INSTANCE);
+	}
+
+
+	/**
+	 * One connection per polling thread, since LeapC does not allow a connection to be
+	 * polled concurrently.
+	 */
+	@State(Scope.Thread)
+	public static class ConnectionState
+	{
+		LEAP_CONNECTION connection;
+		LEAP_CONNECTION_MESSAGE message;
+
+
+		@Setup
+		public void setup()
+		{
+			connection = new LEAP_CONNECTION();
+			LeapC.INSTANCE.LeapCreateConnection(null, connection);
+			LeapC.INSTANCE.LeapOpenConnection(connection.handle);
+			message = new LEAP_CONNECTION_MESSAGE();
+		}
+
+
+		@TearDown
+		public void tearDown()
+		{
+			LeapC.INSTANCE.LeapCloseConnection(connection.handle);
+			LeapC.INSTANCE.LeapDestroyConnection(connection.handle);
+		}
+	}
+
+
+	@Benchmark
+	@Group("blockingPolls")
+	@GroupThreads(1)
+	public Object poll(ConnectionState state)
+	{
+		return leapC.LeapPollConnection(state.connection.handle, POLL_TIMEOUT,
+				state.message);
+	}
+
+
+	@Benchmark
+	@Group("blockingPolls")
+	@GroupThreads(1)
+	public long getNow()
+	{
+		return leapC.LeapGetNow();
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.LongByReference;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * Compares the per-call cost of the hot-path functions in {@link LeapCDirect} against
+ * the same functions called through {@link LeapC#INSTANCE}'s interface mapping.
+ * <p>
+ * Requires MockLeapC in <code>lib/</code>, same as {@link LeapCTest}, which is only built
+ * for Windows. Run with
+ * <code>mvn -Pbenchmark test -Dbenchmark=LeapCDirectBenchmark</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LeapCDirectBenchmark
+{
+	private static final int FRAME_SIZE = 246;
+
+	private LEAP_CONNECTION connection;
+	private LEAP_CONNECTION_MESSAGE message;
+	private LEAP_TRACKING_EVENT frame;
+	private LongByReference frameSizeReference;
+	private Memory frameSizeMemory;
+
+
+	@Setup
+	public void setup()
+	{
+		if (!MockLeapC.isAvailable())
+			throw new IllegalStateException("LeapCDirectBenchmark requires MockLeapC in lib/");
+
+		connection = new LEAP_CONNECTION();
+		LeapC.INSTANCE.LeapCreateConnection(null, connection);
+		LeapC.INSTANCE.LeapOpenConnection(connection.handle);
+
+		message = new LEAP_CONNECTION_MESSAGE();
+		frame = new LEAP_TRACKING_EVENT(FRAME_SIZE);
+		frameSizeReference = new LongByReference();
+		frameSizeMemory = new Memory(Long.BYTES);
+	}
+
+
+	@TearDown
+	public void tearDown()
+	{
+		LeapC.INSTANCE.LeapCloseConnection(connection.handle);
+		LeapC.INSTANCE.LeapDestroyConnection(connection.handle);
+	}
+
+
+	@Benchmark
+	public long getNow_interface()
+	{
+		return LeapC.INSTANCE.LeapGetNow();
+	}
+
+
+	@Benchmark
+	public long getNow_direct()
+	{
+		return LeapCDirect.LeapGetNow();
+	}
+
+
+	@Benchmark
+	public eLeapRS pollConnection_interface()
+	{
+		message.type = eLeapEventType.None.value;
+		return LeapC.INSTANCE.LeapPollConnection(connection.handle, 0, message);
+	}
+
+
+	@Benchmark
+	public int pollConnection_direct()
+	{
+		Pointer pointer = message.getPointer();
+		pointer.setInt(Integer.BYTES, eLeapEventType.None.value);
+		return LeapCDirect.LeapPollConnection(connection.handle, 0, pointer);
+	}
+
+
+	@Benchmark
+	public int pollConnection_directWithRead()
+	{
+		Pointer pointer = message.getPointer();
+		pointer.setInt(Integer.BYTES, eLeapEventType.None.value);
+		int result = LeapCDirect.LeapPollConnection(connection.handle, 0, pointer);
+		message.read();
+		return result;
+	}
+
+
+	@Benchmark
+	public eLeapRS getFrameSize_interface()
+	{
+		return LeapC.INSTANCE.LeapGetFrameSize(connection.handle, 123, frameSizeReference);
+	}
+
+
+	@Benchmark
+	public int getFrameSize_direct()
+	{
+		return LeapCDirect.LeapGetFrameSize(connection.handle, 123, frameSizeMemory);
+	}
+
+
+	@Benchmark
+	public eLeapRS interpolateFrame_interface()
+	{
+		return LeapC.INSTANCE.LeapInterpolateFrame(connection.handle, 123, frame, FRAME_SIZE);
+	}
+
+
+	@Benchmark
+	public int interpolateFrame_direct()
+	{
+		return LeapCDirect.LeapInterpolateFrame(connection.handle, 123, frame.getPointer(),
+				FRAME_SIZE);
+	}
+}
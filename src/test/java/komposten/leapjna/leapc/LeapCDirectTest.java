@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.simulated.SimulatedBackend;
+
+
+class LeapCDirectTest
+{
+	private static boolean mockAvailable;
+
+
+	@BeforeAll
+	static void globalSetup()
+	{
+		mockAvailable = MockLeapC.isAvailable();
+	}
+
+
+	private void assumeMockLeapC()
+	{
+		assumeTrue(mockAvailable, "MockLeapC could not be loaded");
+	}
+
+
+	private Pointer getConnectionHandle()
+	{
+		LEAP_CONNECTION phConnection = new LEAP_CONNECTION();
+		eLeapRS result = LeapC.INSTANCE.LeapCreateConnection(null, phConnection);
+		assertThat(result).isEqualTo(eLeapRS.Success);
+
+		return phConnection.handle;
+	}
+
+
+	private Pointer getDeviceHandle()
+	{
+		Memory handle = new Memory(1);
+		handle.setByte(0, (byte) 2);
+		return handle;
+	}
+
+
+	@Test
+	void isSupported_nativeOrSimulatedBackend()
+	{
+		try
+		{
+			LeapCConfig.useBackend(LeapCConfig.JNA_BACKEND);
+			assertThat(LeapCDirect.isSupported()).isTrue();
+
+			LeapCConfig.useBackend(new SimulatedBackend());
+			assertThat(LeapCDirect.isSupported()).isFalse();
+		}
+		finally
+		{
+			LeapCConfig.useBackend(null);
+		}
+	}
+
+
+	@Test
+	void LeapGetNow_unsupportedBackend_throwsIllegalStateException()
+	{
+		try
+		{
+			LeapCConfig.useBackend(new SimulatedBackend());
+			assertThatThrownBy(() -> LeapCDirect.LeapGetNow())
+					.isInstanceOf(IllegalStateException.class).hasMessageContaining("simulated");
+		}
+		finally
+		{
+			LeapCConfig.useBackend(null);
+		}
+	}
+
+
+	@Test
+	void LeapPollConnection_trackingEvent_sameAsInterfaceMapping()
+	{
+		assumeMockLeapC();
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		message.type = eLeapEventType.Tracking.value;
+		message.write();
+
+		int result = LeapCDirect.LeapPollConnection(getConnectionHandle(), 0,
+				message.getPointer());
+		message.read();
+
+		assertThat(result).isEqualTo(eLeapRS.Success.getValue());
+		assertThat(message.getType()).isEqualTo(eLeapEventType.Tracking);
+		assertThat(message.device_id).isEqualTo(3);
+
+		LEAP_TRACKING_EVENT event = message.getTrackingEvent();
+		assertThat(event.tracking_frame_id).isEqualTo(1);
+		assertThat(event.nHands).isEqualTo(2);
+	}
+
+
+	@Test
+	void LeapGetNow_correctValue()
+	{
+		assumeMockLeapC();
+		assertThat(LeapCDirect.LeapGetNow()).isEqualTo(LeapC.INSTANCE.LeapGetNow());
+	}
+
+
+	@Test
+	void LeapGetFrameSize_correctSizeReceived()
+	{
+		assumeMockLeapC();
+		Memory pSize = new Memory(Long.BYTES);
+		int result = LeapCDirect.LeapGetFrameSize(getConnectionHandle(), 123, pSize);
+
+		assertThat(result).isEqualTo(eLeapRS.Success.getValue());
+		assertThat(pSize.getLong(0)).isEqualTo(246);
+	}
+
+
+	@Test
+	void LeapGetFrameSizeEx_correctSizeReceived()
+	{
+		assumeMockLeapC();
+		Memory pSize = new Memory(Long.BYTES);
+		int result = LeapCDirect.LeapGetFrameSizeEx(getConnectionHandle(), getDeviceHandle(),
+				123, pSize);
+
+		assertThat(result).isEqualTo(eLeapRS.Success.getValue());
+		assertThat(pSize.getLong(0)).isEqualTo(246);
+	}
+
+
+	@Test
+	void LeapInterpolateFrame_correctDataReceived()
+	{
+		assumeMockLeapC();
+		long timestamp = 123;
+		LEAP_TRACKING_EVENT pEvent = new LEAP_TRACKING_EVENT(246);
+
+		int result = LeapCDirect.LeapInterpolateFrame(getConnectionHandle(), timestamp,
+				pEvent.getPointer(), 246);
+		pEvent.read();
+
+		assertThat(result).isEqualTo(eLeapRS.Success.getValue());
+		assertThat(pEvent.info.timestamp).isEqualTo(timestamp);
+		assertThat(pEvent.info.frame_id).isEqualTo(1);
+		assertThat(pEvent.tracking_frame_id).isEqualTo(2);
+	}
+
+
+	@Test
+	void LeapInterpolateFrameEx_correctDataReceived()
+	{
+		assumeMockLeapC();
+		long timestamp = 123;
+		LEAP_TRACKING_EVENT pEvent = new LEAP_TRACKING_EVENT(246);
+
+		int result = LeapCDirect.LeapInterpolateFrameEx(getConnectionHandle(),
+				getDeviceHandle(), timestamp, pEvent.getPointer(), 246);
+		pEvent.read();
+
+		assertThat(result).isEqualTo(eLeapRS.Success.getValue());
+		assertThat(pEvent.info.timestamp).isEqualTo(timestamp);
+		assertThat(pEvent.info.frame_id).isEqualTo(1);
+		assertThat(pEvent.tracking_frame_id).isEqualTo(2);
+	}
+}
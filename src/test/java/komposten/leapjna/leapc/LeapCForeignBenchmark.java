@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * Compares decoding a tracking frame using JNA's structure reflection against
+ * {@link LeapCForeign#readTrackingEvent(com.sun.jna.Pointer, LEAP_TRACKING_EVENT)}. Both
+ * decode the same simulated frame from {@link TrackingFrames}, so no native library is
+ * needed.
+ * <p>
+ * The foreign decoder is only used on Java 22 and later; on older JVMs both benchmarks
+ * measure JNA. Run with
+ * <code>mvn -Pbenchmark test -Dbenchmark=LeapCForeignBenchmark</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LeapCForeignBenchmark
+{
+	@Param({ "1", "2" })
+	public int hands;
+
+	private Memory frame;
+	private LEAP_TRACKING_EVENT reuse;
+
+
+	@Setup
+	public void setup()
+	{
+		frame = TrackingFrames.create(hands, 1);
+		reuse = new LEAP_TRACKING_EVENT();
+	}
+
+
+	@Benchmark
+	public LEAP_TRACKING_EVENT decode_jna()
+	{
+		return new LEAP_TRACKING_EVENT(frame);
+	}
+
+
+	@Benchmark
+	public LEAP_TRACKING_EVENT decode_foreign()
+	{
+		return LeapCForeign.readTrackingEvent(frame, null);
+	}
+
+
+	@Benchmark
+	public LEAP_TRACKING_EVENT decode_foreignReused()
+	{
+		return LeapCForeign.readTrackingEvent(frame, reuse);
+	}
+}
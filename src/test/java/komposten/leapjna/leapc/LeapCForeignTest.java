@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+class LeapCForeignTest
+{
+	@Test
+	void readTrackingEvent_twoHands_sameAsJna()
+	{
+		Memory frame = TrackingFrames.create(2, 5);
+
+		LEAP_TRACKING_EVENT expected = new LEAP_TRACKING_EVENT(frame);
+		LEAP_TRACKING_EVENT actual = LeapCForeign.readTrackingEvent(frame, null);
+
+		TrackingFrames.assertSameFrame(actual, expected);
+	}
+
+
+	@Test
+	void readTrackingEvent_noHands_sameAsJna()
+	{
+		Memory frame = TrackingFrames.create(0, 5);
+
+		LEAP_TRACKING_EVENT expected = new LEAP_TRACKING_EVENT(frame);
+		LEAP_TRACKING_EVENT actual = LeapCForeign.readTrackingEvent(frame, null);
+
+		TrackingFrames.assertSameFrame(actual, expected);
+	}
+
+
+	@Test
+	void readTrackingEvent_reusedEventWithDifferentHandCount_sameAsJna()
+	{
+		LEAP_TRACKING_EVENT reuse = LeapCForeign.readTrackingEvent(TrackingFrames.create(1, 1),
+				null);
+
+		Memory frame = TrackingFrames.create(2, 2);
+		LEAP_TRACKING_EVENT expected = new LEAP_TRACKING_EVENT(frame);
+		LEAP_TRACKING_EVENT actual = LeapCForeign.readTrackingEvent(frame, reuse);
+
+		TrackingFrames.assertSameFrame(actual, expected);
+	}
+
+
+	@Test
+	void findBackend_foreignName_foreignBackendIfSupported()
+	{
+		LeapCBackend expected = (LeapCForeign.isSupported() ? LeapCConfig.FOREIGN_BACKEND
+				: LeapCConfig.JNA_BACKEND);
+
+		assertThat(LeapCConfig.findBackend("foreign")).isSameAs(expected);
+		assertThat(LeapCConfig.findBackend(" FOREIGN ")).isSameAs(expected);
+	}
+
+
+	@Test
+	void findBackend_otherNames_notForeign()
+	{
+		assertThat(LeapCConfig.findBackend(" JNA ")).isSameAs(LeapCConfig.JNA_BACKEND);
+		assertThat(LeapCConfig.findBackend("panama")).isSameAs(LeapCConfig.JNA_BACKEND);
+		assertThat(LeapCConfig.findBackend(null)).isSameAs(LeapCConfig.JNA_BACKEND);
+	}
+}
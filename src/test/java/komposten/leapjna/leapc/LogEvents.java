@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import java.nio.charset.StandardCharsets;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+
+
+/**
+ * Builds <code>LEAP_LOG_EVENTS</code> structs in native memory without LeapC.
+ */
+public final class LogEvents
+{
+	/** The size of a <code>LEAP_LOG_EVENTS</code> struct. */
+	public static final int EVENTS_SIZE = 4 + Native.POINTER_SIZE;
+	/** The size of a <code>LEAP_LOG_EVENT</code> struct. */
+	public static final int EVENT_SIZE = 12 + Native.POINTER_SIZE;
+
+
+	private LogEvents()
+	{}
+
+
+	/**
+	 * Creates a <code>LEAP_LOG_EVENTS</code> struct at the start of the returned memory,
+	 * followed by the event array and the messages. Event <code>i</code> has timestamp
+	 * <code>1000 + i</code>.
+	 */
+	public static Memory create(eLeapLogSeverity[] severities, String... messages)
+	{
+		long size = EVENTS_SIZE + (long) EVENT_SIZE * messages.length;
+		for (String message : messages)
+			size += message.getBytes(StandardCharsets.UTF_8).length + 1;
+
+		Memory memory = new Memory(size);
+		memory.clear();
+
+		long eventsOffset = EVENTS_SIZE;
+		long messageOffset = eventsOffset + (long) EVENT_SIZE * messages.length;
+
+		memory.setInt(0, messages.length);
+		memory.setPointer(4, memory.share(eventsOffset));
+
+		for (int i = 0; i < messages.length; i++)
+		{
+			long event = eventsOffset + (long) i * EVENT_SIZE;
+			memory.setInt(event, severities[i].value);
+			memory.setLong(event + 4, 1000 + i);
+			memory.setPointer(event + 12, memory.share(messageOffset));
+
+			memory.setString(messageOffset, messages[i], "UTF-8");
+			messageOffset += messages[i].getBytes(StandardCharsets.UTF_8).length + 1;
+		}
+
+		return memory;
+	}
+
+
+	/**
+	 * @return A pointer to the event array of a struct created by
+	 *         {@link #create(eLeapLogSeverity[], String...)}.
+	 */
+	public static Pointer events(Memory memory)
+	{
+		return memory.share(EVENTS_SIZE);
+	}
+}
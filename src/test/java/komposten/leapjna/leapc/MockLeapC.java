@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import com.sun.jna.NativeLibrary;
+
+
+/**
+ * Checks whether the MockLeapC library in <code>lib/</code> can be loaded. It is only
+ * built for Windows, so tests that call into it are skipped elsewhere.
+ */
+public final class MockLeapC
+{
+	private MockLeapC()
+	{}
+
+
+	/**
+	 * Selects MockLeapC instead of LeapC and tries to load it.
+	 *
+	 * @return <code>true</code> if the library could be loaded.
+	 */
+	public static boolean isAvailable()
+	{
+		LeapCConfig.useMockDll(true);
+
+		try
+		{
+			NativeLibrary.getInstance(LeapCConfig.getDllName(),
+					LeapCConfig.getLibraryOptions());
+			return true;
+		}
+		catch (UnsatisfiedLinkError e)
+		{
+			return false;
+		}
+	}
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_BONE;
+import komposten.leapjna.leapc.data.LEAP_DIGIT;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.data.LEAP_PALM;
+import komposten.leapjna.leapc.data.LEAP_QUATERNION;
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.views.BoneView;
+import komposten.leapjna.leapc.views.DigitView;
+import komposten.leapjna.leapc.views.FrameSnapshot;
+import komposten.leapjna.leapc.views.HandFrameBuffer;
+import komposten.leapjna.leapc.views.HandView;
+import komposten.leapjna.leapc.views.PalmView;
+import komposten.leapjna.leapc.views.QuaternionView;
+import komposten.leapjna.leapc.views.TrackingFrameView;
+import komposten.leapjna.leapc.views.VectorView;
+
+
+/**
+ * Builds tracking frames in native memory without LeapC, and compares decoded frames
+ * field by field. Every numeric field of a frame gets a distinct value so that offset
+ * mistakes in a decoder show up as mismatches.
+ */
+public final class TrackingFrames
+{
+	/** The size of a <code>LEAP_TRACKING_EVENT</code> struct, excluding the hands. */
+	public static final int EVENT_SIZE = new LEAP_TRACKING_EVENT().size();
+	/** The size of a <code>LEAP_HAND</code> struct. */
+	public static final int HAND_SIZE = new LEAP_HAND().size();
+
+
+	/**
+	 * Creates a tracking frame with <code>nHands</code> hands. The event is stored at the
+	 * start of the returned memory and the hand array directly after it.
+	 */
+	public static Memory create(int nHands, long frameId)
+	{
+		Memory memory = new Memory(EVENT_SIZE + (long) HAND_SIZE * Math.max(nHands, 1));
+		memory.clear();
+
+		Pointer pHands = memory.share(EVENT_SIZE);
+		float value = frameId * 1000f;
+		for (int i = 0; i < nHands; i++)
+		{
+			LEAP_HAND hand = new LEAP_HAND(pHands.share((long) i * HAND_SIZE));
+			value = fill(hand, i, value);
+			hand.write();
+		}
+
+		LEAP_TRACKING_EVENT event = new LEAP_TRACKING_EVENT(memory);
+		event.info.frame_id = frameId;
+		event.info.timestamp = frameId * 10_000;
+		event.tracking_frame_id = frameId + 1;
+		event.nHands = nHands;
+		event.pHands = (nHands > 0 ? pHands : null);
+		event.framerate = 90.5f;
+		event.write();
+
+		return memory;
+	}
+
+
+	private static float fill(LEAP_HAND hand, int index, float value)
+	{
+		hand.id = 10 + index;
+		hand.flags = 20 + index;
+		hand.type = index % 2;
+		hand.confidence = value++;
+		hand.visible_time = 30_000L + index;
+		hand.pinch_distance = value++;
+		hand.grab_angle = value++;
+		hand.pinch_strength = value++;
+		hand.grab_strength = value++;
+
+		LEAP_PALM palm = hand.palm;
+		value = fill(palm.position, value);
+		value = fill(palm.stabilized_position, value);
+		value = fill(palm.velocity, value);
+		value = fill(palm.normal, value);
+		palm.width = value++;
+		value = fill(palm.direction, value);
+		value = fill(palm.orientation, value);
+
+		LEAP_DIGIT[] digits = hand.digits.asArray();
+		for (int i = 0; i < digits.length; i++)
+		{
+			digits[i].finger_id = i;
+			digits[i].is_extended = i % 2;
+			for (LEAP_BONE bone : digits[i].boneArray())
+				value = fill(bone, value);
+		}
+
+		return fill(hand.arm, value);
+	}
+
+
+	private static float fill(LEAP_BONE bone, float value)
+	{
+		value = fill(bone.prev_joint, value);
+		value = fill(bone.next_joint, value);
+		bone.width = value++;
+		return fill(bone.rotation, value);
+	}
+
+
+	private static float fill(LEAP_VECTOR vector, float value)
+	{
+		vector.set(value, value + 1, value + 2);
+		return value + 3;
+	}
+
+
+	private static float fill(LEAP_QUATERNION quaternion, float value)
+	{
+		quaternion.w = value;
+		quaternion.x = value + 1;
+		quaternion.y = value + 2;
+		quaternion.z = value + 3;
+		return value + 4;
+	}
+
+
+	/**
+	 * Asserts that all fields of <code>actual</code>, including its hands, equal those of
+	 * <code>expected</code>.
+	 */
+	public static void assertSameFrame(LEAP_TRACKING_EVENT actual,
+			LEAP_TRACKING_EVENT expected)
+	{
+		assertThat(actual.info.frame_id).isEqualTo(expected.info.frame_id);
+		assertThat(actual.info.timestamp).isEqualTo(expected.info.timestamp);
+		assertThat(actual.tracking_frame_id).isEqualTo(expected.tracking_frame_id);
+		assertThat(actual.nHands).isEqualTo(expected.nHands);
+		assertThat(actual.pHands).isEqualTo(expected.pHands);
+		assertThat(actual.framerate).isEqualTo(expected.framerate);
+		assertThat(actual.getHands()).hasSameSizeAs(expected.getHands());
+
+		for (int i = 0; i < expected.nHands; i++)
+			assertSameHand(actual.getHands()[i], expected.getHands()[i]);
+	}
+
+
+	/**
+	 * Asserts that all fields of <code>actual</code> equal those of <code>expected</code>.
+	 */
+	public static void assertSameHand(LEAP_HAND actual, LEAP_HAND expected)
+	{
+		assertThat(actual.id).isEqualTo(expected.id);
+		assertThat(actual.flags).isEqualTo(expected.flags);
+		assertThat(actual.type).isEqualTo(expected.type);
+		assertThat(actual.confidence).isEqualTo(expected.confidence);
+		assertThat(actual.visible_time).isEqualTo(expected.visible_time);
+		assertThat(actual.pinch_distance).isEqualTo(expected.pinch_distance);
+		assertThat(actual.grab_angle).isEqualTo(expected.grab_angle);
+		assertThat(actual.pinch_strength).isEqualTo(expected.pinch_strength);
+		assertThat(actual.grab_strength).isEqualTo(expected.grab_strength);
+
+		assertThat(actual.palm.position.asArray()).containsExactly(expected.palm.position.asArray());
+		assertThat(actual.palm.stabilized_position.asArray())
+				.containsExactly(expected.palm.stabilized_position.asArray());
+		assertThat(actual.palm.velocity.asArray()).containsExactly(expected.palm.velocity.asArray());
+		assertThat(actual.palm.normal.asArray()).containsExactly(expected.palm.normal.asArray());
+		assertThat(actual.palm.width).isEqualTo(expected.palm.width);
+		assertThat(actual.palm.direction.asArray())
+				.containsExactly(expected.palm.direction.asArray());
+		assertThat(actual.palm.orientation.asArray())
+				.containsExactly(expected.palm.orientation.asArray());
+
+		LEAP_DIGIT[] actualDigits = actual.digits.asArray();
+		LEAP_DIGIT[] expectedDigits = expected.digits.asArray();
+		for (int i = 0; i < expectedDigits.length; i++)
+		{
+			assertThat(actualDigits[i].finger_id).isEqualTo(expectedDigits[i].finger_id);
+			assertThat(actualDigits[i].is_extended).isEqualTo(expectedDigits[i].is_extended);
+
+			LEAP_BONE[] actualBones = actualDigits[i].boneArray();
+			LEAP_BONE[] expectedBones = expectedDigits[i].boneArray();
+			for (int j = 0; j < expectedBones.length; j++)
+				assertSameBone(actualBones[j], expectedBones[j]);
+		}
+
+		assertSameBone(actual.arm, expected.arm);
+	}
+
+
+	private static void assertSameBone(LEAP_BONE actual, LEAP_BONE expected)
+	{
+		assertThat(actual.prev_joint.asArray()).containsExactly(expected.prev_joint.asArray());
+		assertThat(actual.next_joint.asArray()).containsExactly(expected.next_joint.asArray());
+		assertThat(actual.width).isEqualTo(expected.width);
+		assertThat(actual.rotation.asArray()).containsExactly(expected.rotation.asArray());
+	}
+
+
+	/**
+	 * Asserts that all values read by <code>actual</code>, including its hands, equal the
+	 * fields of <code>expected</code>.
+	 */
+	public static void assertSameFrame(TrackingFrameView actual, LEAP_TRACKING_EVENT expected)
+	{
+		assertThat(actual.getFrameId()).isEqualTo(expected.info.frame_id);
+		assertThat(actual.getTimestamp()).isEqualTo(expected.info.timestamp);
+		assertThat(actual.getTrackingFrameId()).isEqualTo(expected.tracking_frame_id);
+		assertThat(actual.getHandCount()).isEqualTo(expected.nHands);
+		assertThat(actual.getFramerate()).isEqualTo(expected.framerate);
+
+		for (int i = 0; i < expected.nHands; i++)
+			assertSameHand(actual.getHand(i), expected.getHands()[i]);
+	}
+
+
+	/**
+	 * Asserts that all values read by <code>actual</code> equal the fields of
+	 * <code>expected</code>.
+	 */
+	public static void assertSameHand(HandView actual, LEAP_HAND expected)
+	{
+		assertThat(actual.getId()).isEqualTo(expected.id);
+		assertThat(actual.getFlags()).isEqualTo(expected.flags);
+		assertThat(actual.getTypeValue()).isEqualTo(expected.type);
+		assertThat(actual.getType()).isEqualTo(expected.getType());
+		assertThat(actual.getConfidence()).isEqualTo(expected.confidence);
+		assertThat(actual.getVisibleTime()).isEqualTo(expected.visible_time);
+		assertThat(actual.getPinchDistance()).isEqualTo(expected.pinch_distance);
+		assertThat(actual.getGrabAngle()).isEqualTo(expected.grab_angle);
+		assertThat(actual.getPinchStrength()).isEqualTo(expected.pinch_strength);
+		assertThat(actual.getGrabStrength()).isEqualTo(expected.grab_strength);
+
+		PalmView palm = actual.getPalm();
+		LEAP_PALM expectedPalm = expected.palm;
+		assertSameVector(palm.getPosition(), expectedPalm.position);
+		assertSameVector(palm.getStabilizedPosition(), expectedPalm.stabilized_position);
+		assertSameVector(palm.getVelocity(), expectedPalm.velocity);
+		assertSameVector(palm.getNormal(), expectedPalm.normal);
+		assertThat(palm.getWidth()).isEqualTo(expectedPalm.width);
+		assertSameVector(palm.getDirection(), expectedPalm.direction);
+		assertSameQuaternion(palm.getOrientation(), expectedPalm.orientation);
+
+		LEAP_DIGIT[] expectedDigits = expected.digits.asArray();
+		for (int i = 0; i < expectedDigits.length; i++)
+		{
+			DigitView digit = actual.getDigit(i);
+			assertThat(digit.getFingerId()).isEqualTo(expectedDigits[i].finger_id);
+			assertThat(digit.isExtended()).isEqualTo(expectedDigits[i].is_extended != 0);
+
+			LEAP_BONE[] expectedBones = expectedDigits[i].boneArray();
+			for (int j = 0; j < expectedBones.length; j++)
+				assertSameBone(digit.getBone(j), expectedBones[j]);
+		}
+
+		assertSameBone(actual.getArm(), expected.arm);
+	}
+
+
+	private static void assertSameBone(BoneView actual, LEAP_BONE expected)
+	{
+		assertSameVector(actual.getPrevJoint(), expected.prev_joint);
+		assertSameVector(actual.getNextJoint(), expected.next_joint);
+		assertThat(actual.getWidth()).isEqualTo(expected.width);
+		assertSameQuaternion(actual.getRotation(), expected.rotation);
+	}
+
+
+	private static void assertSameVector(VectorView actual, LEAP_VECTOR expected)
+	{
+		assertThat(actual.getX()).isEqualTo(expected.x);
+		assertThat(actual.getY()).isEqualTo(expected.y);
+		assertThat(actual.getZ()).isEqualTo(expected.z);
+	}
+
+
+	private static void assertSameQuaternion(QuaternionView actual, LEAP_QUATERNION expected)
+	{
+		assertThat(actual.getW()).isEqualTo(expected.w);
+		assertThat(actual.getX()).isEqualTo(expected.x);
+		assertThat(actual.getY()).isEqualTo(expected.y);
+		assertThat(actual.getZ()).isEqualTo(expected.z);
+	}
+
+
+	/**
+	 * Asserts that frame <code>frame</code> of <code>buffer</code>, including its hands,
+	 * holds the values of <code>expected</code>.
+	 */
+	public static void assertSameFrame(HandFrameBuffer buffer, int frame,
+			LEAP_TRACKING_EVENT expected)
+	{
+		assertThat(buffer.getFrameIds()[frame]).isEqualTo(expected.tracking_frame_id);
+		assertThat(buffer.getTimestamps()[frame]).isEqualTo(expected.info.timestamp);
+		assertThat(buffer.getFramerates()[frame]).isEqualTo(expected.framerate);
+		assertThat(buffer.getHandCounts()[frame]).isEqualTo(expected.nHands);
+
+		for (int hand = 0; hand < expected.nHands; hand++)
+			assertSameHand(buffer, frame, hand, expected.getHands()[hand]);
+	}
+
+
+	/**
+	 * Asserts that hand <code>hand</code> of frame <code>frame</code> in
+	 * <code>buffer</code> holds the values of <code>expected</code>.
+	 */
+	public static void assertSameHand(HandFrameBuffer buffer, int frame, int hand,
+			LEAP_HAND expected)
+	{
+		int index = buffer.handIndex(frame, hand);
+		assertThat(buffer.getHandIds()[index]).isEqualTo(expected.id);
+		assertThat(buffer.getHandTypes()[index]).isEqualTo(expected.type);
+		assertThat(buffer.getConfidences()[index]).isEqualTo(expected.confidence);
+		assertThat(buffer.getVisibleTimes()[index]).isEqualTo(expected.visible_time);
+		assertThat(buffer.getPinchDistances()[index]).isEqualTo(expected.pinch_distance);
+		assertThat(buffer.getGrabAngles()[index]).isEqualTo(expected.grab_angle);
+		assertThat(buffer.getPinchStrengths()[index]).isEqualTo(expected.pinch_strength);
+		assertThat(buffer.getGrabStrengths()[index]).isEqualTo(expected.grab_strength);
+
+		LEAP_DIGIT[] digits = expected.digits.asArray();
+		for (int digit = 0; digit < digits.length; digit++)
+		{
+			LEAP_BONE[] bones = digits[digit].boneArray();
+			assertSameJoint(buffer, frame, hand, HandFrameBuffer.digitJoint(digit, 0),
+					bones[0].prev_joint);
+			for (int bone = 0; bone < bones.length; bone++)
+				assertSameJoint(buffer, frame, hand, HandFrameBuffer.digitJoint(digit, bone + 1),
+						bones[bone].next_joint);
+		}
+
+		assertSameJoint(buffer, frame, hand, HandFrameBuffer.PALM, expected.palm.position);
+		assertSameJoint(buffer, frame, hand, HandFrameBuffer.WRIST, expected.arm.next_joint);
+		assertSameJoint(buffer, frame, hand, HandFrameBuffer.ELBOW, expected.arm.prev_joint);
+	}
+
+
+	private static void assertSameJoint(HandFrameBuffer buffer, int frame, int hand,
+			int joint, LEAP_VECTOR expected)
+	{
+		int index = buffer.jointIndex(frame, hand, joint);
+		assertThat(new float[] { buffer.getJointX()[index], buffer.getJointY()[index],
+				buffer.getJointZ()[index] }).containsExactly(expected.asArray());
+	}
+
+
+	/**
+	 * Asserts that <code>snapshot</code>, including its hands, holds the values of
+	 * <code>expected</code>.
+	 */
+	public static void assertSameFrame(FrameSnapshot snapshot, LEAP_TRACKING_EVENT expected)
+	{
+		assertThat(snapshot.getFrameId()).isEqualTo(expected.info.frame_id);
+		assertThat(snapshot.getTrackingFrameId()).isEqualTo(expected.tracking_frame_id);
+		assertThat(snapshot.getTimestamp()).isEqualTo(expected.info.timestamp);
+		assertThat(snapshot.getFramerate()).isEqualTo(expected.framerate);
+		assertThat(snapshot.getHandCount()).isEqualTo(expected.nHands);
+
+		for (int hand = 0; hand < expected.nHands; hand++)
+			assertSameHand(snapshot, hand, expected.getHands()[hand]);
+	}
+
+
+	/**
+	 * Asserts that hand <code>hand</code> of <code>snapshot</code> holds the values of
+	 * <code>expected</code>.
+	 */
+	public static void assertSameHand(FrameSnapshot snapshot, int hand, LEAP_HAND expected)
+	{
+		assertThat(snapshot.getHandId(hand)).isEqualTo(expected.id);
+		assertThat(snapshot.getHandTypeValue(hand)).isEqualTo(expected.type);
+		assertThat(snapshot.getHandType(hand)).isEqualTo(expected.getType());
+		assertThat(snapshot.getVisibleTime(hand)).isEqualTo(expected.visible_time);
+		assertThat(snapshot.getConfidence(hand)).isEqualTo(expected.confidence);
+		assertThat(snapshot.getPinchDistance(hand)).isEqualTo(expected.pinch_distance);
+		assertThat(snapshot.getGrabAngle(hand)).isEqualTo(expected.grab_angle);
+		assertThat(snapshot.getPinchStrength(hand)).isEqualTo(expected.pinch_strength);
+		assertThat(snapshot.getGrabStrength(hand)).isEqualTo(expected.grab_strength);
+		assertThat(snapshot.getPalmWidth(hand)).isEqualTo(expected.palm.width);
+
+		for (int axis = 0; axis < 3; axis++)
+		{
+			assertThat(snapshot.getPalmVelocity(hand, axis))
+					.isEqualTo(expected.palm.velocity.asArray()[axis]);
+			assertThat(snapshot.getPalmNormal(hand, axis))
+					.isEqualTo(expected.palm.normal.asArray()[axis]);
+			assertThat(snapshot.getPalmDirection(hand, axis))
+					.isEqualTo(expected.palm.direction.asArray()[axis]);
+		}
+
+		for (int component = 0; component < 4; component++)
+			assertThat(snapshot.getPalmOrientation(hand, component))
+					.isEqualTo(expected.palm.orientation.asArray()[component]);
+		assertThat(snapshot.getPalmRoll(hand)).isEqualTo(expected.palm.orientation.getRoll());
+		assertThat(snapshot.getPalmPitch(hand)).isEqualTo(expected.palm.orientation.getPitch());
+		assertThat(snapshot.getPalmYaw(hand)).isEqualTo(expected.palm.orientation.getYaw());
+
+		LEAP_DIGIT[] digits = expected.digits.asArray();
+		for (int digit = 0; digit < digits.length; digit++)
+		{
+			LEAP_BONE[] bones = digits[digit].boneArray();
+			assertSameJoint(snapshot, hand, HandFrameBuffer.digitJoint(digit, 0),
+					bones[0].prev_joint);
+			for (int bone = 0; bone < bones.length; bone++)
+				assertSameJoint(snapshot, hand, HandFrameBuffer.digitJoint(digit, bone + 1),
+						bones[bone].next_joint);
+		}
+
+		assertSameJoint(snapshot, hand, HandFrameBuffer.PALM, expected.palm.position);
+		assertSameJoint(snapshot, hand, HandFrameBuffer.WRIST, expected.arm.next_joint);
+		assertSameJoint(snapshot, hand, HandFrameBuffer.ELBOW, expected.arm.prev_joint);
+		assertThat(snapshot.getPalmY(hand)).isEqualTo(expected.palm.position.y);
+	}
+
+
+	private static void assertSameJoint(FrameSnapshot snapshot, int hand, int joint,
+			LEAP_VECTOR expected)
+	{
+		assertThat(new float[] { snapshot.getJointX(hand, joint),
+				snapshot.getJointY(hand, joint), snapshot.getJointZ(hand, joint) })
+						.containsExactly(expected.asArray());
+	}
+
+
+	private TrackingFrames()
+	{}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.codec.HandDecodeSpec.Bone;
+import komposten.leapjna.leapc.codec.HandDecodeSpec.BoneField;
+import komposten.leapjna.leapc.codec.HandDecodeSpec.Digit;
+import komposten.leapjna.leapc.codec.HandDecodeSpec.PalmField;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.util.Structures;
+
+
+class HandDecodeSpecTest
+{
+	private static final HandDecodeSpec BRIDGE_SPEC = HandDecodeSpec.handOnly()
+			.withPalm(PalmField.POSITION)
+			.withArm(BoneField.NEXT_JOINT)
+			.withBones(Digit.MIDDLE, Bone.INTERMEDIATE, Bone.DISTAL)
+			.withBoneFields(BoneField.PREV_JOINT, BoneField.NEXT_JOINT);
+
+	private static final float[] ZERO_VECTOR = { 0, 0, 0 };
+	private static final float[] ZERO_QUATERNION = { 0, 0, 0, 0 };
+
+
+	@AfterEach
+	void tearDown()
+	{
+		StructCodecs.setEnabled(true);
+	}
+
+
+	@Test
+	void all_isAll()
+	{
+		assertThat(HandDecodeSpec.all().isAll()).isTrue();
+		assertThat(HandDecodeSpec.handOnly().withDigits(Digit.values())
+				.withPalm(PalmField.values()).withBoneFields(BoneField.values())
+				.withArm(BoneField.values())).isEqualTo(HandDecodeSpec.all());
+	}
+
+
+	@Test
+	void withBones_onlySelectsBonesOfDigit()
+	{
+		HandDecodeSpec spec = HandDecodeSpec.handOnly().withBones(Digit.RING, Bone.PROXIMAL);
+
+		assertThat(spec.hasBone(Digit.RING, Bone.PROXIMAL)).isTrue();
+		assertThat(spec.hasBone(Digit.RING, Bone.DISTAL)).isFalse();
+		assertThat(spec.hasBone(Digit.MIDDLE, Bone.PROXIMAL)).isFalse();
+		assertThat(spec.isAll()).isFalse();
+	}
+
+
+	@Test
+	void read_selectedParts_sameAsFullRead()
+	{
+		Pointer pHands = TrackingFrames.create(1, 1).share(TrackingFrames.EVENT_SIZE);
+
+		LEAP_HAND expected = new LEAP_HAND(pHands);
+		LEAP_HAND actual = new LEAP_HAND(pHands, BRIDGE_SPEC);
+
+		assertThat(actual.id).isEqualTo(expected.id);
+		assertThat(actual.visible_time).isEqualTo(expected.visible_time);
+		assertThat(actual.grab_strength).isEqualTo(expected.grab_strength);
+		assertThat(actual.palm.position.asArray()).containsExactly(expected.palm.position.asArray());
+		assertThat(actual.arm.next_joint.asArray()).containsExactly(expected.arm.next_joint.asArray());
+		assertThat(actual.digits.middle.finger_id).isEqualTo(expected.digits.middle.finger_id);
+		assertThat(actual.digits.middle.is_extended).isEqualTo(expected.digits.middle.is_extended);
+		assertThat(actual.digits.middle.distal.prev_joint.asArray())
+				.containsExactly(expected.digits.middle.distal.prev_joint.asArray());
+		assertThat(actual.digits.middle.intermediate.next_joint.asArray())
+				.containsExactly(expected.digits.middle.intermediate.next_joint.asArray());
+	}
+
+
+	@Test
+	void read_unselectedParts_notRead()
+	{
+		Pointer pHands = TrackingFrames.create(1, 1).share(TrackingFrames.EVENT_SIZE);
+
+		LEAP_HAND hand = new LEAP_HAND(pHands, BRIDGE_SPEC);
+
+		assertThat(hand.palm.velocity.asArray()).containsExactly(ZERO_VECTOR);
+		assertThat(hand.palm.orientation.asArray()).containsExactly(ZERO_QUATERNION);
+		assertThat(hand.palm.width).isZero();
+		assertThat(hand.arm.prev_joint.asArray()).containsExactly(ZERO_VECTOR);
+		assertThat(hand.digits.middle.distal.rotation.asArray()).containsExactly(ZERO_QUATERNION);
+		assertThat(hand.digits.middle.distal.width).isZero();
+		assertThat(hand.digits.middle.proximal.prev_joint.asArray()).containsExactly(ZERO_VECTOR);
+		assertThat(hand.digits.index.finger_id).isZero();
+		assertThat(hand.digits.index.distal.prev_joint.asArray()).containsExactly(ZERO_VECTOR);
+	}
+
+
+	@Test
+	void read_reusedHand_unselectedPartsKeepValues()
+	{
+		Pointer pHands1 = TrackingFrames.create(1, 1).share(TrackingFrames.EVENT_SIZE);
+		Pointer pHands2 = TrackingFrames.create(1, 2).share(TrackingFrames.EVENT_SIZE);
+		LEAP_HAND expected1 = new LEAP_HAND(pHands1);
+		LEAP_HAND expected2 = new LEAP_HAND(pHands2);
+
+		LEAP_HAND hand = new LEAP_HAND(pHands1);
+		Structures.useMemory(hand, pHands2, 0);
+		hand.read(BRIDGE_SPEC);
+
+		assertThat(hand.palm.position.asArray()).containsExactly(expected2.palm.position.asArray());
+		assertThat(hand.palm.velocity.asArray()).containsExactly(expected1.palm.velocity.asArray());
+	}
+
+
+	@Test
+	void read_nullSpec_readsEverything()
+	{
+		Pointer pHands = TrackingFrames.create(1, 1).share(TrackingFrames.EVENT_SIZE);
+
+		TrackingFrames.assertSameHand(new LEAP_HAND(pHands, null), new LEAP_HAND(pHands));
+	}
+
+
+	@Test
+	void read_codecsDisabled_readsEverything()
+	{
+		Pointer pHands = TrackingFrames.create(1, 1).share(TrackingFrames.EVENT_SIZE);
+		LEAP_HAND expected = new LEAP_HAND(pHands);
+
+		StructCodecs.setEnabled(false);
+		LEAP_HAND actual = new LEAP_HAND(pHands, BRIDGE_SPEC);
+
+		TrackingFrames.assertSameHand(actual, expected);
+		assertThat(StructCodecs.read(actual, BRIDGE_SPEC)).isFalse();
+	}
+
+
+	@Test
+	void trackingEvent_handDecodeSpec_appliedToAllHands()
+	{
+		Memory frame = TrackingFrames.create(2, 1);
+		LEAP_TRACKING_EVENT expected = new LEAP_TRACKING_EVENT(frame);
+
+		LEAP_TRACKING_EVENT event = new LEAP_TRACKING_EVENT(frame, BRIDGE_SPEC);
+
+		assertThat(event.getHands()).hasSize(2);
+		for (int i = 0; i < 2; i++)
+		{
+			LEAP_HAND hand = event.getHands()[i];
+			assertThat(hand.palm.position.asArray())
+					.containsExactly(expected.getHands()[i].palm.position.asArray());
+			assertThat(hand.palm.velocity.asArray()).containsExactly(ZERO_VECTOR);
+		}
+	}
+
+
+	@Test
+	void connectionMessage_reusedEventsWithSpec_specApplied()
+	{
+		Memory frame1 = TrackingFrames.create(1, 1);
+		Memory frame2 = TrackingFrames.create(1, 2);
+		LEAP_HAND expected2 = new LEAP_TRACKING_EVENT(frame2).getHands()[0];
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		message.setReuseEvents(true);
+		message.setHandDecodeSpec(BRIDGE_SPEC);
+
+		message.set(message.size(), eLeapEventType.Tracking.value, frame1, 1);
+		LEAP_HAND hand1 = message.getTrackingEvent().getHands()[0];
+		assertThat(hand1.palm.velocity.asArray()).containsExactly(ZERO_VECTOR);
+
+		message.set(message.size(), eLeapEventType.Tracking.value, frame2, 1);
+		LEAP_HAND hand2 = message.getTrackingEvent().getHands()[0];
+
+		assertThat(hand2).isSameAs(hand1);
+		assertThat(hand2.palm.position.asArray()).containsExactly(expected2.palm.position.asArray());
+		assertThat(hand2.palm.velocity.asArray()).containsExactly(ZERO_VECTOR);
+	}
+}
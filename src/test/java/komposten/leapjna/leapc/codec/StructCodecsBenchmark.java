@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.codec;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * Compares decoding tracking frames with the generated codecs against JNA's reflection.
+ * <code>readHandSelected</code> only reads the parts selected by a {@link HandDecodeSpec}.
+ * Run with <code>mvn -Pbenchmark test -Dbenchmark=StructCodecsBenchmark</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StructCodecsBenchmark
+{
+	@Param({ StructCodecs.GENERATED, StructCodecs.REFLECTION })
+	public String decoder;
+
+	private Memory frame;
+	private LEAP_HAND hand;
+	private final HandDecodeSpec palmAndMiddleFinger = HandDecodeSpec.handOnly()
+			.withPalm(HandDecodeSpec.PalmField.POSITION)
+			.withArm(HandDecodeSpec.BoneField.NEXT_JOINT)
+			.withBones(HandDecodeSpec.Digit.MIDDLE, HandDecodeSpec.Bone.INTERMEDIATE,
+					HandDecodeSpec.Bone.DISTAL)
+			.withBoneFields(HandDecodeSpec.BoneField.PREV_JOINT,
+					HandDecodeSpec.BoneField.NEXT_JOINT);
+
+
+	@Setup
+	public void setup()
+	{
+		StructCodecs.setEnabled(StructCodecs.GENERATED.equals(decoder));
+		frame = TrackingFrames.create(2, 1);
+		hand = new LEAP_HAND(frame.share(TrackingFrames.EVENT_SIZE));
+	}
+
+
+	@TearDown
+	public void tearDown()
+	{
+		StructCodecs.setEnabled(true);
+	}
+
+
+	@Benchmark
+	public LEAP_TRACKING_EVENT readTrackingEvent()
+	{
+		return new LEAP_TRACKING_EVENT(frame);
+	}
+
+
+	@Benchmark
+	public LEAP_HAND readHand()
+	{
+		hand.read();
+		return hand;
+	}
+
+
+	@Benchmark
+	public LEAP_HAND readHandSelected()
+	{
+		hand.read(palmAndMiddleFinger);
+		return hand;
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.data.LEAP_DISTORTION_MATRIX;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENT;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+class StructCodecsTest
+{
+	@AfterEach
+	void tearDown()
+	{
+		StructCodecs.setEnabled(true);
+	}
+
+
+	@Test
+	void get_structures_codecSizeMatchesJna()
+	{
+		assertThat(StructCodecs.get(LEAP_TRACKING_EVENT.class).size())
+				.isEqualTo(new LEAP_TRACKING_EVENT().size());
+		assertThat(StructCodecs.get(LEAP_HAND.class).size()).isEqualTo(new LEAP_HAND().size());
+		assertThat(StructCodecs.get(LEAP_CONNECTION_MESSAGE.class).size())
+				.isEqualTo(new LEAP_CONNECTION_MESSAGE().size());
+	}
+
+
+	@Test
+	void get_subclassWithoutFieldOrder_usesSuperclassCodec()
+	{
+		assertThat(StructCodecs.get(LEAP_VECTOR.ByValue.class))
+				.isSameAs(StructCodecs.get(LEAP_VECTOR.class));
+	}
+
+
+	@Test
+	void get_structureWithArray_null()
+	{
+		assertThat(StructCodecs.get(LEAP_DISTORTION_MATRIX.class)).isNull();
+	}
+
+
+	@Test
+	void get_structureWithByValueField_null()
+	{
+		assertThat(StructCodecs.get(LEAP_DEVICE_EVENT.class)).isNull();
+	}
+
+
+	@Test
+	void write_vector_writtenToNativeMemory()
+	{
+		Memory memory = new Memory(12);
+		LEAP_VECTOR vector = new LEAP_VECTOR(memory);
+
+		vector.set(1, 2, 3);
+
+		assertThat(memory.getFloatArray(0, 3)).containsExactly(1, 2, 3);
+	}
+
+
+	@Test
+	void read_trackingFrame_sameAsReflection()
+	{
+		Memory memory = TrackingFrames.create(2, 42);
+
+		StructCodecs.setEnabled(false);
+		LEAP_TRACKING_EVENT expected = new LEAP_TRACKING_EVENT(memory);
+		StructCodecs.setEnabled(true);
+		LEAP_TRACKING_EVENT actual = new LEAP_TRACKING_EVENT(memory);
+
+		TrackingFrames.assertSameFrame(actual, expected);
+		assertThat(actual.toString()).isEqualTo(expected.toString());
+	}
+
+
+	@Test
+	void read_disabled_false()
+	{
+		StructCodecs.setEnabled(false);
+		assertThat(StructCodecs.read(new LEAP_VECTOR())).isFalse();
+	}
+
+
+	@Test
+	void read_otherAlignment_false()
+	{
+		AlignedTrackingEvent event = new AlignedTrackingEvent();
+
+		assertThat(event.size()).isNotEqualTo(StructCodecs.get(LEAP_TRACKING_EVENT.class).size());
+		assertThat(StructCodecs.read(event)).isFalse();
+	}
+
+
+	@Test
+	void read_samePointer_keepsCurrentInstance()
+	{
+		Memory data = new Memory(4);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		message.pEvent = data;
+		message.write();
+
+		message.read();
+
+		assertThat(message.pEvent).isSameAs(data);
+	}
+
+
+	@Test
+	void read_stringField_readsString()
+	{
+		LEAP_LOG_EVENT event = new LEAP_LOG_EVENT(null);
+		event.severity = 2;
+		event.timestamp = 1234;
+		event.message = "A log message";
+		event.write();
+
+		LEAP_LOG_EVENT actual = new LEAP_LOG_EVENT(event.getPointer());
+		actual.severity = 0;
+		actual.timestamp = 0;
+		actual.message = null;
+
+		assertThat(StructCodecs.read(actual)).isTrue();
+		assertThat(actual.severity).isEqualTo(2);
+		assertThat(actual.timestamp).isEqualTo(1234);
+		assertThat(actual.message).isEqualTo("A log message");
+	}
+
+
+	@Test
+	void write_vector_sameAsReflection()
+	{
+		LEAP_VECTOR vector = new LEAP_VECTOR();
+		vector.x = 1;
+		vector.y = 2;
+		vector.z = 3;
+
+		assertThat(StructCodecs.write(vector)).isTrue();
+
+		Pointer pointer = vector.getPointer();
+		assertThat(new float[] { pointer.getFloat(0), pointer.getFloat(4), pointer.getFloat(8) })
+				.containsExactly(1, 2, 3);
+	}
+
+
+	@Test
+	void write_stringField_notWritable()
+	{
+		LEAP_LOG_EVENT event = new LEAP_LOG_EVENT(null);
+
+		assertThat(StructCodecs.write(event)).isFalse();
+		assertThatThrownBy(() -> StructCodecs.get(LEAP_LOG_EVENT.class).write(event,
+				event.getPointer(), 0)).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+
+	private static class AlignedTrackingEvent extends LEAP_TRACKING_EVENT
+	{
+		AlignedTrackingEvent()
+		{
+			setAlignType(ALIGN_DEFAULT);
+		}
+	}
+}
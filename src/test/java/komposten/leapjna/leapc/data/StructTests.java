@@ -13,6 +13,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
 import java.util.Comparator;
 
 import org.assertj.core.api.Condition;
@@ -22,6 +24,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.TrackingFrames;
 import komposten.leapjna.leapc.enums.eLeapConnectionStatus;
 import komposten.leapjna.leapc.enums.eLeapDeviceCaps;
 import komposten.leapjna.leapc.enums.eLeapDevicePID;
@@ -32,6 +37,7 @@ import komposten.leapjna.leapc.enums.eLeapImageFormat;
 import komposten.leapjna.leapc.enums.eLeapImageType;
 import komposten.leapjna.leapc.enums.eLeapRecordingFlags;
 import komposten.leapjna.leapc.enums.eLeapValueType;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
 
 
 class StructTests
@@ -167,6 +173,91 @@ class StructTests
 		}
 
 
+		@Test
+		void getTrackingEvent_reuseEvents_sameInstancesNewData()
+		{
+			Memory frame1 = TrackingFrames.create(2, 1);
+			Memory frame2 = TrackingFrames.create(2, 2);
+			struct.setReuseEvents(true);
+
+			struct.set(struct.size(), eLeapEventType.Tracking.value, frame1, 1);
+			LEAP_TRACKING_EVENT event1 = struct.getTrackingEvent();
+			LEAP_HAND[] hands1 = event1.getHands();
+
+			struct.set(struct.size(), eLeapEventType.Tracking.value, frame2, 1);
+			LEAP_TRACKING_EVENT event2 = struct.getTrackingEvent();
+
+			assertThat(event2).isSameAs(event1);
+			assertThat(event2.getHands()).isSameAs(hands1);
+			TrackingFrames.assertSameFrame(event2, new LEAP_TRACKING_EVENT(frame2));
+		}
+
+
+		@Test
+		void getTrackingEvent_reuseEventsHandCountChanged_correctHands()
+		{
+			Memory frame1 = TrackingFrames.create(2, 1);
+			Memory frame2 = TrackingFrames.create(1, 2);
+			struct.setReuseEvents(true);
+
+			struct.set(struct.size(), eLeapEventType.Tracking.value, frame1, 1);
+			LEAP_HAND[] hands1 = struct.getTrackingEvent().getHands();
+			struct.set(struct.size(), eLeapEventType.Tracking.value, frame2, 1);
+			LEAP_TRACKING_EVENT event2 = struct.getTrackingEvent();
+
+			assertThat(event2.getHands()).hasSize(1);
+			assertThat(event2.getHands()[0]).isSameAs(hands1[0]);
+			TrackingFrames.assertSameFrame(event2, new LEAP_TRACKING_EVENT(frame2));
+		}
+
+
+		@Test
+		void getTrackingEvent_reuseEventsDisabled_newInstances()
+		{
+			Memory frame = TrackingFrames.create(1, 1);
+
+			struct.set(struct.size(), eLeapEventType.Tracking.value, frame, 1);
+			LEAP_TRACKING_EVENT event1 = struct.getTrackingEvent();
+			struct.set(struct.size(), eLeapEventType.Tracking.value, frame, 1);
+
+			assertThat(struct.getTrackingEvent()).isNotSameAs(event1);
+		}
+
+
+		@Test
+		void getTrackingEvent_reuseEventsSteadyState_noAllocations()
+		{
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+					.getThreadMXBean();
+			Memory frame = TrackingFrames.create(2, 1);
+			struct.setReuseEvents(true);
+			struct.set(struct.size(), eLeapEventType.Tracking.value, frame, 1);
+			struct.write();
+
+			float sum = 0;
+			for (int i = 0; i < 10_000; i++)
+				sum += readFrame();
+
+			long threadId = Thread.currentThread().getId();
+			long before = threads.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < 10_000; i++)
+				sum += readFrame();
+			long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+			// Allow for one-off allocations by the JVM, but not for any per-frame allocations.
+			assertThat(sum).isNotZero();
+			assertThat(allocated).isLessThan(10_000);
+		}
+
+
+		private float readFrame()
+		{
+			struct.read();
+			LEAP_TRACKING_EVENT event = struct.getTrackingEvent();
+			return event.getHands()[1].palm.position.x;
+		}
+
+
 		void assertGetEvent(eLeapEventType type, ThrowingCallable code)
 		{
 			struct = new LEAP_CONNECTION_MESSAGE();
@@ -448,6 +539,97 @@ class StructTests
 			assertThat(struct.getFormat()).isSameAs(expected);
 		}
 	}
+
+
+	@Nested
+	class LEAP_IMAGE_TEST
+	{
+		private static final int WIDTH = 4;
+		private static final int HEIGHT = 3;
+		private static final int OFFSET = 5;
+
+		private LEAP_IMAGE struct;
+		private Memory data;
+
+		@BeforeEach
+		void setup()
+		{
+			data = new Memory(OFFSET + WIDTH * HEIGHT);
+			for (int i = 0; i < data.size(); i++)
+				data.setByte(i, (byte) i);
+
+			struct = new LEAP_IMAGE();
+			struct.properties.width = WIDTH;
+			struct.properties.height = HEIGHT;
+			struct.properties.bpp = 1;
+			struct.data = data;
+			struct.offset = OFFSET;
+		}
+
+
+		@Test
+		void getDataBuffer_readsDataAtOffset()
+		{
+			ByteBuffer buffer = struct.getDataBuffer();
+
+			assertThat(buffer.isReadOnly()).isTrue();
+			assertThat(buffer.remaining()).isEqualTo(WIDTH * HEIGHT);
+			for (int i = 0; i < WIDTH * HEIGHT; i++)
+				assertThat(buffer.get(i)).isEqualTo((byte) (OFFSET + i));
+		}
+
+
+		@Test
+		void getDataBuffer_calledTwice_sameBufferReset()
+		{
+			ByteBuffer buffer = struct.getDataBuffer();
+			buffer.get();
+
+			assertThat(struct.getDataBuffer()).isSameAs(buffer);
+			assertThat(buffer.position()).isZero();
+		}
+
+
+		@Test
+		void getDataBuffer_dataChanged_newBuffer()
+		{
+			ByteBuffer buffer = struct.getDataBuffer();
+			struct.offset = 0;
+
+			assertThat(struct.getDataBuffer()).isNotSameAs(buffer);
+			assertThat(struct.getDataBuffer().get(0)).isEqualTo((byte) 0);
+		}
+
+
+		@Test
+		void copyInto_largeEnoughArray_arrayReused()
+		{
+			byte[] dest = new byte[WIDTH * HEIGHT + 2];
+
+			assertThat(struct.copyInto(dest)).isSameAs(dest);
+			assertThat(dest).startsWith(struct.getData());
+		}
+
+
+		@Test
+		void copyInto_tooSmallArray_newArray()
+		{
+			byte[] dest = new byte[1];
+
+			byte[] result = struct.copyInto(dest);
+			assertThat(result).isNotSameAs(dest).containsExactly(struct.getData());
+		}
+
+
+		@Test
+		void copyIntoAndGetDataBuffer_noData_null()
+		{
+			struct.data = null;
+
+			assertThat(struct.copyInto(new byte[WIDTH * HEIGHT])).isNull();
+			assertThat(struct.getDataBuffer()).isNull();
+		}
+	}
 	
 	
 	@Nested
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.devices;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapPerspectiveType;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_STATUS_CHANGE_EVENT;
+import komposten.leapjna.leapc.simulated.SimulatedLeapC;
+import komposten.leapjna.leapc.simulated.SimulationSettings;
+import komposten.leapjna.leapc.util.PrimitiveArrayPointer;
+
+
+class CalibrationCacheTest
+{
+	private CountingLeapC leapC;
+	private DeviceRegistry registry;
+	private CalibrationCache cache;
+	private LEAP_CONNECTION_MESSAGE message;
+
+
+	@BeforeEach
+	void setup()
+	{
+		leapC = new CountingLeapC();
+		registry = new DeviceRegistry(leapC);
+		message = new LEAP_CONNECTION_MESSAGE();
+
+		LEAP_CONNECTION connection = new LEAP_CONNECTION();
+		leapC.LeapCreateConnection(null, connection);
+		leapC.LeapOpenConnection(connection.handle);
+		cache = new CalibrationCache(leapC, connection.handle);
+
+		for (int i = 0; i < 3; i++)
+		{
+			assertThat(leapC.LeapPollConnection(connection.handle, 0, message))
+					.isEqualTo(eLeapRS.Success);
+			registry.handle(message);
+		}
+	}
+
+
+	@Test
+	void get_firstCall_valuesMatchLeapC()
+	{
+		Device device = registry.get(1);
+		CameraCalibration calibration = cache.get(device, eLeapPerspectiveType.Stereo_left);
+		assertThat(leapC.calls).isEqualTo(4);
+
+		PrimitiveArrayPointer expected = PrimitiveArrayPointer.floats(16);
+		leapC.LeapCameraMatrixEx(null, device.getHandle(),
+				eLeapPerspectiveType.Stereo_left.value, expected);
+		float[] expectedCamera = new float[CameraCalibration.CAMERA_MATRIX_LENGTH];
+		expected.read(0, expectedCamera, 0, expectedCamera.length);
+
+		assertThat(calibration.getDeviceId()).isEqualTo(1);
+		assertThat(calibration.getCamera()).isEqualTo(eLeapPerspectiveType.Stereo_left);
+		assertThat(calibration.copyCameraMatrix(null)).containsExactly(expectedCamera);
+		assertThat(calibration.getFocalLengthX()).isEqualTo(expectedCamera[0]);
+		assertThat(calibration.getPrincipalPointY()).isEqualTo(expectedCamera[5]);
+		assertThat(calibration.getScaleOffsetMatrix(15)).isEqualTo(1);
+		assertThat(calibration.copyDistortionCoeffs(null)).hasSize(8);
+	}
+
+
+	@Test
+	void get_cached_noNativeCalls()
+	{
+		Device device = registry.get(1);
+		CameraCalibration first = cache.get(device, eLeapPerspectiveType.Stereo_left);
+		int calls = leapC.calls;
+
+		assertThat(cache.get(device, eLeapPerspectiveType.Stereo_left)).isSameAs(first);
+		assertThat(cache.getCached(1, eLeapPerspectiveType.Stereo_left)).isSameAs(first);
+		assertThat(leapC.calls).isEqualTo(calls);
+	}
+
+
+	@Test
+	void get_differentCameraOrDevice_fetchedSeparately()
+	{
+		CameraCalibration left = cache.get(registry.get(1), eLeapPerspectiveType.Stereo_left);
+		CameraCalibration right = cache.get(registry.get(1), eLeapPerspectiveType.Stereo_right);
+		CameraCalibration other = cache.get(registry.get(2), eLeapPerspectiveType.Stereo_left);
+
+		assertThat(right).isNotSameAs(left);
+		assertThat(other).isNotSameAs(left);
+		assertThat(other.getDeviceId()).isEqualTo(2);
+		assertThat(leapC.calls).isEqualTo(12);
+	}
+
+
+	@Test
+	void copyCameraMatrix_largeEnoughArray_arrayReusedAndCacheUnaffected()
+	{
+		CameraCalibration calibration = cache.get(registry.get(1),
+				eLeapPerspectiveType.Stereo_left);
+		float[] dest = new float[12];
+
+		assertThat(calibration.copyCameraMatrix(dest)).isSameAs(dest);
+		dest[0] = -1;
+		assertThat(calibration.getCameraMatrix(0)).isNotEqualTo(-1);
+		assertThat(calibration.copyExtrinsicMatrix(new float[4])).hasSize(16);
+	}
+
+
+	@Test
+	void handle_statusChange_deviceInvalidated()
+	{
+		CameraCalibration first = cache.get(registry.get(1), eLeapPerspectiveType.Stereo_left);
+		CameraCalibration other = cache.get(registry.get(2), eLeapPerspectiveType.Stereo_left);
+
+		LEAP_DEVICE_STATUS_CHANGE_EVENT event = new LEAP_DEVICE_STATUS_CHANGE_EVENT(null);
+		event.device.id = 1;
+		event.status = eLeapDeviceStatus.Paused.value;
+		event.write();
+		message.set(message.size(), eLeapEventType.DeviceStatusChange.value,
+				event.getPointer(), 1);
+
+		assertThat(cache.handle(message)).isTrue();
+		assertThat(cache.getCached(1, eLeapPerspectiveType.Stereo_left)).isNull();
+		assertThat(cache.getCached(2, eLeapPerspectiveType.Stereo_left)).isSameAs(other);
+		assertThat(cache.get(registry.get(1), eLeapPerspectiveType.Stereo_left))
+				.isNotSameAs(first);
+	}
+
+
+	@Test
+	void clear_allRemoved()
+	{
+		cache.get(registry.get(1), eLeapPerspectiveType.Stereo_left);
+		cache.get(registry.get(2), eLeapPerspectiveType.Stereo_right);
+
+		cache.clear();
+
+		assertThat(cache.getCached(1, eLeapPerspectiveType.Stereo_left)).isNull();
+		assertThat(cache.getCached(2, eLeapPerspectiveType.Stereo_right)).isNull();
+	}
+
+
+	private static class CountingLeapC extends SimulatedLeapC
+	{
+		int calls;
+
+
+		CountingLeapC()
+		{
+			super(new SimulationSettings().setTrackingRate(0).setDeviceCount(2));
+		}
+
+
+		@Override
+		public void LeapCameraMatrixEx(Pointer hConnection, Pointer hDevice, int camera,
+				PrimitiveArrayPointer dest)
+		{
+			calls++;
+			super.LeapCameraMatrixEx(hConnection, hDevice, camera, dest);
+		}
+
+
+		@Override
+		public void LeapExtrinsicCameraMatrixEx(Pointer hConnection, Pointer hDevice,
+				int camera, PrimitiveArrayPointer dest)
+		{
+			calls++;
+			super.LeapExtrinsicCameraMatrixEx(hConnection, hDevice, camera, dest);
+		}
+
+
+		@Override
+		public void LeapDistortionCoeffsEx(Pointer hConnection, Pointer hDevice, int camera,
+				PrimitiveArrayPointer dest)
+		{
+			calls++;
+			super.LeapDistortionCoeffsEx(hConnection, hDevice, camera, dest);
+		}
+
+
+		@Override
+		public void LeapScaleOffsetMatrixEx(Pointer hConnection, Pointer hDevice, int camera,
+				PrimitiveArrayPointer dest)
+		{
+			calls++;
+			super.LeapScaleOffsetMatrixEx(hConnection, hDevice, camera, dest);
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.devices;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.enums.eLeapPerspectiveType;
+import komposten.leapjna.leapc.simulated.SimulatedLeapC;
+import komposten.leapjna.leapc.simulated.SimulationSettings;
+import komposten.leapjna.leapc.util.PrimitiveArrayPointer;
+
+
+class CameraProjectionTest
+{
+	private static final int CAMERA = eLeapPerspectiveType.Stereo_left.value;
+	/**
+	 * Values recorded from the native functions on a real device by
+	 * <code>komposten.leapjna.example.ProjectionRecorder</code>.
+	 */
+	private static final String NATIVE_RECORDING = "native-projection.csv";
+
+	private SimulatedLeapC leapC;
+	private CameraProjection projection;
+
+
+	@BeforeEach
+	void setup()
+	{
+		leapC = new SimulatedLeapC(new SimulationSettings().setTrackingRate(0));
+		projection = new CameraCalibration(1, eLeapPerspectiveType.Stereo_left,
+				fetch(CameraCalibration.CAMERA_MATRIX_LENGTH), new float[16], new float[8],
+				new float[16]).getProjection();
+	}
+
+
+	private float[] fetch(int length)
+	{
+		PrimitiveArrayPointer buffer = PrimitiveArrayPointer.floats(16);
+		leapC.LeapCameraMatrix(null, CAMERA, buffer);
+		float[] values = new float[length];
+		buffer.read(0, values, 0, length);
+		return values;
+	}
+
+
+	/** Only covers the undistorted pinhole model, which is all the simulator implements. */
+	@Test
+	void rectilinearToPixel_noDistortion_matchesSimulator()
+	{
+		float[] rectilinear = { 0.1f, -0.2f, 1, 0.5f, 0.25f, 2, -0.3f, 0.4f, 0 };
+		float[] pixels = new float[6];
+
+		projection.rectilinearToPixel(rectilinear, 0, pixels, 0, 3);
+
+		for (int i = 0; i < 3; i++)
+		{
+			LEAP_VECTOR.ByValue input = new LEAP_VECTOR.ByValue();
+			input.set(rectilinear[i * 3], rectilinear[i * 3 + 1], rectilinear[i * 3 + 2]);
+			LEAP_VECTOR expected = leapC.LeapRectilinearToPixel(null, CAMERA, input);
+
+			assertThat(pixels[i * 2]).isCloseTo(expected.x, within(1e-3f));
+			assertThat(pixels[i * 2 + 1]).isCloseTo(expected.y, within(1e-3f));
+		}
+	}
+
+
+	@Test
+	void pixelToRectilinear_noDistortion_matchesSimulator()
+	{
+		float[] pixels = { 0, 0, 320, 120, 512.5f, 77.25f };
+		float[] rectilinear = new float[9];
+
+		projection.pixelToRectilinear(pixels, 0, rectilinear, 0, 3);
+
+		for (int i = 0; i < 3; i++)
+		{
+			LEAP_VECTOR.ByValue input = new LEAP_VECTOR.ByValue();
+			input.set(pixels[i * 2], pixels[i * 2 + 1], 0);
+			LEAP_VECTOR expected = leapC.LeapPixelToRectilinear(null, CAMERA, input);
+
+			assertThat(rectilinear[i * 3]).isCloseTo(expected.x, within(1e-5f));
+			assertThat(rectilinear[i * 3 + 1]).isCloseTo(expected.y, within(1e-5f));
+			assertThat(rectilinear[i * 3 + 2]).isEqualTo(1);
+		}
+	}
+
+
+	@Test
+	void project_offsets_onlyRangeWritten()
+	{
+		float[] rectilinear = { 9, 9, 9, 0, 0, 1 };
+		float[] pixels = { -1, -1, -1, -1 };
+
+		projection.rectilinearToPixel(rectilinear, 3, pixels, 2, 1);
+
+		assertThat(pixels[0]).isEqualTo(-1);
+		assertThat(pixels[1]).isEqualTo(-1);
+		assertThat(pixels[2]).isEqualTo(fetch(9)[2]);
+		assertThat(pixels[3]).isEqualTo(fetch(9)[5]);
+	}
+
+
+	@Test
+	void project_withDistortion_roundTrips()
+	{
+		float[] coeffs = { -0.05f, 0.01f, 0.001f, -0.002f, 0.0005f, 0.01f, 0.002f, 0.0001f };
+		CameraProjection distorted = new CameraCalibration(1,
+				eLeapPerspectiveType.Stereo_left, fetch(9), new float[16], coeffs,
+				new float[16]).getProjection();
+		float[] rectilinear = { 0.1f, -0.2f, 1, -0.4f, 0.3f, 1, 0.6f, 0.5f, 1 };
+		float[] pixels = new float[6];
+		float[] result = new float[9];
+
+		distorted.rectilinearToPixel(rectilinear, 0, pixels, 0, 3);
+		projection.rectilinearToPixel(rectilinear, 0, result, 0, 3);
+		assertThat(pixels[0]).isNotEqualTo(result[0]);
+
+		distorted.pixelToRectilinear(pixels, 0, result, 0, 3);
+		assertThat(result).containsExactly(rectilinear, within(1e-4f));
+	}
+
+
+	@Test
+	void rectilinearToPixel_doesNotAllocate()
+	{
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		float[] rectilinear = new float[27 * CameraProjection.RECTILINEAR_STRIDE];
+		float[] pixels = new float[27 * CameraProjection.PIXEL_STRIDE];
+		for (int i = 0; i < rectilinear.length; i++)
+			rectilinear[i] = (i % 3 == 2 ? 1 : i * 0.01f);
+
+		for (int i = 0; i < 10_000; i++)
+		{
+			projection.rectilinearToPixel(rectilinear, 0, pixels, 0, 27);
+			projection.pixelToRectilinear(pixels, 0, rectilinear, 0, 27);
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 10_000; i++)
+		{
+			projection.rectilinearToPixel(rectilinear, 0, pixels, 0, 27);
+			projection.pixelToRectilinear(pixels, 0, rectilinear, 0, 27);
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+		assertThat(allocated).isLessThan(10_000);
+	}
+
+
+	@Test
+	void rectilinearToPixel_recordedNativeValues_withinTolerance() throws IOException
+	{
+		NativeRecording recording = NativeRecording.load();
+		CameraProjection nativeProjection = recording.createProjection();
+		float[] pixel = new float[2];
+
+		for (float[] values : recording.rectilinearToPixel)
+		{
+			nativeProjection.rectilinearToPixel(values, 0, pixel, 0, 1);
+
+			assertThat(pixel[0]).as("x of %s", Arrays.toString(values))
+					.isCloseTo(values[3], within(0.1f));
+			assertThat(pixel[1]).as("y of %s", Arrays.toString(values))
+					.isCloseTo(values[4], within(0.1f));
+		}
+	}
+
+
+	@Test
+	void pixelToRectilinear_recordedNativeValues_withinTolerance() throws IOException
+	{
+		NativeRecording recording = NativeRecording.load();
+		CameraProjection nativeProjection = recording.createProjection();
+		float[] ray = new float[3];
+
+		for (float[] values : recording.pixelToRectilinear)
+		{
+			nativeProjection.pixelToRectilinear(values, 0, ray, 0, 1);
+
+			assertThat(ray).as("ray of %s", Arrays.toString(values))
+					.containsExactly(new float[] { values[2], values[3], values[4] },
+							within(1e-3f));
+		}
+	}
+
+
+	/**
+	 * A recording made by <code>ProjectionRecorder</code>. The tests that use it are
+	 * skipped if there is no recording on the test classpath.
+	 */
+	private static class NativeRecording
+	{
+		private float[] cameraMatrix;
+		private float[] distortionCoeffs;
+		private final List<float[]> rectilinearToPixel = new ArrayList<>();
+		private final List<float[]> pixelToRectilinear = new ArrayList<>();
+
+
+		static NativeRecording load() throws IOException
+		{
+			InputStream input = CameraProjectionTest.class.getResourceAsStream(NATIVE_RECORDING);
+			assumeTrue(input != null, "No recording of the native projection functions");
+
+			NativeRecording recording = new NativeRecording();
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(input, StandardCharsets.UTF_8)))
+			{
+				String line;
+				while ((line = reader.readLine()) != null)
+				{
+					if (line.isEmpty() || line.startsWith("#"))
+						continue;
+
+					String[] parts = line.split(",");
+					float[] values = new float[parts.length - 1];
+					for (int i = 0; i < values.length; i++)
+						values[i] = Float.parseFloat(parts[i + 1]);
+
+					switch (parts[0])
+					{
+						case "camera_matrix" :
+							recording.cameraMatrix = values;
+							break;
+						case "distortion_coeffs" :
+							recording.distortionCoeffs = values;
+							break;
+						case "rectilinear_to_pixel" :
+							recording.rectilinearToPixel.add(values);
+							break;
+						case "pixel_to_rectilinear" :
+							recording.pixelToRectilinear.add(values);
+							break;
+						default :
+							throw new IOException("Unknown entry: " + parts[0]);
+					}
+				}
+			}
+
+			assertThat(recording.cameraMatrix).hasSize(CameraCalibration.CAMERA_MATRIX_LENGTH);
+			assertThat(recording.distortionCoeffs)
+					.hasSize(CameraCalibration.DISTORTION_COEFFS_LENGTH)
+					.as("the recording must exercise the distortion model")
+					.isNotEqualTo(new float[CameraCalibration.DISTORTION_COEFFS_LENGTH]);
+			return recording;
+		}
+
+
+		CameraProjection createProjection()
+		{
+			return new CameraCalibration(1, eLeapPerspectiveType.Stereo_left, cameraMatrix,
+					new float[16], distortionCoeffs, new float[16]).getProjection();
+		}
+	}
+}
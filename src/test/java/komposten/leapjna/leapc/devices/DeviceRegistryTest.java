@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.devices;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Pointer;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE_INFO;
+import komposten.leapjna.leapc.enums.eLeapDeviceStatus;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_DEVICE_STATUS_CHANGE_EVENT;
+import komposten.leapjna.leapc.simulated.SimulatedLeapC;
+import komposten.leapjna.leapc.simulated.SimulationSettings;
+
+
+class DeviceRegistryTest
+{
+	private CountingLeapC leapC;
+	private DeviceRegistry registry;
+	private LEAP_CONNECTION_MESSAGE message;
+
+
+	@BeforeEach
+	void setup()
+	{
+		leapC = new CountingLeapC();
+		registry = new DeviceRegistry(leapC);
+		message = new LEAP_CONNECTION_MESSAGE();
+
+		LEAP_CONNECTION connection = new LEAP_CONNECTION();
+		leapC.LeapCreateConnection(null, connection);
+		leapC.LeapOpenConnection(connection.handle);
+
+		// The connection event is followed by one device event per device.
+		for (int i = 0; i < 3; i++)
+		{
+			assertThat(leapC.LeapPollConnection(connection.handle, 0, message))
+					.isEqualTo(eLeapRS.Success);
+			registry.handle(message);
+		}
+	}
+
+
+	@Test
+	void handle_deviceEvents_devicesOpenedOnceWithInfo()
+	{
+		assertThat(registry.size()).isEqualTo(2);
+		assertThat(registry.getDevices()).extracting(Device::getId).containsExactly(1, 2);
+
+		Device device = registry.get(2);
+		LEAP_DEVICE_INFO expected = new LEAP_DEVICE_INFO(64);
+		leapC.LeapGetDeviceInfo(device.getHandle(), expected);
+
+		assertThat(device.getSerial()).isEqualTo(expected.serial);
+		assertThat(device.getHorizontalFov()).isEqualTo(expected.h_fov);
+		assertThat(device.getRange()).isEqualTo(expected.range);
+		assertThat(device.getStatus()).containsExactly(eLeapDeviceStatus.Streaming);
+		assertThat(leapC.infoCalls).isEqualTo(3);
+	}
+
+
+	@Test
+	void add_alreadyRegistered_notOpenedAgain()
+	{
+		LEAP_DEVICE_EVENT event = new LEAP_DEVICE_EVENT(null);
+		event.device.handle = registry.get(1).getHandle();
+		event.device.id = 1;
+		int infoCalls = leapC.infoCalls;
+
+		assertThat(registry.add(event.device)).isEqualTo(eLeapRS.Success);
+		assertThat(leapC.infoCalls).isEqualTo(infoCalls);
+		assertThat(registry.size()).isEqualTo(2);
+	}
+
+
+	@Test
+	void add_invalidDevice_notAdded()
+	{
+		LEAP_DEVICE_EVENT event = new LEAP_DEVICE_EVENT(null);
+		event.device.handle = new Pointer(1234);
+		event.device.id = 5;
+
+		assertThat(registry.add(event.device)).isEqualTo(eLeapRS.InvalidArgument);
+		assertThat(registry.get(5)).isNull();
+	}
+
+
+	@Test
+	void handle_statusChange_statusUpdated()
+	{
+		LEAP_DEVICE_STATUS_CHANGE_EVENT event = new LEAP_DEVICE_STATUS_CHANGE_EVENT(null);
+		event.device.id = 1;
+		event.last_status = eLeapDeviceStatus.Streaming.value;
+		event.status = eLeapDeviceStatus.Paused.value;
+		event.write();
+		message.set(message.size(), eLeapEventType.DeviceStatusChange.value,
+				event.getPointer(), 1);
+
+		assertThat(registry.handle(message)).isTrue();
+		assertThat(registry.get(1).getStatus()).containsExactly(eLeapDeviceStatus.Paused);
+		assertThat(registry.get(2).getStatus()).containsExactly(eLeapDeviceStatus.Streaming);
+	}
+
+
+	@Test
+	void handle_deviceLost_removedAndClosed()
+	{
+		Pointer handle = registry.get(1).getHandle();
+		LEAP_DEVICE_EVENT event = new LEAP_DEVICE_EVENT(null);
+		event.device.id = 1;
+		event.write();
+		message.set(message.size(), eLeapEventType.DeviceLost.value, event.getPointer(), 1);
+
+		assertThat(registry.handle(message)).isTrue();
+		assertThat(registry.get(1)).isNull();
+		assertThat(registry.get(2)).isNotNull();
+		assertThat(leapC.closed).containsExactly(handle);
+	}
+
+
+	@Test
+	void close_allDevicesClosed()
+	{
+		registry.close();
+
+		assertThat(registry.size()).isZero();
+		assertThat(leapC.closed).hasSize(2);
+	}
+
+
+	private static class CountingLeapC extends SimulatedLeapC
+	{
+		final List<Pointer> closed = new ArrayList<>();
+		int infoCalls;
+
+
+		CountingLeapC()
+		{
+			super(new SimulationSettings().setTrackingRate(0).setDeviceCount(2));
+		}
+
+
+		@Override
+		public eLeapRS LeapGetDeviceInfo(Pointer hDevice, LEAP_DEVICE_INFO info)
+		{
+			infoCalls++;
+			return super.LeapGetDeviceInfo(hDevice, info);
+		}
+
+
+		@Override
+		public void LeapCloseDevice(Pointer hDevice)
+		{
+			closed.add(hDevice);
+		}
+	}
+}
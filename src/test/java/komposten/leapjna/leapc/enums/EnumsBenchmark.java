@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.enums;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the enum conversions done on the poll path: event types, result codes and
+ * device status masks. Each benchmark cycles through the values of the enum so that
+ * lookups cannot be constant-folded. Run with
+ * <code>mvn -Pbenchmark test -Dbenchmark=EnumsBenchmark</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnumsBenchmark
+{
+	private static final int[] EVENT_TYPES = values(eLeapEventType.values());
+	private static final int[] RESULTS = values(eLeapRS.values());
+	private static final int[] STATUS_MASKS = {
+			eLeapDeviceStatus.Streaming.value,
+			eLeapDeviceStatus.Streaming.value | eLeapDeviceStatus.Smudged.value,
+			eLeapDeviceStatus.Paused.value,
+			eLeapDeviceStatus.UnknownFailure.value | eLeapDeviceStatus.BadTransport.value };
+
+	private int index;
+
+
+	private static int[] values(Enums.IntEnum[] constants)
+	{
+		int[] values = new int[constants.length];
+		for (int i = 0; i < constants.length; i++)
+			values[i] = constants[i].getValue();
+		return values;
+	}
+
+
+	private int next(int[] values)
+	{
+		index = (index + 1) % values.length;
+		return values[index];
+	}
+
+
+	@Benchmark
+	public eLeapEventType parse_eventType()
+	{
+		return Enums.parse(next(EVENT_TYPES), eLeapEventType.Unknown);
+	}
+
+
+	@Benchmark
+	public eLeapRS parse_result()
+	{
+		return Enums.parse(next(RESULTS), eLeapRS.Unknown);
+	}
+
+
+	@Benchmark
+	public eLeapDeviceStatus[] parseMask_deviceStatus()
+	{
+		return Enums.parseMask(next(STATUS_MASKS), eLeapDeviceStatus.class);
+	}
+
+
+	@Benchmark
+	public Set<eLeapDeviceStatus> parseMaskSet_deviceStatus()
+	{
+		return Enums.parseMaskSet(next(STATUS_MASKS), eLeapDeviceStatus.class);
+	}
+
+
+	@Benchmark
+	public eLeapDeviceStatus[] parseMask_deviceStatusUncached()
+	{
+		return eLeapDeviceStatus.None.parseMask(next(STATUS_MASKS));
+	}
+}
@@ -10,6 +10,9 @@
 package komposten.leapjna.leapc.enums;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
@@ -138,6 +141,73 @@ class EnumsTest
 	}
 
 
+	@Test
+	void parse_sparseIntEnum_everyConstantFound()
+	{
+		for (eLeapRS expected : eLeapRS.values())
+		{
+			assertThat(Enums.parse(expected.getValue(), eLeapRS.Unknown)).isSameAs(expected);
+		}
+
+		assertThat(Enums.parse(0xE2010100, eLeapRS.Unknown)).isSameAs(eLeapRS.Unknown);
+	}
+
+
+	@Test
+	void parse_constantWithClassBody_enumConstant()
+	{
+		TestBodyEnum actual = Enums.parse(TestBodyEnum.Second.getValue(), TestBodyEnum.First);
+
+		assertThat(actual).isSameAs(TestBodyEnum.Second);
+	}
+
+
+	@Test
+	void parseMask_sameMaskTwice_equalButNotSameArray()
+	{
+		int mask = TestFlagEnum.First.value | TestFlagEnum.Second.value;
+
+		TestFlagEnum[] first = Enums.parseMask(mask, TestFlagEnum.class);
+		TestFlagEnum[] second = Enums.parseMask(mask, TestFlagEnum.class);
+
+		assertThat(first).isNotSameAs(second).containsExactly(second);
+	}
+
+
+	@Test
+	void parseMask_unknownBitsInMask_unknownBitsIgnored()
+	{
+		int mask = TestFlagEnum.Third.value | 0x10000;
+
+		assertThat(Enums.parseMask(mask, TestFlagEnum.class))
+				.containsExactly(TestFlagEnum.Third);
+	}
+
+
+	@Test
+	void parseMaskSet_validMask_cachedUnmodifiableSet()
+	{
+		int mask = TestFlagEnum.First.value | TestFlagEnum.Fourth.value;
+
+		Set<TestFlagEnum> actual = Enums.parseMaskSet(mask, TestFlagEnum.class);
+
+		assertThat(actual).containsExactlyInAnyOrder(TestFlagEnum.First, TestFlagEnum.Fourth);
+		assertThat(Enums.parseMaskSet(mask, TestFlagEnum.class)).isSameAs(actual);
+		assertThatThrownBy(() -> actual.add(TestFlagEnum.Second))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+
+	@Test
+	void parseMaskSet_customParse_sameAsParseMask()
+	{
+		int mask = eLeapDeviceStatus.UnknownFailure.value | eLeapDeviceStatus.BadFirmware.value;
+
+		assertThat(Enums.parseMaskSet(mask, eLeapDeviceStatus.class))
+				.containsExactlyInAnyOrder(eLeapDeviceStatus.BadFirmware.parseMask(mask));
+	}
+
+
 	static enum TestIntEnum implements IntEnum
 	{
 		Default(-1), First(7), Second(23);
@@ -241,4 +311,32 @@ class EnumsTest
 			return Third;
 		}
 	}
+
+
+	static enum TestBodyEnum implements IntEnum
+	{
+		First(1), Second(2)
+		{
+			@Override
+			public String toString()
+			{
+				return "second";
+			}
+		};
+
+		private int value;
+
+
+		private TestBodyEnum(int value)
+		{
+			this.value = value;
+		}
+
+
+		@Override
+		public int getValue()
+		{
+			return value;
+		}
+	}
 }
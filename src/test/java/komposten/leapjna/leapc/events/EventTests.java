@@ -422,4 +422,102 @@ class EventTests
 			assertThat(struct.getCurrentTrackingMode()).isSameAs(expected);
 		}
 	}
+
+
+	@Nested
+	class LEAP_IMAGE_EVENT_TEST
+	{
+		private LEAP_IMAGE_EVENT source;
+
+		@BeforeEach
+		void setup()
+		{
+			source = new LEAP_IMAGE_EVENT(null);
+			source.info.frame_id = 42;
+			source.info.timestamp = 1234;
+			for (int i = 0; i < source.image.length; i++)
+			{
+				source.image[i].properties.width = 10 + i;
+				source.image[i].properties.height = 20 + i;
+				source.image[i].matrix_version = 1 + i;
+				source.image[i].offset = 3 + i;
+			}
+			source.write();
+		}
+
+
+		@Test
+		void constructor_lazy_nothingRead()
+		{
+			LEAP_IMAGE_EVENT event = new LEAP_IMAGE_EVENT(source.getPointer(), true);
+
+			assertThat(event.isLazy()).isTrue();
+			assertThat(event.info.frame_id).isZero();
+			assertThat(event.image).containsOnlyNulls();
+		}
+
+
+		@Test
+		void getInfo_lazy_onlyInfoRead()
+		{
+			LEAP_IMAGE_EVENT event = new LEAP_IMAGE_EVENT(source.getPointer(), true);
+
+			assertThat(event.getInfo().frame_id).isEqualTo(42);
+			assertThat(event.getInfo().timestamp).isEqualTo(1234);
+			assertThat(event.image).containsOnlyNulls();
+		}
+
+
+		@Test
+		void getImage_lazy_onlyThatCameraRead()
+		{
+			LEAP_IMAGE_EVENT event = new LEAP_IMAGE_EVENT(source.getPointer(), true);
+
+			assertThat(event.getImage(1).properties.width).isEqualTo(11);
+			assertThat(event.getImage(1).matrix_version).isEqualTo(2);
+			assertThat(event.getImage(1).offset).isEqualTo(4);
+			assertThat(event.image[0]).isNull();
+		}
+
+
+		@Test
+		void getImageProperties_lazy_restOfImageNotRead()
+		{
+			LEAP_IMAGE_EVENT event = new LEAP_IMAGE_EVENT(source.getPointer(), true);
+
+			assertThat(event.getImageProperties(0).height).isEqualTo(20);
+			assertThat(event.image[0].matrix_version).isZero();
+			assertThat(event.getImage(0).properties).isSameAs(event.getImageProperties(0));
+			assertThat(event.image[0].matrix_version).isEqualTo(1);
+		}
+
+
+		@Test
+		void read_lazy_partsReadAgainWhenRequested()
+		{
+			LEAP_IMAGE_EVENT event = new LEAP_IMAGE_EVENT(source.getPointer(), true);
+			event.getInfo();
+			event.getImage(0);
+
+			source.info.frame_id = 43;
+			source.image[0].properties.width = 50;
+			source.write();
+			event.read();
+
+			assertThat(event.getInfo().frame_id).isEqualTo(43);
+			assertThat(event.getImage(0).properties.width).isEqualTo(50);
+		}
+
+
+		@Test
+		void accessors_notLazy_sameAsFields()
+		{
+			LEAP_IMAGE_EVENT event = new LEAP_IMAGE_EVENT(source.getPointer());
+
+			assertThat(event.isLazy()).isFalse();
+			assertThat(event.getInfo()).isSameAs(event.info);
+			assertThat(event.getImage(1)).isSameAs(event.image[1]);
+			assertThat(event.getImageProperties(1).width).isEqualTo(11);
+		}
+	}
 }
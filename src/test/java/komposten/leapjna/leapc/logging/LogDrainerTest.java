@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.LogEvents;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+
+
+class LogDrainerTest
+{
+	private static final eLeapLogSeverity[] SEVERITIES = { eLeapLogSeverity.Information,
+			eLeapLogSeverity.Critical, eLeapLogSeverity.Warning, eLeapLogSeverity.Information };
+	private static final String[] MESSAGES = { "one", "two", "three", "four" };
+
+	private final List<String> handled = new ArrayList<>();
+
+
+	private LEAP_CONNECTION_MESSAGE createMessage(Memory events)
+	{
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		message.set(message.size(), eLeapEventType.LogEvents.value, events, 0);
+		return message;
+	}
+
+
+	private void handle(eLeapLogSeverity severity, long timestamp, String message)
+	{
+		handled.add(severity + "@" + timestamp + ":" + message);
+	}
+
+
+	@Test
+	void offer_allAccepted_drainedInOrder()
+	{
+		LogDrainer drainer = new LogDrainer(new LogRingBuffer(8, 64), this::handle);
+
+		assertThat(drainer.offer(createMessage(LogEvents.create(SEVERITIES, MESSAGES))))
+				.isTrue();
+		assertThat(drainer.drain()).isEqualTo(4);
+
+		assertThat(handled).containsExactly("Information@1000:one", "Critical@1001:two",
+				"Warning@1002:three", "Information@1003:four");
+		assertThat(drainer.getAcceptedCount()).isEqualTo(4);
+	}
+
+
+	@Test
+	void offer_severityFiltered_skippedAndCounted()
+	{
+		LogDrainer drainer = new LogDrainer(new LogRingBuffer(8, 64), this::handle);
+		drainer.setSeverities(eLeapLogSeverity.Critical, eLeapLogSeverity.Warning);
+
+		drainer.offer(createMessage(LogEvents.create(SEVERITIES, MESSAGES)));
+		drainer.drain();
+
+		assertThat(handled).containsExactly("Critical@1001:two", "Warning@1002:three");
+		assertThat(drainer.getFilteredCount()).isEqualTo(2);
+		assertThat(drainer.getAcceptedCount()).isEqualTo(2);
+	}
+
+
+	@Test
+	void offer_bufferFull_droppedAndCounted()
+	{
+		LogDrainer drainer = new LogDrainer(new LogRingBuffer(3, 64), this::handle);
+
+		drainer.offer(createMessage(LogEvents.create(SEVERITIES, MESSAGES)));
+		drainer.drain();
+
+		assertThat(handled).hasSize(3);
+		assertThat(drainer.getDroppedCount()).isEqualTo(1);
+	}
+
+
+	@Test
+	void offer_longMessage_truncated()
+	{
+		LogDrainer drainer = new LogDrainer(new LogRingBuffer(8, 2), this::handle);
+
+		drainer.offer(createMessage(LogEvents.create(SEVERITIES, MESSAGES)));
+		drainer.drain();
+
+		assertThat(handled).startsWith("Information@1000:on");
+		assertThat(drainer.getBuffer().getTruncatedCount()).isEqualTo(4);
+	}
+
+
+	@Test
+	void offer_otherMessageType_ignored()
+	{
+		LogDrainer drainer = new LogDrainer(new LogRingBuffer(8, 64), this::handle);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		message.set(message.size(), eLeapEventType.Tracking.value, null, 0);
+
+		assertThat(drainer.offer(message)).isFalse();
+		assertThat(drainer.getBuffer().size()).isZero();
+	}
+
+
+	@Test
+	void offer_filteredAndAccepted_noAllocation()
+	{
+		LogDrainer drainer = new LogDrainer(new LogRingBuffer(1 << 14, 64), this::handle);
+		drainer.setSeverities(eLeapLogSeverity.Critical);
+		LEAP_CONNECTION_MESSAGE message = createMessage(LogEvents.create(SEVERITIES, MESSAGES));
+
+		for (int i = 0; i < 1000; i++)
+			drainer.offer(message);
+		drainer.drain();
+		handled.clear();
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 10_000; i++)
+			drainer.offer(message);
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+		assertThat(allocated).isLessThan(10_000);
+		assertThat(drainer.getBuffer().size()).isEqualTo(10_000);
+	}
+
+
+	@Test
+	void start_entriesDrainedOnBackgroundThread() throws InterruptedException
+	{
+		List<String> threadNames = new CopyOnWriteArrayList<>();
+		LogDrainer drainer = new LogDrainer(new LogRingBuffer(8, 64),
+				(severity, timestamp, text) -> threadNames.add(Thread.currentThread().getName()));
+		drainer.start();
+
+		drainer.offer(createMessage(LogEvents.create(SEVERITIES, MESSAGES)));
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (threadNames.size() < 4 && System.nanoTime() < deadline)
+			Thread.sleep(1);
+		drainer.close();
+
+		assertThat(threadNames).hasSize(4).allMatch(name -> name.equals("LeapJna log drainer"));
+		assertThat(drainer.isRunning()).isFalse();
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+
+class ConsumerThreadsTest
+{
+	@Test
+	void isVirtualSupported_matchesRuntimeVersion()
+	{
+		assertThat(ConsumerThreads.isVirtualSupported())
+				.isEqualTo(Runtime.version().feature() >= 21);
+	}
+
+
+	@Test
+	void newThread_runsTaskWithName() throws InterruptedException
+	{
+		AtomicReference<String> threadName = new AtomicReference<>();
+		Thread thread = ConsumerThreads.newThread("consumer",
+				() -> threadName.set(Thread.currentThread().getName()), true);
+
+		thread.start();
+		thread.join(TimeUnit.SECONDS.toMillis(5));
+
+		assertThat(threadName).hasValue("consumer");
+	}
+
+
+	@Test
+	void newExecutor_runsTasks() throws Exception
+	{
+		ExecutorService executor = ConsumerThreads.newExecutor("delivery");
+		try
+		{
+			Future<Integer> result = executor.submit(() -> 42);
+			assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+}
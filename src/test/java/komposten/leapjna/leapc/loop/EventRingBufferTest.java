@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+
+
+class EventRingBufferTest
+{
+	private static final int TRACKING = eLeapEventType.Tracking.value;
+
+
+	@Test
+	void constructor_notPowerOfTwo_throws()
+	{
+		assertThatThrownBy(() -> new EventRingBuffer(6, 2))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+
+	@Test
+	void publish_noConsumers_cursorAdvances()
+	{
+		EventRingBuffer ring = new EventRingBuffer(4, 2);
+
+		for (int i = 0; i < 10; i++)
+			ring.publish(eLeapEventType.None.value, 0, null);
+
+		assertThat(ring.getCursor()).isEqualTo(9);
+	}
+
+
+	@Test
+	void poll_trackingEvent_frameCopied()
+	{
+		EventRingBuffer ring = new EventRingBuffer(4, 2);
+		ConsumerCursor consumer = ring.addConsumer();
+		Memory frame = TrackingFrames.create(2, 7);
+		List<Long> frameIds = new ArrayList<>();
+
+		ring.publish(TRACKING, 3, frame);
+		ring.publish(eLeapEventType.DeviceLost.value, 3, null);
+		frame.clear();
+
+		consumer.poll((event, sequence, endOfBatch) -> {
+			frameIds.add(event.hasFrame() ? event.getFrame().getFrameIds()[0] : -1);
+			assertThat(event.getDeviceId()).isEqualTo(3);
+		}, 10);
+
+		assertThat(frameIds).containsExactly(8L, -1L);
+	}
+
+
+	@Test
+	void poll_unrecognisedType_typeUnknown()
+	{
+		EventRingBuffer ring = new EventRingBuffer(4, 2);
+		ConsumerCursor consumer = ring.addConsumer();
+		List<eLeapEventType> types = new ArrayList<>();
+
+		ring.publish(0x7FFF, 0, null);
+		consumer.poll((event, sequence, endOfBatch) -> types.add(event.getType()), 10);
+
+		assertThat(types).containsExactly(eLeapEventType.Unknown);
+	}
+
+
+	@Test
+	void poll_multipleConsumers_eachSeesAllEventsInOrder()
+	{
+		EventRingBuffer ring = new EventRingBuffer(8, 2);
+		ConsumerCursor first = ring.addConsumer();
+		ConsumerCursor second = ring.addConsumer();
+		List<Long> firstSequences = new ArrayList<>();
+		List<Boolean> endOfBatch = new ArrayList<>();
+
+		for (int i = 0; i < 5; i++)
+			ring.publish(eLeapEventType.None.value, i, null);
+
+		assertThat(first.poll((event, sequence, end) -> firstSequences.add(sequence), 3))
+				.isEqualTo(3);
+		assertThat(first.poll((event, sequence, end) -> firstSequences.add(sequence), 10))
+				.isEqualTo(2);
+		assertThat(second.poll((event, sequence, end) -> endOfBatch.add(end), 10))
+				.isEqualTo(5);
+
+		assertThat(firstSequences).containsExactly(0L, 1L, 2L, 3L, 4L);
+		assertThat(endOfBatch).containsExactly(false, false, false, false, true);
+		assertThat(first.available()).isZero();
+	}
+
+
+	@Test
+	void publish_slowConsumer_lappedAndDropsCounted()
+	{
+		EventRingBuffer ring = new EventRingBuffer(4, 2);
+		ConsumerCursor fast = ring.addConsumer();
+		ConsumerCursor slow = ring.addConsumer();
+		List<Integer> devices = new ArrayList<>();
+
+		for (int i = 0; i < 6; i++)
+		{
+			ring.publish(eLeapEventType.None.value, i, null);
+			fast.poll((event, sequence, end) -> {}, 10);
+		}
+
+		assertThat(slow.getDroppedCount()).isEqualTo(2);
+		slow.poll((event, sequence, end) -> devices.add(event.getDeviceId()), 10);
+
+		assertThat(devices).containsExactly(2, 3, 4, 5);
+		assertThat(slow.getDroppedCount()).isEqualTo(2);
+		assertThat(slow.getSequence()).isEqualTo(5);
+		assertThat(fast.getDroppedCount()).isZero();
+	}
+
+
+	@Test
+	void poll_lappedWhileHandling_handledEventIntactAndSkipsAhead()
+	{
+		EventRingBuffer ring = new EventRingBuffer(4, 2);
+		ConsumerCursor consumer = ring.addConsumer();
+		List<Integer> devices = new ArrayList<>();
+		ring.publish(eLeapEventType.None.value, 0, null);
+		ring.publish(eLeapEventType.None.value, 1, null);
+
+		consumer.poll((event, sequence, end) -> {
+			if (sequence == 0)
+			{
+				for (int i = 2; i < 8; i++)
+					ring.publish(eLeapEventType.None.value, i, null);
+			}
+			devices.add(event.getDeviceId());
+		}, 10);
+
+		assertThat(devices).containsExactly(0, 4, 5, 6, 7);
+		assertThat(consumer.getDroppedCount()).isEqualTo(3);
+	}
+
+
+	@Test
+	void poll_handlerThrows_eventSkipped()
+	{
+		EventRingBuffer ring = new EventRingBuffer(4, 2);
+		ConsumerCursor consumer = ring.addConsumer();
+		List<Integer> devices = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			ring.publish(eLeapEventType.None.value, i, null);
+
+		assertThatThrownBy(() -> consumer.poll((event, sequence, end) -> {
+			if (event.getDeviceId() == 1)
+				throw new IllegalStateException();
+			devices.add(event.getDeviceId());
+		}, 10)).isInstanceOf(IllegalStateException.class);
+		consumer.poll((event, sequence, end) -> devices.add(event.getDeviceId()), 10);
+
+		assertThat(devices).containsExactly(0, 2);
+	}
+
+
+	@Test
+	void publishAndPoll_steadyState_noAllocations()
+	{
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		EventRingBuffer ring = new EventRingBuffer(16, 2);
+		ConsumerCursor consumer = ring.addConsumer();
+		Memory frame = TrackingFrames.create(2, 1);
+		EventHandler handler = (event, sequence, end) -> {};
+
+		for (int i = 0; i < 10_000; i++)
+		{
+			ring.publish(TRACKING, 1, frame);
+			consumer.poll(handler, 16);
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 10_000; i++)
+		{
+			ring.publish(TRACKING, 1, frame);
+			consumer.poll(handler, 16);
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+		// Allow for one-off allocations by the JVM, but not for any per-event allocations.
+		assertThat(allocated).isLessThan(10_000);
+	}
+}
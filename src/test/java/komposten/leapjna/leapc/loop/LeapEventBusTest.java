@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.LogEvents;
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.loop.LeapEventBus.Subscription;
+
+
+class LeapEventBusTest
+{
+	private LeapEventBus bus;
+	private CountingMessage message;
+	private Memory frame;
+
+
+	@BeforeEach
+	void setup()
+	{
+		bus = new LeapEventBus();
+		message = new CountingMessage();
+		frame = TrackingFrames.create(2, 7);
+		message.set(message.size(), eLeapEventType.Tracking.value, frame, 1);
+	}
+
+
+	@Test
+	void dispatch_noListeners_notDecoded()
+	{
+		bus.onImage(event -> {});
+
+		assertThat(bus.dispatch(message)).isFalse();
+		assertThat(message.trackingDecodes).isZero();
+	}
+
+
+	@Test
+	void dispatch_typedListeners_decodedOnce()
+	{
+		List<LEAP_TRACKING_EVENT> events = new ArrayList<>();
+		bus.onTracking(events::add);
+		bus.onTracking(events::add);
+
+		assertThat(bus.dispatch(message)).isTrue();
+
+		assertThat(message.trackingDecodes).isEqualTo(1);
+		assertThat(events).hasSize(2);
+		assertThat(events.get(0)).isSameAs(events.get(1));
+		assertThat(events.get(0).tracking_frame_id).isEqualTo(8);
+	}
+
+
+	@Test
+	void dispatch_messageListener_notDecoded()
+	{
+		List<Integer> deviceIds = new ArrayList<>();
+		bus.on(eLeapEventType.Tracking, m -> deviceIds.add(m.device_id));
+
+		assertThat(bus.dispatch(message)).isTrue();
+
+		assertThat(deviceIds).containsExactly(1);
+		assertThat(message.trackingDecodes).isZero();
+	}
+
+
+	@Test
+	void close_listenerRemoved()
+	{
+		List<LEAP_TRACKING_EVENT> events = new ArrayList<>();
+		Subscription subscription = bus.onTracking(events::add);
+
+		subscription.close();
+
+		assertThat(bus.dispatch(message)).isFalse();
+		assertThat(bus.hasListeners(eLeapEventType.Tracking)).isFalse();
+		assertThat(events).isEmpty();
+	}
+
+
+	@Test
+	void onLog_logEventsMessage_calledForEachEvent()
+	{
+		Memory logs = LogEvents.create(
+				new eLeapLogSeverity[] { eLeapLogSeverity.Warning, eLeapLogSeverity.Critical },
+				"first", "second");
+		message.set(message.size(), eLeapEventType.LogEvents.value, logs, 0);
+		List<String> messages = new ArrayList<>();
+		Subscription subscription = bus.onLog(event -> messages.add(event.message));
+
+		bus.dispatch(message);
+		subscription.close();
+
+		assertThat(messages).containsExactly("first", "second");
+		assertThat(bus.hasListeners(eLeapEventType.LogEvent)).isFalse();
+		assertThat(bus.hasListeners(eLeapEventType.LogEvents)).isFalse();
+	}
+
+
+	private static class CountingMessage extends LEAP_CONNECTION_MESSAGE
+	{
+		int trackingDecodes;
+
+
+		@Override
+		public LEAP_TRACKING_EVENT getTrackingEvent()
+		{
+			trackingDecodes++;
+			return super.getTrackingEvent();
+		}
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.devices.DeviceRegistry;
+import komposten.leapjna.leapc.simulated.SimulatedLeapC;
+import komposten.leapjna.leapc.simulated.SimulationSettings;
+
+
+class LeapEventLoopTest
+{
+	private SimulatedLeapC leapC;
+	private LEAP_CONNECTION connection;
+	private LeapEventLoop loop;
+
+
+	@BeforeEach
+	void setup()
+	{
+		leapC = new SimulatedLeapC(new SimulationSettings()
+				.setTrackingRate(Double.POSITIVE_INFINITY).setDeviceCount(1));
+		connection = new LEAP_CONNECTION();
+		leapC.LeapCreateConnection(null, connection);
+		leapC.LeapOpenConnection(connection.handle);
+		loop = new LeapEventLoop(leapC, connection.handle, 64, 2);
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		loop.close();
+		leapC.LeapCloseConnection(connection.handle);
+	}
+
+
+	@Test
+	void start_consumersReceiveFramesInOrder() throws InterruptedException
+	{
+		CountDownLatch firstDone = new CountDownLatch(100);
+		CountDownLatch secondDone = new CountDownLatch(100);
+		AtomicLong lastFrameId = new AtomicLong();
+		AtomicLong outOfOrder = new AtomicLong();
+
+		loop.addConsumer("first", (event, sequence, end) -> {
+			if (!event.hasFrame())
+				return;
+			long frameId = event.getFrame().getFrameIds()[0];
+			if (frameId <= lastFrameId.getAndSet(frameId))
+				outOfOrder.incrementAndGet();
+			firstDone.countDown();
+		});
+		loop.addConsumer("second", (event, sequence, end) -> {
+			if (event.hasFrame())
+				secondDone.countDown();
+		});
+		loop.start();
+
+		assertThat(firstDone.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(secondDone.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(outOfOrder.get()).isZero();
+	}
+
+
+	@Test
+	void start_stalledConsumer_otherConsumersKeepReceiving() throws InterruptedException
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch fastDone = new CountDownLatch(500);
+		ConsumerCursor stalled = loop.addConsumer("stalled", (event, sequence, end) -> {
+			try
+			{
+				release.await();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		});
+		loop.addConsumer("fast", (event, sequence, end) -> {
+			if (event.hasFrame())
+				fastDone.countDown();
+		});
+		loop.start();
+
+		try
+		{
+			// The ring only holds 64 events, so the stalled consumer is lapped.
+			assertThat(fastDone.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(loop.getDroppedCount(stalled)).isPositive();
+		}
+		finally
+		{
+			release.countDown();
+		}
+	}
+
+
+	@Test
+	void start_messageHandlerReceivesDeviceEvents() throws InterruptedException
+	{
+		DeviceRegistry registry = new DeviceRegistry(leapC);
+		CountDownLatch framePublished = new CountDownLatch(1);
+		loop.setMessageHandler(registry::handle);
+		loop.addConsumer("frames", (event, sequence, end) -> {
+			if (event.hasFrame())
+				framePublished.countDown();
+		});
+
+		loop.start();
+
+		// The device event is polled before the first tracking event.
+		assertThat(framePublished.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(registry.size()).isEqualTo(1);
+		registry.close();
+	}
+
+
+	@Test
+	void setVirtualConsumers_manyConsumers_allReceiveFrames() throws InterruptedException
+	{
+		int consumerCount = 200;
+		CountDownLatch done = new CountDownLatch(consumerCount);
+		loop.setVirtualConsumers(true);
+		for (int i = 0; i < consumerCount; i++)
+		{
+			AtomicLong frames = new AtomicLong();
+			loop.addConsumer("session " + i, (event, sequence, end) -> {
+				if (event.hasFrame() && frames.incrementAndGet() == 10)
+					done.countDown();
+			});
+		}
+
+		loop.start();
+
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(loop.isVirtualConsumers()).isEqualTo(ConsumerThreads.isVirtualSupported());
+	}
+
+
+	@Test
+	void setWaitStrategy_spinning_consumersReceiveFrames() throws InterruptedException
+	{
+		CountDownLatch done = new CountDownLatch(100);
+		loop.setWaitStrategy(WaitStrategy.spinThenPark(100, 10, 10_000));
+		loop.addConsumer("frames", (event, sequence, end) -> {
+			if (event.hasFrame())
+				done.countDown();
+		});
+
+		loop.start();
+
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+
+	@Test
+	void removeConsumer_running_threadStopped() throws InterruptedException
+	{
+		CountDownLatch received = new CountDownLatch(1);
+		ConsumerCursor cursor = loop.addConsumer("removed", (event, sequence, end) -> received
+				.countDown());
+		loop.start();
+		assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+
+		loop.removeConsumer(cursor);
+
+		assertThat(Thread.getAllStackTraces().keySet())
+				.noneMatch(thread -> thread.getName().equals("LeapJna consumer: removed"));
+		assertThatThrownBy(() -> loop.getDroppedCount(cursor))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+
+	@Test
+	void close_threadsStopped()
+	{
+		loop.addConsumer("idle", (event, sequence, end) -> {});
+		loop.start();
+		assertThat(loop.isRunning()).isTrue();
+
+		loop.close();
+
+		assertThat(loop.isRunning()).isFalse();
+		assertThat(Thread.getAllStackTraces().keySet())
+				.noneMatch(thread -> thread.getName().startsWith("LeapJna poller")
+						|| thread.getName().startsWith("LeapJna consumer"));
+	}
+}
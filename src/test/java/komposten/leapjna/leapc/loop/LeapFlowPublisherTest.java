@@ -0,0 +1,323 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.views.FrameSnapshot;
+
+
+class LeapFlowPublisherTest
+{
+	/** Delivers the items on the publishing thread, to keep the tests deterministic. */
+	private static final Executor DIRECT = Runnable::run;
+
+
+	@Test
+	void submit_requestedItems_deliveredInOrder()
+	{
+		LeapFlowPublisher<Integer> publisher = create(4, OverflowStrategy.DROP_NEWEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber(2);
+		publisher.subscribe(subscriber);
+
+		for (int i = 0; i < 3; i++)
+			publisher.submit(i);
+
+		assertThat(subscriber.items).containsExactly(0, 1);
+		subscriber.subscription.request(5);
+		assertThat(subscriber.items).containsExactly(0, 1, 2);
+		assertThat(publisher.getSubscriptions().get(0).getDroppedCount()).isZero();
+	}
+
+
+	@Test
+	void submit_dropOldest_newestKeptAndDropsCounted()
+	{
+		LeapFlowPublisher<Integer> publisher = create(2, OverflowStrategy.DROP_OLDEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		publisher.subscribe(subscriber);
+
+		for (int i = 0; i < 5; i++)
+			publisher.submit(i);
+		subscriber.subscription.request(10);
+
+		assertThat(subscriber.items).containsExactly(3, 4);
+		assertThat(publisher.getSubscriptions().get(0).getDroppedCount()).isEqualTo(3);
+	}
+
+
+	@Test
+	void submit_dropNewest_oldestKeptAndDropsCounted()
+	{
+		LeapFlowPublisher<Integer> publisher = create(2, OverflowStrategy.DROP_NEWEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		publisher.subscribe(subscriber);
+
+		for (int i = 0; i < 5; i++)
+			publisher.submit(i);
+		subscriber.subscription.request(10);
+
+		assertThat(subscriber.items).containsExactly(0, 1);
+		assertThat(publisher.getSubscriptions().get(0).getDroppedCount()).isEqualTo(3);
+	}
+
+
+	@Test
+	void submit_conflateLatest_onlyLatestDelivered()
+	{
+		LeapFlowPublisher<Integer> publisher = create(8, OverflowStrategy.CONFLATE_LATEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		publisher.subscribe(subscriber);
+
+		for (int i = 0; i < 5; i++)
+			publisher.submit(i);
+		subscriber.subscription.request(10);
+
+		assertThat(subscriber.items).containsExactly(4);
+		assertThat(publisher.getSubscriptions().get(0).getDroppedCount()).isEqualTo(4);
+	}
+
+
+	@Test
+	void submit_slowSubscriber_otherSubscribersUnaffected()
+	{
+		LeapFlowPublisher<Integer> publisher = create(1, OverflowStrategy.DROP_NEWEST);
+		RecordingSubscriber slow = new RecordingSubscriber(0);
+		RecordingSubscriber fast = new RecordingSubscriber(Long.MAX_VALUE);
+		publisher.subscribe(slow);
+		publisher.subscribe(fast);
+
+		for (int i = 0; i < 3; i++)
+			publisher.submit(i);
+
+		assertThat(fast.items).containsExactly(0, 1, 2);
+		assertThat(publisher.getSubscriptions()).extracting(s -> s.getDroppedCount())
+				.containsExactly(2L, 0L);
+	}
+
+
+	@Test
+	void submit_blockPoller_blocksUntilRequested() throws InterruptedException
+	{
+		LeapFlowPublisher<Integer> publisher = create(1, OverflowStrategy.BLOCK_POLLER);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		publisher.subscribe(subscriber);
+		publisher.submit(0);
+
+		Thread poller = new Thread(() -> publisher.submit(1));
+		poller.start();
+		poller.join(100);
+		assertThat(poller.isAlive()).isTrue();
+
+		subscriber.subscription.request(2);
+		poller.join(TimeUnit.SECONDS.toMillis(5));
+
+		assertThat(poller.isAlive()).isFalse();
+		assertThat(subscriber.items).containsExactly(0, 1);
+		assertThat(publisher.getSubscriptions().get(0).getDroppedCount()).isZero();
+	}
+
+
+	@Test
+	void close_blockPollerWaiting_unblocksPoller() throws InterruptedException
+	{
+		LeapFlowPublisher<Integer> publisher = create(1, OverflowStrategy.BLOCK_POLLER);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		publisher.subscribe(subscriber);
+		publisher.submit(0);
+
+		Thread poller = new Thread(() -> publisher.submit(1));
+		poller.start();
+		poller.join(100);
+		assertThat(poller.isAlive()).isTrue();
+
+		publisher.close();
+		poller.join(TimeUnit.SECONDS.toMillis(5));
+
+		assertThat(poller.isAlive()).isFalse();
+	}
+
+
+	@Test
+	void accept_noSubscribers_notCopied()
+	{
+		AtomicInteger copies = new AtomicInteger();
+		LeapFlowPublisher<Integer> publisher = new LeapFlowPublisher<>(
+				message -> copies.incrementAndGet(), DIRECT, 1, OverflowStrategy.DROP_NEWEST);
+
+		publisher.accept(new LEAP_CONNECTION_MESSAGE());
+
+		assertThat(copies).hasValue(0);
+	}
+
+
+	@Test
+	void attach_trackingPublisher_publishesSnapshots()
+	{
+		LeapEventBus bus = new LeapEventBus();
+		LeapFlowPublisher<FrameSnapshot> publisher = LeapFlowPublisher.tracking(DIRECT, 2,
+				OverflowStrategy.DROP_OLDEST);
+		List<FrameSnapshot> frames = new ArrayList<>();
+		publisher.subscribe(new CollectingSubscriber<>(frames));
+		LeapEventBus.Subscription attachment = publisher.attach(bus);
+
+		Memory frame = TrackingFrames.create(2, 7);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		message.set(message.size(), eLeapEventType.Tracking.value, frame, 1);
+		bus.dispatch(message);
+		attachment.close();
+		bus.dispatch(message);
+
+		assertThat(frames).hasSize(1);
+		assertThat(frames.get(0).getFrameId()).isEqualTo(7);
+		assertThat(frames.get(0).getHandCount()).isEqualTo(2);
+	}
+
+
+	@Test
+	void close_bufferedItemsDeliveredBeforeCompletion()
+	{
+		LeapFlowPublisher<Integer> publisher = create(4, OverflowStrategy.DROP_NEWEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		publisher.subscribe(subscriber);
+		publisher.submit(0);
+		publisher.submit(1);
+
+		publisher.close();
+		publisher.submit(2);
+		assertThat(subscriber.completed).isFalse();
+		subscriber.subscription.request(10);
+
+		assertThat(subscriber.items).containsExactly(0, 1);
+		assertThat(subscriber.completed).isTrue();
+		assertThat(publisher.getSubscriptions()).isEmpty();
+	}
+
+
+	@Test
+	void request_notPositive_errorSignalled()
+	{
+		LeapFlowPublisher<Integer> publisher = create(4, OverflowStrategy.DROP_NEWEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		publisher.subscribe(subscriber);
+
+		subscriber.subscription.request(0);
+		publisher.submit(0);
+
+		assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+		assertThat(subscriber.items).isEmpty();
+		assertThat(publisher.getSubscriptions()).isEmpty();
+	}
+
+
+	private static LeapFlowPublisher<Integer> create(int bufferSize,
+			OverflowStrategy strategy)
+	{
+		return new LeapFlowPublisher<>(message -> 0, DIRECT, bufferSize, strategy);
+	}
+
+
+	private static class RecordingSubscriber implements Flow.Subscriber<Integer>
+	{
+		final List<Integer> items = new ArrayList<>();
+		final long initialRequest;
+		Flow.Subscription subscription;
+		Throwable error;
+		boolean completed;
+
+
+		RecordingSubscriber(long initialRequest)
+		{
+			this.initialRequest = initialRequest;
+		}
+
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription)
+		{
+			this.subscription = subscription;
+			if (initialRequest > 0)
+				subscription.request(initialRequest);
+		}
+
+
+		@Override
+		public void onNext(Integer item)
+		{
+			items.add(item);
+		}
+
+
+		@Override
+		public void onError(Throwable throwable)
+		{
+			error = throwable;
+		}
+
+
+		@Override
+		public void onComplete()
+		{
+			completed = true;
+		}
+	}
+
+
+	private static class CollectingSubscriber<T> implements Flow.Subscriber<T>
+	{
+		private final List<T> items;
+
+
+		CollectingSubscriber(List<T> items)
+		{
+			this.items = items;
+		}
+
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription)
+		{
+			subscription.request(Long.MAX_VALUE);
+		}
+
+
+		@Override
+		public void onNext(T item)
+		{
+			items.add(item);
+		}
+
+
+		@Override
+		public void onError(Throwable throwable)
+		{
+		}
+
+
+		@Override
+		public void onComplete()
+		{
+		}
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import komposten.leapjna.leapc.LeapC;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.simulated.SimulatedLeapC;
+import komposten.leapjna.leapc.simulated.SimulationSettings;
+
+
+/**
+ * <p>
+ * Measures the wake-up latency and CPU cost of each {@link WaitStrategy}. Each invocation
+ * polls until the next tracking frame, like the poll loop of {@link LeapEventLoop}, and
+ * records how long after its timestamp the frame was picked up, and how much CPU time
+ * the polling thread used. The primary score is roughly the frame period for every
+ * strategy; compare the secondary results instead. JMH sums them over all measurement
+ * iterations, so divide them as follows:
+ * </p>
+ * <ul>
+ * <li>Wake-up latency: <code>latencyMicros / frames</code>, the average time from a
+ * frame's timestamp until the poll returned it.</li>
+ * <li>CPU cost: <code>cpuMicros / wallMicros</code>, the share of one core used by the
+ * polling thread.</li>
+ * </ul>
+ * <p>
+ * The latency includes the time it takes the backend to write the frame, so compare the
+ * strategies with each other rather than reading the latencies as absolute values.
+ * </p>
+ * <p>
+ * By default the frames come from the simulated backend. Note that its blocking poll
+ * spins for the last part of each wait, so the CPU cost of blocking is overstated and its
+ * latency understated compared to the tracking service. Set the
+ * <code>leapjna.backend</code> system property to measure against
+ * {@link LeapC#INSTANCE} instead. Run with
+ * <code>mvn -Pbenchmark test -Dbenchmark=WaitStrategyBenchmark</code>.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WaitStrategyBenchmark
+{
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	@Param({ "blocking:30", "busy-spin", "spin-yield:1000", "spin-park:1000:100:50" })
+	public String strategy;
+
+	@Param({ "120" })
+	public double trackingRate;
+
+	private LeapC leapC;
+	private LEAP_CONNECTION connection;
+	private LEAP_CONNECTION_MESSAGE message;
+	private WaitStrategy waitStrategy;
+
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Counters
+	{
+		public long frames;
+		public long latencyMicros;
+		public long cpuMicros;
+		public long wallMicros;
+
+
+		@Setup(Level.Iteration)
+		public void reset()
+		{
+			frames = latencyMicros = cpuMicros = wallMicros = 0;
+		}
+	}
+
+
+	@Setup
+	public void setup()
+	{
+		if (System.getProperty("leapjna.backend") != null)
+			leapC = LeapC.INSTANCE;
+		else
+			leapC = new SimulatedLeapC(new SimulationSettings().setTrackingRate(trackingRate)
+					.setDeviceCount(1));
+
+		connection = new LEAP_CONNECTION();
+		leapC.LeapCreateConnection(null, connection);
+		leapC.LeapOpenConnection(connection.handle);
+		message = new LEAP_CONNECTION_MESSAGE();
+		waitStrategy = WaitStrategy.parse(strategy);
+	}
+
+
+	@TearDown
+	public void tearDown()
+	{
+		leapC.LeapCloseConnection(connection.handle);
+		leapC.LeapDestroyConnection(connection.handle);
+	}
+
+
+	@Benchmark
+	public long nextFrame(Counters counters)
+	{
+		long cpuStart = THREADS.getCurrentThreadCpuTime();
+		long wallStart = System.nanoTime();
+
+		int idleCount = 0;
+		long now;
+		while (true)
+		{
+			eLeapRS result = leapC.LeapPollConnection(connection.handle,
+					waitStrategy.getTimeout(), message);
+			now = leapC.LeapGetNow();
+
+			if (result == eLeapRS.Success && message.type == eLeapEventType.Tracking.value)
+				break;
+			else if (result == eLeapRS.Timeout)
+				idleCount = waitStrategy.idle(idleCount);
+			else
+				idleCount = 0;
+		}
+
+		LEAP_TRACKING_EVENT event = message.getTrackingEvent();
+		counters.frames++;
+		counters.latencyMicros += now - event.info.timestamp;
+		counters.cpuMicros += (THREADS.getCurrentThreadCpuTime() - cpuStart) / 1000;
+		counters.wallMicros += (System.nanoTime() - wallStart) / 1000;
+		return event.tracking_frame_id;
+	}
+}
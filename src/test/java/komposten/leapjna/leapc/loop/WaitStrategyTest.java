@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.loop;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+
+class WaitStrategyTest
+{
+	@Test
+	void getTimeout_onlyBlockingWaitsInLeapC()
+	{
+		assertThat(WaitStrategy.blocking(15).getTimeout()).isEqualTo(15);
+		assertThat(WaitStrategy.busySpin().getTimeout()).isZero();
+		assertThat(WaitStrategy.spinThenYield(10).getTimeout()).isZero();
+		assertThat(WaitStrategy.spinThenPark(10, 10, 1000).getTimeout()).isZero();
+	}
+
+
+	@Test
+	void parse_defaults_defaultValuesUsed()
+	{
+		assertThat(WaitStrategy.parse("blocking")).hasToString("blocking:30");
+		assertThat(WaitStrategy.parse("spin-yield")).hasToString("spin-yield:1000");
+		assertThat(WaitStrategy.parse("spin-park:200")).hasToString("spin-park:200:100:50");
+	}
+
+
+	@ParameterizedTest
+	@ValueSource(strings = { "blocking:5", "busy-spin", "spin-yield:20", "spin-park:1:2:3" })
+	void parse_toString_sameStrategy(String strategy)
+	{
+		assertThat(WaitStrategy.parse(strategy)).hasToString(strategy);
+	}
+
+
+	@ParameterizedTest
+	@ValueSource(strings = { "spinning", "blocking:0", "blocking:x", "busy-spin:1",
+			"spin-park:1:2:3:4", "spin-yield:-1" })
+	void parse_invalid_throwsException(String strategy)
+	{
+		assertThatThrownBy(() -> WaitStrategy.parse(strategy))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+
+	@Test
+	void idle_maxCount_doesNotOverflow()
+	{
+		WaitStrategy strategy = WaitStrategy.busySpin();
+
+		assertThat(strategy.idle(0)).isEqualTo(1);
+		assertThat(strategy.idle(Integer.MAX_VALUE)).isEqualTo(Integer.MAX_VALUE);
+	}
+
+
+	@Test
+	void idle_spinThenPark_parksAfterSpinsAndYields()
+	{
+		long parkNanos = TimeUnit.MILLISECONDS.toNanos(20);
+		WaitStrategy strategy = WaitStrategy.spinThenPark(5, 5, parkNanos);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 10; i++)
+			strategy.idle(i);
+		long spinTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		strategy.idle(10);
+		long parkTime = System.nanoTime() - start;
+
+		assertThat(spinTime).isLessThan(parkNanos);
+		assertThat(parkTime).isGreaterThanOrEqualTo(parkNanos / 2);
+	}
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.simulated;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.LongByReference;
+
+import komposten.leapjna.leapc.data.LEAP_CONNECTION;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE;
+import komposten.leapjna.leapc.data.LEAP_DEVICE_INFO;
+import komposten.leapjna.leapc.data.LEAP_DEVICE_REF;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapHandType;
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+import komposten.leapjna.leapc.enums.eLeapRS;
+import komposten.leapjna.leapc.events.LEAP_IMAGE_EVENT;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENT;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+import komposten.leapjna.leapc.util.ArrayPointer;
+
+
+class SimulatedLeapCTest
+{
+	private static Pointer openConnection(SimulatedLeapC leapC)
+	{
+		LEAP_CONNECTION connection = new LEAP_CONNECTION();
+		assertThat(leapC.LeapCreateConnection(null, connection)).isEqualTo(eLeapRS.Success);
+		assertThat(leapC.LeapOpenConnection(connection.handle)).isEqualTo(eLeapRS.Success);
+		return connection.handle;
+	}
+
+
+	private static void skipStartupEvents(SimulatedLeapC leapC, Pointer hConnection,
+			LEAP_CONNECTION_MESSAGE message)
+	{
+		int count = 1 + leapC.getSettings().getDeviceCount();
+		for (int i = 0; i < count; i++)
+			assertThat(leapC.LeapPollConnection(hConnection, 0, message)).isEqualTo(eLeapRS.Success);
+	}
+
+
+	@Test
+	void LeapPollConnection_afterOpen_connectionThenDeviceEvents()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(new SimulationSettings().setDeviceCount(2));
+		Pointer hConnection = openConnection(leapC);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+
+		assertThat(leapC.LeapPollConnection(hConnection, 0, message)).isEqualTo(eLeapRS.Success);
+		assertThat(message.getType()).isEqualTo(eLeapEventType.Connection);
+
+		for (int id = 1; id <= 2; id++)
+		{
+			assertThat(leapC.LeapPollConnection(hConnection, 0, message))
+					.isEqualTo(eLeapRS.Success);
+			assertThat(message.getType()).isEqualTo(eLeapEventType.Device);
+			assertThat(message.device_id).isEqualTo(id);
+			assertThat(message.getDeviceEvent().device.id).isEqualTo(id);
+		}
+	}
+
+
+	@Test
+	void LeapPollConnection_reopened_streamsNotDuplicated()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(
+				new SimulationSettings().setTrackingRate(Double.POSITIVE_INFINITY));
+		Pointer hConnection = openConnection(leapC);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		skipStartupEvents(leapC, hConnection, message);
+		for (int i = 0; i < 5; i++)
+			leapC.LeapPollConnection(hConnection, 100, message);
+
+		leapC.LeapCloseConnection(hConnection);
+		assertThat(leapC.LeapOpenConnection(hConnection)).isEqualTo(eLeapRS.Success);
+		skipStartupEvents(leapC, hConnection, message);
+
+		// A duplicated stream would interleave its frames with those of the new stream.
+		for (int i = 1; i <= 10; i++)
+		{
+			leapC.LeapPollConnection(hConnection, 100, message);
+			assertThat(message.getType()).isEqualTo(eLeapEventType.Tracking);
+			assertThat(message.getTrackingEvent().info.frame_id).isEqualTo(i);
+		}
+	}
+
+
+	@Test
+	void LeapPollConnection_notOpened_NotConnected()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC();
+		LEAP_CONNECTION connection = new LEAP_CONNECTION();
+		leapC.LeapCreateConnection(null, connection);
+
+		eLeapRS result = leapC.LeapPollConnection(connection.handle, 0,
+				new LEAP_CONNECTION_MESSAGE());
+
+		assertThat(result).isEqualTo(eLeapRS.NotConnected);
+	}
+
+
+	@Test
+	void LeapPollConnection_tracking_increasingFramesWithHands()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(
+				new SimulationSettings().setTrackingRate(Double.POSITIVE_INFINITY));
+		Pointer hConnection = openConnection(leapC);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		skipStartupEvents(leapC, hConnection, message);
+
+		long previousFrame = 0;
+		long previousTimestamp = 0;
+		for (int i = 0; i < 10; i++)
+		{
+			assertThat(leapC.LeapPollConnection(hConnection, 100, message))
+					.isEqualTo(eLeapRS.Success);
+			assertThat(message.getType()).isEqualTo(eLeapEventType.Tracking);
+
+			LEAP_TRACKING_EVENT event = message.getTrackingEvent();
+			assertThat(event.info.frame_id).isGreaterThan(previousFrame);
+			assertThat(event.info.timestamp).isGreaterThanOrEqualTo(previousTimestamp);
+			assertThat(event.nHands).isEqualTo(2);
+
+			LEAP_HAND[] hands = event.getHands();
+			assertThat(hands[0].getType()).isEqualTo(eLeapHandType.Left);
+			assertThat(hands[1].getType()).isEqualTo(eLeapHandType.Right);
+			assertThat(hands[0].palm.position.y).isPositive();
+
+			previousFrame = event.info.frame_id;
+			previousTimestamp = event.info.timestamp;
+		}
+	}
+
+
+	@Test
+	void LeapPollConnection_noEventsEnabled_Timeout()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(new SimulationSettings().setTrackingRate(0));
+		Pointer hConnection = openConnection(leapC);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		skipStartupEvents(leapC, hConnection, message);
+
+		assertThat(leapC.LeapPollConnection(hConnection, 10, message))
+				.isEqualTo(eLeapRS.Timeout);
+		assertThat(message.getType()).isEqualTo(eLeapEventType.None);
+	}
+
+
+	@Test
+	void LeapPollConnection_fixedRate_approximatelyCorrectFrameCount()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(new SimulationSettings().setTrackingRate(500));
+		Pointer hConnection = openConnection(leapC);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		skipStartupEvents(leapC, hConnection, message);
+
+		int frames = 0;
+		long end = System.nanoTime() + 200_000_000L;
+		while (System.nanoTime() < end)
+		{
+			if (leapC.LeapPollConnection(hConnection, 10, message) == eLeapRS.Success)
+				frames++;
+		}
+
+		// 500 Hz for 200 ms is 100 frames. Leave room for slow build machines.
+		assertThat(frames).isBetween(50, 110);
+	}
+
+
+	@Test
+	void LeapPollConnection_paused_noTrackingEvents()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(
+				new SimulationSettings().setTrackingRate(Double.POSITIVE_INFINITY));
+		Pointer hConnection = openConnection(leapC);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		skipStartupEvents(leapC, hConnection, message);
+
+		leapC.LeapSetPause(hConnection, 1);
+
+		assertThat(leapC.LeapPollConnection(hConnection, 5, message)).isEqualTo(eLeapRS.Timeout);
+	}
+
+
+	@Test
+	void LeapPollConnection_logEvents_severityAndMessage()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(new SimulationSettings().setTrackingRate(0)
+				.setLogRate(Double.POSITIVE_INFINITY));
+		Pointer hConnection = openConnection(leapC);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		skipStartupEvents(leapC, hConnection, message);
+
+		for (int i = 1; i <= 10; i++)
+		{
+			leapC.LeapPollConnection(hConnection, 100, message);
+			assertThat(message.getType()).isEqualTo(eLeapEventType.LogEvent);
+
+			LEAP_LOG_EVENT event = message.getLogEvent();
+			assertThat(event.message).isEqualTo("Simulated log message " + i);
+			assertThat(event.getSeverity()).isEqualTo(
+					i == 10 ? eLeapLogSeverity.Warning : eLeapLogSeverity.Information);
+		}
+	}
+
+
+	@Test
+	void LeapPollConnection_imageEvents_correctImages()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(new SimulationSettings().setTrackingRate(0)
+				.setImageRate(Double.POSITIVE_INFINITY).setImageSize(64, 16));
+		Pointer hConnection = openConnection(leapC);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		skipStartupEvents(leapC, hConnection, message);
+
+		leapC.LeapPollConnection(hConnection, 100, message);
+		assertThat(message.getType()).isEqualTo(eLeapEventType.Image);
+
+		LEAP_IMAGE_EVENT event = message.getImageEvent();
+		assertThat(event.image[0].properties.width).isEqualTo(64);
+		assertThat(event.image[1].properties.height).isEqualTo(16);
+		assertThat(event.image[0].matrix_version).isNotEqualTo(event.image[1].matrix_version);
+		assertThat(event.image[0].data.getByte(0)).isEqualTo((byte) 16);
+	}
+
+
+	@Test
+	void LeapPollConnection_concurrentPolls_ConcurrentPoll() throws InterruptedException
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(new SimulationSettings().setTrackingRate(0));
+		Pointer hConnection = openConnection(leapC);
+		skipStartupEvents(leapC, hConnection, new LEAP_CONNECTION_MESSAGE());
+
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicReference<eLeapRS> result = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			started.countDown();
+			result.set(leapC.LeapPollConnection(hConnection, 500, new LEAP_CONNECTION_MESSAGE()));
+		});
+		thread.start();
+		started.await();
+		Thread.sleep(50);
+
+		assertThat(leapC.LeapPollConnection(hConnection, 0, new LEAP_CONNECTION_MESSAGE()))
+				.isEqualTo(eLeapRS.ConcurrentPoll);
+		thread.join();
+		assertThat(result.get()).isEqualTo(eLeapRS.Timeout);
+	}
+
+
+	@Test
+	void LeapGetDeviceList_nullArray_deviceCount()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(new SimulationSettings().setDeviceCount(3));
+		Pointer hConnection = openConnection(leapC);
+		IntByReference pnArray = new IntByReference();
+
+		assertThat(leapC.LeapGetDeviceList(hConnection, null, pnArray)).isEqualTo(eLeapRS.Success);
+		assertThat(pnArray.getValue()).isEqualTo(3);
+	}
+
+
+	@Test
+	void LeapGetDeviceInfo_twoCalls_serialReturned()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC();
+		Pointer hConnection = openConnection(leapC);
+
+		IntByReference pnArray = new IntByReference(1);
+		ArrayPointer<LEAP_DEVICE_REF> pArray = ArrayPointer.empty(LEAP_DEVICE_REF.class, 1);
+		assertThat(leapC.LeapGetDeviceList(hConnection, pArray, pnArray))
+				.isEqualTo(eLeapRS.Success);
+
+		LEAP_DEVICE device = new LEAP_DEVICE();
+		assertThat(leapC.LeapOpenDevice(pArray.getElement(0), device)).isEqualTo(eLeapRS.Success);
+
+		LEAP_DEVICE_INFO info = new LEAP_DEVICE_INFO();
+		assertThat(leapC.LeapGetDeviceInfo(device.handle, info))
+				.isEqualTo(eLeapRS.InsufficientBuffer);
+
+		info.allocateSerialBuffer(info.serial_length);
+		assertThat(leapC.LeapGetDeviceInfo(device.handle, info)).isEqualTo(eLeapRS.Success);
+		assertThat(info.serial).isEqualTo("SIM00001");
+		assertThat(info.range).isPositive();
+	}
+
+
+	@Test
+	void LeapInterpolateFrame_frameSizeBuffer_handsWritten()
+	{
+		SimulatedLeapC leapC = new SimulatedLeapC(new SimulationSettings().setHandCount(1));
+		Pointer hConnection = openConnection(leapC);
+
+		LongByReference pncbEvent = new LongByReference();
+		long timestamp = leapC.LeapGetNow();
+		assertThat(leapC.LeapGetFrameSize(hConnection, timestamp, pncbEvent))
+				.isEqualTo(eLeapRS.Success);
+
+		LEAP_TRACKING_EVENT event = new LEAP_TRACKING_EVENT((int) pncbEvent.getValue());
+		assertThat(leapC.LeapInterpolateFrame(hConnection, timestamp, event,
+				pncbEvent.getValue())).isEqualTo(eLeapRS.Success);
+		assertThat(event.info.timestamp).isEqualTo(timestamp);
+		assertThat(event.nHands).isEqualTo(1);
+		assertThat(event.getHands()[0].id).isEqualTo(1);
+
+		LEAP_TRACKING_EVENT small = new LEAP_TRACKING_EVENT(8);
+		assertThat(leapC.LeapInterpolateFrame(hConnection, timestamp, small, 8))
+				.isEqualTo(eLeapRS.InsufficientBuffer);
+	}
+}
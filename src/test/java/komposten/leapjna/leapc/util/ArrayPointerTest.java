@@ -259,11 +259,13 @@ class ArrayPointerTest
 		assertThatThrownBy(
 				() -> arrayPointer.setElements(new StructureWithCtors[1], 1, 0, 1))
 						.as("Offset + count exceeds source bounds")
-						.isInstanceOf(ArrayIndexOutOfBoundsException.class);
+						.isInstanceOf(ArrayIndexOutOfBoundsException.class)
+						.hasMessageEndingWith("2 > 1");
 		assertThatThrownBy(
 				() -> arrayPointer.setElements(new StructureWithCtors[5], 1, 0, 3))
 						.as("Offset + count exceeds destination bounds")
-						.isInstanceOf(ArrayIndexOutOfBoundsException.class);
+						.isInstanceOf(ArrayIndexOutOfBoundsException.class)
+						.hasMessageEndingWith("3 > 2");
 	}
 
 
@@ -288,6 +290,75 @@ class ArrayPointerTest
 	}
 
 
+	@Test
+	void setElements_contiguousSource_overwriteCorrectValues()
+	{
+		ArrayPointer<StructureWithCtors> arrayPointer = ArrayPointer
+				.empty(StructureWithCtors.class, 4);
+
+		StructureWithCtors[] newElements = (StructureWithCtors[]) new StructureWithCtors()
+				.toArray(3);
+		for (int i = 0; i < newElements.length; i++)
+		{
+			newElements[i].a = i + 1;
+			newElements[i].b = i + 2;
+			newElements[i].c = i + 3;
+			newElements[i].write();
+		}
+
+		arrayPointer.setElements(newElements, 1);
+		assertMemoryContains(arrayPointer, 0, 0, 0, 0, "First element unchanged");
+		assertMemoryContains(arrayPointer, 20, 1, 2, 3, "Second element new values");
+		assertMemoryContains(arrayPointer, 40, 2, 3, 4, "Third element new values");
+		assertMemoryContains(arrayPointer, 60, 3, 4, 5, "Fourth element new values");
+	}
+
+
+	@Test
+	void copyElements_arrayPointerSource_overwriteCorrectValues()
+	{
+		StructureWithCtors[] values = { new StructureWithCtors(1, 2, 3),
+				new StructureWithCtors(4, 5, 6), new StructureWithCtors(7, 8, 9) };
+		ArrayPointer<StructureWithCtors> source = ArrayPointer.fromArray(values);
+		ArrayPointer<StructureWithCtors> arrayPointer = ArrayPointer
+				.empty(StructureWithCtors.class, 3);
+
+		arrayPointer.copyElements(source, 1, 0, 2);
+		assertMemoryContains(arrayPointer, 0, 4, 5, 6, "First element new values");
+		assertMemoryContains(arrayPointer, 20, 7, 8, 9, "Second element new values");
+		assertMemoryContains(arrayPointer, 40, 0, 0, 0, "Third element unchanged");
+	}
+
+
+	@Test
+	void copyElements_overlappingSource_overwriteCorrectValues()
+	{
+		StructureWithCtors[] values = { new StructureWithCtors(1, 2, 3),
+				new StructureWithCtors(4, 5, 6), new StructureWithCtors(7, 8, 9) };
+		ArrayPointer<StructureWithCtors> arrayPointer = ArrayPointer.fromArray(values);
+
+		arrayPointer.copyElements(arrayPointer, 0, 1, 2);
+		assertMemoryContains(arrayPointer, 0, 1, 2, 3);
+		assertMemoryContains(arrayPointer, 20, 1, 2, 3);
+		assertMemoryContains(arrayPointer, 40, 4, 5, 6);
+	}
+
+
+	@Test
+	void copyElements_outOfBounds_arrayOutOfBoundsException()
+	{
+		ArrayPointer<StructureWithCtors> source = ArrayPointer
+				.empty(StructureWithCtors.class, 2);
+		ArrayPointer<StructureWithCtors> arrayPointer = ArrayPointer
+				.empty(StructureWithCtors.class, 3);
+
+		assertThatThrownBy(() -> arrayPointer.copyElements(source, 1, 0, 2))
+				.isInstanceOf(ArrayIndexOutOfBoundsException.class);
+		assertThatThrownBy(() -> arrayPointer.copyElements(source, 0, 2, 2))
+				.isInstanceOf(ArrayIndexOutOfBoundsException.class);
+	}
+
+
 	@Test
 	void setElements_sourceIsEmpty_doNothing()
 	{
@@ -536,6 +607,25 @@ class ArrayPointerTest
 	}
 	
 	
+	@Test
+	void contentEquals_differentArrayPointer_false()
+	{
+		ArrayPointer<?> arrayPointer = ArrayPointer.empty(StructureWithCtors.class, 5);
+		ArrayPointer<?> differentPeer = ArrayPointer.empty(StructureWithCtors.class, arrayPointer.getArraySize());
+		ArrayPointer<?> differentSize = ArrayPointer.fromPointer(arrayPointer, StructureWithCtors.class, 4);
+		ArrayPointer<?> differentType = ArrayPointer.fromPointer(arrayPointer, StructureNoPointerCtor.class, arrayPointer.getArraySize());
+		ArrayPointer<?> differentValues = ArrayPointer.empty(StructureWithCtors.class, arrayPointer.getArraySize());
+		differentValues.setInt(0, 1);
+
+		assertThat(arrayPointer.contentEquals(arrayPointer)).isTrue();
+		assertThat(arrayPointer.contentEquals(differentPeer)).isTrue();
+		assertThat(arrayPointer.contentEquals(differentSize)).isFalse();
+		assertThat(arrayPointer.contentEquals(differentType)).isFalse();
+		assertThat(arrayPointer.contentEquals(differentValues)).isFalse();
+		assertThat(arrayPointer.contentEquals(null)).isFalse();
+	}
+
+
 	@Test
 	void hashCode_calculatedProperly()
 	{
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.data.LEAP_IMAGE;
+
+
+class DistortionMatrixCacheTest
+{
+	private DistortionMatrixCache cache;
+	private Memory matrix;
+	private LEAP_IMAGE image;
+
+	@BeforeEach
+	void setup()
+	{
+		cache = new DistortionMatrixCache();
+		matrix = createMatrix(1);
+		image = new LEAP_IMAGE();
+		image.matrix_version = 1;
+		image.distortion_matrix = matrix;
+	}
+
+
+	@Test
+	void get_firstCall_readsMatrix()
+	{
+		float[] result = cache.get(5, 0, image);
+
+		assertThat(result).hasSize(DistortionMatrixCache.MATRIX_LENGTH);
+		assertThat(result[0]).isEqualTo(1);
+		assertThat(result[result.length - 1]).isEqualTo(result.length);
+		assertThat(cache.getVersion(5, 0)).isEqualTo(1);
+	}
+
+
+	@Test
+	void get_sameVersion_matrixNotReadAgain()
+	{
+		float[] first = cache.get(5, 0, image);
+		matrix.setFloat(0, -1);
+
+		float[] second = cache.get(5, 0, image);
+
+		assertThat(second).isSameAs(first);
+		assertThat(second[0]).isEqualTo(1);
+	}
+
+
+	@Test
+	void get_newVersion_sharedArrayUpdated()
+	{
+		float[] first = cache.get(5, 0, image);
+		image.matrix_version = 2;
+		image.distortion_matrix = createMatrix(10);
+
+		float[] second = cache.get(5, 0, image);
+
+		assertThat(second).isSameAs(first);
+		assertThat(second[0]).isEqualTo(10);
+		assertThat(cache.getVersion(5, 0)).isEqualTo(2);
+	}
+
+
+	@Test
+	void get_differentDevicesAndCameras_separateMatrices()
+	{
+		float[] device1Left = cache.get(1, 0, image);
+		float[] device1Right = cache.get(1, 1, image);
+		float[] device2Left = cache.get(2, 0, image);
+
+		assertThat(device1Left).isNotSameAs(device1Right).isNotSameAs(device2Left);
+		assertThat(cache.getVersion(3, 0)).isEqualTo(DistortionMatrixCache.NO_VERSION);
+	}
+
+
+	@Test
+	void get_versionZero_readsAndCachesMatrix()
+	{
+		image.matrix_version = 0;
+
+		float[] first = cache.get(5, 0, image);
+		matrix.setFloat(0, -1);
+		float[] second = cache.get(5, 0, image);
+
+		assertThat(first).isNotNull().isSameAs(second);
+		assertThat(second[0]).isEqualTo(1);
+		assertThat(cache.isCached(5, 0)).isTrue();
+		assertThat(cache.isCached(5, 1)).isFalse();
+	}
+
+
+	@Test
+	void get_noMatrix_null()
+	{
+		image.distortion_matrix = null;
+
+		assertThat(cache.get(1, 0, image)).isNull();
+	}
+
+
+	@Test
+	void get_invalidCamera_throws()
+	{
+		assertThatExceptionOfType(IndexOutOfBoundsException.class)
+				.isThrownBy(() -> cache.get(1, 2, image));
+	}
+
+
+	@Test
+	void remove_matrixReadAgain()
+	{
+		cache.get(1, 0, image);
+		cache.get(2, 0, image);
+		cache.remove(1);
+
+		assertThat(cache.getVersion(1, 0)).isEqualTo(DistortionMatrixCache.NO_VERSION);
+		assertThat(cache.isCached(1, 0)).isFalse();
+		assertThat(cache.getVersion(2, 0)).isEqualTo(1);
+
+		matrix.setFloat(0, -1);
+		assertThat(cache.get(1, 0, image)[0]).isEqualTo(-1);
+	}
+
+
+	private static Memory createMatrix(int start)
+	{
+		Memory memory = new Memory((long) DistortionMatrixCache.MATRIX_LENGTH * Float.BYTES);
+		for (int i = 0; i < DistortionMatrixCache.MATRIX_LENGTH; i++)
+			memory.setFloat((long) i * Float.BYTES, start + i);
+		return memory;
+	}
+}
@@ -12,6 +12,10 @@ package komposten.leapjna.leapc.util;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
 import org.assertj.core.data.Offset;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -181,4 +185,127 @@ class PrimitiveArrayPointerTest
 
 		assertThat(arrayPointer.toFloatArray(new float[0])).containsExactly(values, PRECISION);
 	}
-}
\ No newline at end of file
+
+
+	@Test
+	void newTypes_correctSizeAllocated()
+	{
+		assertThat(PrimitiveArrayPointer.doubles(5).size()).isEqualTo(5 * 8);
+		assertThat(PrimitiveArrayPointer.longs(5).size()).isEqualTo(5 * 8);
+		assertThat(PrimitiveArrayPointer.bytes(5).size()).isEqualTo(5);
+	}
+
+
+	@Test
+	void toDoubleArray_withValues_returnsCorrectValue()
+	{
+		PrimitiveArrayPointer arrayPointer = PrimitiveArrayPointer.doubles(3);
+		double[] values = { 1.5, -2.25, 3e100 };
+		arrayPointer.write(0, values, 0, values.length);
+
+		assertThat(arrayPointer.toDoubleArray(new double[0])).containsExactly(values);
+		assertThat(arrayPointer.getDoubleAt(2)).isEqualTo(3e100);
+	}
+
+
+	@Test
+	void toLongArray_withValues_returnsCorrectValue()
+	{
+		PrimitiveArrayPointer arrayPointer = PrimitiveArrayPointer.longs(3);
+		long[] values = { 1, Long.MIN_VALUE, Long.MAX_VALUE };
+		arrayPointer.write(0, values, 0, values.length);
+
+		assertThat(arrayPointer.toLongArray(new long[0])).containsExactly(values);
+		assertThat(arrayPointer.getLongAt(1)).isEqualTo(Long.MIN_VALUE);
+	}
+
+
+	@Test
+	void toByteArray_withValues_returnsCorrectValue()
+	{
+		PrimitiveArrayPointer arrayPointer = PrimitiveArrayPointer.bytes(3);
+		byte[] values = { 1, -1, 127 };
+		arrayPointer.write(0, values, 0, values.length);
+
+		assertThat(arrayPointer.toByteArray(new byte[0])).containsExactly(values);
+		assertThat(arrayPointer.getByteAt(1)).isEqualTo((byte) -1);
+	}
+
+
+	@Test
+	void toFloatArray_largeEnoughArray_reusesArray()
+	{
+		PrimitiveArrayPointer arrayPointer = PrimitiveArrayPointer.floats(3);
+		float[] array = new float[4];
+		array[3] = 42;
+
+		assertThat(arrayPointer.toFloatArray(array)).isSameAs(array).containsExactly(0, 0, 0, 42);
+	}
+
+
+	@Test
+	void asFloatBuffer_withValues_viewsNativeMemory()
+	{
+		PrimitiveArrayPointer arrayPointer = PrimitiveArrayPointer.floats(3);
+		float[] values = { 5, 4, 3 };
+		arrayPointer.write(0, values, 0, values.length);
+
+		assertThat(arrayPointer.asFloatBuffer().remaining()).isEqualTo(3);
+		assertThat(arrayPointer.asFloatBuffer().get(1)).isEqualTo(4);
+
+		arrayPointer.asFloatBuffer().put(2, 7);
+		assertThat(arrayPointer.getFloatAt(2)).isEqualTo(7);
+	}
+
+
+	@Test
+	void asIntBuffer_calledTwice_sameBufferReset()
+	{
+		PrimitiveArrayPointer arrayPointer = PrimitiveArrayPointer.ints(3);
+		IntBuffer buffer = arrayPointer.asIntBuffer();
+		buffer.get();
+
+		assertThat(arrayPointer.asIntBuffer()).isSameAs(buffer);
+		assertThat(buffer.position()).isZero();
+	}
+
+
+	@Test
+	void asIntBuffer_floatArray_throwsIllegalStateException()
+	{
+		PrimitiveArrayPointer arrayPointer = PrimitiveArrayPointer.floats(5);
+		assertThatThrownBy(() -> arrayPointer.asIntBuffer())
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("Incorrect primitive type: FLOAT != INT");
+	}
+
+
+	@Test
+	void asByteBuffer_anyType_nativeOrderView()
+	{
+		PrimitiveArrayPointer arrayPointer = PrimitiveArrayPointer.doubles(2);
+		arrayPointer.setDouble(8, 2.5);
+
+		ByteBuffer buffer = arrayPointer.asByteBuffer();
+		assertThat(buffer.order()).isEqualTo(ByteOrder.nativeOrder());
+		assertThat(buffer.getDouble(8)).isEqualTo(2.5);
+		assertThat(arrayPointer.asDoubleBuffer().get(1)).isEqualTo(2.5);
+	}
+
+
+	@Test
+	void asByteBuffer_positionMoved_typedViewUnaffected()
+	{
+		PrimitiveArrayPointer arrayPointer = PrimitiveArrayPointer.ints(4);
+		arrayPointer.setInt(0, 3);
+
+		ByteBuffer buffer = arrayPointer.asByteBuffer();
+		buffer.position(8).limit(12);
+
+		IntBuffer view = arrayPointer.asIntBuffer();
+		assertThat(view.remaining()).isEqualTo(4);
+		assertThat(view.get(0)).isEqualTo(3);
+		assertThat(arrayPointer.asByteBuffer()).isNotSameAs(buffer);
+		assertThat(arrayPointer.asByteBuffer().remaining()).isEqualTo(16);
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+class FrameSnapshotTest
+{
+	@Test
+	void of_pointer_allFieldsCopied()
+	{
+		Memory frame = TrackingFrames.create(2, 7);
+
+		TrackingFrames.assertSameFrame(FrameSnapshot.of(frame), new LEAP_TRACKING_EVENT(frame));
+	}
+
+
+	@Test
+	void of_noHands_frameFieldsCopied()
+	{
+		Memory frame = TrackingFrames.create(0, 3);
+		FrameSnapshot snapshot = FrameSnapshot.of(new LEAP_TRACKING_EVENT(frame));
+
+		assertThat(snapshot.getHandCount()).isZero();
+		TrackingFrames.assertSameFrame(snapshot, new LEAP_TRACKING_EVENT(frame));
+	}
+
+
+	@Test
+	void of_view_matchesPointer()
+	{
+		Memory frame = TrackingFrames.create(1, 5);
+		TrackingFrameView view = new TrackingFrameView().wrap(frame);
+
+		TrackingFrames.assertSameFrame(FrameSnapshot.of(view), new LEAP_TRACKING_EVENT(frame));
+	}
+
+
+	@Test
+	void of_nativeMemoryReused_snapshotUnchanged()
+	{
+		Memory frame = TrackingFrames.create(2, 7);
+		LEAP_TRACKING_EVENT expected = new LEAP_TRACKING_EVENT(frame);
+		FrameSnapshot snapshot = FrameSnapshot.of(frame);
+
+		// Simulates LeapC re-using the memory for the next frame.
+		Memory next = TrackingFrames.create(2, 8);
+		frame.write(0, next.getByteArray(0, (int) next.size()), 0, (int) next.size());
+
+		TrackingFrames.assertSameFrame(snapshot, expected);
+	}
+}
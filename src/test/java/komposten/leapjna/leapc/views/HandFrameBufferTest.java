@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+class HandFrameBufferTest
+{
+	@Test
+	void add_frames_sameAsStructure()
+	{
+		HandFrameBuffer buffer = new HandFrameBuffer(3, 2);
+		Memory[] frames = { TrackingFrames.create(2, 1), TrackingFrames.create(0, 2),
+				TrackingFrames.create(1, 3) };
+
+		for (Memory frame : frames)
+			assertThat(buffer.add(frame)).isTrue();
+
+		assertThat(buffer.size()).isEqualTo(3);
+		for (int i = 0; i < frames.length; i++)
+			TrackingFrames.assertSameFrame(buffer, i, new LEAP_TRACKING_EVENT(frames[i]));
+	}
+
+
+	@Test
+	void add_structureAndView_sameAsPointer()
+	{
+		Memory frame = TrackingFrames.create(2, 1);
+		LEAP_TRACKING_EVENT event = new LEAP_TRACKING_EVENT(frame);
+		HandFrameBuffer buffer = new HandFrameBuffer(2, 2);
+
+		buffer.add(event);
+		buffer.add(new TrackingFrameView().wrap(frame));
+
+		TrackingFrames.assertSameFrame(buffer, 0, event);
+		TrackingFrames.assertSameFrame(buffer, 1, event);
+	}
+
+
+	@Test
+	void add_otherBuffer_frameCopied()
+	{
+		Memory first = TrackingFrames.create(1, 1);
+		Memory second = TrackingFrames.create(2, 2);
+		HandFrameBuffer source = new HandFrameBuffer(2, 2);
+		HandFrameBuffer buffer = new HandFrameBuffer(2, 2);
+		source.add(first);
+		source.add(second);
+
+		buffer.add(source, 1);
+		buffer.add(source, 0);
+
+		TrackingFrames.assertSameFrame(buffer, 0, new LEAP_TRACKING_EVENT(second));
+		TrackingFrames.assertSameFrame(buffer, 1, new LEAP_TRACKING_EVENT(first));
+	}
+
+
+	@Test
+	void add_moreHandsThanMax_extraHandsDropped()
+	{
+		Memory frame = TrackingFrames.create(2, 1);
+		HandFrameBuffer buffer = new HandFrameBuffer(1, 1);
+
+		buffer.add(frame);
+
+		assertThat(buffer.getHandCounts()[0]).isEqualTo(1);
+		TrackingFrames.assertSameHand(buffer, 0, 0, new LEAP_TRACKING_EVENT(frame).getHands()[0]);
+	}
+
+
+	@Test
+	void add_full_false()
+	{
+		HandFrameBuffer buffer = new HandFrameBuffer(1, 2);
+		Memory frame = TrackingFrames.create(1, 1);
+
+		assertThat(buffer.add(frame)).isTrue();
+		assertThat(buffer.isFull()).isTrue();
+		assertThat(buffer.add(frame)).isFalse();
+		assertThat(buffer.size()).isEqualTo(1);
+
+		buffer.clear();
+		assertThat(buffer.size()).isZero();
+		assertThat(buffer.add(frame)).isTrue();
+	}
+
+
+	@Test
+	void add_steadyState_noAllocations()
+	{
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		Memory frame = TrackingFrames.create(2, 1);
+		HandFrameBuffer buffer = new HandFrameBuffer(100, 2);
+
+		for (int i = 0; i < 10_000; i++)
+			addFrame(buffer, frame);
+
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 10_000; i++)
+			addFrame(buffer, frame);
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+		// Allow for one-off allocations by the JVM, but not for any per-frame allocations.
+		assertThat(allocated).isLessThan(10_000);
+	}
+
+
+	private static void addFrame(HandFrameBuffer buffer, Memory frame)
+	{
+		if (buffer.isFull())
+			buffer.clear();
+		buffer.add(frame);
+	}
+
+
+	@Test
+	void constructor_invalidSizes_throws()
+	{
+		assertThatThrownBy(() -> new HandFrameBuffer(0, 2))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new HandFrameBuffer(1, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.LogEvents;
+import komposten.leapjna.leapc.data.LEAP_CONNECTION_MESSAGE;
+import komposten.leapjna.leapc.enums.eLeapEventType;
+import komposten.leapjna.leapc.enums.eLeapLogSeverity;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENT;
+import komposten.leapjna.leapc.events.LEAP_LOG_EVENTS;
+
+
+class LogEventCursorTest
+{
+	private static final eLeapLogSeverity[] SEVERITIES = { eLeapLogSeverity.Information,
+			eLeapLogSeverity.Critical, eLeapLogSeverity.Warning };
+	private static final String[] MESSAGES = { "first", "second", "third" };
+
+
+	@Test
+	void size_matchesStructure()
+	{
+		Memory memory = LogEvents.create(SEVERITIES, MESSAGES);
+
+		assertThat(LogEventCursor.SIZE)
+				.isEqualTo(new LEAP_LOG_EVENT(LogEvents.events(memory)).size());
+	}
+
+
+	@Test
+	void next_logEvents_sameAsStructures()
+	{
+		Memory memory = LogEvents.create(SEVERITIES, MESSAGES);
+		LEAP_LOG_EVENT[] expected = new LEAP_LOG_EVENTS(memory).getEvents();
+
+		LogEventCursor cursor = new LogEventCursor().wrapEvents(memory);
+
+		assertThat(cursor.getCount()).isEqualTo(3);
+		for (int i = 0; i < expected.length; i++)
+		{
+			assertThat(cursor.next()).isTrue();
+			assertThat(cursor.getIndex()).isEqualTo(i);
+			assertThat(cursor.getSeverityValue()).isEqualTo(expected[i].severity);
+			assertThat(cursor.getSeverity()).isEqualTo(expected[i].getSeverity());
+			assertThat(cursor.getTimestamp()).isEqualTo(expected[i].timestamp);
+			assertThat(cursor.getMessage()).isEqualTo(expected[i].message);
+		}
+		assertThat(cursor.next()).isFalse();
+	}
+
+
+	@Test
+	void wrap_singleLogEventMessage_oneEvent()
+	{
+		Memory memory = LogEvents.create(SEVERITIES, MESSAGES);
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		message.set(message.size(), eLeapEventType.LogEvent.value,
+				LogEvents.events(memory).share(LogEvents.EVENT_SIZE), 0);
+
+		LogEventCursor cursor = new LogEventCursor().wrap(message);
+
+		assertThat(cursor.next()).isTrue();
+		assertThat(cursor.getMessage()).isEqualTo("second");
+		assertThat(cursor.next()).isFalse();
+	}
+
+
+	@Test
+	void wrap_otherMessageType_throws()
+	{
+		LEAP_CONNECTION_MESSAGE message = new LEAP_CONNECTION_MESSAGE();
+		message.set(message.size(), eLeapEventType.Tracking.value, null, 0);
+
+		assertThatIllegalStateException().isThrownBy(() -> new LogEventCursor().wrap(message));
+	}
+
+
+	@Test
+	void getSeverity_beforeNext_throws()
+	{
+		LogEventCursor cursor = new LogEventCursor()
+				.wrapEvents(LogEvents.create(SEVERITIES, MESSAGES));
+
+		assertThatIllegalStateException().isThrownBy(cursor::getSeverityValue);
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.data.LEAP_HAND;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+/**
+ * Compares reading the palm positions and finger tips of a tracking frame through a
+ * {@link LEAP_TRACKING_EVENT} against a {@link TrackingFrameView}. Run with
+ * <code>mvn -Pbenchmark test -Dbenchmark=TrackingFrameViewBenchmark</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrackingFrameViewBenchmark
+{
+	@Param({ "1", "2" })
+	public int hands;
+
+	private Memory frame;
+	private TrackingFrameView view;
+
+
+	@Setup
+	public void setup()
+	{
+		frame = TrackingFrames.create(hands, 1);
+		view = new TrackingFrameView();
+	}
+
+
+	@Benchmark
+	public float structure()
+	{
+		LEAP_TRACKING_EVENT event = new LEAP_TRACKING_EVENT(frame);
+
+		float sum = 0;
+		for (LEAP_HAND hand : event.getHands())
+		{
+			sum += hand.palm.position.x + hand.palm.position.y + hand.palm.position.z;
+			sum += hand.digits.index.distal.next_joint.x;
+		}
+		return sum;
+	}
+
+
+	@Benchmark
+	public float view()
+	{
+		view.wrap(frame);
+
+		float sum = 0;
+		for (int i = 0; i < view.getHandCount(); i++)
+		{
+			HandView hand = view.getHand(i);
+			VectorView position = hand.getPalm().getPosition();
+			sum += position.getX() + position.getY() + position.getZ();
+			sum += hand.getIndex().getDistal().getNextJoint().getX();
+		}
+		return sum;
+	}
+}
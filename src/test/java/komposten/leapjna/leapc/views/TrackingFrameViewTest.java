@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020-2022 Jakob Hjelm (Komposten)
+ *
+ * This file is part of LeapJna.
+ *
+ * LeapJna is a free Java library: you can use, redistribute it and/or modify
+ * it under the terms of the MIT license as written in the LICENSE file in the root
+ * of this project.
+ */
+package komposten.leapjna.leapc.views;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+
+import komposten.leapjna.leapc.TrackingFrames;
+import komposten.leapjna.leapc.data.LEAP_VECTOR;
+import komposten.leapjna.leapc.events.LEAP_TRACKING_EVENT;
+
+
+class TrackingFrameViewTest
+{
+	@Test
+	void wrap_twoHands_sameAsStructure()
+	{
+		Memory frame = TrackingFrames.create(2, 5);
+
+		TrackingFrameView view = new TrackingFrameView().wrap(frame);
+
+		TrackingFrames.assertSameFrame(view, new LEAP_TRACKING_EVENT(frame));
+	}
+
+
+	@Test
+	void wrap_noHands_sameAsStructure()
+	{
+		Memory frame = TrackingFrames.create(0, 5);
+
+		TrackingFrameView view = new TrackingFrameView().wrap(frame);
+
+		TrackingFrames.assertSameFrame(view, new LEAP_TRACKING_EVENT(frame));
+	}
+
+
+	@Test
+	void wrap_reusedWithDifferentHandCounts_sameAsStructure()
+	{
+		TrackingFrameView view = new TrackingFrameView();
+		view.wrap(TrackingFrames.create(1, 1));
+		HandView firstHand = view.getHand(0);
+
+		Memory frame = TrackingFrames.create(2, 2);
+		view.wrap(frame);
+		TrackingFrames.assertSameFrame(view, new LEAP_TRACKING_EVENT(frame));
+		assertThat(view.getHand(0)).isSameAs(firstHand);
+
+		frame = TrackingFrames.create(1, 3);
+		view.wrap(frame);
+		TrackingFrames.assertSameFrame(view, new LEAP_TRACKING_EVENT(frame));
+	}
+
+
+	@Test
+	void getHand_indexOutOfRange_IndexOutOfBoundsException()
+	{
+		TrackingFrameView view = new TrackingFrameView().wrap(TrackingFrames.create(1, 1));
+
+		assertThatThrownBy(() -> view.getHand(1)).isInstanceOf(IndexOutOfBoundsException.class);
+		assertThatThrownBy(() -> view.getHand(-1))
+				.isInstanceOf(IndexOutOfBoundsException.class);
+	}
+
+
+	@Test
+	void copyTo_vector_componentsCopied()
+	{
+		Memory frame = TrackingFrames.create(1, 1);
+		LEAP_VECTOR expected = new LEAP_TRACKING_EVENT(frame).getHands()[0].palm.velocity;
+
+		float[] actual = new float[4];
+		new TrackingFrameView().wrap(frame).getHand(0).getPalm().getVelocity().copyTo(actual, 1);
+
+		assertThat(actual).containsExactly(0, expected.x, expected.y, expected.z);
+	}
+}